@@ -0,0 +1,57 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jpmc.trade.reporting.engine.DailyTradeReport;
+import com.jpmc.trade.reporting.engine.DailyTradeReporter;
+import com.jpmc.trade.reporting.engine.FixedPointPrecision;
+
+/**
+ * Throughput of the daily reports over a whole generated trade day, one operation is one report.
+ * Run with {@code -prof gc} for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class DailyTradeReporterBenchmark {
+
+	private static final FixedPointPrecision PRECISION = FixedPointPrecision.of(4, 2);
+
+	@Benchmark
+	public Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(TradeDataset dataset) {
+		return DailyTradeReporter.dailyTotalAmountGroupByDate(dataset.tradeEvents, "B");
+	}
+
+	@Benchmark
+	public Map<LocalDate, String> findRankingGroupByDate(TradeDataset dataset) {
+		return DailyTradeReporter.findRankingGroupByDate(dataset.tradeEvents, "B");
+	}
+
+	@Benchmark
+	public DailyTradeReport dailyReport(TradeDataset dataset) {
+		return DailyTradeReporter.dailyReport(dataset.tradeEvents);
+	}
+
+	@Benchmark
+	public DailyTradeReport dailyReportBatch(TradeDataset dataset) {
+		return DailyTradeReporter.dailyReport(dataset.tradeBatch);
+	}
+
+	@Benchmark
+	public DailyTradeReport dailyReportBatchFixedPoint(TradeDataset dataset) {
+		return DailyTradeReporter.dailyReport(dataset.tradeBatch, PRECISION);
+	}
+}
@@ -0,0 +1,55 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.FixedPointPrecision;
+import com.jpmc.trade.reporting.engine.GroupByAggregator;
+import com.jpmc.trade.reporting.engine.GroupDimension;
+import com.jpmc.trade.reporting.engine.SettlementCalendar;
+
+/**
+ * Throughput of three risk views (per currency, per action and stock, per action, date and stock) over the
+ * columnar batch, in one scan and in one scan per view.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class GroupByBenchmark {
+
+	private static final FixedPointPrecision PRECISION = FixedPointPrecision.of(4, 2);
+
+	private static final List<Set<GroupDimension>> VIEWS = ImmutableList.of(
+			EnumSet.of(GroupDimension.CURRENCY),
+			EnumSet.of(GroupDimension.BUY_SELL_INDICATOR, GroupDimension.STOCK_NAME),
+			EnumSet.of(GroupDimension.BUY_SELL_INDICATOR, GroupDimension.SETTLEMENT_DATE, GroupDimension.STOCK_NAME));
+
+	@Benchmark
+	public Object oneScan(TradeDataset dataset) {
+		return new GroupByAggregator(SettlementCalendar.standard(), PRECISION, VIEWS).accept(dataset.tradeBatch)
+				.getResults();
+	}
+
+	@Benchmark
+	public Object scanPerView(TradeDataset dataset) {
+		Object last = null;
+		for (Set<GroupDimension> view : VIEWS) {
+			last = new GroupByAggregator(SettlementCalendar.standard(), PRECISION, ImmutableList.of(view))
+					.accept(dataset.tradeBatch).getResults();
+		}
+		return last;
+	}
+}
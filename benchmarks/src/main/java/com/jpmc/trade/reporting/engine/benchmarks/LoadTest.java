@@ -0,0 +1,155 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.jpmc.trade.reporting.engine.DailyTradeReport;
+import com.jpmc.trade.reporting.engine.DailyTradeReporter;
+import com.jpmc.trade.reporting.engine.LatencyHistogram;
+import com.jpmc.trade.reporting.engine.MappedTradeFileReader;
+import com.jpmc.trade.reporting.engine.TradeBatch;
+import com.jpmc.trade.reporting.engine.TradeEvent;
+import com.jpmc.trade.reporting.engine.TradeGenerator;
+import com.jpmc.trade.reporting.engine.TradeRejectSink;
+import com.jpmc.trade.reporting.engine.TradeTextParser;
+
+/**
+ * End-to-end load test of the daily report at increasing data sizes.
+ *
+ * For every size the {@link TradeGenerator} trades are reported from each form: trade events and a columnar batch
+ * in memory, a text file parsed by {@link TradeTextParser} and a mapped binary trade file. Every report is timed
+ * from the input to the finished report, after warm up runs, and the throughput and latency percentiles of each
+ * form are printed. The first report of every form is checked against the {@link ReferenceTradeReporter}, any
+ * difference fails the run.
+ *
+ * The in-memory forms are skipped above {@code inMemoryLimit} trades, the file forms and the reference stream the
+ * trades and take any size given the disk space. Run from the benchmark jar, arguments are name=value pairs:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/benchmarks.jar com.jpmc.trade.reporting.engine.benchmarks.LoadTest \
+ *     sizes=100000,1000000,10000000 runs=5
+ * </pre>
+ */
+public final class LoadTest {
+
+	private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+	static {
+		DEFAULTS.put("sizes", "100000,1000000,10000000");
+		DEFAULTS.put("runs", "5");
+		DEFAULTS.put("warmups", "2");
+		DEFAULTS.put("seed", "20171201");
+		DEFAULTS.put("entities", "10000");
+		DEFAULTS.put("zipfExponent", "1.1");
+		DEFAULTS.put("weekendShare", "0.4");
+		DEFAULTS.put("inMemoryLimit", "2000000");
+		DEFAULTS.put("check", "true");
+		DEFAULTS.put("dir", System.getProperty("java.io.tmpdir"));
+	}
+
+	private final Map<String, String> settings;
+	private final TradeGenerator generator;
+
+	LoadTest(Map<String, String> settings) {
+		this.settings = settings;
+		this.generator = TradeGenerator.builder()
+				.setSeed(Long.parseLong(settings.get("seed")))
+				.setEntities(Integer.parseInt(settings.get("entities")))
+				.setZipfExponent(Double.parseDouble(settings.get("zipfExponent")))
+				.setWeekendShare(Double.parseDouble(settings.get("weekendShare")))
+				.build();
+	}
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> settings = new LinkedHashMap<>(DEFAULTS);
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator))) {
+				throw new IllegalArgumentException("Expected one of " + DEFAULTS.keySet() + " as name=value: " + arg);
+			}
+			settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		new LoadTest(settings).run();
+	}
+
+	void run() throws IOException {
+		System.out.println(generator);
+		System.out.printf("%12s %-8s %6s %14s %10s %10s %10s %10s%n", "trades", "form", "runs", "trades/s", "p50 ms",
+				"p90 ms", "p99 ms", "max ms");
+		for (String size : settings.get("sizes").split(",")) {
+			run(Long.parseLong(size.trim()));
+		}
+	}
+
+	private void run(long size) throws IOException {
+		ReferenceTradeReporter reference = null;
+		if (Boolean.parseBoolean(settings.get("check"))) {
+			reference = new ReferenceTradeReporter();
+			for (long index = 0; index < size; index++) {
+				reference.accept(generator.tradeEvent(index));
+			}
+		}
+		if (size <= Long.parseLong(settings.get("inMemoryLimit"))) {
+			List<TradeEvent> tradeEvents = generator.generate((int) size);
+			measure(size, "events", reference, () -> DailyTradeReporter.dailyReport(tradeEvents));
+			TradeBatch tradeBatch = generator.generateBatch((int) size);
+			measure(size, "batch", reference, () -> DailyTradeReporter.dailyReport(tradeBatch));
+		}
+		Path directory = Paths.get(settings.get("dir"));
+		Path text = Files.createTempFile(directory, "load-test-", ".csv");
+		Path binary = Files.createTempFile(directory, "load-test-", ".trades");
+		try {
+			generator.writeText(text, size);
+			measure(size, "text", reference, () -> TradeTextParser.aggregate(text, TradeRejectSink.IGNORE));
+			generator.writeBinary(binary, size);
+			measure(size, "binary", reference, () -> MappedTradeFileReader.aggregate(binary));
+		} finally {
+			Files.deleteIfExists(text);
+			Files.deleteIfExists(binary);
+		}
+	}
+
+	private void measure(long size, String form, ReferenceTradeReporter reference, Report report)
+			throws IOException {
+		int warmups = Integer.parseInt(settings.get("warmups"));
+		int runs = Integer.parseInt(settings.get("runs"));
+		LatencyHistogram latencies = new LatencyHistogram();
+		for (int run = 0; run < warmups + runs; run++) {
+			long start = System.nanoTime();
+			DailyTradeReport result = report.run();
+			long nanos = System.nanoTime() - start;
+			if (run == 0 && reference != null) {
+				List<String> differences = reference.compare(result);
+				if (!differences.isEmpty()) {
+					throw new IllegalStateException(form + " report of " + size + " trades differs from the reference: "
+							+ differences.subList(0, Math.min(10, differences.size())));
+				}
+			}
+			if (run >= warmups) {
+				latencies.record(nanos);
+			}
+		}
+		double seconds = latencies.getMeanNanos() / TimeUnit.SECONDS.toNanos(1);
+		System.out.printf("%12d %-8s %6d %14.0f %10.1f %10.1f %10.1f %10.1f%n", size, form, runs, size / seconds,
+				millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+				millis(latencies.getValueAtPercentile(99)), millis(latencies.getMaxNanos()));
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	/**
+	 * One end-to-end report over a form of the trades.
+	 */
+	@FunctionalInterface
+	private interface Report {
+		DailyTradeReport run() throws IOException;
+	}
+}
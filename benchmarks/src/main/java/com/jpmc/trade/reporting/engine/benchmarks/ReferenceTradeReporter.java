@@ -0,0 +1,108 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.jpmc.trade.reporting.engine.DailySummary;
+import com.jpmc.trade.reporting.engine.DailyTradeReport;
+import com.jpmc.trade.reporting.engine.TradeEvent;
+
+/**
+ * Deliberately naive daily report the load test checks the engine against.
+ *
+ * Shares no code with the engine: settlement dates are moved a day at a time past the standard weekends (Friday /
+ * Saturday for AED and SAR, Saturday / Sunday otherwise), amounts are plain BigDecimal products and every entity
+ * total of every date is kept in a map. Slow but obviously right.
+ */
+final class ReferenceTradeReporter {
+
+	/**
+	 * Action to settlement date to stock name to total amount.
+	 */
+	private final Map<String, Map<LocalDate, Map<String, BigDecimal>>> entityTotals = new HashMap<>();
+	private final Map<String, Map<LocalDate, Long>> tradeCounts = new HashMap<>();
+
+	void accept(TradeEvent tradeEvent) {
+		if (!tradeEvent.getBuySellIndicator().isPresent() || !tradeEvent.getSettlementDate().isPresent()) {
+			return;
+		}
+		String action = tradeEvent.getBuySellIndicator().get().toUpperCase(Locale.ROOT);
+		LocalDate date = tradeEvent.getSettlementDate().get();
+		String currencyCode = tradeEvent.getCurrency().isPresent() ? tradeEvent.getCurrency().get().getCurrencyCode()
+				: "";
+		while (isWeekend(currencyCode, date.getDayOfWeek())) {
+			date = date.plusDays(1);
+		}
+		BigDecimal amount = tradeEvent.getAgreedFx().orElse(BigDecimal.ZERO)
+				.multiply(BigDecimal.valueOf(tradeEvent.getUnits().orElse(0)))
+				.multiply(tradeEvent.getPricePerUnit().orElse(BigDecimal.ZERO));
+		entityTotals.computeIfAbsent(action, key -> new TreeMap<>())
+				.computeIfAbsent(date, key -> new HashMap<>())
+				.merge(tradeEvent.getStockName().orElse(""), amount, BigDecimal::add);
+		tradeCounts.computeIfAbsent(action, key -> new TreeMap<>()).merge(date, 1L, Long::sum);
+	}
+
+	/**
+	 * @return the differences between the engine report and this one, empty if they agree
+	 */
+	List<String> compare(DailyTradeReport report) {
+		List<String> differences = new ArrayList<>();
+		for (String action : entityTotals.keySet()) {
+			if (!report.getBuySellIndicators().contains(action)) {
+				differences.add("Action " + action + " missing");
+				continue;
+			}
+			Map<LocalDate, DailySummary> summaries = report.getSummaries(action);
+			if (!summaries.keySet().equals(entityTotals.get(action).keySet())) {
+				differences.add(action + " dates " + new TreeMap<>(summaries).keySet() + " instead of "
+						+ entityTotals.get(action).keySet());
+				continue;
+			}
+			for (Map.Entry<LocalDate, Map<String, BigDecimal>> entry : entityTotals.get(action).entrySet()) {
+				DailySummary summary = summaries.get(entry.getKey());
+				BigDecimal total = BigDecimal.ZERO;
+				String topStockName = null;
+				BigDecimal topAmount = null;
+				for (Map.Entry<String, BigDecimal> entity : entry.getValue().entrySet()) {
+					total = total.add(entity.getValue());
+					int order = topAmount == null ? 1 : entity.getValue().compareTo(topAmount);
+					if (order > 0 || order == 0 && entity.getKey().compareTo(topStockName) < 0) {
+						topStockName = entity.getKey();
+						topAmount = entity.getValue();
+					}
+				}
+				String where = action + " " + entry.getKey() + ": ";
+				if (summary.getTotalAmount().compareTo(total) != 0) {
+					differences.add(where + "total " + summary.getTotalAmount() + " instead of " + total);
+				}
+				if (!summary.getTopStockName().equals(topStockName)) {
+					differences.add(where + "top stock " + summary.getTopStockName() + " instead of " + topStockName);
+				}
+				long tradeCount = tradeCounts.get(action).get(entry.getKey());
+				if (summary.getTradeCount() != tradeCount) {
+					differences.add(where + "trade count " + summary.getTradeCount() + " instead of " + tradeCount);
+				}
+			}
+		}
+		for (String action : report.getBuySellIndicators()) {
+			if (!entityTotals.containsKey(action) && !report.getSummaries(action).isEmpty()) {
+				differences.add("Unexpected action " + action);
+			}
+		}
+		return differences;
+	}
+
+	private static boolean isWeekend(String currencyCode, DayOfWeek day) {
+		if (currencyCode.equals("AED") || currencyCode.equals("SAR")) {
+			return day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY;
+		}
+		return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+	}
+}
@@ -0,0 +1,87 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jpmc.trade.reporting.engine.GroupByAggregator;
+import com.jpmc.trade.reporting.engine.GroupByResult;
+import com.jpmc.trade.reporting.engine.GroupDimension;
+import com.jpmc.trade.reporting.engine.GroupSummary;
+import com.jpmc.trade.reporting.engine.ReportExporter;
+import com.jpmc.trade.reporting.engine.ReportFormat;
+
+/**
+ * Time to export the groups per action, date and stock of the dataset, through the report writers and, as baseline,
+ * as a string concatenated per row into a buffered writer.
+ *
+ * The baseline flatters itself: a BigDecimal caches its string, so its totals are formatted on the first invocation
+ * only. Compare the allocation with -prof gc as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+@State(Scope.Benchmark)
+public class ReportExportBenchmark {
+
+	@Param({ "BINARY", "CSV", "JSON" })
+	public ReportFormat format;
+
+	private GroupByResult groups;
+	private Path file;
+
+	@Setup(Level.Trial)
+	public void setUp(TradeDataset dataset) throws IOException {
+		Set<GroupDimension> dimensions = EnumSet.of(GroupDimension.BUY_SELL_INDICATOR,
+				GroupDimension.SETTLEMENT_DATE, GroupDimension.STOCK_NAME);
+		groups = new GroupByAggregator(dimensions).accept(dataset.tradeBatch)
+				.getResult(dimensions.toArray(new GroupDimension[0]));
+		file = Files.createTempFile("report-export", "." + format.name().toLowerCase(Locale.ROOT));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public long export() throws IOException {
+		return ReportExporter.exportGroupBy(groups, format, file);
+	}
+
+	@Benchmark
+	public long concatenatedLines() throws IOException {
+		long rows = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (GroupSummary summary : groups.getSummaries().values()) {
+				writer.write(summary.getKey().getBuySellIndicator().get() + "," + summary.getKey().getSettlementDate()
+						.get() + "," + summary.getKey().getStockName().get() + "," + summary.getTotalAmount() + ","
+						+ summary.getTradeCount() + "\n");
+				rows++;
+			}
+		}
+		return rows;
+	}
+}
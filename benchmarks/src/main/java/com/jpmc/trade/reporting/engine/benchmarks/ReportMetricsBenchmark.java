@@ -0,0 +1,49 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jpmc.trade.reporting.engine.DailyTradeAggregator;
+import com.jpmc.trade.reporting.engine.DailyTradeReport;
+import com.jpmc.trade.reporting.engine.ReportMetrics;
+
+/**
+ * Overhead of the report metrics: the same daily report uninstrumented, i.e. with metrics disabled, and recording
+ * into enabled metrics that time one trade out of 64.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ReportMetricsBenchmark {
+
+	private static final ReportMetrics METRICS = new ReportMetrics();
+
+	@Benchmark
+	public DailyTradeReport disabled(TradeDataset dataset) {
+		return new DailyTradeAggregator().instrument(null).acceptAll(dataset.tradeEvents).toReport();
+	}
+
+	@Benchmark
+	public DailyTradeReport enabled(TradeDataset dataset) {
+		return new DailyTradeAggregator().instrument(METRICS).acceptAll(dataset.tradeEvents).toReport();
+	}
+
+	@Benchmark
+	public DailyTradeReport disabledBatch(TradeDataset dataset) {
+		return new DailyTradeAggregator().instrument(null).accept(dataset.tradeBatch).toReport();
+	}
+
+	@Benchmark
+	public DailyTradeReport enabledBatch(TradeDataset dataset) {
+		return new DailyTradeAggregator().instrument(METRICS).accept(dataset.tradeBatch).toReport();
+	}
+}
@@ -0,0 +1,45 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jpmc.trade.reporting.engine.SettlementCalendar;
+
+/**
+ * Throughput of moving every settlement date of a generated trade day to its next working day,
+ * one operation is the whole day.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class SettlementAdjustmentBenchmark {
+
+	private static final SettlementCalendar CALENDAR = SettlementCalendar.standard();
+
+	@Benchmark
+	public void nextWorkingDay(TradeDataset dataset, Blackhole blackhole) {
+		LocalDate[] settlementDates = dataset.settlementDates;
+		for (int index = 0; index < settlementDates.length; index++) {
+			blackhole.consume(CALENDAR.nextWorkingDay(dataset.tradeCurrencies[index], settlementDates[index]));
+		}
+	}
+
+	@Benchmark
+	public void nextWorkingEpochDay(TradeDataset dataset, Blackhole blackhole) {
+		int[] settlementEpochDays = dataset.settlementEpochDays;
+		for (int index = 0; index < settlementEpochDays.length; index++) {
+			blackhole.consume(CALENDAR.nextWorkingEpochDay(dataset.tradeCurrencies[index], settlementEpochDays[index]));
+		}
+	}
+}
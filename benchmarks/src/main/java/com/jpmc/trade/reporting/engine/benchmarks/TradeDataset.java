@@ -0,0 +1,104 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jpmc.trade.reporting.engine.TradeBatch;
+import com.jpmc.trade.reporting.engine.TradeEvent;
+
+/**
+ * Generated trade day shared by the benchmarks of one trial.
+ *
+ * The trades are random but seeded, so every run and every benchmark sees the same dataset for the same parameters.
+ * Settlement dates are spread uniformly over consecutive calendar days, weekends included, so a share of the trades
+ * needs moving to the next working day.
+ */
+@State(Scope.Benchmark)
+public class TradeDataset {
+
+	static final LocalDate FIRST_SETTLEMENT_DATE = LocalDate.of(2017, 12, 1);
+
+	private static final long SEED = 20171201L;
+
+	/**
+	 * Number of trades.
+	 */
+	@Param({ "10000", "100000" })
+	public int size;
+
+	/**
+	 * Number of consecutive calendar days the settlement dates are spread over.
+	 */
+	@Param({ "30" })
+	public int dateSpread;
+
+	/**
+	 * Comma separated currencies, picked uniformly per trade.
+	 */
+	@Param({ "USD,GBP,AED,SAR" })
+	public String currencies;
+
+	/**
+	 * Number of distinct stock names.
+	 */
+	@Param({ "500" })
+	public int entities;
+
+	List<TradeEvent> tradeEvents;
+	TradeBatch tradeBatch;
+	Currency[] tradeCurrencies;
+	LocalDate[] settlementDates;
+	int[] settlementEpochDays;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		Random random = new Random(SEED);
+		Currency[] currencyMix = parseCurrencies(currencies);
+		String[] stockNames = new String[entities];
+		for (int entity = 0; entity < entities; entity++) {
+			stockNames[entity] = "E" + entity;
+		}
+		tradeEvents = new ArrayList<>(size);
+		tradeCurrencies = new Currency[size];
+		settlementDates = new LocalDate[size];
+		settlementEpochDays = new int[size];
+		for (int index = 0; index < size; index++) {
+			Currency currency = currencyMix[random.nextInt(currencyMix.length)];
+			LocalDate settlementDate = FIRST_SETTLEMENT_DATE.plusDays(random.nextInt(dateSpread));
+			tradeCurrencies[index] = currency;
+			settlementDates[index] = settlementDate;
+			settlementEpochDays[index] = (int) settlementDate.toEpochDay();
+			tradeEvents.add(TradeEvent.tradeEvent()
+					.setStockName(Optional.of(stockNames[random.nextInt(entities)]))
+					.setBuySellIndicator(Optional.of(random.nextBoolean() ? "B" : "S"))
+					.setInstructionDate(Optional.of(settlementDate.minusDays(1)))
+					.setSettlementDate(Optional.of(settlementDate))
+					.setCurrency(Optional.of(currency))
+					.setAgreedFx(Optional.of(BigDecimal.valueOf(1 + random.nextInt(9999), 4)))
+					.setUnits(Optional.of(1 + random.nextInt(1000)))
+					.setPricePerUnit(Optional.of(BigDecimal.valueOf(1 + random.nextInt(100000), 2)))
+					.build());
+		}
+		tradeBatch = TradeBatch.of(tradeEvents);
+	}
+
+	private static Currency[] parseCurrencies(String currencies) {
+		String[] codes = currencies.split(",");
+		Currency[] parsed = new Currency[codes.length];
+		for (int index = 0; index < codes.length; index++) {
+			parsed[index] = Currency.getInstance(codes[index].trim());
+		}
+		return parsed;
+	}
+}
@@ -0,0 +1,62 @@
+package com.jpmc.trade.reporting.engine.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jpmc.trade.reporting.engine.TradeDeduplicator;
+import com.jpmc.trade.reporting.engine.TradeEvent;
+
+/**
+ * Throughput of dropping a full replay of a generated trade day, one operation is the day sent twice.
+ *
+ * Both sends are freshly decoded trade events, as a replay arrives: every trade pays for its fingerprint and the
+ * replayed ones for the equality check, none reuses a hash cached by an earlier pass or operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class TradeDeduplicatorBenchmark {
+
+	/**
+	 * The two sends of the day, decoded again before every operation.
+	 */
+	@State(Scope.Thread)
+	public static class Sends {
+		List<TradeEvent> original;
+		List<TradeEvent> replay;
+
+		@Setup(Level.Invocation)
+		public void decode(TradeDataset dataset) {
+			original = dataset.tradeBatch.toTradeEvents();
+			replay = dataset.tradeBatch.toTradeEvents();
+		}
+	}
+
+	@Benchmark
+	public long dropReplay(Sends sends) {
+		TradeDeduplicator deduplicator = new TradeDeduplicator();
+		send(deduplicator, sends.original);
+		send(deduplicator, sends.replay);
+		return deduplicator.getDuplicateCount();
+	}
+
+	private static void send(TradeDeduplicator deduplicator, List<TradeEvent> tradeEvents) {
+		for (int index = 0; index < tradeEvents.size(); index++) {
+			deduplicator.test(tradeEvents.get(index));
+		}
+	}
+}
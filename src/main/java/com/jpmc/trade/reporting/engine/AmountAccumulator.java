@@ -0,0 +1,90 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable running sum of amounts.
+ *
+ * In fixed point mode the sum is an unscaled long of a fixed scale and adding allocates nothing. When a sum
+ * overflows the long it moves to a BigDecimal for good. In decimal mode the sum is a BigDecimal from the start,
+ * with the same scales as adding the amounts to {@link BigDecimal#ZERO}. Not thread safe.
+ */
+final class AmountAccumulator {
+
+	private final int scale;
+	private long unscaled;
+	/**
+	 * Null while the sum fits the long of a fixed point accumulator.
+	 */
+	private BigDecimal decimal;
+
+	private AmountAccumulator(int scale, BigDecimal decimal) {
+		this.scale = scale;
+		this.decimal = decimal;
+	}
+
+	/**
+	 * @return a BigDecimal accumulator if precision is null, else a fixed point one at its amount scale
+	 */
+	static AmountAccumulator of(FixedPointPrecision precision) {
+		return precision == null ? new AmountAccumulator(0, BigDecimal.ZERO)
+				: new AmountAccumulator(precision.getAmountScale(), null);
+	}
+
+	/**
+	 * @return a fixed point accumulator of the given scale
+	 */
+	static AmountAccumulator ofScale(int scale) {
+		return new AmountAccumulator(scale, null);
+	}
+
+	/**
+	 * Adds an amount unscaled to the scale of this fixed point accumulator.
+	 */
+	void add(long unscaledAmount) {
+		if (decimal != null) {
+			decimal = decimal.add(BigDecimal.valueOf(unscaledAmount, scale));
+			return;
+		}
+		long sum = unscaled + unscaledAmount;
+		if (((unscaled ^ sum) & (unscaledAmount ^ sum)) < 0) {
+			decimal = BigDecimal.valueOf(unscaled, scale).add(BigDecimal.valueOf(unscaledAmount, scale));
+		} else {
+			unscaled = sum;
+		}
+	}
+
+	/**
+	 * Adds the amount unscaled / 10^amountScale, allocation free when it has the scale of this accumulator.
+	 */
+	void addScaled(long unscaledAmount, int amountScale) {
+		if (amountScale == scale) {
+			add(unscaledAmount);
+		} else {
+			add(BigDecimal.valueOf(unscaledAmount, amountScale));
+		}
+	}
+
+	/**
+	 * Adds an amount, a fixed point accumulator stays on its long if the amount has its scale and fits a long.
+	 */
+	void add(BigDecimal amount) {
+		if (decimal == null && amount.scale() == scale && amount.unscaledValue().bitLength() < Long.SIZE) {
+			add(amount.unscaledValue().longValue());
+		} else {
+			decimal = decimal == null ? BigDecimal.valueOf(unscaled, scale).add(amount) : decimal.add(amount);
+		}
+	}
+
+	void add(AmountAccumulator other) {
+		if (other.decimal == null && other.scale == scale) {
+			add(other.unscaled);
+		} else {
+			add(other.toBigDecimal());
+		}
+	}
+
+	BigDecimal toBigDecimal() {
+		return decimal == null ? BigDecimal.valueOf(unscaled, scale) : decimal;
+	}
+}
@@ -0,0 +1,122 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Approximate figures of one action (BUY / SELL) over one or more working settlement dates: exact total amount and
+ * trade count, estimated top entities and distinct entity count.
+ *
+ * Summaries of the same {@link SketchAccuracy} merge into the summary of their combined dates, see
+ * {@link #merge(ApproximateSummary)}. Immutable.
+ */
+public final class ApproximateSummary {
+
+	private final LocalDate firstSettlementDate;
+	private final LocalDate lastSettlementDate;
+	private final BigDecimal totalAmount;
+	private final long tradeCount;
+	private final long unrankedTradeCount;
+	private final HeavyHitters topEntities;
+	private final HyperLogLog distinctEntities;
+
+	/**
+	 * @param topEntities owned by the summary from now on
+	 * @param distinctEntities owned by the summary from now on
+	 */
+	ApproximateSummary(LocalDate firstSettlementDate, LocalDate lastSettlementDate, BigDecimal totalAmount,
+			long tradeCount, long unrankedTradeCount, HeavyHitters topEntities, HyperLogLog distinctEntities) {
+		this.firstSettlementDate = firstSettlementDate;
+		this.lastSettlementDate = lastSettlementDate;
+		this.totalAmount = totalAmount;
+		this.tradeCount = tradeCount;
+		this.unrankedTradeCount = unrankedTradeCount;
+		this.topEntities = topEntities;
+		this.distinctEntities = distinctEntities;
+	}
+
+	/**
+	 * @return the first working settlement date summarised
+	 */
+	public LocalDate getFirstSettlementDate() {
+		return firstSettlementDate;
+	}
+
+	/**
+	 * @return the last working settlement date summarised, the first one for a single date
+	 */
+	public LocalDate getLastSettlementDate() {
+		return lastSettlementDate;
+	}
+
+	/**
+	 * @return the exact total amount
+	 */
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	public long getTradeCount() {
+		return tradeCount;
+	}
+
+	/**
+	 * @return the number of trades with a negative amount, in the total amount and trade count but not in the
+	 *         ranking, the sketches only sum amounts that are not negative
+	 */
+	public long getUnrankedTradeCount() {
+		return unrankedTradeCount;
+	}
+
+	/**
+	 * @return the stock name with the highest estimated amount, null if no trade could be ranked
+	 */
+	public String getTopStockName() {
+		List<RankedEntity> top = topEntities.top(1);
+		return top.isEmpty() ? null : top.get(0).getStockName();
+	}
+
+	/**
+	 * @return the n entities with the highest estimated amounts, best first, ties ordered by stock name
+	 * @throws IllegalArgumentException if n is above the {@link SketchAccuracy#getTopEntities() top entities} kept
+	 */
+	public List<RankedEntity> getTopEntities(int n) {
+		return topEntities.top(n);
+	}
+
+	/**
+	 * @return the estimated summed amount of any entity, never below the exact one
+	 */
+	public BigDecimal getEstimatedAmount(String stockName) {
+		return BigDecimal.valueOf(topEntities.estimate(stockName));
+	}
+
+	/**
+	 * @return the estimated number of distinct entities
+	 */
+	public long getDistinctEntities() {
+		return distinctEntities.estimate();
+	}
+
+	/**
+	 * @return the summary of the dates of both summaries, this one and the other are left untouched
+	 * @throws IllegalArgumentException if the summaries were built with different accuracies
+	 */
+	public ApproximateSummary merge(ApproximateSummary other) {
+		return new ApproximateSummary(
+				firstSettlementDate.isBefore(other.firstSettlementDate) ? firstSettlementDate
+						: other.firstSettlementDate,
+				lastSettlementDate.isAfter(other.lastSettlementDate) ? lastSettlementDate : other.lastSettlementDate,
+				totalAmount.add(other.totalAmount), tradeCount + other.tradeCount,
+				unrankedTradeCount + other.unrankedTradeCount,
+				topEntities.copy().merge(other.topEntities), distinctEntities.copy().merge(other.distinctEntities));
+	}
+
+	@Override
+	public String toString() {
+		return "ApproximateSummary[settlementDates=" + firstSettlementDate + ".." + lastSettlementDate
+				+ ",totalAmount=" + totalAmount + ",tradeCount=" + tradeCount + ",distinctEntities="
+				+ getDistinctEntities() + "]";
+	}
+}
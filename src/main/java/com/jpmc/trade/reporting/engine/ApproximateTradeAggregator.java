@@ -0,0 +1,206 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single pass aggregation into bounded memory per action and working settlement date, for rankings over very many
+ * entities.
+ *
+ * Same rules as {@link DailyTradeAggregator}, totals and trade counts stay exact, but the per entity totals are
+ * replaced by a {@link HeavyHitters} sketch for the top entities and a {@link HyperLogLog} for the distinct entity
+ * count, sized by a {@link SketchAccuracy}. Memory grows with the number of dates, not of entities. Entity amounts
+ * are sketched as doubles and cannot be negative: a trade with a negative amount, e.g. a negative price or fx, counts
+ * in the totals and the distinct entities but is left out of the ranking, see
+ * {@link ApproximateSummary#getUnrankedTradeCount()}.
+ *
+ * Not thread safe, use one instance per thread and {@link #merge(ApproximateTradeAggregator)} the partial results.
+ */
+public class ApproximateTradeAggregator {
+
+	private final SettlementCalendar settlementCalendar;
+	private final SketchAccuracy accuracy;
+
+	/**
+	 * Buckets per action keyed by working settlement epoch day.
+	 */
+	private final Map<String, IntObjectHashMap<DateSketch>> bucketsByAction = new HashMap<>();
+
+	/**
+	 * Raw indicator (e.g. "b") to its normalised buckets, saves the upper casing per trade.
+	 */
+	private final Map<String, IntObjectHashMap<DateSketch>> bucketsByRawAction = new HashMap<>();
+
+	public ApproximateTradeAggregator(SketchAccuracy accuracy) {
+		this(SettlementCalendar.standard(), accuracy);
+	}
+
+	public ApproximateTradeAggregator(SettlementCalendar settlementCalendar, SketchAccuracy accuracy) {
+		this.settlementCalendar = settlementCalendar;
+		this.accuracy = accuracy;
+	}
+
+	/**
+	 * Aggregates the trades in one pass with the standard settlement calendar.
+	 */
+	public static ApproximateTradeReport aggregate(Collection<TradeEvent> tradeEvents, SketchAccuracy accuracy) {
+		ApproximateTradeAggregator aggregator = new ApproximateTradeAggregator(accuracy);
+		for (TradeEvent tradeEvent : tradeEvents) {
+			aggregator.accept(tradeEvent);
+		}
+		return aggregator.toReport();
+	}
+
+	/**
+	 * Folds the trade into its action / date sketches.
+	 * Trades without action or settlement date are skipped, missing units, price or fx count as zero amount.
+	 */
+	public ApproximateTradeAggregator accept(TradeEvent tradeEvent) {
+		if (!tradeEvent.getBuySellIndicator().isPresent() || !tradeEvent.getSettlementDate().isPresent()) {
+			return this;
+		}
+		bucketFor(tradeEvent.getBuySellIndicator().get(),
+				(int) DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar).toEpochDay())
+				.add(tradeEvent.getStockName().orElse(""), DailyTradeAggregator.amount(tradeEvent));
+		return this;
+	}
+
+	/**
+	 * Folds a decoded record, same rules as {@link #accept(TradeEvent)}.
+	 */
+	public ApproximateTradeAggregator accept(TradeRecord record) {
+		if (!record.has(TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+			return this;
+		}
+		int presence = record.getPresence();
+		bucketFor(record.getBuySellIndicator(),
+				settlementCalendar.nextWorkingEpochDay(record.getCurrency(), record.getSettlementEpochDay()))
+				.add((presence & TradeRecord.STOCK_NAME) != 0 ? record.getStockName() : "",
+						DailyTradeAggregator.amount(presence, record.getAgreedFxUnscaled(), record.getAgreedFxScale(),
+								record.getUnits(), record.getPricePerUnitUnscaled(), record.getPricePerUnitScale()));
+		return this;
+	}
+
+	/**
+	 * Folds every row of the batch, reading the columns directly.
+	 */
+	public ApproximateTradeAggregator accept(TradeBatch tradeBatch) {
+		String[] stockNames = tradeBatch.stockNames();
+		String[] buySellIndicators = tradeBatch.buySellIndicators();
+		WorkingDayCalendar[] calendars = settlementCalendar.calendarsFor(tradeBatch.currencies());
+		WorkingDayCalendar defaultCalendar = settlementCalendar.calendarFor(null);
+		for (int row = 0; row < tradeBatch.size(); row++) {
+			int presence = tradeBatch.presence(row);
+			if ((presence & (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE))
+					!= (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+				continue;
+			}
+			WorkingDayCalendar calendar = (presence & TradeRecord.CURRENCY) != 0
+					? calendars[tradeBatch.currencyId(row)] : defaultCalendar;
+			bucketFor(buySellIndicators[tradeBatch.buySellIndicatorId(row)],
+					calendar.nextWorkingEpochDay(tradeBatch.settlementEpochDay(row)))
+					.add((presence & TradeRecord.STOCK_NAME) != 0 ? stockNames[tradeBatch.stockNameId(row)] : "",
+							DailyTradeAggregator.amount(presence, tradeBatch.agreedFxUnscaled(row),
+									tradeBatch.agreedFxScale(row), tradeBatch.units(row),
+									tradeBatch.pricePerUnitUnscaled(row), tradeBatch.pricePerUnitScale(row)));
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the partial result of another aggregator, e.g. of another partition. The other aggregator is left
+	 * untouched.
+	 *
+	 * @throws IllegalArgumentException if the aggregators have different accuracies
+	 */
+	public ApproximateTradeAggregator merge(ApproximateTradeAggregator other) {
+		if (!accuracy.equals(other.accuracy)) {
+			throw new IllegalArgumentException("cannot merge " + other.accuracy + " sketches into " + accuracy);
+		}
+		other.bucketsByAction.forEach((action, otherBuckets) -> {
+			IntObjectHashMap<DateSketch> buckets = bucketsByAction.computeIfAbsent(action,
+					key -> new IntObjectHashMap<>());
+			otherBuckets.forEach((epochDay, otherBucket) -> bucket(buckets, epochDay).merge(otherBucket));
+		});
+		return this;
+	}
+
+	/**
+	 * Builds the report on copies of the sketches, the aggregator can go on accepting trades.
+	 */
+	public ApproximateTradeReport toReport() {
+		Map<String, Map<LocalDate, ApproximateSummary>> summariesByAction = new HashMap<>();
+		bucketsByAction.forEach((action, buckets) -> {
+			Map<LocalDate, ApproximateSummary> summaries = new HashMap<>();
+			buckets.forEach((epochDay, bucket) -> {
+				LocalDate date = LocalDate.ofEpochDay(epochDay);
+				summaries.put(date, bucket.toSummary(date));
+			});
+			summariesByAction.put(action, summaries);
+		});
+		return new ApproximateTradeReport(accuracy, summariesByAction);
+	}
+
+	private DateSketch bucketFor(String buySellIndicator, int settlementEpochDay) {
+		IntObjectHashMap<DateSketch> buckets = bucketsByRawAction.get(buySellIndicator);
+		if (buckets == null) {
+			buckets = bucketsByAction.computeIfAbsent(DailyTradeReport.actionKey(buySellIndicator),
+					key -> new IntObjectHashMap<>());
+			bucketsByRawAction.put(buySellIndicator, buckets);
+		}
+		return bucket(buckets, settlementEpochDay);
+	}
+
+	private DateSketch bucket(IntObjectHashMap<DateSketch> buckets, int settlementEpochDay) {
+		DateSketch bucket = buckets.get(settlementEpochDay);
+		if (bucket == null) {
+			bucket = new DateSketch(accuracy);
+			buckets.put(settlementEpochDay, bucket);
+		}
+		return bucket;
+	}
+
+	/**
+	 * Running figures of one action on one date.
+	 */
+	private static final class DateSketch {
+		private final AmountAccumulator totalAmount = AmountAccumulator.of(null);
+		private long tradeCount;
+		private long unrankedTradeCount;
+		private final HeavyHitters topEntities;
+		private final HyperLogLog distinctEntities;
+
+		DateSketch(SketchAccuracy accuracy) {
+			this.topEntities = accuracy.newHeavyHitters();
+			this.distinctEntities = accuracy.newHyperLogLog();
+		}
+
+		void add(String stockName, BigDecimal amount) {
+			totalAmount.add(amount);
+			tradeCount++;
+			long hash = SketchHashing.hash(stockName);
+			if (amount.signum() < 0) {
+				unrankedTradeCount++;
+			} else {
+				topEntities.add(stockName, hash, amount.doubleValue());
+			}
+			distinctEntities.add(hash);
+		}
+
+		void merge(DateSketch other) {
+			totalAmount.add(other.totalAmount);
+			tradeCount += other.tradeCount;
+			unrankedTradeCount += other.unrankedTradeCount;
+			topEntities.merge(other.topEntities);
+			distinctEntities.merge(other.distinctEntities);
+		}
+
+		ApproximateSummary toSummary(LocalDate settlementDate) {
+			return new ApproximateSummary(settlementDate, settlementDate, totalAmount.toBigDecimal(), tradeCount,
+					unrankedTradeCount, topEntities.copy(), distinctEntities.copy());
+		}
+	}
+}
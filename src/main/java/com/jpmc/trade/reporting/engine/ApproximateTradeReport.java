@@ -0,0 +1,97 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Result of one {@link ApproximateTradeAggregator} pass: per action (BUY / SELL) and working settlement date the
+ * exact totals and the sketched rankings and distinct entity counts.
+ *
+ * Actions are matched ignoring case, same as {@link DailyTradeReport}.
+ */
+public final class ApproximateTradeReport {
+
+	private final SketchAccuracy accuracy;
+	private final Map<String, Map<LocalDate, ApproximateSummary>> summariesByAction;
+
+	ApproximateTradeReport(SketchAccuracy accuracy, Map<String, Map<LocalDate, ApproximateSummary>> summariesByAction) {
+		this.accuracy = accuracy;
+		this.summariesByAction = summariesByAction;
+	}
+
+	public SketchAccuracy getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * @return the actions present in the report, upper cased
+	 */
+	public Set<String> getBuySellIndicators() {
+		return Collections.unmodifiableSet(summariesByAction.keySet());
+	}
+
+	/**
+	 * @return the summaries of the action keyed by working settlement date, empty if action is unknown
+	 */
+	public Map<LocalDate, ApproximateSummary> getSummaries(String buySellIndicator) {
+		Map<LocalDate, ApproximateSummary> summaries = summariesByAction
+				.get(DailyTradeReport.actionKey(buySellIndicator));
+		return summaries == null ? Collections.<LocalDate, ApproximateSummary>emptyMap()
+				: Collections.unmodifiableMap(summaries);
+	}
+
+	/**
+	 * @return the dates from first to last inclusive merged into one summary, null if the action has no date there
+	 */
+	public ApproximateSummary getSummary(String buySellIndicator, LocalDate firstDate, LocalDate lastDate) {
+		ApproximateSummary merged = null;
+		for (Map.Entry<LocalDate, ApproximateSummary> entry : new TreeMap<>(getSummaries(buySellIndicator)).entrySet()) {
+			if (!entry.getKey().isBefore(firstDate) && !entry.getKey().isAfter(lastDate)) {
+				merged = merged == null ? entry.getValue() : merged.merge(entry.getValue());
+			}
+		}
+		return merged;
+	}
+
+	public Map<LocalDate, BigDecimal> getTotalAmountByDate(String buySellIndicator) {
+		Map<LocalDate, BigDecimal> totalByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> totalByDate.put(date, summary.getTotalAmount()));
+		return totalByDate;
+	}
+
+	public Map<LocalDate, String> getTopStockByDate(String buySellIndicator) {
+		Map<LocalDate, String> rankByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> rankByDate.put(date, summary.getTopStockName()));
+		return rankByDate;
+	}
+
+	/**
+	 * @return the n entities with the highest estimated amounts per date, best first
+	 */
+	public Map<LocalDate, List<RankedEntity>> getTopEntitiesByDate(String buySellIndicator, int n) {
+		Map<LocalDate, List<RankedEntity>> topByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> topByDate.put(date, summary.getTopEntities(n)));
+		return topByDate;
+	}
+
+	/**
+	 * @return the estimated number of distinct entities per date
+	 */
+	public Map<LocalDate, Long> getDistinctEntitiesByDate(String buySellIndicator) {
+		Map<LocalDate, Long> distinctByDate = new HashMap<>();
+		getSummaries(buySellIndicator)
+				.forEach((date, summary) -> distinctByDate.put(date, summary.getDistinctEntities()));
+		return distinctByDate;
+	}
+
+	@Override
+	public String toString() {
+		return "ApproximateTradeReport[" + accuracy + "]" + summariesByAction;
+	}
+}
@@ -0,0 +1,195 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams trades into the fixed width {@link BinaryTradeFormat} file.
+ *
+ * Records are written as they come through one reusable buffer, the dictionaries and the header are written
+ * on {@link #close()}. Not thread safe.
+ */
+public class BinaryTradeFileWriter implements Closeable {
+
+	private static final int BUFFER_RECORDS = 4096;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * BinaryTradeFormat.RECORD_SIZE)
+			.order(BinaryTradeFormat.BYTE_ORDER);
+	private final TradeRecord scratch = new TradeRecord();
+
+	private final List<String> stockNames = new ArrayList<>();
+	private final Map<String, Integer> stockNameIndex = new HashMap<>();
+	private final List<String> buySellIndicators = new ArrayList<>();
+	private final Map<String, Integer> buySellIndicatorIndex = new HashMap<>();
+	private final List<String> currencyCodes = new ArrayList<>();
+	private final Map<String, Integer> currencyCodeIndex = new HashMap<>();
+
+	private long recordCount;
+	private boolean closed;
+
+	/**
+	 * Creates or truncates the file.
+	 */
+	public BinaryTradeFileWriter(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		channel.position(BinaryTradeFormat.HEADER_SIZE);
+	}
+
+	/**
+	 * Converts the trade events into a binary trade file.
+	 */
+	public static void write(Path file, Collection<TradeEvent> tradeEvents) throws IOException {
+		try (BinaryTradeFileWriter writer = new BinaryTradeFileWriter(file)) {
+			for (TradeEvent tradeEvent : tradeEvents) {
+				writer.write(tradeEvent);
+			}
+		}
+	}
+
+	public BinaryTradeFileWriter write(TradeEvent tradeEvent) throws IOException {
+		return write(scratch.set(tradeEvent));
+	}
+
+	public BinaryTradeFileWriter write(TradeBatch tradeBatch) throws IOException {
+		for (int row = 0; row < tradeBatch.size(); row++) {
+			write(tradeBatch.read(row, scratch));
+		}
+		return this;
+	}
+
+	public BinaryTradeFileWriter write(TradeRecord record) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Writer is closed");
+		}
+		if (buffer.remaining() < BinaryTradeFormat.RECORD_SIZE) {
+			flush();
+		}
+		int start = buffer.position();
+		buffer.put(start + BinaryTradeFormat.PRESENCE, (byte) record.getPresence());
+		buffer.put(start + BinaryTradeFormat.BUY_SELL_INDICATOR_ID, (byte) (record.has(TradeRecord.BUY_SELL_INDICATOR)
+				? id(record.getBuySellIndicator(), buySellIndicators, buySellIndicatorIndex,
+						BinaryTradeFormat.MAX_BUY_SELL_INDICATORS) : 0));
+		buffer.putShort(start + BinaryTradeFormat.CURRENCY_ID, (short) (record.has(TradeRecord.CURRENCY)
+				? id(record.getCurrency().getCurrencyCode(), currencyCodes, currencyCodeIndex,
+						BinaryTradeFormat.MAX_CURRENCIES) : 0));
+		buffer.putInt(start + BinaryTradeFormat.STOCK_NAME_ID, record.has(TradeRecord.STOCK_NAME)
+				? id(record.getStockName(), stockNames, stockNameIndex, Integer.MAX_VALUE) : 0);
+		buffer.putInt(start + BinaryTradeFormat.INSTRUCTION_EPOCH_DAY, record.getInstructionEpochDay());
+		buffer.putInt(start + BinaryTradeFormat.SETTLEMENT_EPOCH_DAY, record.getSettlementEpochDay());
+		buffer.putInt(start + BinaryTradeFormat.UNITS, record.getUnits());
+		buffer.put(start + BinaryTradeFormat.AGREED_FX_SCALE, scale(record.getAgreedFxScale()));
+		buffer.put(start + BinaryTradeFormat.PRICE_PER_UNIT_SCALE, scale(record.getPricePerUnitScale()));
+		buffer.putShort(start + BinaryTradeFormat.PRICE_PER_UNIT_SCALE + 1, (short) 0);
+		buffer.putLong(start + BinaryTradeFormat.AGREED_FX_UNSCALED, record.getAgreedFxUnscaled());
+		buffer.putLong(start + BinaryTradeFormat.PRICE_PER_UNIT_UNSCALED, record.getPricePerUnitUnscaled());
+		buffer.position(start + BinaryTradeFormat.RECORD_SIZE);
+		recordCount++;
+		return this;
+	}
+
+	/**
+	 * @return the number of records written so far
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Writes the dictionaries and the header, then closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			flush();
+			long dictionaryOffset = channel.position();
+			writeDictionary(stockNames);
+			writeDictionary(buySellIndicators);
+			writeDictionary(currencyCodes);
+			flush();
+
+			ByteBuffer header = ByteBuffer.allocate(BinaryTradeFormat.HEADER_SIZE).order(BinaryTradeFormat.BYTE_ORDER);
+			header.putInt(BinaryTradeFormat.MAGIC)
+					.putShort(BinaryTradeFormat.VERSION)
+					.putShort((short) BinaryTradeFormat.RECORD_SIZE)
+					.putLong(recordCount)
+					.putLong(dictionaryOffset)
+					.putLong(0L)
+					.flip();
+			channel.position(0);
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void writeDictionary(List<String> dictionary) throws IOException {
+		if (buffer.remaining() < Integer.BYTES) {
+			flush();
+		}
+		buffer.putInt(dictionary.size());
+		for (String value : dictionary) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > Short.MAX_VALUE) {
+				throw new IllegalArgumentException("Dictionary value too long: " + value.substring(0, 64) + "...");
+			}
+			if (buffer.remaining() < Short.BYTES + bytes.length) {
+				flush();
+			}
+			if (buffer.remaining() < Short.BYTES + bytes.length) {
+				ByteBuffer large = ByteBuffer.allocate(Short.BYTES + bytes.length).order(BinaryTradeFormat.BYTE_ORDER);
+				large.putShort((short) bytes.length).put(bytes).flip();
+				while (large.hasRemaining()) {
+					channel.write(large);
+				}
+				continue;
+			}
+			buffer.putShort((short) bytes.length).put(bytes);
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private static byte scale(int scale) {
+		if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("Scale " + scale + " does not fit the binary format");
+		}
+		return (byte) scale;
+	}
+
+	private static int id(String value, List<String> dictionary, Map<String, Integer> index, int maxSize) {
+		Integer id = index.get(value);
+		if (id == null) {
+			if (dictionary.size() == maxSize) {
+				throw new IllegalStateException("Too many distinct values for dictionary, max is " + maxSize);
+			}
+			id = dictionary.size();
+			dictionary.add(value);
+			index.put(value, id);
+		}
+		return id;
+	}
+}
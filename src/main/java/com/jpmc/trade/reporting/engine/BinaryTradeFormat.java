@@ -0,0 +1,45 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the fixed width binary trade file.
+ *
+ * <pre>
+ * header (32 bytes)   magic int, version short, record size short, record count long, dictionary offset long, 0 long
+ * records             record count * {@value #RECORD_SIZE} bytes, see the field offsets below
+ * dictionaries        stock names, actions, currency codes: int count, then per entry short length + UTF-8 bytes
+ * </pre>
+ *
+ * Strings are dictionary encoded so every record has the same width and can be decoded in place.
+ * All values are little endian.
+ */
+final class BinaryTradeFormat {
+
+	static final int MAGIC = 0x42445254;
+	static final short VERSION = 1;
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	static final int HEADER_SIZE = 32;
+	static final int HEADER_RECORD_COUNT = 8;
+	static final int HEADER_DICTIONARY_OFFSET = 16;
+
+	static final int RECORD_SIZE = 40;
+	static final int PRESENCE = 0;
+	static final int BUY_SELL_INDICATOR_ID = 1;
+	static final int CURRENCY_ID = 2;
+	static final int STOCK_NAME_ID = 4;
+	static final int INSTRUCTION_EPOCH_DAY = 8;
+	static final int SETTLEMENT_EPOCH_DAY = 12;
+	static final int UNITS = 16;
+	static final int AGREED_FX_SCALE = 20;
+	static final int PRICE_PER_UNIT_SCALE = 21;
+	static final int AGREED_FX_UNSCALED = 24;
+	static final int PRICE_PER_UNIT_UNSCALED = 32;
+
+	static final int MAX_BUY_SELL_INDICATORS = 256;
+	static final int MAX_CURRENCIES = 65536;
+
+	private BinaryTradeFormat() {
+	}
+}
@@ -0,0 +1,78 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps byte ranges to canonical strings, so a parser creates a String only the first time it sees a value.
+ * Open addressing on the FNV-1a hash of the bytes. Not thread safe.
+ */
+final class ByteStringInterner {
+
+	private byte[][] keys = new byte[64][];
+	private String[] values = new String[64];
+	private int[] hashes = new int[64];
+	private int size;
+
+	String intern(byte[] bytes, int from, int to) {
+		int hash = hash(bytes, from, to);
+		int mask = keys.length - 1;
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			byte[] key = keys[slot];
+			if (key == null) {
+				String value = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+				keys[slot] = Arrays.copyOfRange(bytes, from, to);
+				values[slot] = value;
+				hashes[slot] = hash;
+				if (++size * 2 > keys.length) {
+					grow();
+				}
+				return value;
+			}
+			if (hashes[slot] == hash && equals(key, bytes, from, to)) {
+				return values[slot];
+			}
+		}
+	}
+
+	private static boolean equals(byte[] key, byte[] bytes, int from, int to) {
+		if (key.length != to - from) {
+			return false;
+		}
+		for (int i = 0; i < key.length; i++) {
+			if (key[i] != bytes[from + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(byte[] bytes, int from, int to) {
+		int hash = 0x811C9DC5;
+		for (int i = from; i < to; i++) {
+			hash = (hash ^ bytes[i]) * 0x01000193;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	private void grow() {
+		byte[][] oldKeys = keys;
+		String[] oldValues = values;
+		int[] oldHashes = hashes;
+		keys = new byte[oldKeys.length * 2][];
+		values = new String[oldKeys.length * 2];
+		hashes = new int[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (keys[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				hashes[slot] = oldHashes[i];
+			}
+		}
+	}
+}
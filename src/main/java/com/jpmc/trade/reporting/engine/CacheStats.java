@@ -0,0 +1,61 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Point in time counters of {@link CachingTradeReporter}.
+ */
+public final class CacheStats {
+
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+	private final long invalidationCount;
+
+	CacheStats(long hitCount, long missCount, long evictionCount, long invalidationCount) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+		this.invalidationCount = invalidationCount;
+	}
+
+	/**
+	 * @return the number of summaries served from the cache
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of summaries computed, including reloads after expiry or invalidation
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of summaries dropped because the cache was full or they expired
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of summaries dropped because trades of their date arrived or were amended
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	/**
+	 * @return hits / requests, 1 when nothing was requested yet
+	 */
+	public double getHitRate() {
+		long requestCount = hitCount + missCount;
+		return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats[hitCount=" + hitCount + ",missCount=" + missCount + ",evictionCount=" + evictionCount
+				+ ",invalidationCount=" + invalidationCount + "]";
+	}
+}
@@ -0,0 +1,298 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Daily reports over a growing set of trades, with the summary of every action and working settlement date
+ * materialized on first use.
+ *
+ * Trades are indexed by action and working settlement date when they arrive, so a missing summary is computed
+ * from the trades of its date only. The trades of a date are counted in a hash map, equal trades once, so a
+ * retraction costs O(1). Summaries are evicted least recently used first beyond the maximum size, and
+ * after the expiry time if one is set. New, retracted or amended trades invalidate the summary of their own date
+ * and action, every other summary stays cached. All methods are synchronized.
+ */
+public class CachingTradeReporter {
+
+	private final SettlementCalendar settlementCalendar;
+	private final int maximumSize;
+	private final long expireAfterNanos;
+	private final LongSupplier ticker;
+
+	private final Map<String, TreeMap<LocalDate, Map<TradeEvent, Integer>>> tradesByAction = new HashMap<>();
+	private final LinkedHashMap<SummaryKey, CachedSummary> summaries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	private CachingTradeReporter(Builder builder) {
+		this.settlementCalendar = builder.settlementCalendar;
+		this.maximumSize = builder.maximumSize;
+		this.expireAfterNanos = builder.expireAfterNanos;
+		this.ticker = builder.ticker;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Adds one trade and invalidates the summary of its date and action.
+	 * Trades without action or settlement date are ignored like in the batch report.
+	 */
+	public synchronized CachingTradeReporter accept(TradeEvent tradeEvent) {
+		if (isReportable(tradeEvent)) {
+			String action = DailyTradeReport.actionKey(tradeEvent.getBuySellIndicator().get());
+			LocalDate date = DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar);
+			tradesByAction.computeIfAbsent(action, key -> new TreeMap<>())
+					.computeIfAbsent(date, key -> new HashMap<>()).merge(tradeEvent, 1, Integer::sum);
+			invalidate(action, date);
+		}
+		return this;
+	}
+
+	public synchronized CachingTradeReporter acceptAll(Collection<TradeEvent> tradeEvents) {
+		for (TradeEvent tradeEvent : tradeEvents) {
+			accept(tradeEvent);
+		}
+		return this;
+	}
+
+	/**
+	 * Removes a trade added before and invalidates the summary of its date and action.
+	 *
+	 * @return false if no equal trade was added
+	 */
+	public synchronized boolean retract(TradeEvent tradeEvent) {
+		if (!isReportable(tradeEvent)) {
+			return false;
+		}
+		String action = DailyTradeReport.actionKey(tradeEvent.getBuySellIndicator().get());
+		TreeMap<LocalDate, Map<TradeEvent, Integer>> tradesByDate = tradesByAction.get(action);
+		LocalDate date = DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar);
+		Map<TradeEvent, Integer> trades = tradesByDate == null ? null : tradesByDate.get(date);
+		Integer count = trades == null ? null : trades.get(tradeEvent);
+		if (count == null) {
+			return false;
+		}
+		if (count == 1) {
+			trades.remove(tradeEvent);
+		} else {
+			trades.put(tradeEvent, count - 1);
+		}
+		if (trades.isEmpty()) {
+			tradesByDate.remove(date);
+		}
+		invalidate(action, date);
+		return true;
+	}
+
+	/**
+	 * Replaces a trade added before by its corrected version, invalidating the dates of both.
+	 *
+	 * @return false if the original trade was not added, the correction is then not applied
+	 */
+	public synchronized boolean amend(TradeEvent original, TradeEvent corrected) {
+		if (!retract(original)) {
+			return false;
+		}
+		accept(corrected);
+		return true;
+	}
+
+	/**
+	 * @return the summary of the action on the working settlement date, null if it has no trades
+	 */
+	public synchronized DailySummary getSummary(String buySellIndicator, LocalDate settlementDate) {
+		SummaryKey key = new SummaryKey(DailyTradeReport.actionKey(buySellIndicator), settlementDate);
+		CachedSummary cached = summaries.get(key);
+		long now = ticker.getAsLong();
+		if (cached != null) {
+			if (expireAfterNanos <= 0 || now - cached.loadedAt < expireAfterNanos) {
+				hitCount++;
+				return cached.summary;
+			}
+			summaries.remove(key);
+			evictionCount++;
+		}
+		missCount++;
+		DailySummary summary = load(key);
+		if (summary != null) {
+			summaries.put(key, new CachedSummary(summary, now));
+			evictToMaximumSize();
+		}
+		return summary;
+	}
+
+	/**
+	 * @return the summaries of the action by working settlement date, cached ones reused
+	 */
+	public synchronized Map<LocalDate, DailySummary> getSummaries(String buySellIndicator) {
+		Map<LocalDate, DailySummary> summariesByDate = new TreeMap<>();
+		TreeMap<LocalDate, Map<TradeEvent, Integer>> tradesByDate = tradesByAction
+				.get(DailyTradeReport.actionKey(buySellIndicator));
+		if (tradesByDate != null) {
+			for (LocalDate date : tradesByDate.keySet()) {
+				summariesByDate.put(date, getSummary(buySellIndicator, date));
+			}
+		}
+		return summariesByDate;
+	}
+
+	/**
+	 * Cached equivalent of {@link DailyTradeReporter#dailyTotalAmountGroupByDate(List, String)}.
+	 */
+	public Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(String buySellIndicator) {
+		Map<LocalDate, BigDecimal> totalByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> totalByDate.put(date, summary.getTotalAmount()));
+		return totalByDate;
+	}
+
+	/**
+	 * Cached equivalent of {@link DailyTradeReporter#findRankingGroupByDate(List, String)}.
+	 */
+	public Map<LocalDate, String> findRankingGroupByDate(String buySellIndicator) {
+		Map<LocalDate, String> rankByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> rankByDate.put(date, summary.getTopStockName()));
+		return rankByDate;
+	}
+
+	public synchronized CacheStats getStats() {
+		return new CacheStats(hitCount, missCount, evictionCount, invalidationCount);
+	}
+
+	/**
+	 * @return the number of summaries cached
+	 */
+	public synchronized int size() {
+		return summaries.size();
+	}
+
+	private DailySummary load(SummaryKey key) {
+		TreeMap<LocalDate, Map<TradeEvent, Integer>> tradesByDate = tradesByAction.get(key.action);
+		Map<TradeEvent, Integer> trades = tradesByDate == null ? null : tradesByDate.get(key.date);
+		if (trades == null) {
+			return null;
+		}
+		DailyTradeAggregator aggregator = new DailyTradeAggregator(settlementCalendar);
+		trades.forEach((tradeEvent, count) -> {
+			for (int i = 0; i < count; i++) {
+				aggregator.accept(tradeEvent);
+			}
+		});
+		return aggregator.toReport().getSummaries(key.action).get(key.date);
+	}
+
+	private void invalidate(String action, LocalDate date) {
+		if (summaries.remove(new SummaryKey(action, date)) != null) {
+			invalidationCount++;
+		}
+	}
+
+	private void evictToMaximumSize() {
+		Iterator<CachedSummary> leastRecentlyUsed = summaries.values().iterator();
+		while (summaries.size() > maximumSize) {
+			leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+			evictionCount++;
+		}
+	}
+
+	private static boolean isReportable(TradeEvent tradeEvent) {
+		return tradeEvent.getBuySellIndicator().isPresent() && tradeEvent.getSettlementDate().isPresent();
+	}
+
+	public static final class Builder {
+
+		private SettlementCalendar settlementCalendar = SettlementCalendar.standard();
+		private int maximumSize = 10_000;
+		private long expireAfterNanos;
+		private LongSupplier ticker = System::nanoTime;
+
+		public Builder settlementCalendar(SettlementCalendar settlementCalendar) {
+			this.settlementCalendar = Objects.requireNonNull(settlementCalendar);
+			return this;
+		}
+
+		/**
+		 * @param maximumSize summaries kept, one per action and date, default 10000
+		 */
+		public Builder maximumSize(int maximumSize) {
+			if (maximumSize <= 0) {
+				throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+			}
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		/**
+		 * @param expireAfter time a summary is served after it was computed, by default summaries do not expire
+		 */
+		public Builder expireAfter(Duration expireAfter) {
+			if (expireAfter.isNegative() || expireAfter.isZero()) {
+				throw new IllegalArgumentException("expireAfter must be positive: " + expireAfter);
+			}
+			this.expireAfterNanos = expireAfter.toNanos();
+			return this;
+		}
+
+		/**
+		 * @param ticker nanosecond time source, {@link System#nanoTime()} by default
+		 */
+		public Builder ticker(LongSupplier ticker) {
+			this.ticker = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		public CachingTradeReporter build() {
+			return new CachingTradeReporter(this);
+		}
+	}
+
+	private static final class SummaryKey {
+		private final String action;
+		private final LocalDate date;
+
+		SummaryKey(String action, LocalDate date) {
+			this.action = action;
+			this.date = date;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * action.hashCode() + date.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SummaryKey)) {
+				return false;
+			}
+			SummaryKey other = (SummaryKey) obj;
+			return action.equals(other.action) && date.equals(other.date);
+		}
+	}
+
+	private static final class CachedSummary {
+		private final DailySummary summary;
+		private final long loadedAt;
+
+		CachedSummary(DailySummary summary, long loadedAt) {
+			this.summary = summary;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
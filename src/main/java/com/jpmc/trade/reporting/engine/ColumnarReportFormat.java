@@ -0,0 +1,41 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the columnar binary report file.
+ *
+ * <pre>
+ * header (32 bytes)   magic int, version short, column count short, row count long, dictionary offset long, 0 long
+ * schema              per column: type byte (ordinal of the column type), short length + UTF-8 name
+ * blocks              int row count (at most {@value #BLOCK_ROWS}), then column after column the values of the rows:
+ *                     STRING   int dictionary id, {@value #MISSING_STRING} if absent
+ *                     DATE     int epoch day, {@link #MISSING_DATE} if absent
+ *                     DECIMAL  long unscaled values, then one scale byte per row
+ *                     INTEGER  long values
+ * dictionary          int count, then per entry short length + UTF-8 bytes
+ * </pre>
+ *
+ * A decimal whose unscaled value does not fit a long is stored as the dictionary id of its plain string, with scale
+ * {@link #DICTIONARY_DECIMAL}. All values are little endian.
+ */
+final class ColumnarReportFormat {
+
+	static final int MAGIC = 0x42435254;
+	static final short VERSION = 1;
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	static final int HEADER_SIZE = 32;
+	static final int HEADER_COLUMN_COUNT = 6;
+	static final int HEADER_ROW_COUNT = 8;
+	static final int HEADER_DICTIONARY_OFFSET = 16;
+
+	static final int BLOCK_ROWS = 4096;
+
+	static final int MISSING_STRING = -1;
+	static final int MISSING_DATE = Integer.MIN_VALUE;
+	static final byte DICTIONARY_DECIMAL = Byte.MIN_VALUE;
+
+	private ColumnarReportFormat() {
+	}
+}
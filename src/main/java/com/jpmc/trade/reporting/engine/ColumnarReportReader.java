@@ -0,0 +1,114 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Reads a {@link ColumnarReportFormat} file written by {@link ReportExporter} back into a {@link ReportTable}.
+ *
+ * The file is mapped and decoded block by block, for tools, tests and downstream consumers on the JVM.
+ */
+public final class ColumnarReportReader {
+
+	private static final ReportColumn.Type[] TYPES = ReportColumn.Type.values();
+
+	private ColumnarReportReader() {
+	}
+
+	/**
+	 * @throws IOException if the file is not a columnar report or larger than 2GB
+	 */
+	public static ReportTable read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < ColumnarReportFormat.HEADER_SIZE) {
+				throw new IOException(file + " is not a columnar report, too short");
+			}
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large to read at once");
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+					.order(ColumnarReportFormat.BYTE_ORDER);
+			if (buffer.getInt(0) != ColumnarReportFormat.MAGIC) {
+				throw new IOException(file + " is not a columnar report, bad magic");
+			}
+			if (buffer.getShort(4) != ColumnarReportFormat.VERSION) {
+				throw new IOException(file + " has unsupported version " + buffer.getShort(4));
+			}
+			int columnCount = buffer.getShort(ColumnarReportFormat.HEADER_COLUMN_COUNT);
+			long rowCount = buffer.getLong(ColumnarReportFormat.HEADER_ROW_COUNT);
+			if (rowCount > Integer.MAX_VALUE) {
+				throw new IOException(file + " has too many rows to read at once: " + rowCount);
+			}
+
+			buffer.position((int) buffer.getLong(ColumnarReportFormat.HEADER_DICTIONARY_OFFSET));
+			String[] dictionary = new String[buffer.getInt()];
+			for (int id = 0; id < dictionary.length; id++) {
+				dictionary[id] = readString(buffer);
+			}
+
+			buffer.position(ColumnarReportFormat.HEADER_SIZE);
+			String[] columnNames = new String[columnCount];
+			ReportColumn.Type[] types = new ReportColumn.Type[columnCount];
+			for (int column = 0; column < columnCount; column++) {
+				types[column] = TYPES[buffer.get()];
+				columnNames[column] = readString(buffer);
+			}
+			Object[][] values = new Object[columnCount][(int) rowCount];
+			for (int row = 0; row < rowCount;) {
+				int blockRows = buffer.getInt();
+				for (int column = 0; column < columnCount; column++) {
+					readBlock(buffer, types[column], values[column], row, blockRows, dictionary);
+				}
+				row += blockRows;
+			}
+			return new ReportTable(columnNames, values, (int) rowCount);
+		}
+	}
+
+	private static void readBlock(ByteBuffer buffer, ReportColumn.Type type, Object[] values, int from, int rows,
+			String[] dictionary) {
+		switch (type) {
+		case STRING:
+			for (int row = from; row < from + rows; row++) {
+				int id = buffer.getInt();
+				values[row] = id == ColumnarReportFormat.MISSING_STRING ? null : dictionary[id];
+			}
+			break;
+		case DATE:
+			for (int row = from; row < from + rows; row++) {
+				int epochDay = buffer.getInt();
+				values[row] = epochDay == ColumnarReportFormat.MISSING_DATE ? null : LocalDate.ofEpochDay(epochDay);
+			}
+			break;
+		case INTEGER:
+			for (int row = from; row < from + rows; row++) {
+				values[row] = buffer.getLong();
+			}
+			break;
+		case DECIMAL:
+			int scales = buffer.position() + rows * Long.BYTES;
+			for (int row = from; row < from + rows; row++) {
+				long unscaled = buffer.getLong();
+				byte scale = buffer.get(scales + row - from);
+				values[row] = scale == ColumnarReportFormat.DICTIONARY_DECIMAL
+						? new BigDecimal(dictionary[(int) unscaled]) : BigDecimal.valueOf(unscaled, scale);
+			}
+			buffer.position(scales + rows);
+			break;
+		default:
+			throw new IllegalStateException("Unsupported column type " + type);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,183 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a report in the {@link ColumnarReportFormat}.
+ *
+ * Cells are collected into primitive column arrays of one block and the block is written column after column when
+ * full, strings are dictionary encoded. The dictionary and the header are written on {@link #close()}.
+ */
+final class ColumnarReportWriter extends ReportWriter {
+
+	/**
+	 * Per column the int values of the block (dictionary ids, epoch days), null for long columns.
+	 */
+	private final int[][] ints;
+	/**
+	 * Per column the long values of the block (integers, unscaled decimals), null for int columns.
+	 */
+	private final long[][] longs;
+	/**
+	 * Per decimal column the scales of the block.
+	 */
+	private final byte[][] scales;
+
+	private final List<String> dictionary = new ArrayList<>();
+	private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+	private int blockRows;
+
+	ColumnarReportWriter(Path file, List<ReportColumn> columns) throws IOException {
+		super(file, columns);
+		if (columns.size() > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many columns, max is " + Short.MAX_VALUE);
+		}
+		buffer.order(ColumnarReportFormat.BYTE_ORDER);
+		this.ints = new int[columns.size()][];
+		this.longs = new long[columns.size()][];
+		this.scales = new byte[columns.size()][];
+		channel().position(ColumnarReportFormat.HEADER_SIZE);
+		for (int column = 0; column < columns.size(); column++) {
+			ReportColumn.Type type = columns.get(column).getType();
+			if (type == ReportColumn.Type.STRING || type == ReportColumn.Type.DATE) {
+				ints[column] = new int[ColumnarReportFormat.BLOCK_ROWS];
+			} else {
+				longs[column] = new long[ColumnarReportFormat.BLOCK_ROWS];
+			}
+			if (type == ReportColumn.Type.DECIMAL) {
+				scales[column] = new byte[ColumnarReportFormat.BLOCK_ROWS];
+			}
+			ensure(1);
+			buffer.put((byte) type.ordinal());
+			putString(columns.get(column).getName());
+		}
+	}
+
+	@Override
+	void writeString(int column, String value) {
+		ints[column][blockRows] = value == null ? ColumnarReportFormat.MISSING_STRING : id(value);
+	}
+
+	@Override
+	void writeDate(int column, int epochDay) {
+		ints[column][blockRows] = epochDay;
+	}
+
+	@Override
+	void writeMissingDate(int column) {
+		ints[column][blockRows] = ColumnarReportFormat.MISSING_DATE;
+	}
+
+	@Override
+	void writeDecimal(int column, BigDecimal value) {
+		int scale = value.scale();
+		BigInteger unscaled = value.unscaledValue();
+		if (unscaled.bitLength() < Long.SIZE && scale > Byte.MIN_VALUE && scale <= Byte.MAX_VALUE) {
+			longs[column][blockRows] = unscaled.longValue();
+			scales[column][blockRows] = (byte) scale;
+		} else {
+			longs[column][blockRows] = id(value.toPlainString());
+			scales[column][blockRows] = ColumnarReportFormat.DICTIONARY_DECIMAL;
+		}
+	}
+
+	@Override
+	void writeInteger(int column, long value) {
+		longs[column][blockRows] = value;
+	}
+
+	@Override
+	void writeRowEnd() throws IOException {
+		if (++blockRows == ColumnarReportFormat.BLOCK_ROWS) {
+			writeBlock();
+		}
+	}
+
+	/**
+	 * Writes the last block, the dictionary and the header.
+	 */
+	@Override
+	void finish() throws IOException {
+		if (blockRows > 0) {
+			writeBlock();
+		}
+		flush();
+		long dictionaryOffset = channel().position();
+		ensure(Integer.BYTES);
+		buffer.putInt(dictionary.size());
+		for (String value : dictionary) {
+			putString(value);
+		}
+		flush();
+
+		ByteBuffer header = ByteBuffer.allocate(ColumnarReportFormat.HEADER_SIZE)
+				.order(ColumnarReportFormat.BYTE_ORDER);
+		header.putInt(ColumnarReportFormat.MAGIC)
+				.putShort(ColumnarReportFormat.VERSION)
+				.putShort((short) columns.length)
+				.putLong(getRowCount())
+				.putLong(dictionaryOffset)
+				.putLong(0L)
+				.flip();
+		long end = channel().position();
+		channel().position(0);
+		while (header.hasRemaining()) {
+			channel().write(header);
+		}
+		channel().position(end);
+	}
+
+	private void writeBlock() throws IOException {
+		ensure(Integer.BYTES);
+		buffer.putInt(blockRows);
+		for (int column = 0; column < columns.length; column++) {
+			if (ints[column] != null) {
+				ensure(blockRows * Integer.BYTES);
+				buffer.asIntBuffer().put(ints[column], 0, blockRows);
+				buffer.position(buffer.position() + blockRows * Integer.BYTES);
+			} else {
+				ensure(blockRows * Long.BYTES);
+				buffer.asLongBuffer().put(longs[column], 0, blockRows);
+				buffer.position(buffer.position() + blockRows * Long.BYTES);
+			}
+			if (scales[column] != null) {
+				ensure(blockRows);
+				buffer.put(scales[column], 0, blockRows);
+			}
+		}
+		blockRows = 0;
+	}
+
+	private void putString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Dictionary value too long: " + value.substring(0, 64) + "...");
+		}
+		ensure(Short.BYTES);
+		buffer.putShort((short) bytes.length);
+		put(bytes);
+	}
+
+	private int id(String value) {
+		Integer id = dictionaryIndex.get(value);
+		if (id == null) {
+			if (dictionary.size() == Integer.MAX_VALUE) {
+				throw new IllegalStateException("Too many distinct values for dictionary, max is " + Integer.MAX_VALUE);
+			}
+			id = dictionary.size();
+			dictionary.add(value);
+			dictionaryIndex.put(value, id);
+		}
+		return id;
+	}
+}
@@ -0,0 +1,137 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Count-Min sketch of amounts per entity in fixed memory.
+ *
+ * Every entity adds its amount to one counter in each of depth rows of width counters, the estimate is the smallest
+ * of its counters. Estimates never undercount, and with probability 1 - delta overcount by at most
+ * epsilon * {@link #getTotalAmount()}, whatever the number of entities. Amounts must not be negative.
+ *
+ * Sketches of the same width and depth merge by adding counters, e.g. the partitions of a parallel pass or the days
+ * of a month. Not thread safe.
+ */
+public final class CountMinSketch {
+
+	private final int width;
+	private final int depth;
+	private final double[] counters;
+	private double totalAmount;
+
+	/**
+	 * @param epsilon overcount bound relative to the total amount, between 0 and 1 exclusive
+	 * @param delta probability the bound is exceeded, between 0 and 1 exclusive
+	 */
+	public CountMinSketch(double epsilon, double delta) {
+		this(width(epsilon), depth(delta));
+	}
+
+	private CountMinSketch(int width, int depth) {
+		this.width = width;
+		this.depth = depth;
+		this.counters = new double[width * depth];
+	}
+
+	/**
+	 * @return the number of counters per row, e / epsilon rounded up
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the number of rows, ln(1 / delta) rounded up
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the sum of every amount added
+	 */
+	public double getTotalAmount() {
+		return totalAmount;
+	}
+
+	public CountMinSketch add(String entity, double amount) {
+		add(SketchHashing.hash(entity), amount);
+		return this;
+	}
+
+	/**
+	 * @return the estimated summed amount of the entity, at least the exact one
+	 */
+	public double estimate(String entity) {
+		return estimate(SketchHashing.hash(entity));
+	}
+
+	/**
+	 * Adds the counters of the other sketch. The other sketch is left untouched.
+	 *
+	 * @throws IllegalArgumentException if the sketches differ in width or depth
+	 */
+	public CountMinSketch merge(CountMinSketch other) {
+		if (width != other.width || depth != other.depth) {
+			throw new IllegalArgumentException("cannot merge a " + other + " into a " + this);
+		}
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] += other.counters[i];
+		}
+		totalAmount += other.totalAmount;
+		return this;
+	}
+
+	public CountMinSketch copy() {
+		CountMinSketch copy = new CountMinSketch(width, depth);
+		System.arraycopy(counters, 0, copy.counters, 0, counters.length);
+		copy.totalAmount = totalAmount;
+		return copy;
+	}
+
+	void add(long hash, double amount) {
+		if (!(amount >= 0)) {
+			throw new IllegalArgumentException("amounts must not be negative: " + amount);
+		}
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		for (int row = 0; row < depth; row++) {
+			counters[row * width + index(hash1, hash2, row)] += amount;
+		}
+		totalAmount += amount;
+	}
+
+	double estimate(long hash) {
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+		double estimate = Double.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters[row * width + index(hash1, hash2, row)]);
+		}
+		return estimate;
+	}
+
+	/**
+	 * @return the counter of the row, double hashing so one 64 bit hash serves every row
+	 */
+	private int index(int hash1, int hash2, int row) {
+		return ((hash1 + row * hash2) & Integer.MAX_VALUE) % width;
+	}
+
+	static int width(double epsilon) {
+		if (!(epsilon > 0 && epsilon < 1)) {
+			throw new IllegalArgumentException("epsilon must be between 0 and 1: " + epsilon);
+		}
+		return (int) Math.ceil(Math.E / epsilon);
+	}
+
+	static int depth(double delta) {
+		if (!(delta > 0 && delta < 1)) {
+			throw new IllegalArgumentException("delta must be between 0 and 1: " + delta);
+		}
+		return (int) Math.ceil(Math.log(1 / delta));
+	}
+
+	@Override
+	public String toString() {
+		return "CountMinSketch[width=" + width + ",depth=" + depth + ",totalAmount=" + totalAmount + "]";
+	}
+}
@@ -0,0 +1,81 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes a report as comma separated values: a header line with the column names, then one line per row.
+ *
+ * Values containing a comma, a quote or a line break are quoted as in RFC 4180, absent values are empty.
+ * Dates are yyyy-MM-dd, decimals in plain notation.
+ */
+final class CsvReportWriter extends TextReportWriter {
+
+	CsvReportWriter(Path file, List<ReportColumn> columns) throws IOException {
+		super(file, columns);
+		for (int column = 0; column < columns.size(); column++) {
+			separate(column);
+			putString(columns.get(column).getName());
+		}
+		putAscii('\n');
+	}
+
+	@Override
+	String escape(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return '"' + value.replace("\"", "\"\"") + '"';
+			}
+		}
+		return value;
+	}
+
+	@Override
+	void writeString(int column, String value) throws IOException {
+		separate(column);
+		if (value != null) {
+			putString(value);
+		}
+	}
+
+	@Override
+	void writeDate(int column, int epochDay) throws IOException {
+		separate(column);
+		putDate(epochDay);
+	}
+
+	@Override
+	void writeMissingDate(int column) throws IOException {
+		separate(column);
+	}
+
+	@Override
+	void writeDecimal(int column, BigDecimal value) throws IOException {
+		separate(column);
+		putDecimal(value);
+	}
+
+	@Override
+	void writeInteger(int column, long value) throws IOException {
+		separate(column);
+		putLong(value);
+	}
+
+	@Override
+	void writeRowEnd() throws IOException {
+		putAscii('\n');
+	}
+
+	@Override
+	void finish() {
+	}
+
+	private void separate(int column) throws IOException {
+		if (column > 0) {
+			putAscii(',');
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single pass aggregation of trades into totals per action, working settlement date and trade currency, reported in
+ * the currencies of the trades and converted into the reporting currency of a {@link FxRateTable}.
+ *
+ * The local amount of a trade is units * pricePerUnit in its currency, summed as a scaled long per currency while the
+ * prices of the currency share a scale. Conversion is linear, so every local total is converted once when the report
+ * is built, at the table rate of its working settlement date, and not once per trade. The agreedFx of the trades
+ * is not used, the table rates replace it. Currencies index dense arrays, a trade costs no currency map lookup.
+ *
+ * Trades without action or settlement date are skipped, missing units or price count as zero amount. A trade that
+ * cannot be converted, without currency, in a currency the table has no rates of or settled before the first rate
+ * of its currency, does not abort the report: it is counted in the trades of its date like in the
+ * {@link DailyTradeAggregator} and in {@link CurrencySummary#getUnconvertedTradeCount()}, and left out of the
+ * totals. Not thread safe.
+ */
+public class CurrencyAggregator {
+
+	private final SettlementCalendar settlementCalendar;
+	private final FxRateTable fxRates;
+
+	/**
+	 * Buckets per action keyed by working settlement epoch day.
+	 */
+	private final Map<String, IntObjectHashMap<DateBucket>> bucketsByAction = new HashMap<>();
+
+	/**
+	 * Raw indicator (e.g. "b") to its normalised buckets, saves the upper casing per trade.
+	 */
+	private final Map<String, IntObjectHashMap<DateBucket>> bucketsByRawAction = new HashMap<>();
+
+	public CurrencyAggregator(FxRateTable fxRates) {
+		this(SettlementCalendar.standard(), fxRates);
+	}
+
+	public CurrencyAggregator(SettlementCalendar settlementCalendar, FxRateTable fxRates) {
+		this.settlementCalendar = settlementCalendar;
+		this.fxRates = fxRates;
+	}
+
+	/**
+	 * Aggregates the trades in one pass, moving settlement dates with the given calendar.
+	 */
+	public static CurrencyReport aggregate(Collection<TradeEvent> tradeEvents, SettlementCalendar settlementCalendar,
+			FxRateTable fxRates) {
+		CurrencyAggregator aggregator = new CurrencyAggregator(settlementCalendar, fxRates);
+		for (TradeEvent tradeEvent : tradeEvents) {
+			aggregator.accept(tradeEvent);
+		}
+		return aggregator.toReport();
+	}
+
+	/**
+	 * Folds the trade into its action / date / currency total. Prices beyond a long with a byte scale are summed as
+	 * BigDecimals.
+	 */
+	public CurrencyAggregator accept(TradeEvent tradeEvent) {
+		if (!tradeEvent.getBuySellIndicator().isPresent() || !tradeEvent.getSettlementDate().isPresent()) {
+			return this;
+		}
+		Currency currency = tradeEvent.getCurrency().orElse(null);
+		DateBucket bucket = bucketFor(tradeEvent.getBuySellIndicator().get(), settlementCalendar
+				.nextWorkingEpochDay(currency, (int) tradeEvent.getSettlementDate().get().toEpochDay()));
+		int currencyIndex = currency == null ? FxRateTable.NO_INDEX : fxRates.indexOf(currency);
+		if (currencyIndex == FxRateTable.NO_INDEX) {
+			bucket.unconvertedCount++;
+		} else if (!tradeEvent.getUnits().isPresent() || !tradeEvent.getPricePerUnit().isPresent()) {
+			bucket.add(currencyIndex, 0, 0, 0, 0);
+		} else {
+			bucket.add(currencyIndex, tradeEvent.getUnits().get(), tradeEvent.getPricePerUnit().get());
+		}
+		return this;
+	}
+
+	/**
+	 * Folds a decoded record, same rules as {@link #accept(TradeEvent)}.
+	 */
+	public CurrencyAggregator accept(TradeRecord record) {
+		if (!record.has(TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+			return this;
+		}
+		Currency currency = record.has(TradeRecord.CURRENCY) ? record.getCurrency() : null;
+		DateBucket bucket = bucketFor(record.getBuySellIndicator(),
+				settlementCalendar.nextWorkingEpochDay(currency, record.getSettlementEpochDay()));
+		int currencyIndex = currency == null ? FxRateTable.NO_INDEX : fxRates.indexOf(currency);
+		if (currencyIndex == FxRateTable.NO_INDEX) {
+			bucket.unconvertedCount++;
+		} else {
+			bucket.add(currencyIndex, record.getPresence(), record.getUnits(), record.getPricePerUnitUnscaled(),
+					record.getPricePerUnitScale());
+		}
+		return this;
+	}
+
+	/**
+	 * Folds every row of the batch, reading the columns directly. The currency dictionary of the batch is resolved
+	 * to table indices once, not per row.
+	 */
+	public CurrencyAggregator accept(TradeBatch tradeBatch) {
+		Currency[] currencies = tradeBatch.currencies();
+		int[] currencyIndices = fxRates.indicesOf(currencies);
+		String[] buySellIndicators = tradeBatch.buySellIndicators();
+		WorkingDayCalendar[] calendars = settlementCalendar.calendarsFor(currencies);
+		WorkingDayCalendar defaultCalendar = settlementCalendar.calendarFor(null);
+		int required = TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE;
+		for (int row = 0; row < tradeBatch.size(); row++) {
+			int presence = tradeBatch.presence(row);
+			if ((presence & required) != required) {
+				continue;
+			}
+			boolean hasCurrency = (presence & TradeRecord.CURRENCY) != 0;
+			int currencyId = hasCurrency ? tradeBatch.currencyId(row) : 0;
+			WorkingDayCalendar calendar = hasCurrency ? calendars[currencyId] : defaultCalendar;
+			DateBucket bucket = bucketFor(buySellIndicators[tradeBatch.buySellIndicatorId(row)],
+					calendar.nextWorkingEpochDay(tradeBatch.settlementEpochDay(row)));
+			int currencyIndex = hasCurrency ? currencyIndices[currencyId] : FxRateTable.NO_INDEX;
+			if (currencyIndex == FxRateTable.NO_INDEX) {
+				bucket.unconvertedCount++;
+			} else {
+				bucket.add(currencyIndex, presence, tradeBatch.units(row), tradeBatch.pricePerUnitUnscaled(row),
+						tradeBatch.pricePerUnitScale(row));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Converts the totals and builds the report.
+	 */
+	public CurrencyReport toReport() {
+		Map<String, Map<LocalDate, CurrencySummary>> summariesByAction = new HashMap<>();
+		bucketsByAction.forEach((action, buckets) -> {
+			Map<LocalDate, CurrencySummary> summaries = new HashMap<>();
+			buckets.forEach((epochDay, bucket) -> {
+				LocalDate date = LocalDate.ofEpochDay(epochDay);
+				summaries.put(date, bucket.toSummary(fxRates, epochDay, date));
+			});
+			summariesByAction.put(action, summaries);
+		});
+		return new CurrencyReport(fxRates.getReportingCurrency(), summariesByAction);
+	}
+
+	private DateBucket bucketFor(String buySellIndicator, int settlementEpochDay) {
+		IntObjectHashMap<DateBucket> buckets = bucketsByRawAction.get(buySellIndicator);
+		if (buckets == null) {
+			buckets = bucketsByAction.computeIfAbsent(DailyTradeReport.actionKey(buySellIndicator),
+					key -> new IntObjectHashMap<>());
+			bucketsByRawAction.put(buySellIndicator, buckets);
+		}
+		DateBucket bucket = buckets.get(settlementEpochDay);
+		if (bucket == null) {
+			bucket = new DateBucket(fxRates.size());
+			buckets.put(settlementEpochDay, bucket);
+		}
+		return bucket;
+	}
+
+	/**
+	 * Running local totals of one action on one date, by currency index.
+	 */
+	private static final class DateBucket {
+		/**
+		 * Null until the currency has a priced trade, its scale is the price scale of that trade.
+		 */
+		private final AmountAccumulator[] localTotals;
+		private final long[] tradeCounts;
+		/**
+		 * Trades without currency or in a currency the table has no rates of.
+		 */
+		private long unconvertedCount;
+
+		DateBucket(int currencies) {
+			this.localTotals = new AmountAccumulator[currencies];
+			this.tradeCounts = new long[currencies];
+		}
+
+		void add(int currencyIndex, int presence, int units, long pricePerUnitUnscaled, int pricePerUnitScale) {
+			tradeCounts[currencyIndex]++;
+			if ((presence & (TradeRecord.UNITS | TradeRecord.PRICE_PER_UNIT))
+					!= (TradeRecord.UNITS | TradeRecord.PRICE_PER_UNIT)) {
+				return;
+			}
+			AmountAccumulator localTotal = localTotal(currencyIndex, pricePerUnitScale);
+			try {
+				localTotal.addScaled(Math.multiplyExact(pricePerUnitUnscaled, units), pricePerUnitScale);
+			} catch (ArithmeticException overflow) {
+				localTotal.add(BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale)
+						.multiply(BigDecimal.valueOf(units)));
+			}
+		}
+
+		void add(int currencyIndex, int units, BigDecimal pricePerUnit) {
+			if (TradeRecord.fitsFixedPoint(pricePerUnit)) {
+				add(currencyIndex, TradeRecord.UNITS | TradeRecord.PRICE_PER_UNIT, units,
+						pricePerUnit.unscaledValue().longValue(), pricePerUnit.scale());
+			} else {
+				tradeCounts[currencyIndex]++;
+				localTotal(currencyIndex, pricePerUnit.scale()).add(pricePerUnit.multiply(BigDecimal.valueOf(units)));
+			}
+		}
+
+		private AmountAccumulator localTotal(int currencyIndex, int scale) {
+			AmountAccumulator localTotal = localTotals[currencyIndex];
+			if (localTotal == null) {
+				localTotal = AmountAccumulator.ofScale(scale);
+				localTotals[currencyIndex] = localTotal;
+			}
+			return localTotal;
+		}
+
+		CurrencySummary toSummary(FxRateTable fxRates, int epochDay, LocalDate date) {
+			Map<Currency, BigDecimal> locals = new LinkedHashMap<>();
+			Map<Currency, BigDecimal> converted = new LinkedHashMap<>();
+			BigDecimal totalAmount = BigDecimal.ZERO;
+			long tradeCount = unconvertedCount;
+			long unconverted = unconvertedCount;
+			for (int index = 0; index < tradeCounts.length; index++) {
+				if (tradeCounts[index] == 0) {
+					continue;
+				}
+				BigDecimal local = localTotals[index] == null ? BigDecimal.ZERO : localTotals[index].toBigDecimal();
+				locals.put(fxRates.currency(index), local);
+				tradeCount += tradeCounts[index];
+				BigDecimal rate = fxRates.rate(index, epochDay);
+				if (rate == null) {
+					unconverted += tradeCounts[index];
+					continue;
+				}
+				BigDecimal amount = index == 0 ? local : local.multiply(rate);
+				converted.put(fxRates.currency(index), amount);
+				totalAmount = totalAmount.add(amount);
+			}
+			return new CurrencySummary(date, fxRates.getReportingCurrency(), totalAmount, tradeCount, unconverted,
+					locals, converted);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of one {@link CurrencyAggregator} pass: per action (BUY / SELL) and working settlement date the totals in
+ * the currencies of the trades and in the reporting currency.
+ *
+ * Actions are matched ignoring case, same as {@link DailyTradeReport}.
+ */
+public final class CurrencyReport {
+
+	private final Currency reportingCurrency;
+	private final Map<String, Map<LocalDate, CurrencySummary>> summariesByAction;
+
+	CurrencyReport(Currency reportingCurrency, Map<String, Map<LocalDate, CurrencySummary>> summariesByAction) {
+		this.reportingCurrency = reportingCurrency;
+		this.summariesByAction = summariesByAction;
+	}
+
+	public Currency getReportingCurrency() {
+		return reportingCurrency;
+	}
+
+	/**
+	 * @return the actions present in the report, upper cased
+	 */
+	public Set<String> getBuySellIndicators() {
+		return Collections.unmodifiableSet(summariesByAction.keySet());
+	}
+
+	/**
+	 * @return the summaries of the action keyed by working settlement date, empty if action is unknown
+	 */
+	public Map<LocalDate, CurrencySummary> getSummaries(String buySellIndicator) {
+		Map<LocalDate, CurrencySummary> summaries = summariesByAction
+				.get(DailyTradeReport.actionKey(buySellIndicator));
+		return summaries == null ? Collections.<LocalDate, CurrencySummary>emptyMap()
+				: Collections.unmodifiableMap(summaries);
+	}
+
+	/**
+	 * @return the total amount per date in the reporting currency
+	 */
+	public Map<LocalDate, BigDecimal> getTotalAmountByDate(String buySellIndicator) {
+		Map<LocalDate, BigDecimal> totalByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> totalByDate.put(date, summary.getTotalAmount()));
+		return totalByDate;
+	}
+
+	/**
+	 * @return the totals per date and trade currency, in that currency
+	 */
+	public Map<LocalDate, Map<Currency, BigDecimal>> getLocalTotalsByDate(String buySellIndicator) {
+		Map<LocalDate, Map<Currency, BigDecimal>> totalsByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> totalsByDate.put(date, summary.getLocalTotals()));
+		return totalsByDate;
+	}
+
+	/**
+	 * @return the totals per date and trade currency, in the reporting currency
+	 */
+	public Map<LocalDate, Map<Currency, BigDecimal>> getConvertedTotalsByDate(String buySellIndicator) {
+		Map<LocalDate, Map<Currency, BigDecimal>> totalsByDate = new HashMap<>();
+		getSummaries(buySellIndicator)
+				.forEach((date, summary) -> totalsByDate.put(date, summary.getConvertedTotals()));
+		return totalsByDate;
+	}
+
+	/**
+	 * @return the number of trades of every action and date left out of the totals, see
+	 *         {@link CurrencySummary#getUnconvertedTradeCount()}
+	 */
+	public long getUnconvertedTradeCount() {
+		long unconverted = 0;
+		for (Map<LocalDate, CurrencySummary> summaries : summariesByAction.values()) {
+			for (CurrencySummary summary : summaries.values()) {
+				unconverted += summary.getUnconvertedTradeCount();
+			}
+		}
+		return unconverted;
+	}
+
+	@Override
+	public String toString() {
+		return "CurrencyReport[" + reportingCurrency + "]" + summariesByAction;
+	}
+}
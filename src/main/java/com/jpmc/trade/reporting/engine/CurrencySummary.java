@@ -0,0 +1,115 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Totals of one action (BUY / SELL) on one working settlement date in the currencies of the trades and in the
+ * reporting currency of a {@link CurrencyReport}.
+ */
+public final class CurrencySummary {
+
+	private final LocalDate settlementDate;
+	private final Currency reportingCurrency;
+	private final BigDecimal totalAmount;
+	private final long tradeCount;
+	private final long unconvertedTradeCount;
+	private final Map<Currency, BigDecimal> localTotals;
+	private final Map<Currency, BigDecimal> convertedTotals;
+
+	/**
+	 * @param tradeCount every trade of the date, unconverted ones included
+	 * @param localTotals amount per trade currency in that currency, owned by the summary from now on
+	 * @param convertedTotals the amounts that have a rate in the reporting currency, owned by the summary from now on
+	 */
+	CurrencySummary(LocalDate settlementDate, Currency reportingCurrency, BigDecimal totalAmount, long tradeCount,
+			long unconvertedTradeCount, Map<Currency, BigDecimal> localTotals,
+			Map<Currency, BigDecimal> convertedTotals) {
+		this.settlementDate = settlementDate;
+		this.reportingCurrency = reportingCurrency;
+		this.totalAmount = totalAmount;
+		this.tradeCount = tradeCount;
+		this.unconvertedTradeCount = unconvertedTradeCount;
+		this.localTotals = Collections.unmodifiableMap(localTotals);
+		this.convertedTotals = Collections.unmodifiableMap(convertedTotals);
+	}
+
+	/**
+	 * @return the working settlement date
+	 */
+	public LocalDate getSettlementDate() {
+		return settlementDate;
+	}
+
+	public Currency getReportingCurrency() {
+		return reportingCurrency;
+	}
+
+	/**
+	 * @return the total amount settled on the date in the reporting currency, unconverted trades excluded
+	 */
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	/**
+	 * @return the number of trades settled on the date, unconverted ones included like in {@link DailySummary}
+	 */
+	public long getTradeCount() {
+		return tradeCount;
+	}
+
+	/**
+	 * @return the number of trades left out of the total amount: without currency, in a currency the rate table
+	 *         does not have, or dated before its first rate
+	 */
+	public long getUnconvertedTradeCount() {
+		return unconvertedTradeCount;
+	}
+
+	/**
+	 * @return units * pricePerUnit summed per trade currency, in that currency
+	 */
+	public Map<Currency, BigDecimal> getLocalTotals() {
+		return localTotals;
+	}
+
+	/**
+	 * @return the local totals converted into the reporting currency at the rate of the date, without the
+	 *         currencies that have no rate on the date
+	 */
+	public Map<Currency, BigDecimal> getConvertedTotals() {
+		return convertedTotals;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(settlementDate, reportingCurrency, totalAmount, tradeCount, unconvertedTradeCount, localTotals,
+				convertedTotals);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CurrencySummary)) {
+			return false;
+		}
+		CurrencySummary other = (CurrencySummary) obj;
+		return settlementDate.equals(other.settlementDate) && reportingCurrency.equals(other.reportingCurrency)
+				&& totalAmount.equals(other.totalAmount) && tradeCount == other.tradeCount
+				&& unconvertedTradeCount == other.unconvertedTradeCount && localTotals.equals(other.localTotals) && convertedTotals.equals(other.convertedTotals);
+	}
+
+	@Override
+	public String toString() {
+		return "CurrencySummary[settlementDate=" + settlementDate + ",totalAmount=" + totalAmount + " "
+				+ reportingCurrency + ",tradeCount=" + tradeCount + ",unconvertedTradeCount=" + unconvertedTradeCount
+				+ ",localTotals=" + localTotals + "]";
+	}
+}
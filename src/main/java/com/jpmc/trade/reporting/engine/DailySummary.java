@@ -0,0 +1,113 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aggregated figures of one action (BUY / SELL) on one working settlement date.
+ *
+ * Entities are ranked on their amount summed over all their trades of the date, see {@link #getTopEntities(int)}.
+ */
+public final class DailySummary {
+
+	private final LocalDate settlementDate;
+	private final BigDecimal totalAmount;
+	private final String topStockName;
+	private final BigDecimal topAmount;
+	private final long tradeCount;
+	private final Map<String, BigDecimal> entityTotals;
+
+	/**
+	 * @param entityTotals amount per entity, owned by the summary from now on
+	 */
+	DailySummary(LocalDate settlementDate, BigDecimal totalAmount, long tradeCount,
+			Map<String, BigDecimal> entityTotals) {
+		this.settlementDate = settlementDate;
+		this.totalAmount = totalAmount;
+		this.tradeCount = tradeCount;
+		this.entityTotals = Collections.unmodifiableMap(entityTotals);
+		List<RankedEntity> top = entityTotals.isEmpty() ? Collections.<RankedEntity>emptyList()
+				: EntityRanking.top(entityTotals, 1);
+		this.topStockName = top.isEmpty() ? null : top.get(0).getStockName();
+		this.topAmount = top.isEmpty() ? null : top.get(0).getTotalAmount();
+	}
+
+	/**
+	 * @return the working settlement date
+	 */
+	public LocalDate getSettlementDate() {
+		return settlementDate;
+	}
+
+	/**
+	 * @return the total amount settled on the date
+	 */
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	/**
+	 * @return the stock name with the highest summed amount on the date
+	 */
+	public String getTopStockName() {
+		return topStockName;
+	}
+
+	/**
+	 * @return the summed amount of the top stock
+	 */
+	public BigDecimal getTopAmount() {
+		return topAmount;
+	}
+
+	/**
+	 * @return the number of trades settled on the date
+	 */
+	public long getTradeCount() {
+		return tradeCount;
+	}
+
+	/**
+	 * @return the amount of every entity traded on the date
+	 */
+	public Map<String, BigDecimal> getEntityTotals() {
+		return entityTotals;
+	}
+
+	/**
+	 * @return the n entities with the highest summed amount, best first, ties ordered by stock name
+	 */
+	public List<RankedEntity> getTopEntities(int n) {
+		return EntityRanking.top(entityTotals, n);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(settlementDate, totalAmount, tradeCount, entityTotals);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DailySummary)) {
+			return false;
+		}
+		DailySummary other = (DailySummary) obj;
+		return tradeCount == other.tradeCount
+				&& settlementDate.equals(other.settlementDate)
+				&& totalAmount.equals(other.totalAmount)
+				&& entityTotals.equals(other.entityTotals);
+	}
+
+	@Override
+	public String toString() {
+		return "DailySummary[settlementDate=" + settlementDate + ",totalAmount=" + totalAmount + ",topStockName="
+				+ topStockName + ",topAmount=" + topAmount + ",tradeCount=" + tradeCount + "]";
+	}
+}
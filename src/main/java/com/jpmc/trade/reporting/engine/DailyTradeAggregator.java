@@ -0,0 +1,428 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Single pass aggregation engine behind the daily reports.
+ *
+ * Every trade is visited once: the settlement date is moved to the next working day and the amount
+ * (agreedFx * units * pricePerUnit) is computed once and folded into the bucket of its action and date.
+ * Totals, per entity totals and trade counts of both BUY and SELL are produced together, without intermediate
+ * lists. Rankings are selected from the per entity totals when the report is read.
+ *
+ * Amounts are BigDecimals by default. With a {@link FixedPointPrecision} they are computed and summed as scaled
+ * longs instead, and folding {@link TradeRecord records} and {@link TradeBatch batches} allocates nothing per trade
+ * once the dates and entities are known. Totals are exact either way, fixed point ones carry the amount scale.
+ *
+ * Passes, trades and sampled per trade stages are recorded in {@link ReportMetrics} when instrumented.
+ *
+ * Not thread safe, use one instance per thread and {@link #merge(DailyTradeAggregator)} the partial results.
+ */
+public class DailyTradeAggregator {
+
+	private final SettlementCalendar settlementCalendar;
+
+	/**
+	 * Null in BigDecimal mode.
+	 */
+	private final FixedPointPrecision precision;
+
+	/**
+	 * Buckets per action keyed by working settlement epoch day.
+	 */
+	private final Map<String, IntObjectHashMap<DateBucket>> bucketsByAction = new HashMap<>();
+
+	/**
+	 * Raw indicator (e.g. "b") to its normalised buckets, saves the upper casing per trade.
+	 */
+	private final Map<String, IntObjectHashMap<DateBucket>> bucketsByRawAction = new HashMap<>();
+
+	/**
+	 * Null when not instrumented.
+	 */
+	private ReportMetrics metrics = ReportMetrics.globalIfEnabled();
+
+	/**
+	 * Trades left before the next one with timed stages.
+	 */
+	private int untilSample;
+
+	/**
+	 * Uses the {@link SettlementCalendar#standard()} working days.
+	 */
+	public DailyTradeAggregator() {
+		this(SettlementCalendar.standard());
+	}
+
+	public DailyTradeAggregator(SettlementCalendar settlementCalendar) {
+		this(settlementCalendar, null);
+	}
+
+	/**
+	 * @param precision declared precision of the fixed point mode, null for BigDecimal amounts
+	 */
+	public DailyTradeAggregator(SettlementCalendar settlementCalendar, FixedPointPrecision precision) {
+		this.settlementCalendar = settlementCalendar;
+		this.precision = precision;
+	}
+
+	/**
+	 * Aggregates the trades in one pass.
+	 */
+	public static DailyTradeReport aggregate(Collection<TradeEvent> tradeEvents) {
+		return aggregate(tradeEvents, SettlementCalendar.standard());
+	}
+
+	/**
+	 * Aggregates the trades in one pass, moving settlement dates with the given calendar.
+	 */
+	public static DailyTradeReport aggregate(Collection<TradeEvent> tradeEvents, SettlementCalendar settlementCalendar) {
+		return new DailyTradeAggregator(settlementCalendar).acceptAll(tradeEvents).toReport();
+	}
+
+	/**
+	 * Aggregates the columnar batch in one pass.
+	 */
+	public static DailyTradeReport aggregate(TradeBatch tradeBatch) {
+		return new DailyTradeAggregator().accept(tradeBatch).toReport();
+	}
+
+	/**
+	 * Aggregates the columnar batch in one pass with fixed point amounts of the given precision.
+	 */
+	public static DailyTradeReport aggregate(TradeBatch tradeBatch, FixedPointPrecision precision) {
+		return new DailyTradeAggregator(SettlementCalendar.standard(), precision).accept(tradeBatch).toReport();
+	}
+
+	/**
+	 * Records into the given metrics from now on, or into none if null or disabled.
+	 * By default aggregators record into {@link ReportMetrics#global()} if it was enabled when they were created.
+	 */
+	public DailyTradeAggregator instrument(ReportMetrics metrics) {
+		this.metrics = metrics != null && metrics.isEnabled() ? metrics : null;
+		return this;
+	}
+
+	/**
+	 * Folds the trades in one pass, timed as a {@link ReportStage#AGGREGATION} when instrumented.
+	 */
+	public DailyTradeAggregator acceptAll(Collection<TradeEvent> tradeEvents) {
+		ReportMetrics passMetrics = metrics;
+		long startNanos = passMetrics == null ? 0 : System.nanoTime();
+		long startBytes = passMetrics == null ? 0 : ReportMetrics.threadAllocatedBytes();
+		for (TradeEvent tradeEvent : tradeEvents) {
+			accept(tradeEvent);
+		}
+		if (passMetrics != null) {
+			passMetrics.recordPass(ReportStage.AGGREGATION, startNanos, startBytes);
+		}
+		return this;
+	}
+
+	/**
+	 * Folds the trade into its action / date bucket.
+	 * Trades without action or settlement date are skipped, missing units, price or fx count as zero amount.
+	 */
+	public DailyTradeAggregator accept(TradeEvent tradeEvent) {
+		boolean sampled = false;
+		if (metrics != null) {
+			metrics.countTrade(ReportMetrics.presence(tradeEvent));
+			sampled = sample();
+		}
+		if (!tradeEvent.getBuySellIndicator().isPresent() || !tradeEvent.getSettlementDate().isPresent()) {
+			return this;
+		}
+		long start = sampled ? System.nanoTime() : 0;
+		int settlementEpochDay = (int) workingSettlementDate(tradeEvent, settlementCalendar).toEpochDay();
+		long adjusted = sampled ? System.nanoTime() : 0;
+		DateBucket bucket = bucketFor(tradeEvent.getBuySellIndicator().get(), settlementEpochDay);
+		long grouped = sampled ? System.nanoTime() : 0;
+		String stockName = tradeEvent.getStockName().orElse("");
+		if (precision == null) {
+			bucket.add(stockName, amount(tradeEvent));
+		} else {
+			bucket.add(stockName, precision.amount(tradeEvent.getAgreedFx().orElse(BigDecimal.ZERO),
+					tradeEvent.getUnits().orElse(0), tradeEvent.getPricePerUnit().orElse(BigDecimal.ZERO)));
+		}
+		if (sampled) {
+			recordStages(start, adjusted, grouped);
+		}
+		return this;
+	}
+
+	/**
+	 * Folds a decoded record, same rules as {@link #accept(TradeEvent)}.
+	 */
+	public DailyTradeAggregator accept(TradeRecord record) {
+		int presence = record.getPresence();
+		boolean sampled = false;
+		if (metrics != null) {
+			metrics.countTrade(presence);
+			sampled = sample();
+		}
+		if (!record.has(TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+			return this;
+		}
+		long start = sampled ? System.nanoTime() : 0;
+		int settlementEpochDay = settlementCalendar.nextWorkingEpochDay(record.getCurrency(),
+				record.getSettlementEpochDay());
+		long adjusted = sampled ? System.nanoTime() : 0;
+		DateBucket bucket = bucketFor(record.getBuySellIndicator(), settlementEpochDay);
+		long grouped = sampled ? System.nanoTime() : 0;
+		add(bucket, (presence & TradeRecord.STOCK_NAME) != 0 ? record.getStockName() : "", presence,
+				record.getAgreedFxUnscaled(), record.getAgreedFxScale(), record.getUnits(),
+				record.getPricePerUnitUnscaled(), record.getPricePerUnitScale());
+		if (sampled) {
+			recordStages(start, adjusted, grouped);
+		}
+		return this;
+	}
+
+	/**
+	 * Folds every row of the batch, reading the columns directly.
+	 */
+	public DailyTradeAggregator accept(TradeBatch tradeBatch) {
+		return accept(tradeBatch, 0, tradeBatch.size());
+	}
+
+	/**
+	 * Folds the rows [fromRow, toRow) of the batch, timed as a {@link ReportStage#AGGREGATION} when instrumented.
+	 */
+	public DailyTradeAggregator accept(TradeBatch tradeBatch, int fromRow, int toRow) {
+		ReportMetrics passMetrics = metrics;
+		long startNanos = passMetrics == null ? 0 : System.nanoTime();
+		long startBytes = passMetrics == null ? 0 : ReportMetrics.threadAllocatedBytes();
+		String[] stockNames = tradeBatch.stockNames();
+		String[] buySellIndicators = tradeBatch.buySellIndicators();
+		WorkingDayCalendar[] calendars = settlementCalendar.calendarsFor(tradeBatch.currencies());
+		WorkingDayCalendar defaultCalendar = settlementCalendar.calendarFor(null);
+		for (int row = fromRow; row < toRow; row++) {
+			int presence = tradeBatch.presence(row);
+			boolean sampled = false;
+			if (passMetrics != null) {
+				passMetrics.countTrade(presence);
+				sampled = sample();
+			}
+			if ((presence & (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE))
+					!= (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+				continue;
+			}
+			long start = sampled ? System.nanoTime() : 0;
+			WorkingDayCalendar calendar = (presence & TradeRecord.CURRENCY) != 0
+					? calendars[tradeBatch.currencyId(row)] : defaultCalendar;
+			int settlementEpochDay = calendar.nextWorkingEpochDay(tradeBatch.settlementEpochDay(row));
+			long adjusted = sampled ? System.nanoTime() : 0;
+			DateBucket bucket = bucketFor(buySellIndicators[tradeBatch.buySellIndicatorId(row)], settlementEpochDay);
+			long grouped = sampled ? System.nanoTime() : 0;
+			add(bucket, (presence & TradeRecord.STOCK_NAME) != 0 ? stockNames[tradeBatch.stockNameId(row)] : "",
+					presence, tradeBatch.agreedFxUnscaled(row), tradeBatch.agreedFxScale(row), tradeBatch.units(row),
+					tradeBatch.pricePerUnitUnscaled(row), tradeBatch.pricePerUnitScale(row));
+			if (sampled) {
+				recordStages(start, adjusted, grouped);
+			}
+		}
+		if (passMetrics != null) {
+			passMetrics.recordPass(ReportStage.AGGREGATION, startNanos, startBytes);
+		}
+		return this;
+	}
+
+	/**
+	 * @return true if the stages of the current trade are to be timed, one trade out of the sample interval
+	 */
+	private boolean sample() {
+		if (--untilSample > 0) {
+			return false;
+		}
+		untilSample = metrics.getSampleInterval();
+		return true;
+	}
+
+	private void recordStages(long start, long adjusted, long grouped) {
+		metrics.record(ReportStage.SETTLEMENT_ADJUSTMENT, adjusted - start);
+		metrics.record(ReportStage.GROUPING, grouped - adjusted);
+		metrics.record(ReportStage.AMOUNT, System.nanoTime() - grouped);
+	}
+
+	/**
+	 * Folds agreedFx * units * pricePerUnit into the bucket, fields absent from presence count as zero.
+	 */
+	private void add(DateBucket bucket, String stockName, int presence, long agreedFxUnscaled, int agreedFxScale,
+			int units, long pricePerUnitUnscaled, int pricePerUnitScale) {
+		if (precision == null) {
+			bucket.add(stockName, amount(presence, agreedFxUnscaled, agreedFxScale, units, pricePerUnitUnscaled,
+					pricePerUnitScale));
+			return;
+		}
+		if ((presence & TradeRecord.AGREED_FX) == 0) {
+			agreedFxUnscaled = 0;
+			agreedFxScale = 0;
+		}
+		if ((presence & TradeRecord.PRICE_PER_UNIT) == 0) {
+			pricePerUnitUnscaled = 0;
+			pricePerUnitScale = 0;
+		}
+		if ((presence & TradeRecord.UNITS) == 0) {
+			units = 0;
+		}
+		long amount;
+		try {
+			amount = precision.amountUnscaled(agreedFxUnscaled, agreedFxScale, units, pricePerUnitUnscaled,
+					pricePerUnitScale);
+		} catch (ArithmeticException overflow) {
+			bucket.add(stockName, precision.amount(agreedFxUnscaled, agreedFxScale, units, pricePerUnitUnscaled,
+					pricePerUnitScale));
+			return;
+		}
+		bucket.add(stockName, amount);
+	}
+
+	/**
+	 * Adds the partial result of another aggregator. The other aggregator is left untouched.
+	 * Merging partials of consecutive slices in order gives the same result as one sequential pass.
+	 */
+	public DailyTradeAggregator merge(DailyTradeAggregator other) {
+		if (!Objects.equals(precision, other.precision)) {
+			throw new IllegalArgumentException("cannot merge " + other.precision + " amounts into " + precision);
+		}
+		other.bucketsByAction.forEach((action, otherBuckets) -> {
+			IntObjectHashMap<DateBucket> buckets = bucketsByAction.computeIfAbsent(action,
+					key -> new IntObjectHashMap<>());
+			otherBuckets.forEach((epochDay, otherBucket) -> bucket(buckets, epochDay).merge(otherBucket));
+		});
+		return this;
+	}
+
+	/**
+	 * Builds the report, timed as {@link ReportStage#RANKING} when instrumented.
+	 */
+	public DailyTradeReport toReport() {
+		ReportMetrics passMetrics = metrics;
+		long startNanos = passMetrics == null ? 0 : System.nanoTime();
+		long startBytes = passMetrics == null ? 0 : ReportMetrics.threadAllocatedBytes();
+		Map<String, Map<LocalDate, DailySummary>> summariesByAction = new HashMap<>();
+		bucketsByAction.forEach((action, buckets) -> {
+			Map<LocalDate, DailySummary> summaries = new HashMap<>();
+			buckets.forEach((epochDay, bucket) -> {
+				LocalDate date = LocalDate.ofEpochDay(epochDay);
+				summaries.put(date, bucket.toSummary(date));
+			});
+			summariesByAction.put(action, summaries);
+		});
+		DailyTradeReport report = new DailyTradeReport(summariesByAction);
+		if (passMetrics != null) {
+			passMetrics.recordPass(ReportStage.RANKING, startNanos, startBytes);
+		}
+		return report;
+	}
+
+	private DateBucket bucketFor(String buySellIndicator, int settlementEpochDay) {
+		IntObjectHashMap<DateBucket> buckets = bucketsByRawAction.get(buySellIndicator);
+		if (buckets == null) {
+			buckets = bucketsByAction.computeIfAbsent(DailyTradeReport.actionKey(buySellIndicator),
+					key -> new IntObjectHashMap<>());
+			bucketsByRawAction.put(buySellIndicator, buckets);
+		}
+		return bucket(buckets, settlementEpochDay);
+	}
+
+	private DateBucket bucket(IntObjectHashMap<DateBucket> buckets, int settlementEpochDay) {
+		DateBucket bucket = buckets.get(settlementEpochDay);
+		if (bucket == null) {
+			bucket = new DateBucket(precision);
+			buckets.put(settlementEpochDay, bucket);
+		}
+		return bucket;
+	}
+
+	/**
+	 * @return agreedFx * units * pricePerUnit of the trade, missing values count as zero
+	 */
+	static BigDecimal amount(TradeEvent tradeEvent) {
+		return tradeEvent.getAgreedFx().orElse(BigDecimal.ZERO)
+				.multiply(BigDecimal.valueOf(tradeEvent.getUnits().orElse(0)))
+				.multiply(tradeEvent.getPricePerUnit().orElse(BigDecimal.ZERO));
+	}
+
+	/**
+	 * @return agreedFx * units * pricePerUnit of the decoded fields, fields absent from presence count as zero
+	 */
+	static BigDecimal amount(int presence, long agreedFxUnscaled, int agreedFxScale, int units,
+			long pricePerUnitUnscaled, int pricePerUnitScale) {
+		boolean agreedFx = (presence & TradeRecord.AGREED_FX) != 0;
+		boolean pricePerUnit = (presence & TradeRecord.PRICE_PER_UNIT) != 0;
+		return BigDecimal.valueOf(agreedFx ? agreedFxUnscaled : 0, agreedFx ? agreedFxScale : 0)
+				.multiply(BigDecimal.valueOf((presence & TradeRecord.UNITS) != 0 ? units : 0))
+				.multiply(BigDecimal.valueOf(pricePerUnit ? pricePerUnitUnscaled : 0,
+						pricePerUnit ? pricePerUnitScale : 0));
+	}
+
+	/**
+	 * @return the settlement date of the trade moved to the next working day, the trade must have one
+	 */
+	static LocalDate workingSettlementDate(TradeEvent tradeEvent, SettlementCalendar settlementCalendar) {
+		return settlementCalendar.nextWorkingDay(tradeEvent.getCurrency().orElse(null),
+				tradeEvent.getSettlementDate().get());
+	}
+
+	/**
+	 * @return the settlement date of the record moved to the next working day, the record must have one
+	 */
+	static LocalDate workingSettlementDate(TradeRecord record, SettlementCalendar settlementCalendar) {
+		return LocalDate.ofEpochDay(
+				settlementCalendar.nextWorkingEpochDay(record.getCurrency(), record.getSettlementEpochDay()));
+	}
+
+	/**
+	 * Running figures of one action on one date.
+	 */
+	private static final class DateBucket {
+		private final FixedPointPrecision precision;
+		private final AmountAccumulator totalAmount;
+		private long tradeCount;
+		private final Map<String, AmountAccumulator> entityTotals = new HashMap<>();
+
+		DateBucket(FixedPointPrecision precision) {
+			this.precision = precision;
+			this.totalAmount = AmountAccumulator.of(precision);
+		}
+
+		void add(String stockName, BigDecimal amount) {
+			totalAmount.add(amount);
+			tradeCount++;
+			entityTotal(stockName).add(amount);
+		}
+
+		void add(String stockName, long unscaledAmount) {
+			totalAmount.add(unscaledAmount);
+			tradeCount++;
+			entityTotal(stockName).add(unscaledAmount);
+		}
+
+		void merge(DateBucket other) {
+			totalAmount.add(other.totalAmount);
+			tradeCount += other.tradeCount;
+			other.entityTotals.forEach((stockName, amount) -> entityTotal(stockName).add(amount));
+		}
+
+		private AmountAccumulator entityTotal(String stockName) {
+			AmountAccumulator entityTotal = entityTotals.get(stockName);
+			if (entityTotal == null) {
+				entityTotal = AmountAccumulator.of(precision);
+				entityTotals.put(stockName, entityTotal);
+			}
+			return entityTotal;
+		}
+
+		DailySummary toSummary(LocalDate settlementDate) {
+			Map<String, BigDecimal> amounts = new HashMap<>();
+			entityTotals.forEach((stockName, amount) -> amounts.put(stockName, amount.toBigDecimal()));
+			return new DailySummary(settlementDate, totalAmount.toBigDecimal(), tradeCount, amounts);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Combined result of one aggregation pass: per action (BUY / SELL) and working settlement date
+ * the total amount, top ranked stock and trade count.
+ *
+ * Actions are matched ignoring case, same as the filter of {@link DailyTradeReporter}.
+ */
+public final class DailyTradeReport {
+
+	private final Map<String, Map<LocalDate, DailySummary>> summariesByAction;
+
+	DailyTradeReport(Map<String, Map<LocalDate, DailySummary>> summariesByAction) {
+		this.summariesByAction = summariesByAction;
+	}
+
+	/**
+	 * @return the actions present in the report, upper cased
+	 */
+	public Set<String> getBuySellIndicators() {
+		return Collections.unmodifiableSet(summariesByAction.keySet());
+	}
+
+	/**
+	 * @return the summaries of the action keyed by working settlement date, empty if action is unknown
+	 */
+	public Map<LocalDate, DailySummary> getSummaries(String buySellIndicator) {
+		Map<LocalDate, DailySummary> summaries = summariesByAction.get(actionKey(buySellIndicator));
+		return summaries == null ? Collections.<LocalDate, DailySummary>emptyMap()
+				: Collections.unmodifiableMap(summaries);
+	}
+
+	public Map<LocalDate, BigDecimal> getTotalAmountByDate(String buySellIndicator) {
+		Map<LocalDate, BigDecimal> totalByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> totalByDate.put(date, summary.getTotalAmount()));
+		return totalByDate;
+	}
+
+	public Map<LocalDate, String> getTopStockByDate(String buySellIndicator) {
+		Map<LocalDate, String> rankByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> rankByDate.put(date, summary.getTopStockName()));
+		return rankByDate;
+	}
+
+	/**
+	 * @return the n entities with the highest summed amount per date, best first, ties ordered by stock name
+	 */
+	public Map<LocalDate, List<RankedEntity>> getTopEntitiesByDate(String buySellIndicator, int n) {
+		Map<LocalDate, List<RankedEntity>> topByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> topByDate.put(date, summary.getTopEntities(n)));
+		return topByDate;
+	}
+
+	public Map<LocalDate, Long> getTradeCountByDate(String buySellIndicator) {
+		Map<LocalDate, Long> countByDate = new HashMap<>();
+		getSummaries(buySellIndicator).forEach((date, summary) -> countByDate.put(date, summary.getTradeCount()));
+		return countByDate;
+	}
+
+	/**
+	 * Normalised key of an action, so "b" and "B" land in the same group.
+	 */
+	static String actionKey(String buySellIndicator) {
+		return buySellIndicator.toUpperCase(Locale.ROOT);
+	}
+
+	@Override
+	public String toString() {
+		return "DailyTradeReport" + summariesByAction;
+	}
+}
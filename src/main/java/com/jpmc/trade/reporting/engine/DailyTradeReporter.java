@@ -1,18 +1,63 @@
 package com.jpmc.trade.reporting.engine;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class DailyTradeReporter {
 
+	private static final ParallelTradeAggregator PARALLEL_AGGREGATOR = new ParallelTradeAggregator();
+
+	/**
+	 * Aggregates the input trades of both actions (Outgoing - BUY / Incoming - SELL) in a single pass.
+	 * Settlement dates are moved to the next working day, the input trades are not modified.
+	 */
+	public static DailyTradeReport dailyReport(List<TradeEvent> tradeEvents) {
+		return DailyTradeAggregator.aggregate(tradeEvents);
+	}
+
+	/**
+	 * Same as {@link #dailyReport(List)}, with working days and holidays of the given calendar.
+	 */
+	public static DailyTradeReport dailyReport(List<TradeEvent> tradeEvents, SettlementCalendar settlementCalendar) {
+		return DailyTradeAggregator.aggregate(tradeEvents, settlementCalendar);
+	}
+
+	/**
+	 * Same as {@link #dailyReport(List)} over the columnar form of the trades.
+	 */
+	public static DailyTradeReport dailyReport(TradeBatch tradeBatch) {
+		return DailyTradeAggregator.aggregate(tradeBatch);
+	}
+
+	/**
+	 * Same as {@link #dailyReport(TradeBatch)} with fixed point amounts: prices and fx rates of the declared
+	 * precision are multiplied and summed as scaled longs, totals carry {@link FixedPointPrecision#getAmountScale()}.
+	 */
+	public static DailyTradeReport dailyReport(TradeBatch tradeBatch, FixedPointPrecision precision) {
+		return DailyTradeAggregator.aggregate(tradeBatch, precision);
+	}
+
+	/**
+	 * Same as {@link #dailyReport(List)}, computed in the given execution mode.
+	 */
+	public static DailyTradeReport dailyReport(List<TradeEvent> tradeEvents, ExecutionMode executionMode) {
+		return executionMode == ExecutionMode.PARALLEL ? PARALLEL_AGGREGATOR.aggregate(tradeEvents)
+				: dailyReport(tradeEvents);
+	}
+
+	/**
+	 * Same as {@link #dailyReport(TradeBatch)}, computed in the given execution mode.
+	 */
+	public static DailyTradeReport dailyReport(TradeBatch tradeBatch, ExecutionMode executionMode) {
+		return executionMode == ExecutionMode.PARALLEL ? PARALLEL_AGGREGATOR.aggregate(tradeBatch)
+				: dailyReport(tradeBatch);
+	}
+
 	/**
 	 * Takes the list of input trades and filters it based on action passed (Outgoing - BUY / Incoming - SELL).
 	 * Later updates the settlementDate to the next working day.
@@ -21,94 +66,93 @@ public class DailyTradeReporter {
 	 * 
 	 */
 	public static Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(List<TradeEvent> tradeEvents, String buySellIndicator) {
-		Map<LocalDate, BigDecimal> groupByDate = new HashMap<>();
-		List<TradeEvent> updatedTradeEvents = filterAndUpdateSettlementDates(tradeEvents, buySellIndicator);
-		
-		updatedTradeEvents.stream()
-				.collect(Collectors.groupingBy(TradeEvent::getSettlementDate, Collectors.toList()))
-				.forEach((date, list) -> 
-						groupByDate.put(date.get(), list.stream()
-							.map(tradeEvent -> tradeEvent.getAgreedFx().orElse(BigDecimal.ZERO)
-									.multiply(BigDecimal.valueOf(tradeEvent.getUnits().orElse(0)))
-									.multiply(tradeEvent.getPricePerUnit().orElse(BigDecimal.ZERO)))
-							.reduce(BigDecimal.ZERO, BigDecimal::add))
-						);
-		
-		return groupByDate;
+		return dailyReport(tradeEvents).getTotalAmountByDate(buySellIndicator);
 	}
 
 	public static void generateTotalAmountReport(List<TradeEvent> tradeEvents, String buySellIndicator) {
-		System.out.println("List of total amount listed below for Action: " + buySellIndicator);
-		dailyTotalAmountGroupByDate(tradeEvents, buySellIndicator).forEach((date, amt) -> {
-			System.out.println(" on Date: " + date + " total amt <" + amt + ">");
-		});
+		printTotalAmountReport(dailyReport(tradeEvents), buySellIndicator);
 	}
 
+	/**
+	 * Finds the top entity of each working date, ranked on the amount summed over all its trades.
+	 * Equal amounts are ordered by stock name.
+	 */
 	public static Map<LocalDate, String> findRankingGroupByDate(List<TradeEvent> tradeEvents, String buySellIndicator) {
-		Map<LocalDate, String> rankByDate = new HashMap<>();
-		List<TradeEvent> updatedTradeEvents = filterAndUpdateSettlementDates(tradeEvents, buySellIndicator);
-		
-		updatedTradeEvents.stream()
-				.collect(Collectors.groupingBy(TradeEvent::getSettlementDate, Collectors.toList()))
-				.forEach((date, list) -> rankByDate
-						.put(date.get(), list.stream()
-							.sorted((tradeEvent1, tradeEvent2) -> tradeEvent2.getAgreedFx().orElse(BigDecimal.ZERO)
-									.multiply(BigDecimal.valueOf(tradeEvent2.getUnits().orElse(0)))
-									.multiply(tradeEvent2.getPricePerUnit().orElse(BigDecimal.ZERO))
-							.compareTo(tradeEvent1.getAgreedFx().orElse(BigDecimal.ZERO)
-									.multiply(BigDecimal.valueOf(tradeEvent1.getUnits().orElse(0)))
-									.multiply(tradeEvent1.getPricePerUnit().orElse(BigDecimal.ZERO))))
-							.findFirst().map(event -> event.getStockName().orElse("")).orElse("")));
-		return rankByDate;
+		return dailyReport(tradeEvents).getTopStockByDate(buySellIndicator);
 	}
 	
-	public static void generateRankingReport(List<TradeEvent> tradeEvents, String buySellIndicator) {
-		System.out.println("Top Stock Name for Action: " + buySellIndicator);
-		findRankingGroupByDate(tradeEvents, buySellIndicator).forEach((date, entity) -> {
-			System.out.println(" on Date: " + date + " topper is stock <" + entity +">");
-		});
+	/**
+	 * Finds the n top entities of each working date, best first, with a bounded heap over the per entity totals.
+	 */
+	public static Map<LocalDate, List<RankedEntity>> findTopEntitiesGroupByDate(List<TradeEvent> tradeEvents,
+			String buySellIndicator, int n) {
+		return dailyReport(tradeEvents).getTopEntitiesByDate(buySellIndicator, n);
 	}
-	
-	private static List<TradeEvent> filterAndUpdateSettlementDates(List<TradeEvent> tradeEvents,
-			String buySellIndicator) {
 
-		Predicate<? super TradeEvent> buySellAction = tradeEvent -> tradeEvent.getBuySellIndicator()
-				.map(tradeAction -> tradeAction.equalsIgnoreCase(buySellIndicator)).orElse(false);
+	/**
+	 * Finds the top entity of each working date like {@link #findRankingGroupByDate}, from sketches in bounded
+	 * memory per date instead of exact per entity totals. The top entity may be wrong when the amounts of the best
+	 * entities are closer than the sketch error. Trades with a negative amount, e.g. a negative price or fx, cannot
+	 * be sketched: they are skipped by the ranking and counted in {@link ApproximateSummary#getUnrankedTradeCount()},
+	 * so the top entity ranks the other trades only.
+	 */
+	public static Map<LocalDate, String> findApproximateRankingGroupByDate(List<TradeEvent> tradeEvents,
+			String buySellIndicator, SketchAccuracy accuracy) {
+		return approximateReport(tradeEvents, accuracy).getTopStockByDate(buySellIndicator);
+	}
 
-		List<TradeEvent> updatedTradeEvents = new ArrayList<>();
-		tradeEvents.stream().filter(buySellAction)
-				.forEach(tradeEvent -> tradeEvent.getSettlementDate().ifPresent(setDate -> {
-					updateSettlementDateForWeekends(tradeEvent, setDate);
-					updatedTradeEvents.add(tradeEvent);
-				}));
+	/**
+	 * Exact totals with sketched top entities and distinct entity counts per action and working date.
+	 */
+	public static ApproximateTradeReport approximateReport(List<TradeEvent> tradeEvents, SketchAccuracy accuracy) {
+		return ApproximateTradeAggregator.aggregate(tradeEvents, accuracy);
+	}
 
-		return updatedTradeEvents;
+	/**
+	 * Totals per action, working settlement date and trade currency, in the trade currencies and converted into
+	 * the reporting currency of the rate table.
+	 */
+	public static CurrencyReport currencyReport(List<TradeEvent> tradeEvents, FxRateTable fxRates) {
+		return CurrencyAggregator.aggregate(tradeEvents, SettlementCalendar.standard(), fxRates);
+	}
 
+	/**
+	 * Totals of the trades grouped by the given dimensions, e.g. per currency and action.
+	 * Run a {@link GroupByAggregator} directly for several group bys in one pass.
+	 */
+	public static GroupByResult groupBy(List<TradeEvent> tradeEvents, GroupDimension... dimensions) {
+		Set<GroupDimension> groupBy = EnumSet.noneOf(GroupDimension.class);
+		Collections.addAll(groupBy, dimensions);
+		return GroupByAggregator.aggregate(tradeEvents, groupBy).get(groupBy);
+	}
+
+	public static void generateRankingReport(List<TradeEvent> tradeEvents, String buySellIndicator) {
+		printRankingReport(dailyReport(tradeEvents), buySellIndicator);
 	}
 
 	/**
-	 * Finds the next working day based on the currency type
+	 * Prints the total amount and ranking reports of every action out of one aggregation pass.
 	 */
-	private static void updateSettlementDateForWeekends(TradeEvent tradeEvent, LocalDate setDate) {
-		DayOfWeek dayOfWeek = setDate.getDayOfWeek();
-		boolean isArabicCurrency = tradeEvent.getCurrency()
-				.map(currencyType -> "AED".equalsIgnoreCase(currencyType.getCurrencyCode()) 
-						|| "SAR".equalsIgnoreCase(currencyType.getCurrencyCode()))
-				.orElse(false);
-		
-		if(isArabicCurrency) {
-			if(dayOfWeek == DayOfWeek.FRIDAY) {
-				tradeEvent.setSettlementDate(Optional.of(setDate.plusDays(2)));
-			} else if(dayOfWeek == DayOfWeek.SATURDAY) {
-				tradeEvent.setSettlementDate(Optional.of(setDate.plusDays(1)));
-			}
-		} else {
-			if(dayOfWeek == DayOfWeek.SATURDAY) {
-				tradeEvent.setSettlementDate(Optional.of(setDate.plusDays(2)));
-			} else if(dayOfWeek == DayOfWeek.SUNDAY) {
-				tradeEvent.setSettlementDate(Optional.of(setDate.plusDays(1)));
-			}
-		}
+	public static void generateDailyReports(List<TradeEvent> tradeEvents) {
+		DailyTradeReport report = dailyReport(tradeEvents);
+		report.getBuySellIndicators().forEach(buySellIndicator -> {
+			printTotalAmountReport(report, buySellIndicator);
+			printRankingReport(report, buySellIndicator);
+		});
+	}
+
+	private static void printTotalAmountReport(DailyTradeReport report, String buySellIndicator) {
+		System.out.println("List of total amount listed below for Action: " + buySellIndicator);
+		report.getTotalAmountByDate(buySellIndicator).forEach((date, amt) -> {
+			System.out.println(" on Date: " + date + " total amt <" + amt + ">");
+		});
+	}
+
+	private static void printRankingReport(DailyTradeReport report, String buySellIndicator) {
+		System.out.println("Top Stock Name for Action: " + buySellIndicator);
+		report.getTopStockByDate(buySellIndicator).forEach((date, entity) -> {
+			System.out.println(" on Date: " + date + " topper is stock <" + entity +">");
+		});
 	}
 
 }
@@ -0,0 +1,55 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the top-N entities out of pre-summed totals with a bounded heap, O(entities log N) instead of a full sort.
+ *
+ * Higher amounts rank first; equal amounts are ordered by stock name, so ties are reported deterministically
+ * whatever the input order.
+ */
+final class EntityRanking {
+
+	/**
+	 * Best first: amount descending, then stock name ascending.
+	 */
+	static final Comparator<Map.Entry<String, BigDecimal>> BEST_FIRST = Comparator
+			.comparing((Map.Entry<String, BigDecimal> entry) -> entry.getValue()).reversed()
+			.thenComparing(Map.Entry::getKey);
+
+	private EntityRanking() {
+	}
+
+	static List<RankedEntity> top(Map<String, BigDecimal> entityTotals, int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be positive: " + n);
+		}
+		// the heap root is the worst of the current top N, replaced whenever a better entity shows up
+		PriorityQueue<Map.Entry<String, BigDecimal>> heap = new PriorityQueue<>(Math.min(n, entityTotals.size()) + 1,
+				BEST_FIRST.reversed());
+		for (Map.Entry<String, BigDecimal> entry : entityTotals.entrySet()) {
+			if (heap.size() < n) {
+				heap.add(entry);
+			} else if (BEST_FIRST.compare(entry, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(entry);
+			}
+		}
+		List<Map.Entry<String, BigDecimal>> best = new ArrayList<>(heap.size());
+		while (!heap.isEmpty()) {
+			best.add(heap.poll());
+		}
+		Collections.reverse(best);
+		List<RankedEntity> ranking = new ArrayList<>(best.size());
+		for (int i = 0; i < best.size(); i++) {
+			ranking.add(new RankedEntity(i + 1, best.get(i).getKey(), best.get(i).getValue()));
+		}
+		return ranking;
+	}
+}
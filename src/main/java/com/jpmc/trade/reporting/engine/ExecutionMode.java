@@ -0,0 +1,17 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * How a report is computed. Both modes give identical results.
+ */
+public enum ExecutionMode {
+
+	/**
+	 * One pass on the calling thread.
+	 */
+	SEQUENTIAL,
+
+	/**
+	 * Fork join over slices of the input, see {@link ParallelTradeAggregator}.
+	 */
+	PARALLEL
+}
@@ -0,0 +1,140 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Declared decimal precision of agreedFx and pricePerUnit for the fixed point aggregation mode.
+ *
+ * With a precision, amounts are computed as scaled longs: agreedFx and pricePerUnit are brought to their declared
+ * scale and agreedFx * units * pricePerUnit is exact in a long of scale {@link #getAmountScale()}. Products and
+ * sums that overflow a long fall back to BigDecimal, so the totals are always exact and carry the amount scale.
+ * Values with more decimals than declared are rejected.
+ */
+public final class FixedPointPrecision {
+
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final int agreedFxScale;
+	private final int pricePerUnitScale;
+
+	private FixedPointPrecision(int agreedFxScale, int pricePerUnitScale) {
+		this.agreedFxScale = agreedFxScale;
+		this.pricePerUnitScale = pricePerUnitScale;
+	}
+
+	/**
+	 * @param agreedFxScale maximum number of decimals of agreedFx, between 0 and 18
+	 * @param pricePerUnitScale maximum number of decimals of pricePerUnit, between 0 and 18
+	 */
+	public static FixedPointPrecision of(int agreedFxScale, int pricePerUnitScale) {
+		if (agreedFxScale < 0 || agreedFxScale >= POWERS_OF_TEN.length) {
+			throw new IllegalArgumentException("agreedFxScale must be between 0 and 18: " + agreedFxScale);
+		}
+		if (pricePerUnitScale < 0 || pricePerUnitScale >= POWERS_OF_TEN.length) {
+			throw new IllegalArgumentException("pricePerUnitScale must be between 0 and 18: " + pricePerUnitScale);
+		}
+		return new FixedPointPrecision(agreedFxScale, pricePerUnitScale);
+	}
+
+	public int getAgreedFxScale() {
+		return agreedFxScale;
+	}
+
+	public int getPricePerUnitScale() {
+		return pricePerUnitScale;
+	}
+
+	/**
+	 * @return the scale of amounts and totals, agreedFxScale + pricePerUnitScale
+	 */
+	public int getAmountScale() {
+		return agreedFxScale + pricePerUnitScale;
+	}
+
+	/**
+	 * @return agreedFx * units * pricePerUnit unscaled to {@link #getAmountScale()}
+	 * @throws ArithmeticException if the amount does not fit a long
+	 * @throws IllegalArgumentException if agreedFx or pricePerUnit have more decimals than declared
+	 */
+	long amountUnscaled(long agreedFxUnscaled, int agreedFxScale, int units, long pricePerUnitUnscaled,
+			int pricePerUnitScale) {
+		long agreedFx = rescale(agreedFxUnscaled, agreedFxScale, this.agreedFxScale, "agreedFx");
+		long pricePerUnit = rescale(pricePerUnitUnscaled, pricePerUnitScale, this.pricePerUnitScale, "pricePerUnit");
+		return Math.multiplyExact(Math.multiplyExact(agreedFx, units), pricePerUnit);
+	}
+
+	/**
+	 * BigDecimal fallback of {@link #amountUnscaled(long, int, int, long, int)} for amounts beyond a long.
+	 */
+	BigDecimal amount(long agreedFxUnscaled, int agreedFxScale, int units, long pricePerUnitUnscaled,
+			int pricePerUnitScale) {
+		return amount(BigDecimal.valueOf(agreedFxUnscaled, agreedFxScale), units,
+				BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale));
+	}
+
+	/**
+	 * @return agreedFx * units * pricePerUnit at {@link #getAmountScale()}
+	 * @throws IllegalArgumentException if agreedFx or pricePerUnit have more decimals than declared
+	 */
+	BigDecimal amount(BigDecimal agreedFx, int units, BigDecimal pricePerUnit) {
+		checkScale(agreedFx, this.agreedFxScale, "agreedFx");
+		checkScale(pricePerUnit, this.pricePerUnitScale, "pricePerUnit");
+		return agreedFx.multiply(BigDecimal.valueOf(units)).multiply(pricePerUnit).setScale(getAmountScale());
+	}
+
+	private static long rescale(long unscaled, int scale, int declaredScale, String field) {
+		if (scale == declaredScale || unscaled == 0) {
+			return unscaled;
+		}
+		if (scale < declaredScale) {
+			return Math.multiplyExact(unscaled, powerOfTen(declaredScale - scale));
+		}
+		if (scale - declaredScale >= POWERS_OF_TEN.length || unscaled % POWERS_OF_TEN[scale - declaredScale] != 0) {
+			throw new IllegalArgumentException(
+					field + " " + BigDecimal.valueOf(unscaled, scale) + " has more than " + declaredScale + " decimals");
+		}
+		return unscaled / POWERS_OF_TEN[scale - declaredScale];
+	}
+
+	private static long powerOfTen(int exponent) {
+		if (exponent >= POWERS_OF_TEN.length) {
+			throw new ArithmeticException("10^" + exponent + " does not fit a long");
+		}
+		return POWERS_OF_TEN[exponent];
+	}
+
+	private static void checkScale(BigDecimal value, int declaredScale, String field) {
+		if (value.scale() > declaredScale && value.stripTrailingZeros().scale() > declaredScale) {
+			throw new IllegalArgumentException(field + " " + value + " has more than " + declaredScale + " decimals");
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * agreedFxScale + pricePerUnitScale;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof FixedPointPrecision)) {
+			return false;
+		}
+		FixedPointPrecision other = (FixedPointPrecision) obj;
+		return agreedFxScale == other.agreedFxScale && pricePerUnitScale == other.pricePerUnitScale;
+	}
+
+	@Override
+	public String toString() {
+		return "FixedPointPrecision[agreedFxScale=" + agreedFxScale + ",pricePerUnitScale=" + pricePerUnitScale + "]";
+	}
+}
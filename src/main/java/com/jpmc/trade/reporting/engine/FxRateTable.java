@@ -0,0 +1,239 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily rates of currencies into one reporting currency, e.g. how many USD one GBP is worth on a date.
+ *
+ * Currencies are interned into dense indices, resolved by ISO numeric code without a map, and the rates are held
+ * in one array per currency indexed by day from the first rate date, so a lookup is two array reads. Days without
+ * a quote (weekends, holidays) carry the last earlier rate forward, and so do the days after the last quote of the
+ * table, up to any date. The reporting currency is always worth 1.
+ * Immutable and thread safe.
+ */
+public final class FxRateTable {
+
+	static final int NO_INDEX = -1;
+
+	private final Currency reportingCurrency;
+	private final Currency[] currencies;
+	/**
+	 * Currency index by ISO numeric code.
+	 */
+	private final int[] indexByNumericCode = new int[1000];
+	private final int firstEpochDay;
+	private final int days;
+	/**
+	 * Rates by currency index and day from firstEpochDay, null before the first rate of the currency.
+	 */
+	private final BigDecimal[][] rates;
+
+	private FxRateTable(FxRateTable.Builder builder) {
+		this.reportingCurrency = builder.reportingCurrency;
+		Arrays.fill(indexByNumericCode, NO_INDEX);
+		List<Currency> interned = new ArrayList<>();
+		interned.add(reportingCurrency);
+		interned.addAll(builder.rates.keySet());
+		this.currencies = interned.toArray(new Currency[0]);
+		int first = Integer.MAX_VALUE;
+		int last = Integer.MIN_VALUE;
+		for (TreeMap<Integer, BigDecimal> quotes : builder.rates.values()) {
+			first = Math.min(first, quotes.firstKey());
+			last = Math.max(last, quotes.lastKey());
+		}
+		this.firstEpochDay = first == Integer.MAX_VALUE ? 0 : first;
+		this.days = first == Integer.MAX_VALUE ? 0 : last - first + 1;
+		this.rates = new BigDecimal[currencies.length][];
+		for (int index = 0; index < currencies.length; index++) {
+			Currency currency = currencies[index];
+			indexByNumericCode[numericCode(currency)] = index;
+			// the reporting currency has no array, its rate is always 1
+			BigDecimal[] daily = new BigDecimal[index == 0 ? 0 : days];
+			BigDecimal rate = null;
+			for (int day = 0; day < daily.length; day++) {
+				BigDecimal quote = builder.rates.get(currency).get(firstEpochDay + day);
+				rate = quote == null ? rate : quote;
+				daily[day] = rate;
+			}
+			rates[index] = daily;
+		}
+	}
+
+	/**
+	 * @param reportingCurrency the currency every rate converts into
+	 */
+	public static Builder builder(Currency reportingCurrency) {
+		return new Builder(reportingCurrency);
+	}
+
+	public Currency getReportingCurrency() {
+		return reportingCurrency;
+	}
+
+	/**
+	 * @return the currencies with rates, the reporting currency first
+	 */
+	public List<Currency> getCurrencies() {
+		return Collections.unmodifiableList(Arrays.asList(currencies));
+	}
+
+	/**
+	 * @return the value of one unit of the currency in the reporting currency on the date
+	 * @throws IllegalArgumentException if the table has no rate of the currency on or before the date
+	 */
+	public BigDecimal getRate(Currency currency, LocalDate date) {
+		int index = indexOf(currency);
+		if (index == NO_INDEX) {
+			throw new IllegalArgumentException("no " + currency + " rates into " + reportingCurrency);
+		}
+		BigDecimal rate = rate(index, (int) date.toEpochDay());
+		if (rate == null) {
+			throw new IllegalArgumentException("no " + currency + " rate into " + reportingCurrency + " on " + date);
+		}
+		return rate;
+	}
+
+	/**
+	 * @return the amount in the currency converted into the reporting currency at the rate of the date, exact
+	 */
+	public BigDecimal convert(BigDecimal amount, Currency currency, LocalDate date) {
+		return currency.equals(reportingCurrency) ? amount : amount.multiply(getRate(currency, date));
+	}
+
+	/**
+	 * @return the dense index of the currency, {@link #NO_INDEX} if the table has no rates of it
+	 */
+	int indexOf(Currency currency) {
+		int numericCode = currency.getNumericCode();
+		return numericCode < 0 || numericCode >= indexByNumericCode.length ? NO_INDEX
+				: indexByNumericCode[numericCode];
+	}
+
+	/**
+	 * Resolves the indices of a currency dictionary once, so columnar callers index by currency id.
+	 */
+	int[] indicesOf(Currency[] dictionary) {
+		int[] indices = new int[dictionary.length];
+		for (int id = 0; id < dictionary.length; id++) {
+			indices[id] = indexOf(dictionary[id]);
+		}
+		return indices;
+	}
+
+	int size() {
+		return currencies.length;
+	}
+
+	Currency currency(int index) {
+		return currencies[index];
+	}
+
+	/**
+	 * @return the rate of the currency index on the day, null before the first rate of the currency
+	 */
+	BigDecimal rate(int index, int epochDay) {
+		if (index == 0) {
+			return BigDecimal.ONE;
+		}
+		int day = epochDay - firstEpochDay;
+		if (day < 0) {
+			return null;
+		}
+		// the last day of the table holds the last rate of every currency
+		return rates[index][Math.min(day, days - 1)];
+	}
+
+	private static int numericCode(Currency currency) {
+		int numericCode = currency.getNumericCode();
+		if (numericCode < 0 || numericCode >= 1000) {
+			throw new IllegalArgumentException(currency + " has no ISO numeric code");
+		}
+		return numericCode;
+	}
+
+	@Override
+	public String toString() {
+		return "FxRateTable[reportingCurrency=" + reportingCurrency + ",currencies=" + getCurrencies() + ",from="
+				+ LocalDate.ofEpochDay(firstEpochDay) + ",days=" + days + "]";
+	}
+
+	/**
+	 * Collects quotes. A later quote of the same currency and date replaces the earlier one.
+	 */
+	public static final class Builder {
+
+		private final Currency reportingCurrency;
+		private final Map<Currency, TreeMap<Integer, BigDecimal>> rates = new LinkedHashMap<>();
+
+		private Builder(Currency reportingCurrency) {
+			numericCode(reportingCurrency);
+			this.reportingCurrency = reportingCurrency;
+		}
+
+		/**
+		 * @param rate value of one unit of the currency in the reporting currency, positive
+		 */
+		public Builder rate(String currencyCode, LocalDate date, BigDecimal rate) {
+			Currency currency = Currency.getInstance(currencyCode.trim().toUpperCase(Locale.ROOT));
+			numericCode(currency);
+			if (rate.signum() <= 0) {
+				throw new IllegalArgumentException(currency + " rate on " + date + " must be positive: " + rate);
+			}
+			if (!currency.equals(reportingCurrency)) {
+				rates.computeIfAbsent(currency, key -> new TreeMap<>()).put((int) date.toEpochDay(), rate);
+			}
+			return this;
+		}
+
+		/**
+		 * Loads rates from a local file, one "currencyCode,yyyy-MM-dd,rate" per line.
+		 * Blank lines and lines starting with # are skipped.
+		 *
+		 * @throws IllegalArgumentException on a malformed line
+		 */
+		public Builder loadRates(Path rateFile) throws IOException {
+			try (BufferedReader reader = Files.newBufferedReader(rateFile, StandardCharsets.UTF_8)) {
+				String line;
+				int lineNumber = 0;
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					String[] fields = line.split(",");
+					if (fields.length != 3) {
+						throw new IllegalArgumentException(
+								rateFile + ":" + lineNumber + " expected currency,date,rate but was " + line);
+					}
+					try {
+						rate(fields[0], LocalDate.parse(fields[1].trim()), new BigDecimal(fields[2].trim()));
+					} catch (DateTimeParseException | IllegalArgumentException e) {
+						throw new IllegalArgumentException(rateFile + ":" + lineNumber + " invalid rate in " + line, e);
+					}
+				}
+			}
+			return this;
+		}
+
+		public FxRateTable build() {
+			return new FxRateTable(this);
+		}
+	}
+}
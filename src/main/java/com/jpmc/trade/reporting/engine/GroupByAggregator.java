@@ -0,0 +1,454 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Single pass aggregation of trades into several group bys at once, e.g. totals per currency, per stock and
+ * action, and per action, working settlement date and stock for rankings within a date.
+ *
+ * Every trade is visited once: its grouped fields are dictionary encoded and packed into one long composite key
+ * (see {@link GroupDimension}), its amount is computed once, and the key masked to the dimensions of each group by
+ * is looked up in an open addressing table of that group by. Groups are decoded into {@link GroupKey}s only when
+ * the results are read.
+ *
+ * Same rules as {@link DailyTradeAggregator}: trades without action or settlement date are skipped, missing
+ * units, price or fx count as zero amount, and amounts are BigDecimals unless a {@link FixedPointPrecision} is
+ * given. In BigDecimal mode trade events are folded with their exact amount whatever the size of their decimals,
+ * in fixed point mode agreedFx and pricePerUnit must fit a {@link TradeRecord}. Not thread safe.
+ */
+public class GroupByAggregator {
+
+	private final SettlementCalendar settlementCalendar;
+
+	/**
+	 * Null in BigDecimal mode.
+	 */
+	private final FixedPointPrecision precision;
+
+	private final GroupTable[] tables;
+	private final boolean byBuySellIndicator;
+	private final boolean byCurrency;
+	private final boolean byStockName;
+	private final boolean byInstructionDate;
+	private final boolean bySettlementDate;
+
+	private final Dictionary<String> buySellIndicators = new Dictionary<>(GroupDimension.BUY_SELL_INDICATOR);
+	/**
+	 * Raw indicator (e.g. "b") to the id of its upper cased form, saves the upper casing per trade.
+	 */
+	private final Map<String, Integer> rawBuySellIndicatorIds = new HashMap<>();
+	private final Dictionary<Currency> currencies = new Dictionary<>(GroupDimension.CURRENCY);
+	private final Dictionary<String> stockNames = new Dictionary<>(GroupDimension.STOCK_NAME);
+	private final DateDictionary instructionDates = new DateDictionary(GroupDimension.INSTRUCTION_DATE);
+	private final DateDictionary settlementDates = new DateDictionary(GroupDimension.SETTLEMENT_DATE);
+
+	private final TradeRecord scratch = new TradeRecord();
+
+	/**
+	 * BigDecimal amounts with the {@link SettlementCalendar#standard()} working days.
+	 */
+	@SafeVarargs
+	public GroupByAggregator(Set<GroupDimension>... groupBys) {
+		this(SettlementCalendar.standard(), null, groupBys(groupBys));
+	}
+
+	/**
+	 * @param precision declared precision of the fixed point mode, null for BigDecimal amounts
+	 * @param groupBys the dimensions of every group by, an empty set is the grand total
+	 */
+	public GroupByAggregator(SettlementCalendar settlementCalendar, FixedPointPrecision precision,
+			Collection<? extends Set<GroupDimension>> groupBys) {
+		if (groupBys.isEmpty()) {
+			throw new IllegalArgumentException("no group by");
+		}
+		this.settlementCalendar = settlementCalendar;
+		this.precision = precision;
+		Map<Set<GroupDimension>, GroupTable> distinct = new LinkedHashMap<>();
+		Set<GroupDimension> all = EnumSet.noneOf(GroupDimension.class);
+		for (Set<GroupDimension> groupBy : groupBys) {
+			Set<GroupDimension> dimensions = groupBy.isEmpty() ? EnumSet.noneOf(GroupDimension.class)
+					: EnumSet.copyOf(groupBy);
+			distinct.computeIfAbsent(dimensions, key -> new GroupTable(key, precision));
+			all.addAll(dimensions);
+		}
+		this.tables = distinct.values().toArray(new GroupTable[0]);
+		this.byBuySellIndicator = all.contains(GroupDimension.BUY_SELL_INDICATOR);
+		this.byCurrency = all.contains(GroupDimension.CURRENCY);
+		this.byStockName = all.contains(GroupDimension.STOCK_NAME);
+		this.byInstructionDate = all.contains(GroupDimension.INSTRUCTION_DATE);
+		this.bySettlementDate = all.contains(GroupDimension.SETTLEMENT_DATE);
+	}
+
+	/**
+	 * Aggregates the trades in one pass with BigDecimal amounts and the standard working days.
+	 */
+	@SafeVarargs
+	public static Map<Set<GroupDimension>, GroupByResult> aggregate(Collection<TradeEvent> tradeEvents,
+			Set<GroupDimension>... groupBys) {
+		GroupByAggregator aggregator = new GroupByAggregator(groupBys);
+		for (TradeEvent tradeEvent : tradeEvents) {
+			aggregator.accept(tradeEvent);
+		}
+		return aggregator.getResults();
+	}
+
+	/**
+	 * Folds the trade into a group of every group by.
+	 *
+	 * @throws IllegalArgumentException in fixed point mode, if agreedFx or pricePerUnit do not fit a long with a byte
+	 *         scale
+	 */
+	public GroupByAggregator accept(TradeEvent tradeEvent) {
+		if (precision != null) {
+			return accept(scratch.set(tradeEvent));
+		}
+		if (!tradeEvent.getBuySellIndicator().isPresent() || !tradeEvent.getSettlementDate().isPresent()) {
+			return this;
+		}
+		// only the grouped fields go through the record, agreedFx and pricePerUnit may not fit one
+		scratch.clear()
+				.setStockName(tradeEvent.getStockName().orElse(null))
+				.setBuySellIndicator(tradeEvent.getBuySellIndicator().get())
+				.setCurrency(tradeEvent.getCurrency().orElse(null))
+				.setSettlementEpochDay((int) tradeEvent.getSettlementDate().get().toEpochDay());
+		tradeEvent.getInstructionDate().ifPresent(date -> scratch.setInstructionEpochDay((int) date.toEpochDay()));
+		add(key(scratch), DailyTradeAggregator.amount(tradeEvent), 0);
+		return this;
+	}
+
+	/**
+	 * Folds a decoded record, same rules as {@link #accept(TradeEvent)}.
+	 */
+	public GroupByAggregator accept(TradeRecord record) {
+		if (record.has(TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+			add(key(record), record.getPresence(), record.getAgreedFxUnscaled(), record.getAgreedFxScale(),
+					record.getUnits(), record.getPricePerUnitUnscaled(), record.getPricePerUnitScale());
+		}
+		return this;
+	}
+
+	/**
+	 * @return the composite key of a record with action and settlement date
+	 */
+	private long key(TradeRecord record) {
+		int presence = record.getPresence();
+		long key = 0;
+		if (byBuySellIndicator) {
+			key |= GroupDimension.BUY_SELL_INDICATOR.pack(buySellIndicatorId(record.getBuySellIndicator()));
+		}
+		if (byCurrency && (presence & TradeRecord.CURRENCY) != 0) {
+			key |= GroupDimension.CURRENCY.pack(currencies.id(record.getCurrency()));
+		}
+		if (byStockName && (presence & TradeRecord.STOCK_NAME) != 0) {
+			key |= GroupDimension.STOCK_NAME.pack(stockNames.id(record.getStockName()));
+		}
+		if (byInstructionDate && (presence & TradeRecord.INSTRUCTION_DATE) != 0) {
+			key |= GroupDimension.INSTRUCTION_DATE.pack(instructionDates.id(record.getInstructionEpochDay()));
+		}
+		if (bySettlementDate) {
+			key |= GroupDimension.SETTLEMENT_DATE.pack(settlementDates.id(
+					settlementCalendar.nextWorkingEpochDay(record.getCurrency(), record.getSettlementEpochDay())));
+		}
+		return key;
+	}
+
+	/**
+	 * Folds every row of the batch, reading the columns directly. The dictionaries of the batch are translated
+	 * once, not per row.
+	 */
+	public GroupByAggregator accept(TradeBatch tradeBatch) {
+		int[] buySellIndicatorIds = byBuySellIndicator ? buySellIndicatorIds(tradeBatch.buySellIndicators()) : null;
+		int[] currencyIds = byCurrency ? currencies.ids(tradeBatch.currencies()) : null;
+		int[] stockNameIds = byStockName ? stockNames.ids(tradeBatch.stockNames()) : null;
+		WorkingDayCalendar[] calendars = settlementCalendar.calendarsFor(tradeBatch.currencies());
+		WorkingDayCalendar defaultCalendar = settlementCalendar.calendarFor(null);
+		for (int row = 0; row < tradeBatch.size(); row++) {
+			int presence = tradeBatch.presence(row);
+			if ((presence & (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE))
+					!= (TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+				continue;
+			}
+			long key = 0;
+			if (byBuySellIndicator) {
+				key |= GroupDimension.BUY_SELL_INDICATOR.pack(
+						buySellIndicatorIds[tradeBatch.buySellIndicatorId(row)]);
+			}
+			if (byCurrency && (presence & TradeRecord.CURRENCY) != 0) {
+				key |= GroupDimension.CURRENCY.pack(currencyIds[tradeBatch.currencyId(row)]);
+			}
+			if (byStockName && (presence & TradeRecord.STOCK_NAME) != 0) {
+				key |= GroupDimension.STOCK_NAME.pack(stockNameIds[tradeBatch.stockNameId(row)]);
+			}
+			if (byInstructionDate && (presence & TradeRecord.INSTRUCTION_DATE) != 0) {
+				key |= GroupDimension.INSTRUCTION_DATE.pack(
+						instructionDates.id(tradeBatch.instructionEpochDay(row)));
+			}
+			if (bySettlementDate) {
+				WorkingDayCalendar calendar = (presence & TradeRecord.CURRENCY) != 0
+						? calendars[tradeBatch.currencyId(row)] : defaultCalendar;
+				key |= GroupDimension.SETTLEMENT_DATE.pack(
+						settlementDates.id(calendar.nextWorkingEpochDay(tradeBatch.settlementEpochDay(row))));
+			}
+			add(key, presence, tradeBatch.agreedFxUnscaled(row), tradeBatch.agreedFxScale(row), tradeBatch.units(row),
+					tradeBatch.pricePerUnitUnscaled(row), tradeBatch.pricePerUnitScale(row));
+		}
+		return this;
+	}
+
+	/**
+	 * @return the result of the group by of the given dimensions, none for the grand total
+	 * @throws IllegalArgumentException if the group by was not requested
+	 */
+	public GroupByResult getResult(GroupDimension... dimensions) {
+		Set<GroupDimension> groupBy = EnumSet.noneOf(GroupDimension.class);
+		Collections.addAll(groupBy, dimensions);
+		for (GroupTable table : tables) {
+			if (table.dimensions.equals(groupBy)) {
+				return toResult(table);
+			}
+		}
+		throw new IllegalArgumentException("group by " + groupBy + " was not requested");
+	}
+
+	/**
+	 * @return the result of every group by, in the requested order
+	 */
+	public Map<Set<GroupDimension>, GroupByResult> getResults() {
+		Map<Set<GroupDimension>, GroupByResult> results = new LinkedHashMap<>();
+		for (GroupTable table : tables) {
+			results.put(table.dimensions, toResult(table));
+		}
+		return results;
+	}
+
+	@SafeVarargs
+	private static List<Set<GroupDimension>> groupBys(Set<GroupDimension>... groupBys) {
+		// copied one by one, handing the generic array to another varargs method is flagged by -Xlint:varargs
+		List<Set<GroupDimension>> list = new ArrayList<>(groupBys.length);
+		for (Set<GroupDimension> groupBy : groupBys) {
+			list.add(groupBy);
+		}
+		return list;
+	}
+
+	private int[] buySellIndicatorIds(String[] batchDictionary) {
+		int[] batchIds = new int[batchDictionary.length];
+		for (int id = 0; id < batchIds.length; id++) {
+			batchIds[id] = buySellIndicatorId(batchDictionary[id]);
+		}
+		return batchIds;
+	}
+
+	private int buySellIndicatorId(String buySellIndicator) {
+		Integer id = rawBuySellIndicatorIds.get(buySellIndicator);
+		if (id == null) {
+			id = buySellIndicators.id(DailyTradeReport.actionKey(buySellIndicator));
+			rawBuySellIndicatorIds.put(buySellIndicator, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Folds agreedFx * units * pricePerUnit into the group of the key in every table, fields absent from presence
+	 * count as zero.
+	 */
+	private void add(long key, int presence, long agreedFxUnscaled, int agreedFxScale, int units,
+			long pricePerUnitUnscaled, int pricePerUnitScale) {
+		if ((presence & TradeRecord.AGREED_FX) == 0) {
+			agreedFxUnscaled = 0;
+			agreedFxScale = 0;
+		}
+		if ((presence & TradeRecord.PRICE_PER_UNIT) == 0) {
+			pricePerUnitUnscaled = 0;
+			pricePerUnitScale = 0;
+		}
+		if ((presence & TradeRecord.UNITS) == 0) {
+			units = 0;
+		}
+		BigDecimal amount = null;
+		long unscaledAmount = 0;
+		if (precision == null) {
+			amount = BigDecimal.valueOf(agreedFxUnscaled, agreedFxScale).multiply(BigDecimal.valueOf(units))
+					.multiply(BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale));
+		} else {
+			try {
+				unscaledAmount = precision.amountUnscaled(agreedFxUnscaled, agreedFxScale, units,
+						pricePerUnitUnscaled, pricePerUnitScale);
+			} catch (ArithmeticException overflow) {
+				amount = precision.amount(agreedFxUnscaled, agreedFxScale, units, pricePerUnitUnscaled,
+						pricePerUnitScale);
+			}
+		}
+		add(key, amount, unscaledAmount);
+	}
+
+	/**
+	 * Folds the amount, or the unscaled amount of the fixed point mode if null, into the group of the key in every
+	 * table.
+	 */
+	private void add(long key, BigDecimal amount, long unscaledAmount) {
+		for (GroupTable table : tables) {
+			int group = table.group(key & table.mask);
+			if (amount == null) {
+				table.totals[group].add(unscaledAmount);
+			} else {
+				table.totals[group].add(amount);
+			}
+			table.tradeCounts[group]++;
+		}
+	}
+
+	private GroupByResult toResult(GroupTable table) {
+		SortedMap<GroupKey, GroupSummary> summaries = new TreeMap<>();
+		for (int group = 0; group < table.size; group++) {
+			GroupKey key = decode(table.keys[group]);
+			summaries.put(key, new GroupSummary(key, table.totals[group].toBigDecimal(), table.tradeCounts[group]));
+		}
+		return new GroupByResult(table.dimensions, summaries);
+	}
+
+	private GroupKey decode(long key) {
+		return new GroupKey(buySellIndicators.value(GroupDimension.BUY_SELL_INDICATOR.unpack(key)),
+				currencies.value(GroupDimension.CURRENCY.unpack(key)),
+				stockNames.value(GroupDimension.STOCK_NAME.unpack(key)),
+				instructionDates.value(GroupDimension.INSTRUCTION_DATE.unpack(key)),
+				settlementDates.value(GroupDimension.SETTLEMENT_DATE.unpack(key)));
+	}
+
+	private static IllegalStateException tooManyValues(GroupDimension dimension) {
+		return new IllegalStateException(
+				"Too many distinct " + dimension + " values to group by, max is " + dimension.maxId());
+	}
+
+	/**
+	 * Groups of one group by: composite key to dense group index, figures in arrays by group index.
+	 */
+	private static final class GroupTable {
+		private final Set<GroupDimension> dimensions;
+		private final long mask;
+		private final FixedPointPrecision precision;
+		private final LongIntHashMap groups = new LongIntHashMap();
+		private long[] keys = new long[16];
+		private AmountAccumulator[] totals = new AmountAccumulator[16];
+		private long[] tradeCounts = new long[16];
+		private int size;
+
+		GroupTable(Set<GroupDimension> dimensions, FixedPointPrecision precision) {
+			this.dimensions = dimensions;
+			this.precision = precision;
+			long mask = 0;
+			for (GroupDimension dimension : dimensions) {
+				mask |= dimension.mask();
+			}
+			this.mask = mask;
+		}
+
+		int group(long key) {
+			int group = groups.get(key);
+			if (group == LongIntHashMap.MISSING) {
+				if (size == keys.length) {
+					keys = Arrays.copyOf(keys, size * 2);
+					totals = Arrays.copyOf(totals, size * 2);
+					tradeCounts = Arrays.copyOf(tradeCounts, size * 2);
+				}
+				group = size++;
+				keys[group] = key;
+				totals[group] = AmountAccumulator.of(precision);
+				groups.put(key, group);
+			}
+			return group;
+		}
+	}
+
+	/**
+	 * Values of one dimension by id, from 1.
+	 */
+	private static final class Dictionary<T> {
+		private final GroupDimension dimension;
+		private final Map<T, Integer> ids = new HashMap<>();
+		private final List<T> values = new ArrayList<>(Collections.singletonList(null));
+
+		Dictionary(GroupDimension dimension) {
+			this.dimension = dimension;
+		}
+
+		int id(T value) {
+			Integer id = ids.get(value);
+			if (id == null) {
+				if (values.size() > dimension.maxId()) {
+					throw tooManyValues(dimension);
+				}
+				id = values.size();
+				values.add(value);
+				ids.put(value, id);
+			}
+			return id;
+		}
+
+		int[] ids(T[] batchDictionary) {
+			int[] batchIds = new int[batchDictionary.length];
+			for (int id = 0; id < batchIds.length; id++) {
+				batchIds[id] = id(batchDictionary[id]);
+			}
+			return batchIds;
+		}
+
+		/**
+		 * @return the value of the id, null for id 0
+		 */
+		T value(int id) {
+			return values.get(id);
+		}
+	}
+
+	/**
+	 * Epoch days of one date dimension by id, from 1, without boxing.
+	 */
+	private static final class DateDictionary {
+		private final GroupDimension dimension;
+		private final LongIntHashMap ids = new LongIntHashMap();
+		private int[] epochDays = new int[16];
+		private int size = 1;
+
+		DateDictionary(GroupDimension dimension) {
+			this.dimension = dimension;
+		}
+
+		int id(int epochDay) {
+			int id = ids.get(epochDay);
+			if (id == LongIntHashMap.MISSING) {
+				if (size > dimension.maxId()) {
+					throw tooManyValues(dimension);
+				}
+				if (size == epochDays.length) {
+					epochDays = Arrays.copyOf(epochDays, size * 2);
+				}
+				id = size++;
+				epochDays[id] = epochDay;
+				ids.put(epochDay, id);
+			}
+			return id;
+		}
+
+		/**
+		 * @return the date of the id, null for id 0
+		 */
+		LocalDate value(int id) {
+			return id == 0 ? null : LocalDate.ofEpochDay(epochDays[id]);
+		}
+	}
+}
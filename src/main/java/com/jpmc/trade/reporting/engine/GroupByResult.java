@@ -0,0 +1,102 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Totals of one group by of a {@link GroupByAggregator}: the summary of every group, keyed and ordered by
+ * {@link GroupKey}.
+ *
+ * Rankings order groups on their total amount, higher first, equal amounts by key, like the entity rankings of
+ * the daily report.
+ */
+public final class GroupByResult {
+
+	/**
+	 * Best first: amount descending, then key ascending.
+	 */
+	static final Comparator<GroupSummary> BEST_FIRST = Comparator.comparing(GroupSummary::getTotalAmount)
+			.reversed().thenComparing(GroupSummary::getKey);
+
+	private final Set<GroupDimension> dimensions;
+	private final SortedMap<GroupKey, GroupSummary> summaries;
+
+	GroupByResult(Set<GroupDimension> dimensions, SortedMap<GroupKey, GroupSummary> summaries) {
+		this.dimensions = Collections.unmodifiableSet(dimensions);
+		this.summaries = Collections.unmodifiableSortedMap(summaries);
+	}
+
+	public Set<GroupDimension> getDimensions() {
+		return dimensions;
+	}
+
+	public SortedMap<GroupKey, GroupSummary> getSummaries() {
+		return summaries;
+	}
+
+	/**
+	 * @return the summary of the group, null if no trade fell in it
+	 */
+	public GroupSummary getSummary(GroupKey key) {
+		return summaries.get(key);
+	}
+
+	/**
+	 * @return the total amount of the group, null if no trade fell in it
+	 */
+	public BigDecimal getTotalAmount(GroupKey key) {
+		GroupSummary summary = summaries.get(key);
+		return summary == null ? null : summary.getTotalAmount();
+	}
+
+	public SortedMap<GroupKey, BigDecimal> getTotalAmounts() {
+		SortedMap<GroupKey, BigDecimal> totals = new TreeMap<>();
+		summaries.forEach((key, summary) -> totals.put(key, summary.getTotalAmount()));
+		return totals;
+	}
+
+	/**
+	 * @return the n groups with the highest total amount, best first
+	 */
+	public List<GroupSummary> getRanking(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("n must be positive: " + n);
+		}
+		List<GroupSummary> ranking = new ArrayList<>(summaries.values());
+		ranking.sort(BEST_FIRST);
+		return ranking.subList(0, Math.min(n, ranking.size()));
+	}
+
+	/**
+	 * Ranks the groups within partitions, e.g. the top stock of every settlement date and action out of a group by
+	 * action, date and stock.
+	 *
+	 * @param partitionDimensions some of the grouped dimensions
+	 * @return the best group of every partition, keyed by the partition key
+	 */
+	public SortedMap<GroupKey, GroupSummary> getTopWithin(GroupDimension... partitionDimensions) {
+		Set<GroupDimension> partition = EnumSet.noneOf(GroupDimension.class);
+		Collections.addAll(partition, partitionDimensions);
+		if (!dimensions.containsAll(partition)) {
+			throw new IllegalArgumentException("cannot partition a group by " + dimensions + " on " + partition);
+		}
+		SortedMap<GroupKey, GroupSummary> top = new TreeMap<>();
+		for (GroupSummary summary : summaries.values()) {
+			top.merge(summary.getKey().project(partition), summary,
+					(best, candidate) -> BEST_FIRST.compare(candidate, best) < 0 ? candidate : best);
+		}
+		return top;
+	}
+
+	@Override
+	public String toString() {
+		return "GroupByResult" + dimensions + summaries.values();
+	}
+}
@@ -0,0 +1,53 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Trade field a {@link GroupByAggregator} can group by.
+ *
+ * Values are dictionary encoded while aggregating and every dimension owns a fixed bit range of the long composite
+ * key, so a group by of any combination is one mask of the key. The range bounds the distinct values of one
+ * aggregation, id 0 stands for an absent field.
+ */
+public enum GroupDimension {
+
+	/**
+	 * Upper cased action.
+	 */
+	BUY_SELL_INDICATOR(0, 4),
+	CURRENCY(4, 10),
+	STOCK_NAME(14, 24),
+	INSTRUCTION_DATE(38, 13),
+	/**
+	 * Settlement date moved to the next working day.
+	 */
+	SETTLEMENT_DATE(51, 13);
+
+	private final int shift;
+	private final int bits;
+
+	GroupDimension(int shift, int bits) {
+		this.shift = shift;
+		this.bits = bits;
+	}
+
+	/**
+	 * @return the highest id of a value, the number of distinct values one aggregation can group by
+	 */
+	int maxId() {
+		return (1 << bits) - 1;
+	}
+
+	/**
+	 * @return the bits of the dimension in a composite key
+	 */
+	long mask() {
+		return (long) maxId() << shift;
+	}
+
+	long pack(int id) {
+		return (long) id << shift;
+	}
+
+	int unpack(long key) {
+		return (int) ((key >>> shift) & maxId());
+	}
+}
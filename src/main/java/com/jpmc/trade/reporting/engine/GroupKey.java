@@ -0,0 +1,171 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Decoded composite key of a {@link GroupByResult} group: the values of the grouped dimensions, the other
+ * dimensions are empty. Keys to look groups up are built from {@link #empty()}, e.g.
+ * {@code GroupKey.empty().withBuySellIndicator("B").withCurrency(usd)}.
+ *
+ * Ordered dimension by dimension in {@link GroupDimension} order, absent values first.
+ */
+public final class GroupKey implements Comparable<GroupKey> {
+
+	private static final GroupKey EMPTY = new GroupKey(null, null, null, null, null);
+
+	private final String buySellIndicator;
+	private final Currency currency;
+	private final String stockName;
+	private final LocalDate instructionDate;
+	private final LocalDate settlementDate;
+
+	/**
+	 * @param buySellIndicator upper cased
+	 */
+	GroupKey(String buySellIndicator, Currency currency, String stockName, LocalDate instructionDate,
+			LocalDate settlementDate) {
+		this.buySellIndicator = buySellIndicator;
+		this.currency = currency;
+		this.stockName = stockName;
+		this.instructionDate = instructionDate;
+		this.settlementDate = settlementDate;
+	}
+
+	/**
+	 * @return the key with every dimension empty, the single group of a group by nothing
+	 */
+	public static GroupKey empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @param buySellIndicator matched ignoring case
+	 */
+	public GroupKey withBuySellIndicator(String buySellIndicator) {
+		return new GroupKey(buySellIndicator == null ? null : DailyTradeReport.actionKey(buySellIndicator), currency,
+				stockName, instructionDate, settlementDate);
+	}
+
+	public GroupKey withCurrency(Currency currency) {
+		return new GroupKey(buySellIndicator, currency, stockName, instructionDate, settlementDate);
+	}
+
+	public GroupKey withStockName(String stockName) {
+		return new GroupKey(buySellIndicator, currency, stockName, instructionDate, settlementDate);
+	}
+
+	public GroupKey withInstructionDate(LocalDate instructionDate) {
+		return new GroupKey(buySellIndicator, currency, stockName, instructionDate, settlementDate);
+	}
+
+	/**
+	 * @param settlementDate the working settlement date
+	 */
+	public GroupKey withSettlementDate(LocalDate settlementDate) {
+		return new GroupKey(buySellIndicator, currency, stockName, instructionDate, settlementDate);
+	}
+
+	public Optional<String> getBuySellIndicator() {
+		return Optional.ofNullable(buySellIndicator);
+	}
+
+	public Optional<Currency> getCurrency() {
+		return Optional.ofNullable(currency);
+	}
+
+	public Optional<String> getStockName() {
+		return Optional.ofNullable(stockName);
+	}
+
+	public Optional<LocalDate> getInstructionDate() {
+		return Optional.ofNullable(instructionDate);
+	}
+
+	/**
+	 * @return the working settlement date
+	 */
+	public Optional<LocalDate> getSettlementDate() {
+		return Optional.ofNullable(settlementDate);
+	}
+
+	/**
+	 * @return this key with the dimensions not in the given ones emptied
+	 */
+	public GroupKey project(Set<GroupDimension> dimensions) {
+		return new GroupKey(
+				dimensions.contains(GroupDimension.BUY_SELL_INDICATOR) ? buySellIndicator : null,
+				dimensions.contains(GroupDimension.CURRENCY) ? currency : null,
+				dimensions.contains(GroupDimension.STOCK_NAME) ? stockName : null,
+				dimensions.contains(GroupDimension.INSTRUCTION_DATE) ? instructionDate : null,
+				dimensions.contains(GroupDimension.SETTLEMENT_DATE) ? settlementDate : null);
+	}
+
+	@Override
+	public int compareTo(GroupKey other) {
+		int order = compare(buySellIndicator, other.buySellIndicator);
+		if (order == 0) {
+			order = compare(currency == null ? null : currency.getCurrencyCode(),
+					other.currency == null ? null : other.currency.getCurrencyCode());
+		}
+		if (order == 0) {
+			order = compare(stockName, other.stockName);
+		}
+		if (order == 0) {
+			order = compare(instructionDate, other.instructionDate);
+		}
+		return order == 0 ? compare(settlementDate, other.settlementDate) : order;
+	}
+
+	private static <T extends Comparable<? super T>> int compare(T value, T other) {
+		if (value == null || other == null) {
+			return value == null ? (other == null ? 0 : -1) : 1;
+		}
+		return value.compareTo(other);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(buySellIndicator, currency, stockName, instructionDate, settlementDate);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof GroupKey)) {
+			return false;
+		}
+		GroupKey other = (GroupKey) obj;
+		return Objects.equals(buySellIndicator, other.buySellIndicator) && Objects.equals(currency, other.currency)
+				&& Objects.equals(stockName, other.stockName) && Objects.equals(instructionDate, other.instructionDate)
+				&& Objects.equals(settlementDate, other.settlementDate);
+	}
+
+	/**
+	 * @return the present dimensions only, e.g. "GroupKey[buySellIndicator=B,currency=USD]"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder("GroupKey[");
+		append(text, "buySellIndicator", buySellIndicator);
+		append(text, "currency", currency);
+		append(text, "stockName", stockName);
+		append(text, "instructionDate", instructionDate);
+		append(text, "settlementDate", settlementDate);
+		return text.append(']').toString();
+	}
+
+	private static void append(StringBuilder text, String name, Object value) {
+		if (value != null) {
+			if (text.charAt(text.length() - 1) != '[') {
+				text.append(',');
+			}
+			text.append(name).append('=').append(value);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated figures of one group of a {@link GroupByResult}.
+ */
+public final class GroupSummary {
+
+	private final GroupKey key;
+	private final BigDecimal totalAmount;
+	private final long tradeCount;
+
+	GroupSummary(GroupKey key, BigDecimal totalAmount, long tradeCount) {
+		this.key = key;
+		this.totalAmount = totalAmount;
+		this.tradeCount = tradeCount;
+	}
+
+	public GroupKey getKey() {
+		return key;
+	}
+
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	public long getTradeCount() {
+		return tradeCount;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * key.hashCode() + totalAmount.hashCode()) + Long.hashCode(tradeCount);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof GroupSummary)) {
+			return false;
+		}
+		GroupSummary other = (GroupSummary) obj;
+		return key.equals(other.key) && totalAmount.equals(other.totalAmount) && tradeCount == other.tradeCount;
+	}
+
+	@Override
+	public String toString() {
+		return key + " <" + totalAmount + "> in " + tradeCount + " trades";
+	}
+}
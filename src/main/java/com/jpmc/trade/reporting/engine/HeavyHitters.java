@@ -0,0 +1,168 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top entities by summed amount in bounded memory: a {@link CountMinSketch} of the amounts plus at most
+ * capacity candidate entities, the ones with the highest estimates seen so far.
+ *
+ * A new entity replaces the weakest candidate when its estimate is higher, so an entity whose amount exceeds the
+ * sketch error is kept whatever the number of entities. Reported amounts are estimates, never below the exact ones.
+ * Merging keeps the best candidates of both sides against the merged sketch. Not thread safe.
+ */
+public final class HeavyHitters {
+
+	private final int capacity;
+	private final CountMinSketch sketch;
+
+	/**
+	 * Candidate entities and their hash.
+	 */
+	private final Map<String, Long> candidates;
+
+	/**
+	 * The candidate with the lowest estimate when the candidates were last full, null if it must be looked up again.
+	 */
+	private String weakest;
+	private double weakestEstimate;
+
+	/**
+	 * @param capacity number of candidates, the largest top-N that can be asked
+	 * @param epsilon overcount bound of the estimates relative to the total amount
+	 * @param delta probability the bound is exceeded
+	 */
+	public HeavyHitters(int capacity, double epsilon, double delta) {
+		this(capacity, new CountMinSketch(epsilon, delta));
+	}
+
+	private HeavyHitters(int capacity, CountMinSketch sketch) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.sketch = sketch;
+		this.candidates = new HashMap<>(capacity * 2);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the sum of every amount added, exact up to double rounding
+	 */
+	public double getTotalAmount() {
+		return sketch.getTotalAmount();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the amount is negative
+	 */
+	public HeavyHitters add(String entity, double amount) {
+		return add(entity, SketchHashing.hash(entity), amount);
+	}
+
+	/**
+	 * @param hash {@link SketchHashing#hash(String)} of the entity
+	 */
+	HeavyHitters add(String entity, long hash, double amount) {
+		sketch.add(hash, amount);
+		if (candidates.containsKey(entity)) {
+			if (entity.equals(weakest)) {
+				weakest = null;
+			}
+			return this;
+		}
+		if (candidates.size() < capacity) {
+			candidates.put(entity, hash);
+			weakest = null;
+			return this;
+		}
+		if (weakest == null) {
+			findWeakest();
+		} else {
+			// collisions may have raised it since
+			weakestEstimate = sketch.estimate(candidates.get(weakest));
+		}
+		double estimate = sketch.estimate(hash);
+		if (estimate > weakestEstimate || estimate == weakestEstimate && entity.compareTo(weakest) < 0) {
+			candidates.remove(weakest);
+			candidates.put(entity, hash);
+			weakest = null;
+		}
+		return this;
+	}
+
+	/**
+	 * @return the estimated summed amount of the entity, candidate or not
+	 */
+	public double estimate(String entity) {
+		return sketch.estimate(entity);
+	}
+
+	/**
+	 * @return the n candidates with the highest estimates, best first, ties ordered by stock name
+	 * @throws IllegalArgumentException if n is above the capacity
+	 */
+	public List<RankedEntity> top(int n) {
+		if (n > capacity) {
+			throw new IllegalArgumentException("top " + n + " asked from " + capacity + " heavy hitters");
+		}
+		Map<String, BigDecimal> estimates = new HashMap<>();
+		candidates.forEach((entity, hash) -> estimates.put(entity, BigDecimal.valueOf(sketch.estimate(hash))));
+		return EntityRanking.top(estimates, n);
+	}
+
+	/**
+	 * Adds the amounts and candidates of the other heavy hitters. The other one is left untouched.
+	 *
+	 * @throws IllegalArgumentException if the capacities or the sketch sizes differ
+	 */
+	public HeavyHitters merge(HeavyHitters other) {
+		if (capacity != other.capacity) {
+			throw new IllegalArgumentException("cannot merge " + other.capacity + " heavy hitters into " + capacity);
+		}
+		sketch.merge(other.sketch);
+		Map<String, Long> merged = new HashMap<>(candidates);
+		merged.putAll(other.candidates);
+		candidates.clear();
+		weakest = null;
+		if (merged.size() <= capacity) {
+			candidates.putAll(merged);
+			return this;
+		}
+		Map<String, BigDecimal> estimates = new HashMap<>();
+		merged.forEach((entity, hash) -> estimates.put(entity, BigDecimal.valueOf(sketch.estimate(hash))));
+		for (RankedEntity entity : EntityRanking.top(estimates, capacity)) {
+			candidates.put(entity.getStockName(), merged.get(entity.getStockName()));
+		}
+		return this;
+	}
+
+	public HeavyHitters copy() {
+		HeavyHitters copy = new HeavyHitters(capacity, sketch.copy());
+		copy.candidates.putAll(candidates);
+		return copy;
+	}
+
+	private void findWeakest() {
+		weakest = null;
+		weakestEstimate = Double.MAX_VALUE;
+		for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+			double estimate = sketch.estimate(candidate.getValue());
+			if (estimate < weakestEstimate
+					|| estimate == weakestEstimate && weakest != null && candidate.getKey().compareTo(weakest) > 0) {
+				weakest = candidate.getKey();
+				weakestEstimate = estimate;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HeavyHitters[capacity=" + capacity + ",candidates=" + candidates.keySet() + "," + sketch + "]";
+	}
+}
@@ -0,0 +1,133 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * HyperLogLog estimate of the number of distinct values in fixed memory.
+ *
+ * 2^precision one byte registers keep the longest run of leading zeros of the hashes falling into them, the standard
+ * error of the estimate is 1.04 / sqrt(2^precision). Small cardinalities use linear counting. Estimators of the same
+ * precision merge by taking the larger register, e.g. the partitions of a parallel pass or the days of a month.
+ * Not thread safe.
+ */
+public final class HyperLogLog {
+
+	static final int MIN_PRECISION = 4;
+	static final int MAX_PRECISION = 18;
+
+	private final int precision;
+	private final byte[] registers;
+
+	/**
+	 * @param relativeError wanted standard error, e.g. 0.02 for 2%, uses 2^precision bytes with precision the
+	 *        smallest giving that error
+	 * @throws IllegalArgumentException if the error needs more than 2^{@value #MAX_PRECISION} registers
+	 */
+	public HyperLogLog(double relativeError) {
+		this(precision(relativeError));
+	}
+
+	private HyperLogLog(int precision) {
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * @return the standard error of the estimates, 1.04 / sqrt(2^precision)
+	 */
+	public double getRelativeError() {
+		return 1.04 / Math.sqrt(registers.length);
+	}
+
+	public HyperLogLog add(String value) {
+		add(SketchHashing.hash(value));
+		return this;
+	}
+
+	/**
+	 * @return the estimated number of distinct values added
+	 */
+	public long estimate() {
+		int registerCount = registers.length;
+		double sum = 0;
+		int zeros = 0;
+		for (byte register : registers) {
+			sum += Math.scalb(1.0, -register);
+			if (register == 0) {
+				zeros++;
+			}
+		}
+		double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+		if (estimate <= 2.5 * registerCount && zeros > 0) {
+			estimate = registerCount * Math.log((double) registerCount / zeros);
+		}
+		return Math.round(estimate);
+	}
+
+	/**
+	 * Takes the larger register of both. The other estimator is left untouched.
+	 *
+	 * @throws IllegalArgumentException if the precisions differ
+	 */
+	public HyperLogLog merge(HyperLogLog other) {
+		if (precision != other.precision) {
+			throw new IllegalArgumentException(
+					"cannot merge precision " + other.precision + " into precision " + precision);
+		}
+		for (int i = 0; i < registers.length; i++) {
+			registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+		}
+		return this;
+	}
+
+	public HyperLogLog copy() {
+		HyperLogLog copy = new HyperLogLog(precision);
+		System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+		return copy;
+	}
+
+	void add(long hash) {
+		int index = (int) (hash >>> (Long.SIZE - precision));
+		// the marker bit bounds the run when the remaining bits are all zero
+		byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+		if (rank > registers[index]) {
+			registers[index] = rank;
+		}
+	}
+
+	/**
+	 * @return the smallest precision whose standard error is at most the given one
+	 */
+	static int precision(double relativeError) {
+		if (!(relativeError > 0 && relativeError < 1)) {
+			throw new IllegalArgumentException("relativeError must be between 0 and 1: " + relativeError);
+		}
+		double registers = Math.pow(1.04 / relativeError, 2);
+		int precision = Math.max(MIN_PRECISION, 64 - Long.numberOfLeadingZeros((long) Math.ceil(registers) - 1));
+		if (precision > MAX_PRECISION) {
+			throw new IllegalArgumentException("relativeError " + relativeError + " needs more than 2^"
+					+ MAX_PRECISION + " registers");
+		}
+		return precision;
+	}
+
+	private static double alpha(int registerCount) {
+		switch (registerCount) {
+		case 16:
+			return 0.673;
+		case 32:
+			return 0.697;
+		case 64:
+			return 0.709;
+		default:
+			return 0.7213 / (1 + 1.079 / registerCount);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HyperLogLog[precision=" + precision + ",estimate=" + estimate() + "]";
+	}
+}
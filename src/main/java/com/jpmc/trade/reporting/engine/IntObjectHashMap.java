@@ -0,0 +1,81 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Open addressing map from int keys (epoch days) to values, lookups do not box the key. Values must not be null.
+ * Not thread safe.
+ */
+final class IntObjectHashMap<V> {
+
+	interface EntryConsumer<V> {
+		void accept(int key, V value);
+	}
+
+	private int[] keys = new int[16];
+	private Object[] values = new Object[16];
+	private int size;
+
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			Object value = values[slot];
+			if (value == null || keys[slot] == key) {
+				return (V) value;
+			}
+		}
+	}
+
+	void put(int key, V value) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			if (values[slot] == null) {
+				keys[slot] = key;
+				values[slot] = value;
+				if (++size * 2 > keys.length) {
+					grow();
+				}
+				return;
+			}
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	void forEach(EntryConsumer<? super V> consumer) {
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (values[slot] != null) {
+				consumer.accept(keys[slot], (V) values[slot]);
+			}
+		}
+	}
+
+	private static int hash(int key) {
+		int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new Object[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes a report as one JSON array with an object per row, keyed by column name.
+ *
+ * Dates are "yyyy-MM-dd" strings, decimals are numbers in plain notation so no digit is lost, absent values are null.
+ */
+final class JsonReportWriter extends TextReportWriter {
+
+	private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Per column its quoted name and colon, encoded once.
+	 */
+	private final byte[][] keys;
+
+	JsonReportWriter(Path file, List<ReportColumn> columns) throws IOException {
+		super(file, columns);
+		this.keys = new byte[columns.size()][];
+		for (int column = 0; column < keys.length; column++) {
+			keys[column] = (escape(columns.get(column).getName()) + ":").getBytes(StandardCharsets.UTF_8);
+		}
+		putAscii('[');
+	}
+
+	@Override
+	String escape(String value) {
+		StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				escaped.append('\\').append(c);
+			} else if (c < 0x20) {
+				escaped.append(String.format("\\u%04x", (int) c));
+			} else {
+				escaped.append(c);
+			}
+		}
+		return escaped.append('"').toString();
+	}
+
+	@Override
+	void writeString(int column, String value) throws IOException {
+		key(column);
+		if (value == null) {
+			put(NULL);
+		} else {
+			putString(value);
+		}
+	}
+
+	@Override
+	void writeDate(int column, int epochDay) throws IOException {
+		key(column);
+		putAscii('"');
+		putDate(epochDay);
+		putAscii('"');
+	}
+
+	@Override
+	void writeMissingDate(int column) throws IOException {
+		key(column);
+		put(NULL);
+	}
+
+	@Override
+	void writeDecimal(int column, BigDecimal value) throws IOException {
+		key(column);
+		putDecimal(value);
+	}
+
+	@Override
+	void writeInteger(int column, long value) throws IOException {
+		key(column);
+		putLong(value);
+	}
+
+	@Override
+	void writeRowEnd() throws IOException {
+		putAscii('}');
+	}
+
+	@Override
+	void finish() throws IOException {
+		putAscii('\n');
+		putAscii(']');
+		putAscii('\n');
+	}
+
+	private void key(int column) throws IOException {
+		if (column == 0) {
+			if (getRowCount() > 0) {
+				putAscii(',');
+			}
+			putAscii('\n');
+			putAscii('{');
+		} else {
+			putAscii(',');
+		}
+		put(keys[column]);
+	}
+}
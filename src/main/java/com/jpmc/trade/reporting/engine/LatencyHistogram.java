@@ -0,0 +1,101 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of nanosecond latencies with log linear buckets, in the style of HdrHistogram.
+ *
+ * Every power of two range is split into 32 linear buckets, so a recorded value is known within 1 / 32 (about
+ * 3%) whatever its magnitude, in a fixed array of under 2000 counters. Safe for concurrent recording.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param nanos a latency, negative values count as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.increment();
+		totalNanos.add(value);
+		maxNanos.accumulate(value);
+	}
+
+	public long getCount() {
+		return totalCount.sum();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public double getMeanNanos() {
+		long count = totalCount.sum();
+		return count == 0 ? 0 : (double) totalNanos.sum() / count;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the highest value of the bucket holding the percentile, capped at the max; 0 if empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = totalCount.sum();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+		long cumulative = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			cumulative += counts.get(index);
+			if (cumulative >= target) {
+				return Math.min(highestValue(index), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	public void reset() {
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			counts.set(index, 0);
+		}
+		totalCount.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) value;
+		}
+		// the value shifted right keeps its top SUB_BUCKET_BITS + 1 bits, in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	static long highestValue(int index) {
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+		long highest = ((subBucket + 1) << shift) - 1;
+		return highest < 0 ? Long.MAX_VALUE : highest;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencyHistogram[count=" + getCount() + ",p50=" + getValueAtPercentile(50) + ",p99="
+				+ getValueAtPercentile(99) + ",max=" + getMaxNanos() + "]";
+	}
+}
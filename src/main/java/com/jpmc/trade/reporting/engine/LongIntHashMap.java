@@ -0,0 +1,83 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long keys (composite group keys, epoch days) to non negative ints, lookups do not box
+ * the key. Not thread safe.
+ */
+final class LongIntHashMap {
+
+	static final int MISSING = -1;
+
+	private long[] keys = new long[16];
+	private int[] values = newValues(16);
+	private int size;
+
+	/**
+	 * @return the value of the key, {@link #MISSING} if absent
+	 */
+	int get(long key) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			int value = values[slot];
+			if (value == MISSING || keys[slot] == key) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * @param value must not be negative
+	 */
+	void put(long key, int value) {
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+			if (values[slot] == MISSING) {
+				keys[slot] = key;
+				values[slot] = value;
+				if (++size * 2 > keys.length) {
+					grow();
+				}
+				return;
+			}
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	private static int hash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static int[] newValues(int capacity) {
+		int[] values = new int[capacity];
+		Arrays.fill(values, MISSING);
+		return values;
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = newValues(oldKeys.length * 2);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != MISSING) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (values[slot] != MISSING) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
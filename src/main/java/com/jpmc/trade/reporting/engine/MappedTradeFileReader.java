@@ -0,0 +1,183 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads a {@link BinaryTradeFormat} file through {@link FileChannel#map}, decoding records in place.
+ *
+ * Records are decoded straight from the mapped buffer into one reusable {@link TradeRecord}, no
+ * {@link TradeEvent} or string is created per record. Files larger than 2GB are mapped window by window.
+ */
+public class MappedTradeFileReader implements Closeable {
+
+	private static final long DEFAULT_WINDOW_SIZE = (Integer.MAX_VALUE / BinaryTradeFormat.RECORD_SIZE)
+			* (long) BinaryTradeFormat.RECORD_SIZE;
+
+	private final FileChannel channel;
+	private final long recordCount;
+	private final long windowSize;
+	private final String[] stockNames;
+	private final String[] buySellIndicators;
+	private final Currency[] currencies;
+
+	public MappedTradeFileReader(Path file) throws IOException {
+		this(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param windowSize bytes mapped at once, rounded down to whole records
+	 */
+	MappedTradeFileReader(Path file, long windowSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			this.windowSize = Math.max(1, windowSize / BinaryTradeFormat.RECORD_SIZE) * BinaryTradeFormat.RECORD_SIZE;
+			if (channel.size() < BinaryTradeFormat.HEADER_SIZE) {
+				throw new IOException(file + " is not a binary trade file, too short");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryTradeFormat.HEADER_SIZE)
+					.order(BinaryTradeFormat.BYTE_ORDER);
+			if (header.getInt(0) != BinaryTradeFormat.MAGIC) {
+				throw new IOException(file + " is not a binary trade file, bad magic");
+			}
+			if (header.getShort(4) != BinaryTradeFormat.VERSION
+					|| header.getShort(6) != BinaryTradeFormat.RECORD_SIZE) {
+				throw new IOException(file + " has unsupported version " + header.getShort(4));
+			}
+			this.recordCount = header.getLong(BinaryTradeFormat.HEADER_RECORD_COUNT);
+			long dictionaryOffset = header.getLong(BinaryTradeFormat.HEADER_DICTIONARY_OFFSET);
+			// the records end where the dictionaries start, a truncated or corrupt header must not be mapped
+			if (recordCount < 0 || recordCount > (channel.size() - BinaryTradeFormat.HEADER_SIZE)
+					/ BinaryTradeFormat.RECORD_SIZE
+					|| dictionaryOffset != BinaryTradeFormat.HEADER_SIZE + recordCount * BinaryTradeFormat.RECORD_SIZE
+					|| dictionaryOffset > channel.size()) {
+				throw new IOException(file + " is corrupt, " + recordCount + " records and dictionaries at "
+						+ dictionaryOffset + " do not fit its " + channel.size() + " bytes");
+			}
+
+			ByteBuffer dictionaries = channel.map(FileChannel.MapMode.READ_ONLY, dictionaryOffset,
+					channel.size() - dictionaryOffset).order(BinaryTradeFormat.BYTE_ORDER);
+			this.stockNames = readDictionary(dictionaries);
+			this.buySellIndicators = readDictionary(dictionaries);
+			String[] currencyCodes = readDictionary(dictionaries);
+			this.currencies = new Currency[currencyCodes.length];
+			for (int id = 0; id < currencyCodes.length; id++) {
+				currencies[id] = Currency.getInstance(currencyCodes[id]);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Aggregates the file into a daily report with the standard settlement calendar.
+	 */
+	public static DailyTradeReport aggregate(Path file) throws IOException {
+		return aggregate(file, SettlementCalendar.standard());
+	}
+
+	public static DailyTradeReport aggregate(Path file, SettlementCalendar settlementCalendar) throws IOException {
+		try (MappedTradeFileReader reader = new MappedTradeFileReader(file)) {
+			return reader.aggregateInto(new DailyTradeAggregator(settlementCalendar)).toReport();
+		}
+	}
+
+	/**
+	 * @return the number of records in the file
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Folds every record into the aggregator.
+	 */
+	public DailyTradeAggregator aggregateInto(DailyTradeAggregator aggregator) throws IOException {
+		forEach(aggregator::accept);
+		return aggregator;
+	}
+
+	/**
+	 * Hands every record to the consumer. The record instance is reused, consumers must not keep it.
+	 */
+	public void forEach(Consumer<TradeRecord> consumer) throws IOException {
+		TradeRecord record = new TradeRecord();
+		long recordsEnd = BinaryTradeFormat.HEADER_SIZE + recordCount * BinaryTradeFormat.RECORD_SIZE;
+		for (long windowStart = BinaryTradeFormat.HEADER_SIZE; windowStart < recordsEnd; windowStart += windowSize) {
+			long length = Math.min(windowSize, recordsEnd - windowStart);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+			window.order(BinaryTradeFormat.BYTE_ORDER);
+			for (int offset = 0; offset < length; offset += BinaryTradeFormat.RECORD_SIZE) {
+				consumer.accept(decode(window, offset, record));
+			}
+		}
+	}
+
+	/**
+	 * @return the records as trade events, for tools and tests
+	 */
+	public List<TradeEvent> readTradeEvents() throws IOException {
+		List<TradeEvent> tradeEvents = new ArrayList<>((int) Math.min(recordCount, Integer.MAX_VALUE));
+		forEach(record -> tradeEvents.add(record.toTradeEvent()));
+		return tradeEvents;
+	}
+
+	private TradeRecord decode(ByteBuffer window, int offset, TradeRecord record) {
+		record.clear();
+		int presence = window.get(offset + BinaryTradeFormat.PRESENCE) & 0xFF;
+		if ((presence & TradeRecord.STOCK_NAME) != 0) {
+			record.setStockName(stockNames[window.getInt(offset + BinaryTradeFormat.STOCK_NAME_ID)]);
+		}
+		if ((presence & TradeRecord.BUY_SELL_INDICATOR) != 0) {
+			record.setBuySellIndicator(
+					buySellIndicators[window.get(offset + BinaryTradeFormat.BUY_SELL_INDICATOR_ID) & 0xFF]);
+		}
+		if ((presence & TradeRecord.INSTRUCTION_DATE) != 0) {
+			record.setInstructionEpochDay(window.getInt(offset + BinaryTradeFormat.INSTRUCTION_EPOCH_DAY));
+		}
+		if ((presence & TradeRecord.SETTLEMENT_DATE) != 0) {
+			record.setSettlementEpochDay(window.getInt(offset + BinaryTradeFormat.SETTLEMENT_EPOCH_DAY));
+		}
+		if ((presence & TradeRecord.CURRENCY) != 0) {
+			record.setCurrency(currencies[window.getShort(offset + BinaryTradeFormat.CURRENCY_ID) & 0xFFFF]);
+		}
+		if ((presence & TradeRecord.AGREED_FX) != 0) {
+			record.setAgreedFx(window.getLong(offset + BinaryTradeFormat.AGREED_FX_UNSCALED),
+					window.get(offset + BinaryTradeFormat.AGREED_FX_SCALE));
+		}
+		if ((presence & TradeRecord.UNITS) != 0) {
+			record.setUnits(window.getInt(offset + BinaryTradeFormat.UNITS));
+		}
+		if ((presence & TradeRecord.PRICE_PER_UNIT) != 0) {
+			record.setPricePerUnit(window.getLong(offset + BinaryTradeFormat.PRICE_PER_UNIT_UNSCALED),
+					window.get(offset + BinaryTradeFormat.PRICE_PER_UNIT_SCALE));
+		}
+		return record;
+	}
+
+	private static String[] readDictionary(ByteBuffer buffer) {
+		String[] dictionary = new String[buffer.getInt()];
+		for (int id = 0; id < dictionary.length; id++) {
+			byte[] bytes = new byte[buffer.getShort()];
+			buffer.get(bytes);
+			dictionary[id] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return dictionary;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,17 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Destination of {@link ReportMetrics#publishTo(MetricsSink)}, e.g. an adapter to a monitoring library.
+ */
+public interface MetricsSink {
+
+	/**
+	 * @param name dotted metric name, e.g. "trades.skipped"
+	 */
+	void counter(String name, long value);
+
+	/**
+	 * @param name dotted metric name, e.g. "stage.aggregation"
+	 */
+	void latency(String name, LatencyHistogram histogram);
+}
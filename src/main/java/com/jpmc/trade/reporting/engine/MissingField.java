@@ -0,0 +1,36 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Trade fields whose absence is counted by {@link ReportMetrics}.
+ */
+public enum MissingField {
+
+	BUY_SELL_INDICATOR(TradeRecord.BUY_SELL_INDICATOR, true),
+	SETTLEMENT_DATE(TradeRecord.SETTLEMENT_DATE, true),
+	UNITS(TradeRecord.UNITS, false),
+	PRICE_PER_UNIT(TradeRecord.PRICE_PER_UNIT, false),
+	AGREED_FX(TradeRecord.AGREED_FX, false);
+
+	private final int presenceBit;
+	private final boolean skipsTrade;
+
+	MissingField(int presenceBit, boolean skipsTrade) {
+		this.presenceBit = presenceBit;
+		this.skipsTrade = skipsTrade;
+	}
+
+	/**
+	 * @return the {@link TradeRecord} presence bit of the field
+	 */
+	public int getPresenceBit() {
+		return presenceBit;
+	}
+
+	/**
+	 * @return true if trades without the field are left out of the report,
+	 *         false if they are reported with a zero amount
+	 */
+	public boolean skipsTrade() {
+		return skipsTrade;
+	}
+}
@@ -0,0 +1,153 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork join version of {@link DailyTradeAggregator} for large trade days.
+ *
+ * The input is split into slices, every slice is aggregated into its own partial state by one worker and the
+ * partials are merged pairwise in input order. No state is shared between workers, and merging keeps totals,
+ * per entity totals and their BigDecimal scales identical to the sequential pass.
+ */
+public class ParallelTradeAggregator {
+
+	private static final int MIN_SLICE_SIZE = 8192;
+
+	private final ForkJoinPool pool;
+	private final int sliceSize;
+	private final SettlementCalendar settlementCalendar;
+	private final FixedPointPrecision precision;
+
+	/**
+	 * Uses the common pool and a slice size derived from its parallelism.
+	 */
+	public ParallelTradeAggregator() {
+		this(ForkJoinPool.commonPool(), 0);
+	}
+
+	/**
+	 * @param sliceSize rows aggregated by one task, 0 to derive it from the input size and pool parallelism
+	 */
+	public ParallelTradeAggregator(ForkJoinPool pool, int sliceSize) {
+		this(pool, sliceSize, SettlementCalendar.standard());
+	}
+
+	/**
+	 * @param sliceSize rows aggregated by one task, 0 to derive it from the input size and pool parallelism
+	 */
+	public ParallelTradeAggregator(ForkJoinPool pool, int sliceSize, SettlementCalendar settlementCalendar) {
+		this(pool, sliceSize, settlementCalendar, null);
+	}
+
+	/**
+	 * @param sliceSize rows aggregated by one task, 0 to derive it from the input size and pool parallelism
+	 * @param precision declared precision of fixed point amounts, null for BigDecimal amounts
+	 */
+	public ParallelTradeAggregator(ForkJoinPool pool, int sliceSize, SettlementCalendar settlementCalendar,
+			FixedPointPrecision precision) {
+		if (sliceSize < 0) {
+			throw new IllegalArgumentException("sliceSize must not be negative: " + sliceSize);
+		}
+		this.pool = pool;
+		this.sliceSize = sliceSize;
+		this.settlementCalendar = settlementCalendar;
+		this.precision = precision;
+	}
+
+	public DailyTradeReport aggregate(List<TradeEvent> tradeEvents) {
+		List<TradeEvent> slicedEvents = tradeEvents instanceof RandomAccess ? tradeEvents
+				: new ArrayList<>(tradeEvents);
+		return pool.invoke(new EventSliceTask(slicedEvents, 0, slicedEvents.size(), sliceSize(slicedEvents.size()),
+				settlementCalendar, precision)).toReport();
+	}
+
+	public DailyTradeReport aggregate(TradeBatch tradeBatch) {
+		return pool.invoke(new BatchSliceTask(tradeBatch, 0, tradeBatch.size(), sliceSize(tradeBatch.size()),
+				settlementCalendar, precision)).toReport();
+	}
+
+	private int sliceSize(int size) {
+		if (sliceSize > 0) {
+			return sliceSize;
+		}
+		// a few slices per worker so uneven slices still balance
+		return Math.max(MIN_SLICE_SIZE, size / (pool.getParallelism() * 4));
+	}
+
+	// ForkJoinTask is Serializable, but the tasks only live in the pool and are never serialized
+	@SuppressWarnings("serial")
+	private static final class EventSliceTask extends RecursiveTask<DailyTradeAggregator> {
+
+		private final List<TradeEvent> tradeEvents;
+		private final int from;
+		private final int to;
+		private final int sliceSize;
+		private final SettlementCalendar settlementCalendar;
+		private final FixedPointPrecision precision;
+
+		EventSliceTask(List<TradeEvent> tradeEvents, int from, int to, int sliceSize,
+				SettlementCalendar settlementCalendar, FixedPointPrecision precision) {
+			this.tradeEvents = tradeEvents;
+			this.from = from;
+			this.to = to;
+			this.sliceSize = sliceSize;
+			this.settlementCalendar = settlementCalendar;
+			this.precision = precision;
+		}
+
+		@Override
+		protected DailyTradeAggregator compute() {
+			if (to - from <= sliceSize) {
+				return new DailyTradeAggregator(settlementCalendar, precision)
+						.acceptAll(tradeEvents.subList(from, to));
+			}
+			int middle = (from + to) >>> 1;
+			EventSliceTask right = new EventSliceTask(tradeEvents, middle, to, sliceSize, settlementCalendar,
+					precision);
+			right.fork();
+			DailyTradeAggregator left = new EventSliceTask(tradeEvents, from, middle, sliceSize,
+					settlementCalendar, precision).compute();
+			return left.merge(right.join());
+		}
+	}
+
+	// ForkJoinTask is Serializable, but the tasks only live in the pool and are never serialized
+	@SuppressWarnings("serial")
+	private static final class BatchSliceTask extends RecursiveTask<DailyTradeAggregator> {
+
+		private final TradeBatch tradeBatch;
+		private final int from;
+		private final int to;
+		private final int sliceSize;
+		private final SettlementCalendar settlementCalendar;
+		private final FixedPointPrecision precision;
+
+		BatchSliceTask(TradeBatch tradeBatch, int from, int to, int sliceSize,
+				SettlementCalendar settlementCalendar, FixedPointPrecision precision) {
+			this.tradeBatch = tradeBatch;
+			this.from = from;
+			this.to = to;
+			this.sliceSize = sliceSize;
+			this.settlementCalendar = settlementCalendar;
+			this.precision = precision;
+		}
+
+		@Override
+		protected DailyTradeAggregator compute() {
+			if (to - from <= sliceSize) {
+				return new DailyTradeAggregator(settlementCalendar, precision).accept(tradeBatch, from, to);
+			}
+			int middle = (from + to) >>> 1;
+			BatchSliceTask right = new BatchSliceTask(tradeBatch, middle, to, sliceSize, settlementCalendar,
+					precision);
+			right.fork();
+			DailyTradeAggregator left = new BatchSliceTask(tradeBatch, from, middle, sliceSize,
+					settlementCalendar, precision).compute();
+			return left.merge(right.join());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * One entry of a top-N leaderboard: an entity and its amount summed over all its trades.
+ */
+public final class RankedEntity {
+
+	private final int rank;
+	private final String stockName;
+	private final BigDecimal totalAmount;
+
+	RankedEntity(int rank, String stockName, BigDecimal totalAmount) {
+		this.rank = rank;
+		this.stockName = stockName;
+		this.totalAmount = totalAmount;
+	}
+
+	/**
+	 * @return the one based rank
+	 */
+	public int getRank() {
+		return rank;
+	}
+
+	public String getStockName() {
+		return stockName;
+	}
+
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * rank + stockName.hashCode()) + totalAmount.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof RankedEntity)) {
+			return false;
+		}
+		RankedEntity other = (RankedEntity) obj;
+		return rank == other.rank && stockName.equals(other.stockName) && totalAmount.equals(other.totalAmount);
+	}
+
+	@Override
+	public String toString() {
+		return rank + ". " + stockName + " <" + totalAmount + ">";
+	}
+}
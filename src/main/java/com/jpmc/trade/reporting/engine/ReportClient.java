@@ -0,0 +1,16 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous access to daily reports. {@link ReportService} is the in-process implementation, transports to
+ * remote services implement the same contract.
+ */
+public interface ReportClient {
+
+	/**
+	 * @return the report, completed exceptionally with {@link java.util.concurrent.RejectedExecutionException}
+	 *         when the service is saturated or closed
+	 */
+	CompletableFuture<ReportResult> submit(ReportRequest request);
+}
@@ -0,0 +1,63 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Name and value type of one column of an exported report.
+ */
+final class ReportColumn {
+
+	enum Type {
+		/**
+		 * Text, may be absent.
+		 */
+		STRING,
+		/**
+		 * Date, may be absent.
+		 */
+		DATE,
+		/**
+		 * Exact decimal.
+		 */
+		DECIMAL,
+		/**
+		 * Long integer.
+		 */
+		INTEGER
+	}
+
+	private final String name;
+	private final Type type;
+
+	private ReportColumn(String name, Type type) {
+		this.name = name;
+		this.type = type;
+	}
+
+	static ReportColumn string(String name) {
+		return new ReportColumn(name, Type.STRING);
+	}
+
+	static ReportColumn date(String name) {
+		return new ReportColumn(name, Type.DATE);
+	}
+
+	static ReportColumn decimal(String name) {
+		return new ReportColumn(name, Type.DECIMAL);
+	}
+
+	static ReportColumn integer(String name) {
+		return new ReportColumn(name, Type.INTEGER);
+	}
+
+	String getName() {
+		return name;
+	}
+
+	Type getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + type;
+	}
+}
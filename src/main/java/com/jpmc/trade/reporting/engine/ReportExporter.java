@@ -0,0 +1,125 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Exports report results to files for downstream consumers, as {@link ReportFormat#BINARY columnar binary},
+ * {@link ReportFormat#CSV} or {@link ReportFormat#JSON}.
+ *
+ * Rows are streamed through one reusable buffer into a file channel, see {@link ReportWriter}. Every format holds the
+ * same rows and columns, in the same order.
+ */
+public final class ReportExporter {
+
+	private ReportExporter() {
+	}
+
+	/**
+	 * Exports the totals and the top n entities of every action and working settlement date, one row per ranked
+	 * entity, ordered by action, date and rank. The columns are buySellIndicator, settlementDate, totalAmount,
+	 * tradeCount (repeated on every row of the date), rank, stockName and stockAmount.
+	 *
+	 * @param topN entities per date, at least 1
+	 * @return the number of rows written
+	 */
+	public static long exportDailyReport(DailyTradeReport report, int topN, ReportFormat format, Path file)
+			throws IOException {
+		if (topN < 1) {
+			throw new IllegalArgumentException("topN must be at least 1: " + topN);
+		}
+		List<ReportColumn> columns = new ArrayList<>();
+		columns.add(ReportColumn.string("buySellIndicator"));
+		columns.add(ReportColumn.date("settlementDate"));
+		columns.add(ReportColumn.decimal("totalAmount"));
+		columns.add(ReportColumn.integer("tradeCount"));
+		columns.add(ReportColumn.integer("rank"));
+		columns.add(ReportColumn.string("stockName"));
+		columns.add(ReportColumn.decimal("stockAmount"));
+		try (ReportWriter writer = ReportWriter.open(file, format, columns)) {
+			for (String action : new TreeSet<>(report.getBuySellIndicators())) {
+				for (Map.Entry<LocalDate, DailySummary> entry : new TreeMap<>(report.getSummaries(action)).entrySet()) {
+					DailySummary summary = entry.getValue();
+					for (RankedEntity entity : summary.getTopEntities(topN)) {
+						writer.string(action)
+								.date(entry.getKey())
+								.decimal(summary.getTotalAmount())
+								.integer(summary.getTradeCount())
+								.integer(entity.getRank())
+								.string(entity.getStockName())
+								.decimal(entity.getTotalAmount())
+								.endRow();
+					}
+				}
+			}
+			return writer.getRowCount();
+		}
+	}
+
+	/**
+	 * Exports every group of the result in key order, one column per grouped dimension in {@link GroupDimension}
+	 * order (absent values empty), then totalAmount and tradeCount. Currencies are written as ISO codes.
+	 *
+	 * @return the number of rows written
+	 */
+	public static long exportGroupBy(GroupByResult result, ReportFormat format, Path file) throws IOException {
+		GroupDimension[] dimensions = result.getDimensions().toArray(new GroupDimension[0]);
+		List<ReportColumn> columns = new ArrayList<>();
+		for (GroupDimension dimension : dimensions) {
+			columns.add(column(dimension));
+		}
+		columns.add(ReportColumn.decimal("totalAmount"));
+		columns.add(ReportColumn.integer("tradeCount"));
+		try (ReportWriter writer = ReportWriter.open(file, format, columns)) {
+			for (GroupSummary summary : result.getSummaries().values()) {
+				GroupKey key = summary.getKey();
+				for (GroupDimension dimension : dimensions) {
+					switch (dimension) {
+					case BUY_SELL_INDICATOR:
+						writer.string(key.getBuySellIndicator().orElse(null));
+						break;
+					case CURRENCY:
+						writer.string(key.getCurrency().isPresent() ? key.getCurrency().get().getCurrencyCode() : null);
+						break;
+					case STOCK_NAME:
+						writer.string(key.getStockName().orElse(null));
+						break;
+					case INSTRUCTION_DATE:
+						writer.date(key.getInstructionDate().orElse(null));
+						break;
+					case SETTLEMENT_DATE:
+						writer.date(key.getSettlementDate().orElse(null));
+						break;
+					default:
+						throw new IllegalStateException("Unsupported dimension " + dimension);
+					}
+				}
+				writer.decimal(summary.getTotalAmount()).integer(summary.getTradeCount()).endRow();
+			}
+			return writer.getRowCount();
+		}
+	}
+
+	private static ReportColumn column(GroupDimension dimension) {
+		switch (dimension) {
+		case BUY_SELL_INDICATOR:
+			return ReportColumn.string("buySellIndicator");
+		case CURRENCY:
+			return ReportColumn.string("currency");
+		case STOCK_NAME:
+			return ReportColumn.string("stockName");
+		case INSTRUCTION_DATE:
+			return ReportColumn.date("instructionDate");
+		case SETTLEMENT_DATE:
+			return ReportColumn.date("settlementDate");
+		default:
+			throw new IllegalStateException("Unsupported dimension " + dimension);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * File format of a {@link ReportExporter} export.
+ */
+public enum ReportFormat {
+
+	/**
+	 * Compact columnar binary, see {@link ColumnarReportFormat} and {@link ColumnarReportReader}.
+	 */
+	BINARY,
+
+	/**
+	 * Comma separated values with a header line, quoted as in RFC 4180.
+	 */
+	CSV,
+
+	/**
+	 * A JSON array with one object per row.
+	 */
+	JSON
+}
@@ -0,0 +1,288 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the report pipeline.
+ *
+ * Aggregators record into the metrics they are {@link DailyTradeAggregator#instrument(ReportMetrics) instrumented}
+ * with, or into the {@link #global()} metrics while those are enabled. They count every trade with the fields it
+ * misses, time every pass and the building of the report, and time the per trade stages of one trade out of
+ * sampleInterval. Bytes allocated by a pass are read from the thread allocation counter of the JVM when it has one.
+ * Uninstrumented aggregators pay one null check per trade. Safe for concurrent recording.
+ */
+public final class ReportMetrics implements ReportMetricsMXBean {
+
+	public static final String OBJECT_NAME = "com.jpmc.trade.reporting.engine:type=ReportMetrics";
+
+	private static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+	/**
+	 * Shared copy of {@link MissingField#values()}, which clones the array on every call.
+	 */
+	private static final MissingField[] FIELDS = MissingField.values();
+
+	/**
+	 * Presence bits of every counted field, a trade holding all of them only counts as processed.
+	 */
+	private static final int COUNTED_FIELDS = countedFields();
+
+	private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+	private static final ReportMetrics GLOBAL = new ReportMetrics(DEFAULT_SAMPLE_INTERVAL, false);
+
+	private volatile boolean enabled;
+	private final int sampleInterval;
+	private final Map<ReportStage, LatencyHistogram> latencies = new EnumMap<>(ReportStage.class);
+	private final LongAdder tradesProcessed = new LongAdder();
+	private final LongAdder tradesSkipped = new LongAdder();
+	private final LongAdder allocatedBytes = new LongAdder();
+	private final LongAdder[] missingCounts = new LongAdder[FIELDS.length];
+
+	/**
+	 * Enabled metrics timing one trade out of 64.
+	 */
+	public ReportMetrics() {
+		this(DEFAULT_SAMPLE_INTERVAL, true);
+	}
+
+	/**
+	 * @param sampleInterval one trade out of sampleInterval has its stages timed, 1 times them all
+	 */
+	public ReportMetrics(int sampleInterval) {
+		this(sampleInterval, true);
+	}
+
+	private ReportMetrics(int sampleInterval, boolean enabled) {
+		if (sampleInterval <= 0) {
+			throw new IllegalArgumentException("sampleInterval must be positive: " + sampleInterval);
+		}
+		this.sampleInterval = sampleInterval;
+		this.enabled = enabled;
+		for (ReportStage stage : ReportStage.values()) {
+			latencies.put(stage, new LatencyHistogram());
+		}
+		for (int i = 0; i < missingCounts.length; i++) {
+			missingCounts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @return the process wide metrics used by aggregators not instrumented explicitly, disabled until
+	 *         {@link #setEnabled(boolean) enabled}
+	 */
+	public static ReportMetrics global() {
+		return GLOBAL;
+	}
+
+	/**
+	 * @return the global metrics if enabled, else null
+	 */
+	static ReportMetrics globalIfEnabled() {
+		return GLOBAL.enabled ? GLOBAL : null;
+	}
+
+	/**
+	 * Registers these metrics in the platform MBean server under {@value #OBJECT_NAME}, replacing a previous
+	 * registration.
+	 */
+	public void registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(OBJECT_NAME);
+		if (server.isRegistered(name)) {
+			server.unregisterMBean(name);
+		}
+		server.registerMBean(this, name);
+	}
+
+	/**
+	 * Sends every counter and histogram to the sink.
+	 */
+	public void publishTo(MetricsSink sink) {
+		sink.counter("trades.processed", getTradesProcessed());
+		sink.counter("trades.skipped", getTradesSkipped());
+		for (MissingField field : FIELDS) {
+			sink.counter("trades.missing." + metricName(field), getMissingCount(field));
+		}
+		sink.counter("allocated.bytes", getAllocatedBytes());
+		latencies.forEach((stage, histogram) -> sink.latency("stage." + metricName(stage), histogram));
+	}
+
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+
+	public LatencyHistogram getLatency(ReportStage stage) {
+		return latencies.get(stage);
+	}
+
+	public long getMissingCount(MissingField field) {
+		return missingCounts[field.ordinal()].sum();
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Aggregators check the flag when they are created or instrumented, running passes are not affected.
+	 */
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public long getTradesProcessed() {
+		return tradesProcessed.sum();
+	}
+
+	@Override
+	public long getTradesSkipped() {
+		return tradesSkipped.sum();
+	}
+
+	@Override
+	public Map<String, Long> getMissingFieldCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (MissingField field : FIELDS) {
+			counts.put(field.name(), getMissingCount(field));
+		}
+		return counts;
+	}
+
+	/**
+	 * @return bytes allocated by instrumented passes, 0 if the JVM does not count allocations per thread
+	 */
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	}
+
+	@Override
+	public Map<String, Long> getStageCounts() {
+		return stageValues(LatencyHistogram::getCount);
+	}
+
+	@Override
+	public Map<String, Long> getStageP50Nanos() {
+		return stageValues(histogram -> histogram.getValueAtPercentile(50));
+	}
+
+	@Override
+	public Map<String, Long> getStageP99Nanos() {
+		return stageValues(histogram -> histogram.getValueAtPercentile(99));
+	}
+
+	@Override
+	public Map<String, Long> getStageMaxNanos() {
+		return stageValues(LatencyHistogram::getMaxNanos);
+	}
+
+	@Override
+	public void reset() {
+		tradesProcessed.reset();
+		tradesSkipped.reset();
+		allocatedBytes.reset();
+		for (LongAdder missingCount : missingCounts) {
+			missingCount.reset();
+		}
+		latencies.values().forEach(LatencyHistogram::reset);
+	}
+
+	/**
+	 * Counts one trade given its {@link TradeRecord} presence bits.
+	 */
+	void countTrade(int presence) {
+		tradesProcessed.increment();
+		if ((presence & COUNTED_FIELDS) == COUNTED_FIELDS) {
+			return;
+		}
+		boolean skipped = false;
+		for (MissingField field : FIELDS) {
+			if ((presence & field.getPresenceBit()) == 0) {
+				missingCounts[field.ordinal()].increment();
+				skipped |= field.skipsTrade();
+			}
+		}
+		if (skipped) {
+			tradesSkipped.increment();
+		}
+	}
+
+	void record(ReportStage stage, long nanos) {
+		latencies.get(stage).record(nanos);
+	}
+
+	/**
+	 * Records a pass started at startNanos on the current thread, when it had allocated startAllocatedBytes.
+	 */
+	void recordPass(ReportStage stage, long startNanos, long startAllocatedBytes) {
+		record(stage, System.nanoTime() - startNanos);
+		allocatedBytes.add(Math.max(0, threadAllocatedBytes() - startAllocatedBytes));
+	}
+
+	/**
+	 * @return bytes allocated so far by the current thread, 0 if unknown
+	 */
+	static long threadAllocatedBytes() {
+		return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * @return the {@link TradeRecord} presence bits of the trade fields counted by the metrics
+	 */
+	static int presence(TradeEvent tradeEvent) {
+		return (tradeEvent.getBuySellIndicator().isPresent() ? TradeRecord.BUY_SELL_INDICATOR : 0)
+				| (tradeEvent.getSettlementDate().isPresent() ? TradeRecord.SETTLEMENT_DATE : 0)
+				| (tradeEvent.getUnits().isPresent() ? TradeRecord.UNITS : 0)
+				| (tradeEvent.getPricePerUnit().isPresent() ? TradeRecord.PRICE_PER_UNIT : 0)
+				| (tradeEvent.getAgreedFx().isPresent() ? TradeRecord.AGREED_FX : 0);
+	}
+
+	private static int countedFields() {
+		int presence = 0;
+		for (MissingField field : FIELDS) {
+			presence |= field.getPresenceBit();
+		}
+		return presence;
+	}
+
+	private Map<String, Long> stageValues(ToLongFunction<LatencyHistogram> value) {
+		Map<String, Long> values = new LinkedHashMap<>();
+		latencies.forEach((stage, histogram) -> values.put(stage.name(), value.applyAsLong(histogram)));
+		return values;
+	}
+
+	private static String metricName(Enum<?> constant) {
+		return constant.name().toLowerCase(Locale.ROOT).replace('_', '.');
+	}
+
+	private static com.sun.management.ThreadMXBean allocationCounter() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+			if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+				return counter;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "ReportMetrics[enabled=" + enabled + ",tradesProcessed=" + getTradesProcessed() + ",tradesSkipped="
+				+ getTradesSkipped() + ",latencies=" + latencies + "]";
+	}
+}
@@ -0,0 +1,32 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ReportMetrics}. Latency maps are keyed by {@link ReportStage} name,
+ * count maps by {@link MissingField} name.
+ */
+public interface ReportMetricsMXBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	long getTradesProcessed();
+
+	long getTradesSkipped();
+
+	Map<String, Long> getMissingFieldCounts();
+
+	long getAllocatedBytes();
+
+	Map<String, Long> getStageCounts();
+
+	Map<String, Long> getStageP50Nanos();
+
+	Map<String, Long> getStageP99Nanos();
+
+	Map<String, Long> getStageMaxNanos();
+
+	void reset();
+}
@@ -0,0 +1,66 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One report asked to a {@link ReportClient}: a report type for an action over a range of working settlement
+ * dates, both inclusive.
+ */
+public final class ReportRequest {
+
+	private final ReportType reportType;
+	private final String buySellIndicator;
+	private final LocalDate from;
+	private final LocalDate to;
+
+	public ReportRequest(ReportType reportType, String buySellIndicator, LocalDate from, LocalDate to) {
+		this.reportType = Objects.requireNonNull(reportType);
+		this.buySellIndicator = Objects.requireNonNull(buySellIndicator);
+		this.from = Objects.requireNonNull(from);
+		this.to = Objects.requireNonNull(to);
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("from " + from + " is after to " + to);
+		}
+	}
+
+	public ReportType getReportType() {
+		return reportType;
+	}
+
+	public String getBuySellIndicator() {
+		return buySellIndicator;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(reportType, buySellIndicator, from, to);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ReportRequest)) {
+			return false;
+		}
+		ReportRequest other = (ReportRequest) obj;
+		return reportType == other.reportType && buySellIndicator.equals(other.buySellIndicator)
+				&& from.equals(other.from) && to.equals(other.to);
+	}
+
+	@Override
+	public String toString() {
+		return "ReportRequest[reportType=" + reportType + ",buySellIndicator=" + buySellIndicator + ",from=" + from
+				+ ",to=" + to + "]";
+	}
+}
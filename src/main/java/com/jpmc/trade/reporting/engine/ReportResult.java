@@ -0,0 +1,64 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * Answer to a {@link ReportRequest}: the rows of its {@link ReportType} for every working settlement date of the
+ * range that has trades, in date order, taken from one snapshot.
+ */
+public final class ReportResult {
+
+	private final ReportRequest request;
+	private final SortedMap<LocalDate, BigDecimal> totalAmountByDate;
+	private final SortedMap<LocalDate, String> topStockByDate;
+
+	private ReportResult(ReportRequest request, SortedMap<LocalDate, BigDecimal> totalAmountByDate,
+			SortedMap<LocalDate, String> topStockByDate) {
+		this.request = request;
+		this.totalAmountByDate = totalAmountByDate;
+		this.topStockByDate = topStockByDate;
+	}
+
+	static ReportResult totalAmount(ReportRequest request, SortedMap<LocalDate, BigDecimal> totalAmountByDate) {
+		return new ReportResult(request, Collections.unmodifiableSortedMap(totalAmountByDate), null);
+	}
+
+	static ReportResult ranking(ReportRequest request, SortedMap<LocalDate, String> topStockByDate) {
+		return new ReportResult(request, null, Collections.unmodifiableSortedMap(topStockByDate));
+	}
+
+	public ReportRequest getRequest() {
+		return request;
+	}
+
+	/**
+	 * @return the rows of a {@link ReportType#TOTAL_AMOUNT} report
+	 * @throws IllegalStateException if the request was for another report type
+	 */
+	public SortedMap<LocalDate, BigDecimal> getTotalAmountByDate() {
+		if (totalAmountByDate == null) {
+			throw new IllegalStateException("not a " + ReportType.TOTAL_AMOUNT + " report: " + request);
+		}
+		return totalAmountByDate;
+	}
+
+	/**
+	 * @return the rows of a {@link ReportType#RANKING} report
+	 * @throws IllegalStateException if the request was for another report type
+	 */
+	public SortedMap<LocalDate, String> getTopStockByDate() {
+		if (topStockByDate == null) {
+			throw new IllegalStateException("not a " + ReportType.RANKING + " report: " + request);
+		}
+		return topStockByDate;
+	}
+
+	@Override
+	public String toString() {
+		return "ReportResult[request=" + request + ",rows="
+				+ (topStockByDate != null ? topStockByDate : totalAmountByDate) + "]";
+	}
+}
@@ -0,0 +1,129 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Serves many concurrent report requests over a shared, immutable {@link DailyTradeReport} snapshot.
+ *
+ * Every request runs on its own virtual thread and reads the snapshot published when it was submitted, so a
+ * {@link #publish} never blocks or changes running reports. At most maxConcurrency reports compute at a time,
+ * the others wait for a permit. Beyond maxPending submitted and unfinished requests, new requests are rejected at
+ * once with {@link RejectedExecutionException} so that callers back off instead of queueing without bound.
+ */
+public class ReportService implements ReportClient, AutoCloseable {
+
+	private final AtomicReference<DailyTradeReport> snapshot;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final int maxPending;
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * @param maxConcurrency reports computed at the same time
+	 * @param maxPending requests accepted and not yet completed, running ones included
+	 */
+	public ReportService(DailyTradeReport snapshot, int maxConcurrency, int maxPending) {
+		this(snapshot, maxConcurrency, maxPending, Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	/**
+	 * @param executor runs the requests, closed with the service
+	 */
+	ReportService(DailyTradeReport snapshot, int maxConcurrency, int maxPending, ExecutorService executor) {
+		if (maxConcurrency <= 0 || maxPending < maxConcurrency) {
+			throw new IllegalArgumentException("need 0 < maxConcurrency <= maxPending, got " + maxConcurrency
+					+ " and " + maxPending);
+		}
+		this.snapshot = new AtomicReference<>(snapshot);
+		this.executor = executor;
+		this.permits = new Semaphore(maxConcurrency);
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * Aggregates the trades into a new snapshot and publishes it for the next requests.
+	 */
+	public void publish(Collection<TradeEvent> tradeEvents) {
+		publish(DailyTradeAggregator.aggregate(tradeEvents));
+	}
+
+	public void publish(DailyTradeReport report) {
+		snapshot.set(report);
+	}
+
+	@Override
+	public CompletableFuture<ReportResult> submit(ReportRequest request) {
+		if (pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+			return CompletableFuture.failedFuture(
+					new RejectedExecutionException("more than " + maxPending + " pending reports"));
+		}
+		DailyTradeReport report = snapshot.get();
+		CompletableFuture<ReportResult> result;
+		try {
+			result = CompletableFuture.supplyAsync(() -> compute(report, request), executor);
+		} catch (RejectedExecutionException closed) {
+			pending.decrementAndGet();
+			return CompletableFuture.failedFuture(closed);
+		}
+		return result.whenComplete((value, failure) -> pending.decrementAndGet());
+	}
+
+	/**
+	 * @return the number of requests accepted and not yet completed
+	 */
+	public int getPendingCount() {
+		return pending.get();
+	}
+
+	/**
+	 * Rejects new requests and waits for the accepted ones to complete.
+	 */
+	@Override
+	public void close() {
+		executor.close();
+	}
+
+	private ReportResult compute(DailyTradeReport report, ReportRequest request) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CompletionException(e);
+		}
+		try {
+			if (request.getReportType() == ReportType.RANKING) {
+				return ReportResult.ranking(request, rows(report, request, DailySummary::getTopStockName));
+			}
+			return ReportResult.totalAmount(request, rows(report, request, DailySummary::getTotalAmount));
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * @return the column of every date of the range that has trades
+	 */
+	private static <V> SortedMap<LocalDate, V> rows(DailyTradeReport report, ReportRequest request,
+			Function<DailySummary, V> column) {
+		SortedMap<LocalDate, V> rows = new TreeMap<>();
+		report.getSummaries(request.getBuySellIndicator()).forEach((date, summary) -> {
+			if (!date.isBefore(request.getFrom()) && !date.isAfter(request.getTo())) {
+				rows.put(date, column.apply(summary));
+			}
+		});
+		return rows;
+	}
+}
@@ -0,0 +1,32 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Timed stages of the report pipeline, see {@link ReportMetrics}.
+ */
+public enum ReportStage {
+
+	/**
+	 * Moving one settlement date to its next working day, sampled per trade.
+	 */
+	SETTLEMENT_ADJUSTMENT,
+
+	/**
+	 * Finding the action / date bucket of one trade, sampled per trade.
+	 */
+	GROUPING,
+
+	/**
+	 * Computing agreedFx * units * pricePerUnit of one trade and adding it to the totals, sampled per trade.
+	 */
+	AMOUNT,
+
+	/**
+	 * One aggregation pass over a list or batch slice.
+	 */
+	AGGREGATION,
+
+	/**
+	 * Building the report out of the totals, entity ranking included.
+	 */
+	RANKING
+}
@@ -0,0 +1,66 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows of an exported report read back by {@link ColumnarReportReader}.
+ *
+ * Values are {@link String}, {@link java.time.LocalDate}, {@link java.math.BigDecimal} or {@link Long} by column
+ * type, null if absent.
+ */
+public final class ReportTable {
+
+	private final List<String> columnNames;
+	private final Object[][] values;
+	private final int rowCount;
+
+	/**
+	 * @param values per column its values, owned by the table from now on
+	 */
+	ReportTable(String[] columnNames, Object[][] values, int rowCount) {
+		this.columnNames = Collections.unmodifiableList(Arrays.asList(columnNames));
+		this.values = values;
+		this.rowCount = rowCount;
+	}
+
+	public List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the report has no such column
+	 */
+	public Object getValue(int row, String columnName) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+		}
+		return values[columnIndex(columnName)][row];
+	}
+
+	/**
+	 * @return the values of the column in row order
+	 * @throws IllegalArgumentException if the report has no such column
+	 */
+	public List<Object> getColumn(String columnName) {
+		return Collections.unmodifiableList(Arrays.asList(values[columnIndex(columnName)]));
+	}
+
+	private int columnIndex(String columnName) {
+		int index = columnNames.indexOf(columnName);
+		if (index < 0) {
+			throw new IllegalArgumentException("No column " + columnName + " in " + columnNames);
+		}
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return "ReportTable" + columnNames + "[rows=" + rowCount + "]";
+	}
+}
@@ -0,0 +1,17 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Kind of report served by {@link ReportService}.
+ */
+public enum ReportType {
+
+	/**
+	 * Total amount per working settlement date, see {@link DailyTradeReporter#dailyTotalAmountGroupByDate}.
+	 */
+	TOTAL_AMOUNT,
+
+	/**
+	 * Top entity per working settlement date, see {@link DailyTradeReporter#findRankingGroupByDate}.
+	 */
+	RANKING
+}
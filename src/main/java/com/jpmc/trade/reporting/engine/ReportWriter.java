@@ -0,0 +1,191 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Streams rows of typed cells into a report file through one reusable buffer.
+ *
+ * A row is written cell by cell in column order, e.g. {@code writer.string("B").date(date).decimal(total)},
+ * then ended with {@link #endRow()}. Subclasses encode the cells straight into the buffer. Not thread safe.
+ */
+abstract class ReportWriter implements Closeable {
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	final ReportColumn[] columns;
+
+	private final FileChannel channel;
+	private int column;
+	private long rowCount;
+	private boolean closed;
+
+	/**
+	 * Creates or truncates the file.
+	 */
+	ReportWriter(Path file, List<ReportColumn> columns) throws IOException {
+		if (columns.isEmpty()) {
+			throw new IllegalArgumentException("A report needs at least one column");
+		}
+		this.columns = columns.toArray(new ReportColumn[0]);
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	static ReportWriter open(Path file, ReportFormat format, List<ReportColumn> columns) throws IOException {
+		switch (format) {
+		case BINARY:
+			return new ColumnarReportWriter(file, columns);
+		case CSV:
+			return new CsvReportWriter(file, columns);
+		case JSON:
+			return new JsonReportWriter(file, columns);
+		default:
+			throw new IllegalArgumentException("Unsupported report format " + format);
+		}
+	}
+
+	/**
+	 * @param value null if absent
+	 */
+	final ReportWriter string(String value) throws IOException {
+		writeString(nextColumn(ReportColumn.Type.STRING), value);
+		return this;
+	}
+
+	/**
+	 * @param value null if absent
+	 */
+	final ReportWriter date(LocalDate value) throws IOException {
+		int index = nextColumn(ReportColumn.Type.DATE);
+		if (value == null) {
+			writeMissingDate(index);
+		} else {
+			writeDate(index, (int) value.toEpochDay());
+		}
+		return this;
+	}
+
+	final ReportWriter decimal(BigDecimal value) throws IOException {
+		writeDecimal(nextColumn(ReportColumn.Type.DECIMAL), value);
+		return this;
+	}
+
+	final ReportWriter integer(long value) throws IOException {
+		writeInteger(nextColumn(ReportColumn.Type.INTEGER), value);
+		return this;
+	}
+
+	final ReportWriter endRow() throws IOException {
+		if (column != columns.length) {
+			throw new IllegalStateException("Row ended after " + column + " of " + columns.length + " cells");
+		}
+		writeRowEnd();
+		column = 0;
+		rowCount++;
+		return this;
+	}
+
+	/**
+	 * @return the number of rows written so far
+	 */
+	final long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Writes the trailer of the format, then closes the file.
+	 */
+	@Override
+	public final void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (column != 0) {
+				throw new IllegalStateException("Closed in the middle of a row");
+			}
+			finish();
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	abstract void writeString(int column, String value) throws IOException;
+
+	abstract void writeDate(int column, int epochDay) throws IOException;
+
+	abstract void writeMissingDate(int column) throws IOException;
+
+	abstract void writeDecimal(int column, BigDecimal value) throws IOException;
+
+	abstract void writeInteger(int column, long value) throws IOException;
+
+	abstract void writeRowEnd() throws IOException;
+
+	/**
+	 * Writes whatever the format needs after the last row, called once before the buffer is flushed on close.
+	 */
+	abstract void finish() throws IOException;
+
+	FileChannel channel() {
+		return channel;
+	}
+
+	/**
+	 * Makes room for the bytes in the buffer, flushing it if needed.
+	 *
+	 * @return false if the bytes are larger than the whole buffer, they must go through {@link #put(byte[])}
+	 */
+	final boolean ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+		return buffer.remaining() >= bytes;
+	}
+
+	/**
+	 * Puts the bytes through the buffer, or straight to the channel if they do not fit it.
+	 */
+	final void put(byte[] bytes) throws IOException {
+		if (ensure(bytes.length)) {
+			buffer.put(bytes);
+			return;
+		}
+		ByteBuffer large = ByteBuffer.wrap(bytes);
+		while (large.hasRemaining()) {
+			channel.write(large);
+		}
+	}
+
+	final void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private int nextColumn(ReportColumn.Type type) {
+		if (closed) {
+			throw new IllegalStateException("Writer is closed");
+		}
+		if (column == columns.length) {
+			throw new IllegalStateException("Row has only " + columns.length + " cells, call endRow()");
+		}
+		if (columns[column].getType() != type) {
+			throw new IllegalStateException("Column " + columns[column] + " does not take a " + type);
+		}
+		return column++;
+	}
+}
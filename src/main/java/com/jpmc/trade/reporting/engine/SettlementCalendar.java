@@ -0,0 +1,189 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves settlement dates to the next working day of the trade currency, without touching the trade.
+ *
+ * Every currency has its weekend days and public holidays, resolved to a {@link WorkingDayCalendar} with
+ * precomputed next working day tables, so an adjustment is an O(1) array read. Immutable and thread safe.
+ */
+public final class SettlementCalendar {
+
+	private static final SettlementCalendar STANDARD = builder()
+			.weekend("AED", DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)
+			.weekend("SAR", DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)
+			.build();
+
+	private final WorkingDayCalendar defaultCalendar;
+	private final Map<String, WorkingDayCalendar> calendarsByCurrencyCode;
+	private final Map<Currency, WorkingDayCalendar> calendarsByCurrency = new ConcurrentHashMap<>();
+
+	private SettlementCalendar(SettlementCalendar.Builder builder) {
+		this.defaultCalendar = new WorkingDayCalendar(builder.defaultWeekend, holidays(builder, Builder.ALL_CURRENCIES));
+		this.calendarsByCurrencyCode = new HashMap<>();
+		Set<String> currencyCodes = new HashSet<>(builder.weekends.keySet());
+		currencyCodes.addAll(builder.holidays.keySet());
+		currencyCodes.remove(Builder.ALL_CURRENCIES);
+		for (String currencyCode : currencyCodes) {
+			calendarsByCurrencyCode.put(currencyCode, new WorkingDayCalendar(
+					builder.weekends.getOrDefault(currencyCode, builder.defaultWeekend),
+					holidays(builder, currencyCode)));
+		}
+	}
+
+	/**
+	 * @return Friday / Saturday weekend for AED and SAR, Saturday / Sunday for all other currencies, no holidays
+	 */
+	public static SettlementCalendar standard() {
+		return STANDARD;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @param currency the trade currency, null for the default calendar
+	 * @return the date itself when it is a working day of the currency, else the next working one
+	 */
+	public LocalDate nextWorkingDay(Currency currency, LocalDate date) {
+		int epochDay = (int) date.toEpochDay();
+		int workingEpochDay = calendarFor(currency).nextWorkingEpochDay(epochDay);
+		return workingEpochDay == epochDay ? date : LocalDate.ofEpochDay(workingEpochDay);
+	}
+
+	/**
+	 * Epoch day form of {@link #nextWorkingDay(Currency, LocalDate)}.
+	 */
+	public int nextWorkingEpochDay(Currency currency, int epochDay) {
+		return calendarFor(currency).nextWorkingEpochDay(epochDay);
+	}
+
+	/**
+	 * @return true if the date is neither a weekend day nor a holiday of the currency
+	 */
+	public boolean isWorkingDay(Currency currency, LocalDate date) {
+		return calendarFor(currency).isWorkingDay((int) date.toEpochDay());
+	}
+
+	/**
+	 * Resolves the calendars of a currency dictionary once, so columnar callers index by currency id.
+	 */
+	WorkingDayCalendar[] calendarsFor(Currency[] currencies) {
+		WorkingDayCalendar[] calendars = new WorkingDayCalendar[currencies.length];
+		for (int id = 0; id < currencies.length; id++) {
+			calendars[id] = calendarFor(currencies[id]);
+		}
+		return calendars;
+	}
+
+	WorkingDayCalendar calendarFor(Currency currency) {
+		if (currency == null) {
+			return defaultCalendar;
+		}
+		WorkingDayCalendar calendar = calendarsByCurrency.get(currency);
+		if (calendar == null) {
+			calendar = calendarsByCurrencyCode.getOrDefault(currency.getCurrencyCode(), defaultCalendar);
+			calendarsByCurrency.put(currency, calendar);
+		}
+		return calendar;
+	}
+
+	private static int[] holidays(Builder builder, String currencyCode) {
+		List<LocalDate> dates = new ArrayList<>(builder.holidays.getOrDefault(Builder.ALL_CURRENCIES,
+				new ArrayList<LocalDate>()));
+		if (!Builder.ALL_CURRENCIES.equals(currencyCode)) {
+			dates.addAll(builder.holidays.getOrDefault(currencyCode, new ArrayList<LocalDate>()));
+		}
+		return dates.stream().mapToInt(date -> (int) date.toEpochDay()).distinct().toArray();
+	}
+
+	/**
+	 * Collects weekend rules and holidays. Currencies without their own weekend use the default one,
+	 * holidays registered for {@value #ALL_CURRENCIES} apply to every currency.
+	 */
+	public static final class Builder {
+
+		public static final String ALL_CURRENCIES = "*";
+
+		private Set<DayOfWeek> defaultWeekend = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+		private final Map<String, Set<DayOfWeek>> weekends = new HashMap<>();
+		private final Map<String, List<LocalDate>> holidays = new HashMap<>();
+
+		public Builder defaultWeekend(DayOfWeek... weekendDays) {
+			this.defaultWeekend = daysOf(weekendDays);
+			return this;
+		}
+
+		public Builder weekend(String currencyCode, DayOfWeek... weekendDays) {
+			weekends.put(currencyCode.toUpperCase(Locale.ROOT), daysOf(weekendDays));
+			return this;
+		}
+
+		/**
+		 * @param currencyCode ISO code or {@value #ALL_CURRENCIES}
+		 */
+		public Builder holiday(String currencyCode, LocalDate date) {
+			holidays.computeIfAbsent(currencyCode.toUpperCase(Locale.ROOT), key -> new ArrayList<>()).add(date);
+			return this;
+		}
+
+		/**
+		 * Loads public holidays from a local file, one "currencyCode,yyyy-MM-dd" per line.
+		 * Blank lines and lines starting with # are skipped.
+		 *
+		 * @throws IllegalArgumentException on a malformed line
+		 */
+		public Builder loadHolidays(Path holidayFile) throws IOException {
+			try (BufferedReader reader = Files.newBufferedReader(holidayFile, StandardCharsets.UTF_8)) {
+				String line;
+				int lineNumber = 0;
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					int comma = line.indexOf(',');
+					if (comma < 0) {
+						throw new IllegalArgumentException(holidayFile + ":" + lineNumber + " expected currency,date but was " + line);
+					}
+					try {
+						holiday(line.substring(0, comma).trim(), LocalDate.parse(line.substring(comma + 1).trim()));
+					} catch (DateTimeParseException e) {
+						throw new IllegalArgumentException(holidayFile + ":" + lineNumber + " invalid date in " + line, e);
+					}
+				}
+			}
+			return this;
+		}
+
+		public SettlementCalendar build() {
+			return new SettlementCalendar(this);
+		}
+
+		private static Set<DayOfWeek> daysOf(DayOfWeek... weekendDays) {
+			return weekendDays.length == 0 ? EnumSet.noneOf(DayOfWeek.class)
+					: EnumSet.copyOf(Arrays.asList(weekendDays));
+		}
+	}
+}
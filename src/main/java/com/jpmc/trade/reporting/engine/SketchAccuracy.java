@@ -0,0 +1,104 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Memory and error bounds of the approximate aggregation, see {@link ApproximateTradeAggregator}.
+ *
+ * Every action and date holds a {@link HeavyHitters} of the given capacity and a {@link HyperLogLog}, their sizes
+ * follow from the errors and not from the number of entities, see {@link #getSketchBytes()}.
+ */
+public final class SketchAccuracy {
+
+	private static final SketchAccuracy STANDARD = of(10, 0.005, 0.01, 0.02);
+
+	private final int topEntities;
+	private final double amountError;
+	private final double failureProbability;
+	private final double distinctError;
+
+	private SketchAccuracy(int topEntities, double amountError, double failureProbability, double distinctError) {
+		this.topEntities = topEntities;
+		this.amountError = amountError;
+		this.failureProbability = failureProbability;
+		this.distinctError = distinctError;
+	}
+
+	/**
+	 * @param topEntities candidates kept per date, the largest top-N that can be asked
+	 * @param amountError overcount bound of the entity amounts relative to the total amount of the date
+	 * @param failureProbability probability an entity amount exceeds its bound
+	 * @param distinctError standard error of the distinct entity counts
+	 */
+	public static SketchAccuracy of(int topEntities, double amountError, double failureProbability,
+			double distinctError) {
+		if (topEntities <= 0) {
+			throw new IllegalArgumentException("topEntities must be positive: " + topEntities);
+		}
+		CountMinSketch.width(amountError);
+		CountMinSketch.depth(failureProbability);
+		HyperLogLog.precision(distinctError);
+		return new SketchAccuracy(topEntities, amountError, failureProbability, distinctError);
+	}
+
+	/**
+	 * @return top 10 entities, amounts within 0.5% of the date total with 99% probability, distinct counts within 2%
+	 */
+	public static SketchAccuracy standard() {
+		return STANDARD;
+	}
+
+	public int getTopEntities() {
+		return topEntities;
+	}
+
+	public double getAmountError() {
+		return amountError;
+	}
+
+	public double getFailureProbability() {
+		return failureProbability;
+	}
+
+	public double getDistinctError() {
+		return distinctError;
+	}
+
+	/**
+	 * @return the bytes of the sketches of one action and date, the candidate names aside
+	 */
+	public long getSketchBytes() {
+		return (long) CountMinSketch.width(amountError) * CountMinSketch.depth(failureProbability) * Double.BYTES
+				+ (1L << HyperLogLog.precision(distinctError));
+	}
+
+	HeavyHitters newHeavyHitters() {
+		return new HeavyHitters(topEntities, amountError, failureProbability);
+	}
+
+	HyperLogLog newHyperLogLog() {
+		return new HyperLogLog(distinctError);
+	}
+
+	@Override
+	public int hashCode() {
+		return Double.hashCode(amountError) * 31 + Double.hashCode(distinctError) + topEntities;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SketchAccuracy)) {
+			return false;
+		}
+		SketchAccuracy other = (SketchAccuracy) obj;
+		return topEntities == other.topEntities && amountError == other.amountError
+				&& failureProbability == other.failureProbability && distinctError == other.distinctError;
+	}
+
+	@Override
+	public String toString() {
+		return "SketchAccuracy[topEntities=" + topEntities + ",amountError=" + amountError + ",failureProbability="
+				+ failureProbability + ",distinctError=" + distinctError + "]";
+	}
+}
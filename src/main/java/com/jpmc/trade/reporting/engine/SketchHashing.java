@@ -0,0 +1,33 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * 64 bit hashing of entity names for the sketches.
+ *
+ * FNV-1a over the chars, then the MurmurHash3 finalizer to spread the bits. Fixed and seedless on purpose, sketches
+ * built in different processes or partitions hash alike and can be merged.
+ */
+final class SketchHashing {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private SketchHashing() {
+	}
+
+	static long hash(String value) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
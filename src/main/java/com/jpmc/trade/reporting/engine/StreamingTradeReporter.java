@@ -0,0 +1,396 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Stateful daily report that is updated as trades arrive.
+ *
+ * Keeps running totals, trade counts and per entity totals per action and working settlement date, with a
+ * leaderboard of the best entities that every trade and retraction updates in O(log leaderboard size). Intraday
+ * refreshes of the totals and the top entity therefore cost O(dates), only {@link #snapshot()} copies every entity.
+ * A leaderboard entity that loses amount while others are outside the board is only re-ranked by the next read,
+ * which then scans the entities of that date once. Trades already ingested can be retracted or amended when
+ * upstream sends corrections. Optionally trades equal to one already ingested are dropped, see
+ * {@link TradeDeduplicator}.
+ *
+ * Retraction matches the {@link TradeEvent#fingerprint()}: the reporter keeps no trades, only the count of every
+ * fingerprint ingested per action, working settlement date and entity. At most a fixed number of distinct
+ * fingerprints is kept per entity and date, later trades of that entity and date are added to the totals but
+ * cannot be retracted, see {@link #getUnretractableTradeCount()}. Clear old dates by building a new reporter.
+ * Totals after a retraction are numerically exact but keep the largest scale seen on the date.
+ * All methods are synchronized, snapshots are independent of later updates.
+ */
+public class StreamingTradeReporter {
+
+	public static final int DEFAULT_LEADERBOARD_SIZE = 10;
+	public static final int DEFAULT_RETRACTABLE_TRADES_PER_ENTITY = 10_000;
+
+	private static final Comparator<EntityTotal> BEST_FIRST = Comparator
+			.comparing((EntityTotal entityTotal) -> entityTotal.totalAmount).reversed()
+			.thenComparing(entityTotal -> entityTotal.stockName);
+
+	private final SettlementCalendar settlementCalendar;
+	private final int leaderboardSize;
+	private final int retractableTradesPerEntity;
+
+	/**
+	 * Null if duplicates are ingested.
+	 */
+	private final TradeDeduplicator deduplicator;
+
+	private final Map<String, Map<LocalDate, StreamingBucket>> bucketsByAction = new HashMap<>();
+
+	private long unretractableTradeCount;
+
+	/**
+	 * Uses the {@link SettlementCalendar#standard()} working days.
+	 */
+	public StreamingTradeReporter() {
+		this(SettlementCalendar.standard());
+	}
+
+	public StreamingTradeReporter(SettlementCalendar settlementCalendar) {
+		this(settlementCalendar, false);
+	}
+
+	/**
+	 * @param dropDuplicates true to ignore trades equal to one already ingested and not retracted since
+	 */
+	public StreamingTradeReporter(SettlementCalendar settlementCalendar, boolean dropDuplicates) {
+		this(settlementCalendar, dropDuplicates, DEFAULT_LEADERBOARD_SIZE, DEFAULT_RETRACTABLE_TRADES_PER_ENTITY);
+	}
+
+	/**
+	 * @param dropDuplicates true to ignore trades equal to one already ingested and not retracted since
+	 * @param leaderboardSize entities ranked per action and date, see {@link #getTopEntities(String, LocalDate)}
+	 * @param retractableTradesPerEntity distinct trades kept per entity and date for retraction
+	 */
+	public StreamingTradeReporter(SettlementCalendar settlementCalendar, boolean dropDuplicates, int leaderboardSize,
+			int retractableTradesPerEntity) {
+		if (leaderboardSize <= 0) {
+			throw new IllegalArgumentException("leaderboardSize must be positive: " + leaderboardSize);
+		}
+		if (retractableTradesPerEntity <= 0) {
+			throw new IllegalArgumentException(
+					"retractableTradesPerEntity must be positive: " + retractableTradesPerEntity);
+		}
+		this.settlementCalendar = settlementCalendar;
+		this.deduplicator = dropDuplicates ? new TradeDeduplicator() : null;
+		this.leaderboardSize = leaderboardSize;
+		this.retractableTradesPerEntity = retractableTradesPerEntity;
+	}
+
+	/**
+	 * Adds one trade. Trades without action or settlement date are ignored like in the batch report,
+	 * duplicates too if enabled.
+	 */
+	public synchronized StreamingTradeReporter accept(TradeEvent tradeEvent) {
+		if (isReportable(tradeEvent) && (deduplicator == null || deduplicator.test(tradeEvent))) {
+			add(bucketsByAction.computeIfAbsent(DailyTradeReport.actionKey(tradeEvent.getBuySellIndicator().get()),
+					key -> new HashMap<>())
+					.computeIfAbsent(DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar),
+							key -> new StreamingBucket()),
+					tradeEvent.getStockName().orElse(""), DailyTradeAggregator.amount(tradeEvent),
+					tradeEvent.fingerprint());
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a micro batch of trades.
+	 */
+	public synchronized StreamingTradeReporter acceptAll(Collection<TradeEvent> tradeEvents) {
+		for (TradeEvent tradeEvent : tradeEvents) {
+			accept(tradeEvent);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a micro batch in columnar form. With duplicates dropped, rows are checked as trade events.
+	 */
+	public synchronized StreamingTradeReporter acceptAll(TradeBatch tradeBatch) {
+		TradeRecord record = new TradeRecord();
+		for (int row = 0; row < tradeBatch.size(); row++) {
+			tradeBatch.read(row, record);
+			if (deduplicator != null) {
+				accept(record.toTradeEvent());
+			} else if (record.has(TradeRecord.BUY_SELL_INDICATOR | TradeRecord.SETTLEMENT_DATE)) {
+				add(bucketsByAction.computeIfAbsent(DailyTradeReport.actionKey(record.getBuySellIndicator()),
+						key -> new HashMap<>())
+						.computeIfAbsent(DailyTradeAggregator.workingSettlementDate(record, settlementCalendar),
+								key -> new StreamingBucket()),
+						record.has(TradeRecord.STOCK_NAME) ? record.getStockName() : "", record.amount(),
+						record.fingerprint());
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Removes a trade ingested before, matched on its fingerprint, see the class comment.
+	 *
+	 * @return false if no trade with the same fingerprint was ingested on its action, working date and entity, or if
+	 *         it was ingested beyond the retractable trades of that entity, the state is then unchanged
+	 */
+	public synchronized boolean retract(TradeEvent tradeEvent) {
+		if (!isReportable(tradeEvent) || deduplicator != null && !deduplicator.contains(tradeEvent)) {
+			return false;
+		}
+		String action = DailyTradeReport.actionKey(tradeEvent.getBuySellIndicator().get());
+		Map<LocalDate, StreamingBucket> buckets = bucketsByAction.get(action);
+		if (buckets == null) {
+			return false;
+		}
+		LocalDate settlementDate = DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar);
+		StreamingBucket bucket = buckets.get(settlementDate);
+		if (bucket == null || !bucket.remove(tradeEvent.getStockName().orElse(""),
+				DailyTradeAggregator.amount(tradeEvent), tradeEvent.fingerprint())) {
+			return false;
+		}
+		if (bucket.tradeCount == 0) {
+			buckets.remove(settlementDate);
+			if (buckets.isEmpty()) {
+				bucketsByAction.remove(action);
+			}
+		}
+		if (deduplicator != null) {
+			deduplicator.remove(tradeEvent);
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces a trade ingested before by its corrected version.
+	 *
+	 * @return false if the original trade could not be retracted, the correction is then not applied
+	 */
+	public synchronized boolean amend(TradeEvent original, TradeEvent corrected) {
+		if (!retract(original)) {
+			return false;
+		}
+		accept(corrected);
+		return true;
+	}
+
+	/**
+	 * @return the number of duplicate trades dropped, 0 if duplicates are ingested
+	 */
+	public synchronized long getDuplicateCount() {
+		return deduplicator == null ? 0 : deduplicator.getDuplicateCount();
+	}
+
+	/**
+	 * @return the number of trades ingested beyond the retractable trades of their entity and date
+	 */
+	public synchronized long getUnretractableTradeCount() {
+		return unretractableTradeCount;
+	}
+
+	/**
+	 * @return the current figures of all actions, in O(dates + entities)
+	 */
+	public synchronized DailyTradeReport snapshot() {
+		Map<String, Map<LocalDate, DailySummary>> summariesByAction = new HashMap<>();
+		bucketsByAction.forEach((action, buckets) -> {
+			Map<LocalDate, DailySummary> summaries = new HashMap<>();
+			buckets.forEach((date, bucket) -> summaries.put(date, bucket.toSummary(date)));
+			summariesByAction.put(action, summaries);
+		});
+		return new DailyTradeReport(summariesByAction);
+	}
+
+	/**
+	 * Streaming equivalent of {@link DailyTradeReporter#dailyTotalAmountGroupByDate(java.util.List, String)},
+	 * in O(dates).
+	 */
+	public synchronized Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(String buySellIndicator) {
+		Map<LocalDate, BigDecimal> totalByDate = new HashMap<>();
+		buckets(buySellIndicator).forEach((date, bucket) -> totalByDate.put(date, bucket.totalAmount));
+		return totalByDate;
+	}
+
+	/**
+	 * Streaming equivalent of {@link DailyTradeReporter#findRankingGroupByDate(java.util.List, String)},
+	 * in O(dates) unless a leaderboard has to be rebuilt, see the class comment.
+	 */
+	public synchronized Map<LocalDate, String> findRankingGroupByDate(String buySellIndicator) {
+		Map<LocalDate, String> rankByDate = new HashMap<>();
+		buckets(buySellIndicator)
+				.forEach((date, bucket) -> rankByDate.put(date, bucket.leaderboard().first().stockName));
+		return rankByDate;
+	}
+
+	/**
+	 * @return the best entities of the action on the working settlement date, at most the leaderboard size, empty if
+	 *         the date has no trades
+	 */
+	public synchronized List<RankedEntity> getTopEntities(String buySellIndicator, LocalDate settlementDate) {
+		StreamingBucket bucket = buckets(buySellIndicator).get(settlementDate);
+		if (bucket == null) {
+			return Collections.emptyList();
+		}
+		List<RankedEntity> topEntities = new ArrayList<>(leaderboardSize);
+		for (EntityTotal entityTotal : bucket.leaderboard()) {
+			topEntities.add(new RankedEntity(topEntities.size() + 1, entityTotal.stockName, entityTotal.totalAmount));
+		}
+		return topEntities;
+	}
+
+	private Map<LocalDate, StreamingBucket> buckets(String buySellIndicator) {
+		Map<LocalDate, StreamingBucket> buckets = bucketsByAction.get(DailyTradeReport.actionKey(buySellIndicator));
+		return buckets == null ? Collections.emptyMap() : buckets;
+	}
+
+	private void add(StreamingBucket bucket, String stockName, BigDecimal amount, long fingerprint) {
+		if (!bucket.add(stockName, amount, fingerprint)) {
+			unretractableTradeCount++;
+		}
+	}
+
+	private static boolean isReportable(TradeEvent tradeEvent) {
+		return tradeEvent.getBuySellIndicator().isPresent() && tradeEvent.getSettlementDate().isPresent();
+	}
+
+	/**
+	 * Running figures of one action on one date.
+	 */
+	private final class StreamingBucket {
+		private BigDecimal totalAmount = BigDecimal.ZERO;
+		private long tradeCount;
+		private final Map<String, EntityTotal> entityTotals = new HashMap<>();
+
+		/**
+		 * The best entities, at most the leaderboard size, unless stale.
+		 */
+		private final TreeSet<EntityTotal> leaderboard = new TreeSet<>(BEST_FIRST);
+		private boolean leaderboardStale;
+
+		/**
+		 * @return false if the trade cannot be retracted
+		 */
+		boolean add(String stockName, BigDecimal amount, long fingerprint) {
+			EntityTotal entityTotal = entityTotals.get(stockName);
+			if (entityTotal == null) {
+				entityTotal = new EntityTotal(stockName);
+				entityTotals.put(stockName, entityTotal);
+			}
+			// the leaderboard is ordered by amount, so entities leave it before their amount changes
+			boolean ranked = !leaderboardStale && leaderboard.remove(entityTotal);
+			boolean retractable = entityTotal.add(amount, fingerprint, retractableTradesPerEntity);
+			totalAmount = totalAmount.add(amount);
+			tradeCount++;
+			rank(entityTotal, ranked, amount.signum() < 0);
+			return retractable;
+		}
+
+		boolean remove(String stockName, BigDecimal amount, long fingerprint) {
+			EntityTotal entityTotal = entityTotals.get(stockName);
+			if (entityTotal == null || !entityTotal.contains(fingerprint)) {
+				return false;
+			}
+			boolean ranked = !leaderboardStale && leaderboard.remove(entityTotal);
+			entityTotal.remove(amount, fingerprint);
+			totalAmount = totalAmount.subtract(amount);
+			tradeCount--;
+			if (entityTotal.tradeCount == 0) {
+				entityTotals.remove(stockName);
+				if (ranked && entityTotals.size() > leaderboard.size()) {
+					leaderboardStale = true;
+				}
+			} else {
+				rank(entityTotal, ranked, amount.signum() > 0);
+			}
+			return true;
+		}
+
+		private void rank(EntityTotal entityTotal, boolean ranked, boolean decreased) {
+			if (leaderboardStale) {
+				return;
+			}
+			if (ranked && decreased && entityTotals.size() > leaderboard.size() + 1) {
+				// an entity outside the board may now be better, only a scan can tell
+				leaderboardStale = true;
+				return;
+			}
+			offer(entityTotal);
+		}
+
+		private void offer(EntityTotal entityTotal) {
+			if (leaderboard.size() < leaderboardSize) {
+				leaderboard.add(entityTotal);
+			} else if (BEST_FIRST.compare(entityTotal, leaderboard.last()) < 0) {
+				leaderboard.pollLast();
+				leaderboard.add(entityTotal);
+			}
+		}
+
+		TreeSet<EntityTotal> leaderboard() {
+			if (leaderboardStale) {
+				leaderboard.clear();
+				for (EntityTotal entityTotal : entityTotals.values()) {
+					offer(entityTotal);
+				}
+				leaderboardStale = false;
+			}
+			return leaderboard;
+		}
+
+		DailySummary toSummary(LocalDate settlementDate) {
+			Map<String, BigDecimal> totals = new HashMap<>();
+			entityTotals.forEach((stockName, entityTotal) -> totals.put(stockName, entityTotal.totalAmount));
+			return new DailySummary(settlementDate, totalAmount, tradeCount, totals);
+		}
+	}
+
+	/**
+	 * Running amount of one entity, with the count of every fingerprint of its live trades so only ingested trades
+	 * can be retracted. Retracted fingerprints stay as a count of 0 and keep counting towards the limit.
+	 */
+	private static final class EntityTotal {
+		private final String stockName;
+		private BigDecimal totalAmount = BigDecimal.ZERO;
+		private long tradeCount;
+		private final LongIntHashMap fingerprintCounts = new LongIntHashMap();
+
+		EntityTotal(String stockName) {
+			this.stockName = stockName;
+		}
+
+		/**
+		 * @return false if the fingerprint was not kept because the entity has the maximum number already
+		 */
+		boolean add(BigDecimal amount, long fingerprint, int maximumFingerprints) {
+			totalAmount = totalAmount.add(amount);
+			tradeCount++;
+			int count = fingerprintCounts.get(fingerprint);
+			if (count == LongIntHashMap.MISSING) {
+				if (fingerprintCounts.size() >= maximumFingerprints) {
+					return false;
+				}
+				count = 0;
+			}
+			fingerprintCounts.put(fingerprint, count + 1);
+			return true;
+		}
+
+		boolean contains(long fingerprint) {
+			return fingerprintCounts.get(fingerprint) > 0;
+		}
+
+		void remove(BigDecimal amount, long fingerprint) {
+			fingerprintCounts.put(fingerprint, fingerprintCounts.get(fingerprint) - 1);
+			totalAmount = totalAmount.subtract(amount);
+			tradeCount--;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the UTF-8 text report writers.
+ *
+ * Numbers are formatted digit by digit into the buffer, strings and dates are escaped and encoded once per distinct
+ * value and their bytes reused, so a row builds no {@link String}. Only decimals whose unscaled value does not fit a
+ * long, or whose scale is negative or above 19, go through {@link BigDecimal#toPlainString()}.
+ */
+abstract class TextReportWriter extends ReportWriter {
+
+	/**
+	 * Room for the digits of any long, its sign and a decimal point.
+	 */
+	private static final int MAX_NUMBER_BYTES = 21;
+
+	private final byte[] digits = new byte[MAX_NUMBER_BYTES];
+	private final Map<String, byte[]> encoded = new HashMap<>();
+	private final IntObjectHashMap<byte[]> encodedDates = new IntObjectHashMap<>();
+
+	TextReportWriter(Path file, List<ReportColumn> columns) throws IOException {
+		super(file, columns);
+	}
+
+	/**
+	 * @return the value escaped (and quoted) for the format
+	 */
+	abstract String escape(String value);
+
+	/**
+	 * Puts the escaped value, encoded once per distinct value.
+	 */
+	final void putString(String value) throws IOException {
+		byte[] bytes = encoded.get(value);
+		if (bytes == null) {
+			bytes = escape(value).getBytes(StandardCharsets.UTF_8);
+			encoded.put(value, bytes);
+		}
+		put(bytes);
+	}
+
+	final void putAscii(char value) throws IOException {
+		ensure(1);
+		buffer.put((byte) value);
+	}
+
+	final void putLong(long value) throws IOException {
+		ensure(MAX_NUMBER_BYTES);
+		if (value == Long.MIN_VALUE) {
+			buffer.put("-9223372036854775808".getBytes(StandardCharsets.US_ASCII));
+			return;
+		}
+		if (value < 0) {
+			buffer.put((byte) '-');
+			value = -value;
+		}
+		int start = fillDigits(value);
+		buffer.put(digits, start, digits.length - start);
+	}
+
+	/**
+	 * Puts the plain notation of the value, same text as {@link BigDecimal#toPlainString()}.
+	 */
+	final void putDecimal(BigDecimal value) throws IOException {
+		int scale = value.scale();
+		BigInteger unscaledValue = value.unscaledValue();
+		// Long.MIN_VALUE fits a long but has no positive counterpart to print the digits of
+		if (scale < 0 || scale > MAX_NUMBER_BYTES - 2 || unscaledValue.bitLength() >= Long.SIZE
+				|| unscaledValue.longValue() == Long.MIN_VALUE) {
+			put(value.toPlainString().getBytes(StandardCharsets.US_ASCII));
+			return;
+		}
+		long unscaled = unscaledValue.longValue();
+		ensure(MAX_NUMBER_BYTES + 2);
+		if (unscaled < 0) {
+			buffer.put((byte) '-');
+			unscaled = -unscaled;
+		}
+		int start = fillDigits(unscaled);
+		int integerDigits = digits.length - start - scale;
+		if (integerDigits > 0) {
+			buffer.put(digits, start, integerDigits);
+		} else {
+			buffer.put((byte) '0');
+		}
+		if (scale > 0) {
+			buffer.put((byte) '.');
+			for (int zero = integerDigits; zero < 0; zero++) {
+				buffer.put((byte) '0');
+			}
+			int fraction = Math.max(start, digits.length - scale);
+			buffer.put(digits, fraction, digits.length - fraction);
+		}
+	}
+
+	/**
+	 * Puts the date as yyyy-MM-dd, encoded once per distinct day.
+	 */
+	final void putDate(int epochDay) throws IOException {
+		byte[] bytes = encodedDates.get(epochDay);
+		if (bytes == null) {
+			bytes = LocalDate.ofEpochDay(epochDay).toString().getBytes(StandardCharsets.US_ASCII);
+			encodedDates.put(epochDay, bytes);
+		}
+		put(bytes);
+	}
+
+	/**
+	 * Fills the digits of the non negative value right aligned into the scratch array.
+	 *
+	 * @return the index of the first digit
+	 */
+	private int fillDigits(long value) {
+		int start = digits.length;
+		do {
+			digits[--start] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		return start;
+	}
+}
@@ -0,0 +1,306 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Columnar, primitive backed set of trades for the aggregation hot path.
+ *
+ * One array per field instead of one object graph per trade: units as int, agreedFx and pricePerUnit as
+ * fixed point unscaled long plus scale, dates as epoch days, stock names, actions and currencies dictionary
+ * encoded, and a per row presence bitmap (see {@link TradeRecord} field bits) in place of {@link java.util.Optional}.
+ *
+ * Immutable once built.
+ */
+public final class TradeBatch {
+
+	private final int size;
+	private final byte[] presence;
+	private final int[] stockNameIds;
+	private final byte[] buySellIndicatorIds;
+	private final int[] instructionEpochDays;
+	private final int[] settlementEpochDays;
+	private final short[] currencyIds;
+	private final long[] agreedFxUnscaled;
+	private final byte[] agreedFxScales;
+	private final int[] units;
+	private final long[] pricePerUnitUnscaled;
+	private final byte[] pricePerUnitScales;
+
+	private final String[] stockNames;
+	private final String[] buySellIndicators;
+	private final Currency[] currencies;
+
+	private TradeBatch(TradeBatch.Builder builder) {
+		this.size = builder.size;
+		this.presence = Arrays.copyOf(builder.presence, size);
+		this.stockNameIds = Arrays.copyOf(builder.stockNameIds, size);
+		this.buySellIndicatorIds = Arrays.copyOf(builder.buySellIndicatorIds, size);
+		this.instructionEpochDays = Arrays.copyOf(builder.instructionEpochDays, size);
+		this.settlementEpochDays = Arrays.copyOf(builder.settlementEpochDays, size);
+		this.currencyIds = Arrays.copyOf(builder.currencyIds, size);
+		this.agreedFxUnscaled = Arrays.copyOf(builder.agreedFxUnscaled, size);
+		this.agreedFxScales = Arrays.copyOf(builder.agreedFxScales, size);
+		this.units = Arrays.copyOf(builder.units, size);
+		this.pricePerUnitUnscaled = Arrays.copyOf(builder.pricePerUnitUnscaled, size);
+		this.pricePerUnitScales = Arrays.copyOf(builder.pricePerUnitScales, size);
+		this.stockNames = builder.stockNames.toArray(new String[0]);
+		this.buySellIndicators = builder.buySellIndicators.toArray(new String[0]);
+		this.currencies = builder.currencies.toArray(new Currency[0]);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Converts the trade events into a batch.
+	 */
+	public static TradeBatch of(Collection<TradeEvent> tradeEvents) {
+		Builder builder = new Builder(tradeEvents.size());
+		for (TradeEvent tradeEvent : tradeEvents) {
+			builder.add(tradeEvent);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return the number of trades
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Fills the record with the given row.
+	 */
+	public TradeRecord read(int row, TradeRecord record) {
+		record.clear();
+		int fields = presence[row] & 0xFF;
+		if ((fields & TradeRecord.STOCK_NAME) != 0) {
+			record.setStockName(stockNames[stockNameIds[row]]);
+		}
+		if ((fields & TradeRecord.BUY_SELL_INDICATOR) != 0) {
+			record.setBuySellIndicator(buySellIndicators[buySellIndicatorIds[row]]);
+		}
+		if ((fields & TradeRecord.INSTRUCTION_DATE) != 0) {
+			record.setInstructionEpochDay(instructionEpochDays[row]);
+		}
+		if ((fields & TradeRecord.SETTLEMENT_DATE) != 0) {
+			record.setSettlementEpochDay(settlementEpochDays[row]);
+		}
+		if ((fields & TradeRecord.CURRENCY) != 0) {
+			record.setCurrency(currencies[currencyIds[row]]);
+		}
+		if ((fields & TradeRecord.AGREED_FX) != 0) {
+			record.setAgreedFx(agreedFxUnscaled[row], agreedFxScales[row]);
+		}
+		if ((fields & TradeRecord.UNITS) != 0) {
+			record.setUnits(units[row]);
+		}
+		if ((fields & TradeRecord.PRICE_PER_UNIT) != 0) {
+			record.setPricePerUnit(pricePerUnitUnscaled[row], pricePerUnitScales[row]);
+		}
+		return record;
+	}
+
+	/**
+	 * @return the trades of this batch as events, mostly for callers of the list based API
+	 */
+	public List<TradeEvent> toTradeEvents() {
+		List<TradeEvent> tradeEvents = new ArrayList<>(size);
+		TradeRecord record = new TradeRecord();
+		for (int row = 0; row < size; row++) {
+			tradeEvents.add(read(row, record).toTradeEvent());
+		}
+		return tradeEvents;
+	}
+
+	/*
+	 * Raw column access for the aggregation in this package.
+	 */
+
+	int presence(int row) {
+		return presence[row] & 0xFF;
+	}
+
+	int stockNameId(int row) {
+		return stockNameIds[row];
+	}
+
+	int buySellIndicatorId(int row) {
+		return buySellIndicatorIds[row];
+	}
+
+	int instructionEpochDay(int row) {
+		return instructionEpochDays[row];
+	}
+
+	int settlementEpochDay(int row) {
+		return settlementEpochDays[row];
+	}
+
+	int currencyId(int row) {
+		return currencyIds[row];
+	}
+
+	long agreedFxUnscaled(int row) {
+		return agreedFxUnscaled[row];
+	}
+
+	int agreedFxScale(int row) {
+		return agreedFxScales[row];
+	}
+
+	int units(int row) {
+		return units[row];
+	}
+
+	long pricePerUnitUnscaled(int row) {
+		return pricePerUnitUnscaled[row];
+	}
+
+	int pricePerUnitScale(int row) {
+		return pricePerUnitScales[row];
+	}
+
+	String[] stockNames() {
+		return stockNames;
+	}
+
+	String[] buySellIndicators() {
+		return buySellIndicators;
+	}
+
+	Currency[] currencies() {
+		return currencies;
+	}
+
+	/**
+	 * Appends trades column by column. Accepts trade events, the existing {@link TradeEventBuilder}
+	 * and decoded {@link TradeRecord}s.
+	 */
+	public static final class Builder {
+		private int size;
+		private byte[] presence;
+		private int[] stockNameIds;
+		private byte[] buySellIndicatorIds;
+		private int[] instructionEpochDays;
+		private int[] settlementEpochDays;
+		private short[] currencyIds;
+		private long[] agreedFxUnscaled;
+		private byte[] agreedFxScales;
+		private int[] units;
+		private long[] pricePerUnitUnscaled;
+		private byte[] pricePerUnitScales;
+
+		private final List<String> stockNames = new ArrayList<>();
+		private final Map<String, Integer> stockNameIndex = new HashMap<>();
+		private final List<String> buySellIndicators = new ArrayList<>();
+		private final Map<String, Integer> buySellIndicatorIndex = new HashMap<>();
+		private final List<Currency> currencies = new ArrayList<>();
+		private final Map<Currency, Integer> currencyIndex = new HashMap<>();
+
+		private final TradeRecord scratch = new TradeRecord();
+
+		Builder() {
+			this(1024);
+		}
+
+		Builder(int capacity) {
+			allocate(Math.max(capacity, 16));
+		}
+
+		public Builder add(TradeEvent tradeEvent) {
+			return add(scratch.set(tradeEvent));
+		}
+
+		/**
+		 * Adds the trade described by an existing builder, so current callers can feed batches unchanged.
+		 */
+		public Builder add(TradeEventBuilder tradeEventBuilder) {
+			return add(tradeEventBuilder.build());
+		}
+
+		public Builder add(TradeRecord record) {
+			if (size == presence.length) {
+				allocate(size * 2);
+			}
+			int row = size++;
+			presence[row] = (byte) record.getPresence();
+			stockNameIds[row] = record.has(TradeRecord.STOCK_NAME)
+					? id(record.getStockName(), stockNames, stockNameIndex, Integer.MAX_VALUE) : 0;
+			buySellIndicatorIds[row] = (byte) (record.has(TradeRecord.BUY_SELL_INDICATOR)
+					? id(record.getBuySellIndicator(), buySellIndicators, buySellIndicatorIndex, Byte.MAX_VALUE) : 0);
+			instructionEpochDays[row] = record.getInstructionEpochDay();
+			settlementEpochDays[row] = record.getSettlementEpochDay();
+			currencyIds[row] = (short) (record.has(TradeRecord.CURRENCY)
+					? id(record.getCurrency(), currencies, currencyIndex, Short.MAX_VALUE) : 0);
+			agreedFxUnscaled[row] = record.getAgreedFxUnscaled();
+			agreedFxScales[row] = scale(record.getAgreedFxScale());
+			units[row] = record.getUnits();
+			pricePerUnitUnscaled[row] = record.getPricePerUnitUnscaled();
+			pricePerUnitScales[row] = scale(record.getPricePerUnitScale());
+			return this;
+		}
+
+		public TradeBatch build() {
+			return new TradeBatch(this);
+		}
+
+		private static <T> int id(T value, List<T> dictionary, Map<T, Integer> index, int maxId) {
+			Integer id = index.get(value);
+			if (id == null) {
+				if (dictionary.size() > maxId) {
+					throw new IllegalStateException("Too many distinct values for dictionary, max is " + (maxId + 1));
+				}
+				id = dictionary.size();
+				dictionary.add(value);
+				index.put(value, id);
+			}
+			return id;
+		}
+
+		private static byte scale(int scale) {
+			if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Scale " + scale + " does not fit the batch");
+			}
+			return (byte) scale;
+		}
+
+		private void allocate(int capacity) {
+			if (presence == null) {
+				presence = new byte[capacity];
+				stockNameIds = new int[capacity];
+				buySellIndicatorIds = new byte[capacity];
+				instructionEpochDays = new int[capacity];
+				settlementEpochDays = new int[capacity];
+				currencyIds = new short[capacity];
+				agreedFxUnscaled = new long[capacity];
+				agreedFxScales = new byte[capacity];
+				units = new int[capacity];
+				pricePerUnitUnscaled = new long[capacity];
+				pricePerUnitScales = new byte[capacity];
+				return;
+			}
+			presence = Arrays.copyOf(presence, capacity);
+			stockNameIds = Arrays.copyOf(stockNameIds, capacity);
+			buySellIndicatorIds = Arrays.copyOf(buySellIndicatorIds, capacity);
+			instructionEpochDays = Arrays.copyOf(instructionEpochDays, capacity);
+			settlementEpochDays = Arrays.copyOf(settlementEpochDays, capacity);
+			currencyIds = Arrays.copyOf(currencyIds, capacity);
+			agreedFxUnscaled = Arrays.copyOf(agreedFxUnscaled, capacity);
+			agreedFxScales = Arrays.copyOf(agreedFxScales, capacity);
+			units = Arrays.copyOf(units, capacity);
+			pricePerUnitUnscaled = Arrays.copyOf(pricePerUnitUnscaled, capacity);
+			pricePerUnitScales = Arrays.copyOf(pricePerUnitScales, capacity);
+		}
+	}
+}
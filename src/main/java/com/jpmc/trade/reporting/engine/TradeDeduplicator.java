@@ -0,0 +1,134 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.function.Predicate;
+
+/**
+ * Drops trades seen before, e.g. messages replayed by an upstream feed after a reconnect.
+ *
+ * Trades are kept in an open addressing table keyed by their {@link TradeEvent#fingerprint()}, a lookup is one
+ * cached long compare per probe and a field-wise {@link TradeEvent#equals(Object)} only when fingerprints match,
+ * so distinct trades with colliding fingerprints are both kept. As a {@link Predicate} it filters streams:
+ * {@code tradeEvents.stream().filter(new TradeDeduplicator())}. Not thread safe.
+ */
+public class TradeDeduplicator implements Predicate<TradeEvent> {
+
+	private long[] fingerprints = new long[1024];
+	private TradeEvent[] trades = new TradeEvent[1024];
+	private int size;
+	private long duplicateCount;
+
+	/**
+	 * @return true the first time an equal trade is seen, false for duplicates
+	 */
+	@Override
+	public boolean test(TradeEvent tradeEvent) {
+		long fingerprint = tradeEvent.fingerprint();
+		int mask = trades.length - 1;
+		for (int slot = slot(fingerprint, mask);; slot = (slot + 1) & mask) {
+			TradeEvent seen = trades[slot];
+			if (seen == null) {
+				fingerprints[slot] = fingerprint;
+				trades[slot] = tradeEvent;
+				if (++size * 2 > trades.length) {
+					grow();
+				}
+				return true;
+			}
+			if (fingerprints[slot] == fingerprint && seen.equals(tradeEvent)) {
+				duplicateCount++;
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * @return true if an equal trade was seen
+	 */
+	public boolean contains(TradeEvent tradeEvent) {
+		return indexOf(tradeEvent) >= 0;
+	}
+
+	/**
+	 * Forgets a trade, e.g. after a retraction, so an equal trade is accepted again.
+	 *
+	 * @return false if no equal trade was seen
+	 */
+	public boolean remove(TradeEvent tradeEvent) {
+		int slot = indexOf(tradeEvent);
+		if (slot < 0) {
+			return false;
+		}
+		// backward shift deletion keeps every probe chain free of holes
+		int mask = trades.length - 1;
+		for (int next = (slot + 1) & mask; trades[next] != null; next = (next + 1) & mask) {
+			int home = slot(fingerprints[next], mask);
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				fingerprints[slot] = fingerprints[next];
+				trades[slot] = trades[next];
+				slot = next;
+			}
+		}
+		trades[slot] = null;
+		size--;
+		return true;
+	}
+
+	/**
+	 * @return the number of distinct trades kept
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of duplicates dropped by {@link #test(TradeEvent)}
+	 */
+	public long getDuplicateCount() {
+		return duplicateCount;
+	}
+
+	/**
+	 * Forgets every trade, e.g. at the start of a new trading day.
+	 */
+	public void clear() {
+		fingerprints = new long[1024];
+		trades = new TradeEvent[1024];
+		size = 0;
+	}
+
+	private int indexOf(TradeEvent tradeEvent) {
+		long fingerprint = tradeEvent.fingerprint();
+		int mask = trades.length - 1;
+		for (int slot = slot(fingerprint, mask);; slot = (slot + 1) & mask) {
+			TradeEvent seen = trades[slot];
+			if (seen == null) {
+				return -1;
+			}
+			if (fingerprints[slot] == fingerprint && seen.equals(tradeEvent)) {
+				return slot;
+			}
+		}
+	}
+
+	private static int slot(long fingerprint, int mask) {
+		return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+	}
+
+	private void grow() {
+		long[] oldFingerprints = fingerprints;
+		TradeEvent[] oldTrades = trades;
+		fingerprints = new long[oldTrades.length * 2];
+		trades = new TradeEvent[oldTrades.length * 2];
+		int mask = trades.length - 1;
+		for (int i = 0; i < oldTrades.length; i++) {
+			if (oldTrades[i] != null) {
+				int slot = slot(oldFingerprints[i], mask);
+				while (trades[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				fingerprints[slot] = oldFingerprints[i];
+				trades[slot] = oldTrades[i];
+			}
+		}
+	}
+}
@@ -3,31 +3,37 @@
  */
 package com.jpmc.trade.reporting.engine;
 
-import static org.apache.commons.lang3.builder.HashCodeBuilder.reflectionHashCode;
-
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Currency;
 import java.util.Optional;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
 /**
- * @author S4Sushil
+ * Two trades are equal if all their fields are equal. The hash is derived from a 64 bit {@link #fingerprint()}
+ * computed once per trade, so trades are cheap set and map keys.
  *
+ * Immutable, trades can be shared between threads and snapshots, see {@link TradeSnapshot}. A trade with another
+ * value is a copy, e.g. {@link #withSettlementDate(Optional)}.
+ *
+ * @author S4Sushil
  */
 public class TradeEvent {
 
 	private final Optional<String> stockName;
 	private final Optional<String> buySellIndicator;
 	private final Optional<LocalDate> instructionDate;
-	private Optional<LocalDate> settlementDate;
+	private final Optional<LocalDate> settlementDate;
 	private final Optional<Currency> currency;
 	private final Optional<BigDecimal> agreedFx;
 	private final Optional<Integer> units;
 	private final Optional<BigDecimal> pricePerUnit; 
 
+	/**
+	 * Lazily computed {@link #fingerprint()}, 0 until then. Volatile so a trade shared between threads never shows
+	 * a torn value.
+	 */
+	private volatile long fingerprint;
+
 	private TradeEvent(TradeEvent.TradeEventBuilder builder) {
 		this.stockName = builder.stockName;
 		this.buySellIndicator = builder.buySellIndicator;
@@ -96,10 +102,63 @@ public class TradeEvent {
 	}
 
 	/**
-	 * Created the mutable method.
+	 * @return a copy of the trade with the given settlement date
+	 */
+	public TradeEvent withSettlementDate(Optional<LocalDate> date) {
+		return tradeEvent()
+				.setStockName(stockName)
+				.setBuySellIndicator(buySellIndicator)
+				.setInstructionDate(instructionDate)
+				.setSettlementDate(date)
+				.setCurrency(currency)
+				.setAgreedFx(agreedFx)
+				.setUnits(units)
+				.setPricePerUnit(pricePerUnit)
+				.build();
+	}
+
+	/**
+	 * 64 bit hash of all the fields, equal trades have equal fingerprints. Computed once and cached.
+	 * Stable across JVMs, so it can key replays of the same feed, but distinct trades may collide:
+	 * confirm with {@link #equals(Object)} when it matters.
+	 */
+	public long fingerprint() {
+		long hash = fingerprint;
+		if (hash == 0) {
+			hash = FINGERPRINT_SEED;
+			hash = mix(hash, stockName);
+			hash = mix(hash, buySellIndicator);
+			hash = mix(hash, instructionDate);
+			hash = mix(hash, settlementDate);
+			hash = mix(hash, currency.isPresent() ? Optional.of(currency.get().getCurrencyCode()) : currency);
+			hash = mix(hash, agreedFx);
+			hash = mix(hash, units);
+			hash = mix(hash, pricePerUnit);
+			hash = finish(hash);
+			fingerprint = hash;
+		}
+		return hash;
+	}
+
+	static final long FINGERPRINT_SEED = 0x2545F4914F6CDD1DL;
+
+	private static long mix(long hash, Optional<?> field) {
+		return mix(hash, field.isPresent(), field.isPresent() ? field.get().hashCode() : 0);
+	}
+
+	/**
+	 * Folds one field into a fingerprint, shared with {@link TradeRecord#fingerprint()}.
 	 */
-	public void setSettlementDate(Optional<LocalDate> date) {
-		this.settlementDate = date;
+	static long mix(long hash, boolean present, int fieldHash) {
+		// absent fields get their own value so (x, empty) and (empty, x) differ
+		return (hash + (present ? fieldHash : 0x9E3779B9)) * 0x9E3779B97F4A7C15L;
+	}
+
+	static long finish(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		return hash == 0 ? 1 : hash;
 	}
 	
 	public static TradeEventBuilder tradeEvent() {
@@ -183,14 +242,13 @@ public class TradeEvent {
 
 	}
 	
-	//TODO: Can move this to abstract Pojo Class.
-
 	/* (non-Javadoc)
 	 * @see java.lang.Object#hashCode()
 	 */
 	@Override
 	public int hashCode() {
-		return reflectionHashCode(this);
+		long hash = fingerprint();
+		return (int) (hash ^ (hash >>> 32));
 	}
 
 	/* (non-Javadoc)
@@ -198,7 +256,22 @@ public class TradeEvent {
 	 */
 	@Override
 	public boolean equals(Object obj) {
-		return EqualsBuilder.reflectionEquals(obj, this);
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof TradeEvent)) {
+			return false;
+		}
+		TradeEvent other = (TradeEvent) obj;
+		return (fingerprint == 0 || other.fingerprint == 0 || fingerprint == other.fingerprint)
+				&& units.equals(other.units)
+				&& settlementDate.equals(other.settlementDate)
+				&& stockName.equals(other.stockName)
+				&& buySellIndicator.equals(other.buySellIndicator)
+				&& pricePerUnit.equals(other.pricePerUnit)
+				&& agreedFx.equals(other.agreedFx)
+				&& instructionDate.equals(other.instructionDate)
+				&& currency.equals(other.currency);
 	}
 
 	/* (non-Javadoc)
@@ -206,6 +279,25 @@ public class TradeEvent {
 	 */
 	@Override
 	public String toString() {
-		return ToStringBuilder.reflectionToString(this, ToStringStyle.DEFAULT_STYLE);
+		return appendTo(new StringBuilder(192)).toString();
+	}
+
+	/**
+	 * Appends the {@link #toString()} form of the trade, lets log lines be built in one buffer.
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		builder.append("TradeEvent[stockName=");
+		append(builder, stockName).append(",buySellIndicator=");
+		append(builder, buySellIndicator).append(",instructionDate=");
+		append(builder, instructionDate).append(",settlementDate=");
+		append(builder, settlementDate).append(",currency=");
+		append(builder, currency).append(",agreedFx=");
+		append(builder, agreedFx).append(",units=");
+		append(builder, units).append(",pricePerUnit=");
+		return append(builder, pricePerUnit).append(']');
+	}
+
+	private static StringBuilder append(StringBuilder builder, Optional<?> field) {
+		return field.isPresent() ? builder.append(field.get()) : builder.append("<empty>");
 	}
 }
@@ -0,0 +1,435 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic generator of synthetic trades with a realistic skew, for load tests of any size.
+ *
+ * Stock names follow a Zipf distribution: the entity of rank k (named "E" + k, from 0) is picked with a probability
+ * proportional to 1 / (k + 1)^s. Currencies are picked from a weighted mix, AED and SAR included by default, and a
+ * configurable share of the trades settles on a non-working day of its currency, so the settlement dates are
+ * weekend heavy and the calendar adjustment is exercised for every weekend rule.
+ *
+ * Trade i is a pure function of the seed and i: the same seed always generates the same trades and any range of
+ * indices can be generated on its own, e.g. one per thread. Trades are filled into a reused {@link TradeRecord}, so
+ * streaming hundreds of millions of them to the text or binary form allocates nothing per trade.
+ * Immutable and thread safe.
+ */
+public final class TradeGenerator {
+
+	/**
+	 * Weyl sequence increment of SplitMix64, every random draw of every trade gets its own point of the sequence.
+	 */
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * Points of the sequence reserved per trade, at least the number of draws in {@link #generate(long, TradeRecord)}.
+	 */
+	private static final int DRAWS_PER_TRADE = 9;
+	private static final int TEXT_BUFFER_SIZE = 1 << 20;
+	private static final int MAX_INSTRUCTION_LAG = 2;
+
+	private final long seed;
+	private final double zipfExponent;
+	private final LocalDate firstSettlementDate;
+	private final int dateSpread;
+	private final double weekendShare;
+	private final String[] stockNames;
+	private final double[] entityCumulative;
+	private final Currency[] currencies;
+	private final double[] currencyCumulative;
+	private final int[][] workingEpochDays;
+	private final int[][] nonWorkingEpochDays;
+
+	private TradeGenerator(TradeGenerator.Builder builder) {
+		this.seed = builder.seed;
+		this.zipfExponent = builder.zipfExponent;
+		this.firstSettlementDate = builder.firstSettlementDate;
+		this.dateSpread = builder.dateSpread;
+		this.weekendShare = builder.weekendShare;
+		this.stockNames = new String[builder.entities];
+		double[] entityWeights = new double[builder.entities];
+		for (int rank = 0; rank < builder.entities; rank++) {
+			stockNames[rank] = "E" + rank;
+			entityWeights[rank] = Math.pow(rank + 1, -zipfExponent);
+		}
+		this.entityCumulative = cumulative(entityWeights);
+		Map<String, Double> currencyWeights = builder.currencyWeights.isEmpty() ? Builder.DEFAULT_CURRENCY_MIX
+				: builder.currencyWeights;
+		this.currencies = new Currency[currencyWeights.size()];
+		double[] weights = new double[currencyWeights.size()];
+		int id = 0;
+		for (Map.Entry<String, Double> entry : currencyWeights.entrySet()) {
+			currencies[id] = Currency.getInstance(entry.getKey());
+			weights[id++] = entry.getValue();
+		}
+		this.currencyCumulative = cumulative(weights);
+		this.workingEpochDays = new int[currencies.length][];
+		this.nonWorkingEpochDays = new int[currencies.length][];
+		for (id = 0; id < currencies.length; id++) {
+			List<LocalDate> working = new ArrayList<>();
+			List<LocalDate> nonWorking = new ArrayList<>();
+			for (int day = 0; day < dateSpread; day++) {
+				LocalDate date = firstSettlementDate.plusDays(day);
+				(builder.settlementCalendar.isWorkingDay(currencies[id], date) ? working : nonWorking).add(date);
+			}
+			workingEpochDays[id] = working.stream().mapToInt(date -> (int) date.toEpochDay()).toArray();
+			nonWorkingEpochDays[id] = nonWorking.stream().mapToInt(date -> (int) date.toEpochDay()).toArray();
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the generator of {@link Builder} defaults
+	 */
+	public static TradeGenerator standard() {
+		return builder().build();
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getEntities() {
+		return stockNames.length;
+	}
+
+	public double getZipfExponent() {
+		return zipfExponent;
+	}
+
+	/**
+	 * @return the probability of the entity of the given rank, 0 being the most traded
+	 */
+	public double getEntityShare(int rank) {
+		return entityCumulative[rank] - (rank == 0 ? 0 : entityCumulative[rank - 1]);
+	}
+
+	/**
+	 * Fills the record with trade i.
+	 *
+	 * @return the record
+	 */
+	public TradeRecord generate(long index, TradeRecord record) {
+		if (index < 0) {
+			throw new IllegalArgumentException("index must not be negative: " + index);
+		}
+		long state = seed + index * DRAWS_PER_TRADE * GAMMA;
+		int currencyId = pick(currencyCumulative, uniform(state += GAMMA));
+		int[] days = uniform(state += GAMMA) < weekendShare ? nonWorkingEpochDays[currencyId]
+				: workingEpochDays[currencyId];
+		if (days.length == 0) {
+			days = days == nonWorkingEpochDays[currencyId] ? workingEpochDays[currencyId]
+					: nonWorkingEpochDays[currencyId];
+		}
+		int settlementEpochDay = days[bounded(state += GAMMA, days.length)];
+		return record.clear()
+				.setStockName(stockNames[pick(entityCumulative, uniform(state += GAMMA))])
+				.setBuySellIndicator(bounded(state += GAMMA, 2) == 0 ? "B" : "S")
+				.setCurrency(currencies[currencyId])
+				.setSettlementEpochDay(settlementEpochDay)
+				.setInstructionEpochDay(settlementEpochDay - bounded(state += GAMMA, MAX_INSTRUCTION_LAG + 1))
+				.setAgreedFx(1000 + bounded(state += GAMMA, 20000), 4)
+				.setUnits(1 + bounded(state += GAMMA, 1000))
+				.setPricePerUnit(1 + bounded(state += GAMMA, 100000), 2);
+	}
+
+	/**
+	 * @return trade i as a trade event
+	 */
+	public TradeEvent tradeEvent(long index) {
+		return generate(index, new TradeRecord()).toTradeEvent();
+	}
+
+	/**
+	 * @return trades 0 to count - 1
+	 */
+	public List<TradeEvent> generate(int count) {
+		List<TradeEvent> tradeEvents = new ArrayList<>(count);
+		forEach(0, count, record -> tradeEvents.add(record.toTradeEvent()));
+		return tradeEvents;
+	}
+
+	/**
+	 * @return trades 0 to count - 1 as a columnar batch
+	 */
+	public TradeBatch generateBatch(int count) {
+		TradeBatch.Builder builder = new TradeBatch.Builder(count);
+		forEach(0, count, builder::add);
+		return builder.build();
+	}
+
+	/**
+	 * Hands trades fromIndex to toIndex - 1 to the sink in order, through one reused record.
+	 */
+	public void forEach(long fromIndex, long toIndex, Consumer<TradeRecord> sink) {
+		TradeRecord record = new TradeRecord();
+		for (long index = fromIndex; index < toIndex; index++) {
+			sink.accept(generate(index, record));
+		}
+	}
+
+	/**
+	 * Writes trades 0 to count - 1 into a binary trade file, see {@link BinaryTradeFileWriter}.
+	 *
+	 * @return the number of trades written
+	 */
+	public long writeBinary(Path file, long count) throws IOException {
+		try (BinaryTradeFileWriter writer = new BinaryTradeFileWriter(file)) {
+			TradeRecord record = new TradeRecord();
+			for (long index = 0; index < count; index++) {
+				writer.write(generate(index, record));
+			}
+			return writer.getRecordCount();
+		}
+	}
+
+	/**
+	 * Writes trades 0 to count - 1 into a comma separated text file without header, as read by
+	 * {@link TradeTextParser}. Dates are written yyyy-MM-dd.
+	 *
+	 * @return the number of trades written
+	 */
+	public long writeText(Path file, long count) throws IOException {
+		Map<String, byte[]> encoded = new HashMap<>();
+		byte[][] dates = new byte[dateSpread + MAX_INSTRUCTION_LAG][];
+		int firstEpochDay = (int) firstSettlementDate.toEpochDay() - MAX_INSTRUCTION_LAG;
+		for (int day = 0; day < dates.length; day++) {
+			dates[day] = LocalDate.ofEpochDay(firstEpochDay + day).toString().getBytes(StandardCharsets.US_ASCII);
+		}
+		byte[] digits = new byte[20];
+		ByteBuffer buffer = ByteBuffer.allocate(TEXT_BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			TradeRecord record = new TradeRecord();
+			for (long index = 0; index < count; index++) {
+				generate(index, record);
+				byte[] stockName = encoded.computeIfAbsent(record.getStockName(),
+						value -> value.getBytes(StandardCharsets.UTF_8));
+				// longest line: the stock name, three 20 digit numbers, two dates, a currency and the separators
+				if (buffer.remaining() < stockName.length + 128) {
+					flush(buffer, channel);
+				}
+				buffer.put(stockName).put((byte) ',');
+				buffer.put((byte) record.getBuySellIndicator().charAt(0)).put((byte) ',');
+				putDecimal(buffer, digits, record.getAgreedFxUnscaled(), record.getAgreedFxScale());
+				buffer.put((byte) ',');
+				buffer.put(encoded.computeIfAbsent(record.getCurrency().getCurrencyCode(),
+						value -> value.getBytes(StandardCharsets.US_ASCII))).put((byte) ',');
+				buffer.put(dates[record.getInstructionEpochDay() - firstEpochDay]).put((byte) ',');
+				buffer.put(dates[record.getSettlementEpochDay() - firstEpochDay]).put((byte) ',');
+				putDecimal(buffer, digits, record.getUnits(), 0);
+				buffer.put((byte) ',');
+				putDecimal(buffer, digits, record.getPricePerUnitUnscaled(), record.getPricePerUnitScale());
+				buffer.put((byte) '\n');
+			}
+			flush(buffer, channel);
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "TradeGenerator[seed=" + seed + ",entities=" + stockNames.length + ",zipfExponent=" + zipfExponent
+				+ ",currencies=" + Arrays.toString(currencies) + ",firstSettlementDate=" + firstSettlementDate
+				+ ",dateSpread=" + dateSpread + ",weekendShare=" + weekendShare + "]";
+	}
+
+	/**
+	 * @return the running sums of the weights, normalised so the last one is 1
+	 */
+	private static double[] cumulative(double[] weights) {
+		double[] cumulative = new double[weights.length];
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < cumulative.length; i++) {
+			cumulative[i] /= sum;
+		}
+		cumulative[cumulative.length - 1] = 1;
+		return cumulative;
+	}
+
+	/**
+	 * @return the first index whose running sum is above the uniform value
+	 */
+	private static int pick(double[] cumulative, double uniform) {
+		int index = Arrays.binarySearch(cumulative, uniform);
+		return index >= 0 ? Math.min(index + 1, cumulative.length - 1) : -index - 1;
+	}
+
+	/**
+	 * @return a uniform double in [0, 1) drawn from the Weyl sequence state
+	 */
+	private static double uniform(long state) {
+		return (SketchHashing.mix(state) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @return a uniform int in [0, bound)
+	 */
+	private static int bounded(long state, int bound) {
+		return (int) (((SketchHashing.mix(state) >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Writes the non negative fixed point value in plain notation, e.g. 1234 with scale 2 as 12.34.
+	 */
+	private static void putDecimal(ByteBuffer buffer, byte[] digits, long unscaled, int scale) {
+		int length = 0;
+		do {
+			digits[length++] = (byte) ('0' + unscaled % 10);
+			unscaled /= 10;
+		} while (unscaled != 0 || length <= scale);
+		for (int i = length - 1; i >= 0; i--) {
+			buffer.put(digits[i]);
+			if (i == scale && scale > 0) {
+				buffer.put((byte) '.');
+			}
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Collects the generator settings, every one has a default.
+	 */
+	public static final class Builder {
+
+		/**
+		 * USD 40%, GBP 20%, SGD 10%, AED 15% and SAR 15%.
+		 */
+		static final Map<String, Double> DEFAULT_CURRENCY_MIX = new LinkedHashMap<>();
+
+		static {
+			DEFAULT_CURRENCY_MIX.put("USD", 0.40);
+			DEFAULT_CURRENCY_MIX.put("GBP", 0.20);
+			DEFAULT_CURRENCY_MIX.put("SGD", 0.10);
+			DEFAULT_CURRENCY_MIX.put("AED", 0.15);
+			DEFAULT_CURRENCY_MIX.put("SAR", 0.15);
+		}
+
+		private long seed = 20171201L;
+		private int entities = 10000;
+		private double zipfExponent = 1.1;
+		private final Map<String, Double> currencyWeights = new LinkedHashMap<>();
+		private LocalDate firstSettlementDate = LocalDate.of(2017, 12, 1);
+		private int dateSpread = 30;
+		private double weekendShare = 0.4;
+		private SettlementCalendar settlementCalendar = SettlementCalendar.standard();
+
+		Builder() {
+		}
+
+		/**
+		 * Default 20171201.
+		 */
+		public Builder setSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Distinct stock names, default 10000.
+		 */
+		public Builder setEntities(int entities) {
+			if (entities <= 0) {
+				throw new IllegalArgumentException("entities must be positive: " + entities);
+			}
+			this.entities = entities;
+			return this;
+		}
+
+		/**
+		 * Skew of the entities, 0 for uniform, default 1.1.
+		 */
+		public Builder setZipfExponent(double zipfExponent) {
+			if (!(zipfExponent >= 0) || Double.isInfinite(zipfExponent)) {
+				throw new IllegalArgumentException("zipfExponent must be a non negative number: " + zipfExponent);
+			}
+			this.zipfExponent = zipfExponent;
+			return this;
+		}
+
+		/**
+		 * Adds a currency to the mix with a relative weight. Without any, USD 40%, GBP 20%, SGD 10%,
+		 * AED 15% and SAR 15%.
+		 */
+		public Builder addCurrency(String currencyCode, double weight) {
+			Currency.getInstance(currencyCode);
+			if (!(weight > 0) || Double.isInfinite(weight)) {
+				throw new IllegalArgumentException("Weight of " + currencyCode + " must be positive: " + weight);
+			}
+			currencyWeights.put(currencyCode, weight);
+			return this;
+		}
+
+		/**
+		 * First calendar day the settlement dates are spread over, default 2017-12-01.
+		 */
+		public Builder setFirstSettlementDate(LocalDate firstSettlementDate) {
+			this.firstSettlementDate = firstSettlementDate;
+			return this;
+		}
+
+		/**
+		 * Consecutive calendar days the settlement dates are spread over, default 30.
+		 */
+		public Builder setDateSpread(int dateSpread) {
+			if (dateSpread <= 0) {
+				throw new IllegalArgumentException("dateSpread must be positive: " + dateSpread);
+			}
+			this.dateSpread = dateSpread;
+			return this;
+		}
+
+		/**
+		 * Share of the trades settling on a non-working day of their currency, default 0.4 against 2 / 7 for
+		 * uniformly spread dates.
+		 */
+		public Builder setWeekendShare(double weekendShare) {
+			if (!(weekendShare >= 0 && weekendShare <= 1)) {
+				throw new IllegalArgumentException("weekendShare must be between 0 and 1: " + weekendShare);
+			}
+			this.weekendShare = weekendShare;
+			return this;
+		}
+
+		/**
+		 * Calendar deciding the non-working days of every currency, default {@link SettlementCalendar#standard()}.
+		 */
+		public Builder setSettlementCalendar(SettlementCalendar settlementCalendar) {
+			this.settlementCalendar = settlementCalendar;
+			return this;
+		}
+
+		public TradeGenerator build() {
+			return new TradeGenerator(this);
+		}
+	}
+}
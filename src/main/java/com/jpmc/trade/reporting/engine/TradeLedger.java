@@ -0,0 +1,51 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only in-memory trade list publishing an immutable {@link TradeSnapshot} after every append.
+ *
+ * Readers take {@link #snapshot()} without locking and report over it while trades keep being appended: the
+ * snapshot never changes, see the trades of a single point in time and can be shared with any number of threads.
+ * Appends build the next snapshot from the current one and publish it with a compare and set, concurrent appends
+ * retry on the latest snapshot instead of blocking each other or the readers.
+ */
+public class TradeLedger {
+
+	private final AtomicReference<TradeSnapshot> current;
+
+	/**
+	 * Uses the {@link SettlementCalendar#standard()} working days.
+	 */
+	public TradeLedger() {
+		this(SettlementCalendar.standard());
+	}
+
+	public TradeLedger(SettlementCalendar settlementCalendar) {
+		this(settlementCalendar, TradeSnapshot.DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param chunkSize trades per immutable chunk of the snapshots
+	 */
+	TradeLedger(SettlementCalendar settlementCalendar, int chunkSize) {
+		this.current = new AtomicReference<>(TradeSnapshot.empty(settlementCalendar, chunkSize));
+	}
+
+	/**
+	 * @return the latest published snapshot
+	 */
+	public TradeSnapshot snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Appends the trades and publishes them together, readers see all of them or none.
+	 *
+	 * @return the snapshot holding the trades
+	 */
+	public TradeSnapshot append(Collection<TradeEvent> tradeEvents) {
+		return current.updateAndGet(snapshot -> snapshot.append(tradeEvents));
+	}
+}
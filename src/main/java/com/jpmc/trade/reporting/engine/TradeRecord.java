@@ -0,0 +1,238 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.Optional;
+
+/**
+ * Mutable, reusable view of one trade in primitive form.
+ *
+ * Decoders (columnar batches, binary and text files) fill the same instance row after row and hand it
+ * to the aggregation, so no object is created per trade. Absent fields are tracked in a presence bitmap
+ * instead of {@link Optional}. Amounts are fixed point: an unscaled long and its decimal scale.
+ */
+public final class TradeRecord {
+
+	public static final int STOCK_NAME = 1;
+	public static final int BUY_SELL_INDICATOR = 1 << 1;
+	public static final int INSTRUCTION_DATE = 1 << 2;
+	public static final int SETTLEMENT_DATE = 1 << 3;
+	public static final int CURRENCY = 1 << 4;
+	public static final int AGREED_FX = 1 << 5;
+	public static final int UNITS = 1 << 6;
+	public static final int PRICE_PER_UNIT = 1 << 7;
+
+	private int presence;
+	private String stockName;
+	private String buySellIndicator;
+	private int instructionEpochDay;
+	private int settlementEpochDay;
+	private Currency currency;
+	private long agreedFxUnscaled;
+	private int agreedFxScale;
+	private int units;
+	private long pricePerUnitUnscaled;
+	private int pricePerUnitScale;
+
+	/**
+	 * Marks every field absent, ready for the next row.
+	 */
+	public TradeRecord clear() {
+		presence = 0;
+		stockName = null;
+		buySellIndicator = null;
+		currency = null;
+		return this;
+	}
+
+	/**
+	 * @return true if all the given field bits are present
+	 */
+	public boolean has(int fields) {
+		return (presence & fields) == fields;
+	}
+
+	/**
+	 * @return the presence bitmap
+	 */
+	public int getPresence() {
+		return presence;
+	}
+
+	public String getStockName() {
+		return stockName;
+	}
+
+	public String getBuySellIndicator() {
+		return buySellIndicator;
+	}
+
+	public int getInstructionEpochDay() {
+		return instructionEpochDay;
+	}
+
+	public int getSettlementEpochDay() {
+		return settlementEpochDay;
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public long getAgreedFxUnscaled() {
+		return agreedFxUnscaled;
+	}
+
+	public int getAgreedFxScale() {
+		return agreedFxScale;
+	}
+
+	public int getUnits() {
+		return units;
+	}
+
+	public long getPricePerUnitUnscaled() {
+		return pricePerUnitUnscaled;
+	}
+
+	public int getPricePerUnitScale() {
+		return pricePerUnitScale;
+	}
+
+	public TradeRecord setStockName(String stockName) {
+		this.stockName = stockName;
+		presence = stockName == null ? presence & ~STOCK_NAME : presence | STOCK_NAME;
+		return this;
+	}
+
+	public TradeRecord setBuySellIndicator(String buySellIndicator) {
+		this.buySellIndicator = buySellIndicator;
+		presence = buySellIndicator == null ? presence & ~BUY_SELL_INDICATOR : presence | BUY_SELL_INDICATOR;
+		return this;
+	}
+
+	public TradeRecord setInstructionEpochDay(int instructionEpochDay) {
+		this.instructionEpochDay = instructionEpochDay;
+		presence |= INSTRUCTION_DATE;
+		return this;
+	}
+
+	public TradeRecord setSettlementEpochDay(int settlementEpochDay) {
+		this.settlementEpochDay = settlementEpochDay;
+		presence |= SETTLEMENT_DATE;
+		return this;
+	}
+
+	public TradeRecord setCurrency(Currency currency) {
+		this.currency = currency;
+		presence = currency == null ? presence & ~CURRENCY : presence | CURRENCY;
+		return this;
+	}
+
+	public TradeRecord setAgreedFx(long unscaled, int scale) {
+		this.agreedFxUnscaled = unscaled;
+		this.agreedFxScale = scale;
+		presence |= AGREED_FX;
+		return this;
+	}
+
+	public TradeRecord setUnits(int units) {
+		this.units = units;
+		presence |= UNITS;
+		return this;
+	}
+
+	public TradeRecord setPricePerUnit(long unscaled, int scale) {
+		this.pricePerUnitUnscaled = unscaled;
+		this.pricePerUnitScale = scale;
+		presence |= PRICE_PER_UNIT;
+		return this;
+	}
+
+	/**
+	 * @return agreedFx * units * pricePerUnit, absent fields count as zero like {@link TradeEvent} amounts
+	 */
+	public BigDecimal amount() {
+		BigDecimal agreedFx = has(AGREED_FX) ? BigDecimal.valueOf(agreedFxUnscaled, agreedFxScale) : BigDecimal.ZERO;
+		BigDecimal pricePerUnit = has(PRICE_PER_UNIT) ? BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale)
+				: BigDecimal.ZERO;
+		return agreedFx.multiply(BigDecimal.valueOf(has(UNITS) ? units : 0)).multiply(pricePerUnit);
+	}
+
+	/**
+	 * Copies the fields of the trade event into this record.
+	 *
+	 * @throws IllegalArgumentException if agreedFx or pricePerUnit do not fit a long with a byte scale
+	 */
+	public TradeRecord set(TradeEvent tradeEvent) {
+		clear();
+		setStockName(tradeEvent.getStockName().orElse(null));
+		setBuySellIndicator(tradeEvent.getBuySellIndicator().orElse(null));
+		tradeEvent.getInstructionDate().ifPresent(date -> setInstructionEpochDay((int) date.toEpochDay()));
+		tradeEvent.getSettlementDate().ifPresent(date -> setSettlementEpochDay((int) date.toEpochDay()));
+		setCurrency(tradeEvent.getCurrency().orElse(null));
+		tradeEvent.getAgreedFx().ifPresent(fx -> setAgreedFx(unscaledLong(fx, "agreedFx"), fx.scale()));
+		tradeEvent.getUnits().ifPresent(this::setUnits);
+		tradeEvent.getPricePerUnit()
+				.ifPresent(price -> setPricePerUnit(unscaledLong(price, "pricePerUnit"), price.scale()));
+		return this;
+	}
+
+	/**
+	 * @return a new trade event with the fields of this record
+	 */
+	public TradeEvent toTradeEvent() {
+		return TradeEvent.tradeEvent()
+				.setStockName(Optional.ofNullable(stockName))
+				.setBuySellIndicator(Optional.ofNullable(buySellIndicator))
+				.setInstructionDate(has(INSTRUCTION_DATE) ? Optional.of(LocalDate.ofEpochDay(instructionEpochDay))
+						: Optional.empty())
+				.setSettlementDate(has(SETTLEMENT_DATE) ? Optional.of(LocalDate.ofEpochDay(settlementEpochDay))
+						: Optional.empty())
+				.setCurrency(Optional.ofNullable(currency))
+				.setAgreedFx(has(AGREED_FX) ? Optional.of(BigDecimal.valueOf(agreedFxUnscaled, agreedFxScale))
+						: Optional.empty())
+				.setUnits(has(UNITS) ? Optional.of(units) : Optional.empty())
+				.setPricePerUnit(has(PRICE_PER_UNIT)
+						? Optional.of(BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale))
+						: Optional.empty())
+				.build();
+	}
+
+	/**
+	 * @return the {@link TradeEvent#fingerprint()} of {@link #toTradeEvent()}, without building the trade
+	 */
+	public long fingerprint() {
+		long hash = TradeEvent.FINGERPRINT_SEED;
+		hash = TradeEvent.mix(hash, stockName != null, stockName == null ? 0 : stockName.hashCode());
+		hash = TradeEvent.mix(hash, buySellIndicator != null,
+				buySellIndicator == null ? 0 : buySellIndicator.hashCode());
+		hash = TradeEvent.mix(hash, has(INSTRUCTION_DATE),
+				has(INSTRUCTION_DATE) ? LocalDate.ofEpochDay(instructionEpochDay).hashCode() : 0);
+		hash = TradeEvent.mix(hash, has(SETTLEMENT_DATE),
+				has(SETTLEMENT_DATE) ? LocalDate.ofEpochDay(settlementEpochDay).hashCode() : 0);
+		hash = TradeEvent.mix(hash, currency != null, currency == null ? 0 : currency.getCurrencyCode().hashCode());
+		hash = TradeEvent.mix(hash, has(AGREED_FX),
+				has(AGREED_FX) ? BigDecimal.valueOf(agreedFxUnscaled, agreedFxScale).hashCode() : 0);
+		hash = TradeEvent.mix(hash, has(UNITS), has(UNITS) ? Integer.hashCode(units) : 0);
+		hash = TradeEvent.mix(hash, has(PRICE_PER_UNIT),
+				has(PRICE_PER_UNIT) ? BigDecimal.valueOf(pricePerUnitUnscaled, pricePerUnitScale).hashCode() : 0);
+		return TradeEvent.finish(hash);
+	}
+
+	/**
+	 * @return true if the value fits a long with a byte scale, the fixed point form of a record
+	 */
+	static boolean fitsFixedPoint(BigDecimal value) {
+		return value.scale() >= Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE
+				&& value.unscaledValue().bitLength() <= 63;
+	}
+
+	static long unscaledLong(BigDecimal value, String field) {
+		if (!fitsFixedPoint(value)) {
+			throw new IllegalArgumentException(field + " " + value + " does not fit a fixed point long");
+		}
+		return value.unscaledValue().longValue();
+	}
+}
@@ -0,0 +1,21 @@
+package com.jpmc.trade.reporting.engine;
+
+/**
+ * Receives input rows that could not be turned into a trade, instead of aborting the whole run.
+ */
+@FunctionalInterface
+public interface TradeRejectSink {
+
+	/**
+	 * Ignores every rejected row.
+	 */
+	TradeRejectSink IGNORE = (lineNumber, line, reason) -> {
+	};
+
+	/**
+	 * @param lineNumber one based line number in the input
+	 * @param line the raw row, without line terminator
+	 * @param reason why the row was rejected
+	 */
+	void reject(long lineNumber, String line, String reason);
+}
@@ -0,0 +1,249 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable point-in-time view of an append-only trade list, see {@link TradeLedger}.
+ *
+ * Trades are held in fixed size chunks that never change once built. Appending returns a new snapshot sharing every
+ * full chunk of this one: only the last, partial chunk and the array of chunk references are copied, so a snapshot
+ * costs O(trades appended + chunks) and readers of older snapshots are never disturbed.
+ *
+ * The snapshots appended from one another share one running aggregate of their full chunks. A report extends it by
+ * the chunks filled since the last report, then adds the partial chunk, so it costs O(trades appended + report size)
+ * whatever the size of the snapshot. A snapshot older than the shared aggregate, or of another branch when a
+ * snapshot was appended to twice, is aggregated from its own trades instead. Thread safe, any number of threads
+ * may read and report.
+ */
+public final class TradeSnapshot {
+
+	static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	private static final TradeEvent[][] NO_CHUNKS = new TradeEvent[0][];
+
+	private final SettlementCalendar settlementCalendar;
+	private final int chunkSize;
+	private final TradeEvent[][] chunks;
+	private final int size;
+	private final long version;
+	private final Lineage lineage;
+
+	/**
+	 * Computed once on first use, racing threads may compute it twice but always publish equal reports.
+	 */
+	private volatile DailyTradeReport dailyReport;
+
+	private TradeSnapshot(SettlementCalendar settlementCalendar, int chunkSize, TradeEvent[][] chunks, int size,
+			long version, Lineage lineage) {
+		this.settlementCalendar = settlementCalendar;
+		this.chunkSize = chunkSize;
+		this.chunks = chunks;
+		this.size = size;
+		this.version = version;
+		this.lineage = lineage;
+	}
+
+	/**
+	 * @return the snapshot without trades, version 0
+	 */
+	static TradeSnapshot empty(SettlementCalendar settlementCalendar, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		return new TradeSnapshot(settlementCalendar, chunkSize, NO_CHUNKS, 0, 0, new Lineage(settlementCalendar));
+	}
+
+	/**
+	 * @return the number of appends that led to this snapshot
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public TradeEvent get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " of " + size + " trades");
+		}
+		return chunks[index / chunkSize][index % chunkSize];
+	}
+
+	/**
+	 * @return the trades of the snapshot as an unmodifiable list, it never changes
+	 */
+	public List<TradeEvent> getTradeEvents() {
+		return new TradeList();
+	}
+
+	/**
+	 * @return a new snapshot with the trades appended, this one is left untouched
+	 */
+	public TradeSnapshot append(Collection<TradeEvent> tradeEvents) {
+		if (tradeEvents.isEmpty()) {
+			return this;
+		}
+		int newSize = Math.addExact(size, tradeEvents.size());
+		TradeEvent[][] newChunks = new TradeEvent[(newSize + chunkSize - 1) / chunkSize][];
+		int shared = size / chunkSize;
+		System.arraycopy(chunks, 0, newChunks, 0, shared);
+		// the partial last chunk is copied, never filled in place, older snapshots may be reading it
+		TradeEvent[] trades = null;
+		int index = shared * chunkSize;
+		for (int chunk = shared; chunk < chunks.length; chunk++) {
+			trades = new TradeEvent[Math.min(chunkSize, newSize - index)];
+			System.arraycopy(chunks[chunk], 0, trades, 0, chunks[chunk].length);
+		}
+		int filled = trades == null ? 0 : size - index;
+		int chunk = shared;
+		for (TradeEvent tradeEvent : tradeEvents) {
+			if (trades == null || filled == trades.length) {
+				if (trades != null) {
+					newChunks[chunk++] = trades;
+					index += trades.length;
+				}
+				trades = new TradeEvent[Math.min(chunkSize, newSize - index)];
+				filled = 0;
+			}
+			trades[filled++] = tradeEvent;
+		}
+		newChunks[chunk] = trades;
+		return new TradeSnapshot(settlementCalendar, chunkSize, newChunks, newSize, version + 1, lineage);
+	}
+
+	/**
+	 * @return the report of every trade of the snapshot, computed once per snapshot
+	 */
+	public DailyTradeReport dailyReport() {
+		DailyTradeReport report = dailyReport;
+		if (report == null) {
+			int fullChunks = size / chunkSize;
+			DailyTradeAggregator full = fullChunksAggregate(fullChunks);
+			if (fullChunks == chunks.length) {
+				report = full.toReport();
+			} else {
+				DailyTradeAggregator aggregator = new DailyTradeAggregator(settlementCalendar).merge(full);
+				accept(aggregator, chunks[fullChunks]);
+				report = aggregator.toReport();
+			}
+			dailyReport = report;
+		}
+		return report;
+	}
+
+	/**
+	 * {@link DailyTradeReporter#dailyTotalAmountGroupByDate(List, String)} over the snapshot.
+	 */
+	public Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(String buySellIndicator) {
+		return dailyReport().getTotalAmountByDate(buySellIndicator);
+	}
+
+	/**
+	 * {@link DailyTradeReporter#findRankingGroupByDate(List, String)} over the snapshot.
+	 */
+	public Map<LocalDate, String> findRankingGroupByDate(String buySellIndicator) {
+		return dailyReport().getTopStockByDate(buySellIndicator);
+	}
+
+	/**
+	 * @return the number of trades folded into aggregates by the reports of this snapshot and the snapshots it
+	 *         shares its lineage with, to check the running aggregate is reused
+	 */
+	long getAggregatedTrades() {
+		return lineage.aggregatedTrades.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "TradeSnapshot[version=" + version + ",size=" + size + ",chunks=" + chunks.length + "]";
+	}
+
+	/**
+	 * @return the aggregate of the first full chunks, never modified once returned
+	 */
+	private DailyTradeAggregator fullChunksAggregate(int fullChunks) {
+		Prefix prefix = lineage.prefix.get();
+		if (!prefix.isPrefixOf(chunks, fullChunks)) {
+			prefix = lineage.empty;
+		}
+		if (prefix.fullChunks == fullChunks) {
+			return prefix.aggregator;
+		}
+		// the shared aggregate is read by other reports, it is extended on a copy
+		DailyTradeAggregator aggregator = new DailyTradeAggregator(settlementCalendar).merge(prefix.aggregator);
+		for (int chunk = prefix.fullChunks; chunk < fullChunks; chunk++) {
+			accept(aggregator, chunks[chunk]);
+		}
+		Prefix extended = new Prefix(fullChunks, chunks[fullChunks - 1], aggregator);
+		lineage.prefix.accumulateAndGet(extended,
+				(current, candidate) -> candidate.fullChunks > current.fullChunks ? candidate : current);
+		return aggregator;
+	}
+
+	private void accept(DailyTradeAggregator aggregator, TradeEvent[] trades) {
+		for (TradeEvent tradeEvent : trades) {
+			aggregator.accept(tradeEvent);
+		}
+		lineage.aggregatedTrades.add(trades.length);
+	}
+
+	/**
+	 * State shared by the snapshots appended from one another.
+	 */
+	private static final class Lineage {
+		private final Prefix empty;
+		private final AtomicReference<Prefix> prefix;
+		private final LongAdder aggregatedTrades = new LongAdder();
+
+		Lineage(SettlementCalendar settlementCalendar) {
+			this.empty = new Prefix(0, null, new DailyTradeAggregator(settlementCalendar));
+			this.prefix = new AtomicReference<>(empty);
+		}
+	}
+
+	/**
+	 * Aggregate of the first full chunks of a lineage, never modified once published.
+	 */
+	private static final class Prefix {
+		private final int fullChunks;
+		private final TradeEvent[] lastChunk;
+		private final DailyTradeAggregator aggregator;
+
+		Prefix(int fullChunks, TradeEvent[] lastChunk, DailyTradeAggregator aggregator) {
+			this.fullChunks = fullChunks;
+			this.lastChunk = lastChunk;
+			this.aggregator = aggregator;
+		}
+
+		/**
+		 * A chunk is built once and then only shared by reference, a snapshot holding the last chunk of the prefix
+		 * at the same index holds all the chunks before it too.
+		 */
+		boolean isPrefixOf(TradeEvent[][] chunks, int snapshotFullChunks) {
+			return fullChunks <= snapshotFullChunks && (fullChunks == 0 || chunks[fullChunks - 1] == lastChunk);
+		}
+	}
+
+	private final class TradeList extends AbstractList<TradeEvent> implements RandomAccess {
+
+		@Override
+		public TradeEvent get(int index) {
+			return TradeSnapshot.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Persistent multi-day trade store in a local directory, partitioned by working settlement date.
+ *
+ * Every partition is a sub directory named after its date (yyyy-MM-dd) holding immutable segment files in the
+ * {@link BinaryTradeFormat}, one per {@link #append(Collection)}. Queries over a date range only open the
+ * partitions of the range and read their segments through {@link MappedTradeFileReader}, so the trades stay off
+ * the heap. The aggregate of every partition is kept once computed and reused while the partition is unchanged;
+ * segments appended since are folded into it incrementally.
+ *
+ * Segments are written to a temporary file and moved in place, readers never see a partial segment.
+ * All methods are synchronized, one store instance per directory.
+ */
+public class TradeStore {
+
+	private static final String SEGMENT_PREFIX = "segment-";
+	private static final String SEGMENT_SUFFIX = ".trades";
+
+	private final Path directory;
+	private final SettlementCalendar settlementCalendar;
+	private final Map<LocalDate, PartitionAggregate> aggregates = new HashMap<>();
+	private long segmentReads;
+
+	/**
+	 * Uses the {@link SettlementCalendar#standard()} working days.
+	 */
+	public TradeStore(Path directory) throws IOException {
+		this(directory, SettlementCalendar.standard());
+	}
+
+	/**
+	 * Opens the store, creating the directory if needed. The calendar must be the same every time the store is
+	 * opened, it decides the partition of a trade.
+	 */
+	public TradeStore(Path directory, SettlementCalendar settlementCalendar) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.settlementCalendar = settlementCalendar;
+	}
+
+	/**
+	 * Writes the trades as one new segment in the partition of each working settlement date.
+	 * Trades without action or settlement date are not reportable and are not stored.
+	 *
+	 * Every segment is written to a temporary file first and moved in place only once all of them were written. A
+	 * trade that cannot be encoded, a failed write or a failed move deletes the segments already moved, the
+	 * temporary files and the partitions created, so the store is left as it was unless that cleanup fails too, its
+	 * errors are then suppressed by the one thrown.
+	 *
+	 * @return the number of trades stored
+	 */
+	public synchronized int append(Collection<TradeEvent> tradeEvents) throws IOException {
+		Map<LocalDate, List<TradeEvent>> tradesByDate = new TreeMap<>();
+		for (TradeEvent tradeEvent : tradeEvents) {
+			if (tradeEvent.getBuySellIndicator().isPresent() && tradeEvent.getSettlementDate().isPresent()) {
+				tradesByDate.computeIfAbsent(
+						DailyTradeAggregator.workingSettlementDate(tradeEvent, settlementCalendar),
+						key -> new ArrayList<>()).add(tradeEvent);
+			}
+		}
+		Map<Path, Path> segmentsByTemporary = new LinkedHashMap<>();
+		List<Path> newPartitions = new ArrayList<>();
+		List<Path> movedSegments = new ArrayList<>();
+		int stored = 0;
+		try {
+			for (Map.Entry<LocalDate, List<TradeEvent>> partition : tradesByDate.entrySet()) {
+				Path partitionDirectory = directory.resolve(partition.getKey().toString());
+				if (!Files.isDirectory(partitionDirectory)) {
+					newPartitions.add(Files.createDirectories(partitionDirectory));
+				}
+				String segmentName = String.format("%s%010d%s", SEGMENT_PREFIX,
+						lastSegmentNumber(partitionDirectory) + 1, SEGMENT_SUFFIX);
+				Path temporary = partitionDirectory.resolve("." + segmentName + ".tmp");
+				segmentsByTemporary.put(temporary, partitionDirectory.resolve(segmentName));
+				BinaryTradeFileWriter.write(temporary, partition.getValue());
+				stored += partition.getValue().size();
+			}
+			for (Map.Entry<Path, Path> segment : segmentsByTemporary.entrySet()) {
+				Files.move(segment.getKey(), segment.getValue(), StandardCopyOption.ATOMIC_MOVE);
+				movedSegments.add(segment.getValue());
+			}
+		} catch (IOException | RuntimeException e) {
+			// segments are only ever new files, deleting the ones moved already restores the store
+			List<Path> leftovers = new ArrayList<>(movedSegments);
+			leftovers.addAll(segmentsByTemporary.keySet());
+			leftovers.addAll(newPartitions);
+			for (Path leftover : leftovers) {
+				try {
+					Files.deleteIfExists(leftover);
+				} catch (IOException cleanup) {
+					e.addSuppressed(cleanup);
+				}
+			}
+			throw e;
+		}
+		return stored;
+	}
+
+	/**
+	 * @return the working settlement dates that have trades, in order
+	 */
+	public synchronized SortedSet<LocalDate> getPartitions() throws IOException {
+		SortedSet<LocalDate> partitions = new TreeSet<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+			for (Path entry : entries) {
+				try {
+					partitions.add(LocalDate.parse(entry.getFileName().toString()));
+				} catch (DateTimeParseException notAPartition) {
+					// foreign directory, ignored
+				}
+			}
+		}
+		return partitions;
+	}
+
+	/**
+	 * @return the report of the working settlement dates from and to, both inclusive
+	 */
+	public synchronized DailyTradeReport report(LocalDate from, LocalDate to) throws IOException {
+		if (from.isAfter(to)) {
+			throw new IllegalArgumentException("from " + from + " is after to " + to);
+		}
+		DailyTradeAggregator aggregator = new DailyTradeAggregator(settlementCalendar);
+		for (LocalDate date : getPartitions().subSet(from, to.plusDays(1))) {
+			aggregator.merge(partitionAggregate(date));
+		}
+		return aggregator.toReport();
+	}
+
+	/**
+	 * {@link DailyTradeReporter#dailyTotalAmountGroupByDate(List, String)} over a range of the store.
+	 */
+	public Map<LocalDate, BigDecimal> dailyTotalAmountGroupByDate(LocalDate from, LocalDate to,
+			String buySellIndicator) throws IOException {
+		return report(from, to).getTotalAmountByDate(buySellIndicator);
+	}
+
+	/**
+	 * {@link DailyTradeReporter#findRankingGroupByDate(List, String)} over a range of the store.
+	 */
+	public Map<LocalDate, String> findRankingGroupByDate(LocalDate from, LocalDate to, String buySellIndicator)
+			throws IOException {
+		return report(from, to).getTopStockByDate(buySellIndicator);
+	}
+
+	/**
+	 * @return the number of segment files read so far, to check aggregate reuse
+	 */
+	synchronized long getSegmentReads() {
+		return segmentReads;
+	}
+
+	private DailyTradeAggregator partitionAggregate(LocalDate date) throws IOException {
+		List<Path> segments = segments(directory.resolve(date.toString()));
+		PartitionAggregate aggregate = aggregates.get(date);
+		if (aggregate == null || !aggregate.isPrefixOf(segments)) {
+			aggregate = new PartitionAggregate(new DailyTradeAggregator(settlementCalendar));
+			aggregates.put(date, aggregate);
+		}
+		for (Path segment : segments.subList(aggregate.segmentKeys.size(), segments.size())) {
+			try (MappedTradeFileReader reader = new MappedTradeFileReader(segment)) {
+				reader.aggregateInto(aggregate.aggregator);
+			}
+			aggregate.segmentKeys.add(segmentKey(segment));
+			segmentReads++;
+		}
+		return aggregate.aggregator;
+	}
+
+	private static List<Path> segments(Path partitionDirectory) throws IOException {
+		List<Path> segments = new ArrayList<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(partitionDirectory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path entry : entries) {
+				segments.add(entry);
+			}
+		}
+		Collections.sort(segments);
+		return segments;
+	}
+
+	/**
+	 * @return the highest number of the segments of the partition, 0 if none. Segments may have been removed, the
+	 *         count would reuse a live number.
+	 */
+	private static long lastSegmentNumber(Path partitionDirectory) throws IOException {
+		long last = 0;
+		for (Path segment : segments(partitionDirectory)) {
+			String name = segment.getFileName().toString();
+			try {
+				last = Math.max(last, Long.parseLong(
+						name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+			} catch (NumberFormatException foreign) {
+				// not named by the store, ignored
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Name and size, a segment rewritten in place is not taken for the cached one.
+	 */
+	private static String segmentKey(Path segment) throws IOException {
+		return segment.getFileName() + ":" + Files.size(segment);
+	}
+
+	/**
+	 * Aggregate of the first segments of a partition.
+	 */
+	private static final class PartitionAggregate {
+		private final DailyTradeAggregator aggregator;
+		private final List<String> segmentKeys = new ArrayList<>();
+
+		PartitionAggregate(DailyTradeAggregator aggregator) {
+			this.aggregator = aggregator;
+		}
+
+		boolean isPrefixOf(List<Path> segments) throws IOException {
+			if (segmentKeys.size() > segments.size()) {
+				return false;
+			}
+			for (int index = 0; index < segmentKeys.size(); index++) {
+				if (!segmentKeys.get(index).equals(segmentKey(segments.get(index)))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,370 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser of delimited text instruction files, one trade per line:
+ *
+ * <pre>
+ * entity,buySellIndicator,agreedFx,currency,instructionDate,settlementDate,units,pricePerUnit
+ * foo,B,0.50,SGD,01 Jan 2016,2016-01-02,200,100.25
+ * </pre>
+ *
+ * Dates are either yyyy-MM-dd or dd MMM yyyy, empty fields are absent values. The input is read in chunks
+ * through one reusable NIO buffer and parsed byte by byte: numbers go straight to fixed point longs, dates to
+ * epoch days and repeated entities and actions reuse one String each, so a valid row allocates nothing. Rows
+ * are handed to the sink as a reused {@link TradeRecord}; malformed rows go to the {@link TradeRejectSink}.
+ *
+ * Not thread safe, use one parser per input.
+ */
+public class TradeTextParser {
+
+	public static final int FIELD_COUNT = 8;
+
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+	private static final int NOT_A_DATE = Integer.MIN_VALUE;
+	private static final int[] DAYS_IN_MONTH = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+	private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+			"NOV", "DEC" };
+
+	private final byte delimiter;
+	private final boolean skipHeader;
+	private final int bufferSize;
+
+	private final ByteStringInterner stockNames = new ByteStringInterner();
+	private final ByteStringInterner buySellIndicators = new ByteStringInterner();
+	private final Currency[] currencies = new Currency[26 * 26 * 26];
+	private final int[] fieldStarts = new int[FIELD_COUNT];
+	private final int[] fieldEnds = new int[FIELD_COUNT];
+	private final TradeRecord record = new TradeRecord();
+
+	private long decimalUnscaled;
+	private int decimalScale;
+	private String rejectReason;
+
+	/**
+	 * Comma separated, no header line.
+	 */
+	public TradeTextParser() {
+		this(',', false);
+	}
+
+	/**
+	 * @param delimiter single byte field separator, e.g. ',', '|' or the FIX SOH character
+	 * @param skipHeader true if the first line holds column names
+	 */
+	public TradeTextParser(char delimiter, boolean skipHeader) {
+		this(delimiter, skipHeader, DEFAULT_BUFFER_SIZE);
+	}
+
+	TradeTextParser(char delimiter, boolean skipHeader, int bufferSize) {
+		if (delimiter > 0x7F) {
+			throw new IllegalArgumentException("Delimiter must be a single byte ASCII character");
+		}
+		this.delimiter = (byte) delimiter;
+		this.skipHeader = skipHeader;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Parses the file and aggregates the valid rows into a daily report with the standard calendar.
+	 */
+	public static DailyTradeReport aggregate(Path file, TradeRejectSink rejectSink) throws IOException {
+		DailyTradeAggregator aggregator = new DailyTradeAggregator();
+		new TradeTextParser().parse(file, aggregator::accept, rejectSink);
+		return aggregator.toReport();
+	}
+
+	/**
+	 * @return the number of rows handed to the sink
+	 */
+	public long parse(Path file, Consumer<TradeRecord> sink, TradeRejectSink rejectSink) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return parse(channel, sink, rejectSink);
+		}
+	}
+
+	/**
+	 * @return the number of rows handed to the sink
+	 */
+	public long parse(ReadableByteChannel channel, Consumer<TradeRecord> sink, TradeRejectSink rejectSink)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		byte[] bytes = buffer.array();
+		long lineNumber = 0;
+		long accepted = 0;
+		// set while the rest of an over long line is discarded
+		boolean discarding = false;
+		int scanFrom = 0;
+
+		while (true) {
+			boolean endOfInput = channel.read(buffer) < 0;
+			int limit = buffer.position();
+			int lineStart = 0;
+			for (int i = scanFrom; i < limit; i++) {
+				if (bytes[i] != '\n') {
+					continue;
+				}
+				if (discarding) {
+					discarding = false;
+				} else {
+					lineNumber++;
+					accepted += handleLine(bytes, lineStart, i, lineNumber, sink, rejectSink);
+				}
+				lineStart = i + 1;
+			}
+			if (endOfInput) {
+				if (lineStart < limit && !discarding) {
+					lineNumber++;
+					accepted += handleLine(bytes, lineStart, limit, lineNumber, sink, rejectSink);
+				}
+				return accepted;
+			}
+			if (lineStart == 0 && limit == bytes.length) {
+				if (!discarding) {
+					lineNumber++;
+					rejectSink.reject(lineNumber, new String(bytes, 0, Math.min(limit, 256), StandardCharsets.UTF_8),
+							"line longer than " + bytes.length + " bytes");
+					discarding = true;
+				}
+				buffer.clear();
+				scanFrom = 0;
+				continue;
+			}
+			System.arraycopy(bytes, lineStart, bytes, 0, limit - lineStart);
+			buffer.position(limit - lineStart);
+			scanFrom = limit - lineStart;
+		}
+	}
+
+	private int handleLine(byte[] bytes, int from, int to, long lineNumber, Consumer<TradeRecord> sink,
+			TradeRejectSink rejectSink) {
+		if (to > from && bytes[to - 1] == '\r') {
+			to--;
+		}
+		if (to == from || (skipHeader && lineNumber == 1)) {
+			return 0;
+		}
+		if (!parseLine(bytes, from, to)) {
+			rejectSink.reject(lineNumber, new String(bytes, from, to - from, StandardCharsets.UTF_8), rejectReason);
+			return 0;
+		}
+		sink.accept(record);
+		return 1;
+	}
+
+	private boolean parseLine(byte[] bytes, int from, int to) {
+		int field = 0;
+		int fieldStart = from;
+		for (int i = from; i <= to; i++) {
+			if (i == to || bytes[i] == delimiter) {
+				if (field == FIELD_COUNT) {
+					return reject("more than " + FIELD_COUNT + " fields");
+				}
+				int start = fieldStart;
+				int end = i;
+				while (start < end && bytes[start] == ' ') {
+					start++;
+				}
+				while (end > start && bytes[end - 1] == ' ') {
+					end--;
+				}
+				fieldStarts[field] = start;
+				fieldEnds[field] = end;
+				field++;
+				fieldStart = i + 1;
+			}
+		}
+		if (field != FIELD_COUNT) {
+			return reject("expected " + FIELD_COUNT + " fields");
+		}
+
+		record.clear();
+		if (!isEmpty(0)) {
+			record.setStockName(stockNames.intern(bytes, fieldStarts[0], fieldEnds[0]));
+		}
+		if (!isEmpty(1)) {
+			record.setBuySellIndicator(buySellIndicators.intern(bytes, fieldStarts[1], fieldEnds[1]));
+		}
+		if (!isEmpty(2)) {
+			if (!parseDecimal(bytes, fieldStarts[2], fieldEnds[2])) {
+				return reject("invalid agreedFx");
+			}
+			record.setAgreedFx(decimalUnscaled, decimalScale);
+		}
+		if (!isEmpty(3)) {
+			Currency currency = parseCurrency(bytes, fieldStarts[3], fieldEnds[3]);
+			if (currency == null) {
+				return reject("invalid currency");
+			}
+			record.setCurrency(currency);
+		}
+		if (!isEmpty(4)) {
+			int epochDay = parseDate(bytes, fieldStarts[4], fieldEnds[4]);
+			if (epochDay == NOT_A_DATE) {
+				return reject("invalid instruction date");
+			}
+			record.setInstructionEpochDay(epochDay);
+		}
+		if (!isEmpty(5)) {
+			int epochDay = parseDate(bytes, fieldStarts[5], fieldEnds[5]);
+			if (epochDay == NOT_A_DATE) {
+				return reject("invalid settlement date");
+			}
+			record.setSettlementEpochDay(epochDay);
+		}
+		if (!isEmpty(6)) {
+			if (!parseDecimal(bytes, fieldStarts[6], fieldEnds[6]) || decimalScale != 0
+					|| decimalUnscaled > Integer.MAX_VALUE || decimalUnscaled < Integer.MIN_VALUE) {
+				return reject("invalid units");
+			}
+			record.setUnits((int) decimalUnscaled);
+		}
+		if (!isEmpty(7)) {
+			if (!parseDecimal(bytes, fieldStarts[7], fieldEnds[7])) {
+				return reject("invalid pricePerUnit");
+			}
+			record.setPricePerUnit(decimalUnscaled, decimalScale);
+		}
+		return true;
+	}
+
+	private boolean isEmpty(int field) {
+		return fieldStarts[field] == fieldEnds[field];
+	}
+
+	private boolean reject(String reason) {
+		rejectReason = reason;
+		return false;
+	}
+
+	/**
+	 * Parses [sign]digits[.digits] into {@link #decimalUnscaled} and {@link #decimalScale}.
+	 */
+	private boolean parseDecimal(byte[] bytes, int from, int to) {
+		boolean negative = false;
+		int i = from;
+		if (bytes[i] == '-' || bytes[i] == '+') {
+			negative = bytes[i] == '-';
+			i++;
+		}
+		long unscaled = 0;
+		int scale = -1;
+		int digits = 0;
+		for (; i < to; i++) {
+			byte b = bytes[i];
+			if (b == '.' && scale < 0) {
+				scale = 0;
+				continue;
+			}
+			if (b < '0' || b > '9') {
+				return false;
+			}
+			if (unscaled > (Long.MAX_VALUE - 9) / 10) {
+				return false;
+			}
+			unscaled = unscaled * 10 + (b - '0');
+			digits++;
+			if (scale >= 0) {
+				scale++;
+			}
+		}
+		if (digits == 0 || scale > Byte.MAX_VALUE) {
+			return false;
+		}
+		decimalUnscaled = negative ? -unscaled : unscaled;
+		decimalScale = Math.max(scale, 0);
+		return true;
+	}
+
+	private Currency parseCurrency(byte[] bytes, int from, int to) {
+		if (to - from != 3) {
+			return null;
+		}
+		int key = 0;
+		for (int i = from; i < to; i++) {
+			int letter = (bytes[i] & 0xDF) - 'A';
+			if (letter < 0 || letter >= 26) {
+				return null;
+			}
+			key = key * 26 + letter;
+		}
+		Currency currency = currencies[key];
+		if (currency == null) {
+			try {
+				currency = Currency.getInstance(
+						new String(bytes, from, 3, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+			currencies[key] = currency;
+		}
+		return currency;
+	}
+
+	/**
+	 * @return the epoch day of a yyyy-MM-dd or dd MMM yyyy date, {@link #NOT_A_DATE} if invalid
+	 */
+	private static int parseDate(byte[] bytes, int from, int to) {
+		int length = to - from;
+		if (length == 10 && bytes[from + 4] == '-' && bytes[from + 7] == '-') {
+			return epochDay(digits(bytes, from, from + 4), digits(bytes, from + 5, from + 7),
+					digits(bytes, from + 8, to));
+		}
+		if (length == 11 && bytes[from + 2] == ' ' && bytes[from + 6] == ' ') {
+			return epochDay(digits(bytes, from + 7, to), month(bytes, from + 3), digits(bytes, from, from + 2));
+		}
+		return NOT_A_DATE;
+	}
+
+	private static int digits(byte[] bytes, int from, int to) {
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private static int month(byte[] bytes, int from) {
+		for (int month = 0; month < MONTHS.length; month++) {
+			String name = MONTHS[month];
+			if ((bytes[from] & 0xDF) == name.charAt(0) && (bytes[from + 1] & 0xDF) == name.charAt(1)
+					&& (bytes[from + 2] & 0xDF) == name.charAt(2)) {
+				return month + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Days from civil date, proleptic Gregorian like {@link java.time.LocalDate#toEpochDay()}.
+	 */
+	private static int epochDay(int year, int month, int day) {
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]) {
+			return NOT_A_DATE;
+		}
+		boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+		if (month == 2 && day == 29 && !leap) {
+			return NOT_A_DATE;
+		}
+		int y = month <= 2 ? year - 1 : year;
+		int era = Math.floorDiv(y, 400);
+		int yearOfEra = y - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+}
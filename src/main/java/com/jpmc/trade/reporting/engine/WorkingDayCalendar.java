@@ -0,0 +1,84 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Weekend days and public holidays of one currency, with precomputed next working day tables.
+ *
+ * Epoch days are split into pages of {@value #PAGE_SIZE} days (about a calendar year each). The first lookup in a
+ * page fills an int array holding the next working epoch day of every day of the page, later lookups are a
+ * single array read. Pages are immutable once published, so lookups are safe from any thread.
+ */
+final class WorkingDayCalendar {
+
+	private static final int PAGE_SHIFT = 9;
+	static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_COUNT = 1024;
+	/** Page of epoch day 0 sits in the middle, the table covers about the years 1252 to 2687. */
+	private static final int PAGE_OFFSET = PAGE_COUNT / 2;
+	private static final int MAX_NON_WORKING_RUN = 3660;
+
+	private final int weekendMask;
+	private final int[] sortedHolidays;
+	private final AtomicReferenceArray<int[]> pages = new AtomicReferenceArray<>(PAGE_COUNT);
+
+	WorkingDayCalendar(Set<DayOfWeek> weekend, int[] holidayEpochDays) {
+		int mask = 0;
+		for (DayOfWeek dayOfWeek : weekend) {
+			mask |= 1 << (dayOfWeek.getValue() - 1);
+		}
+		if (mask == 0x7F) {
+			throw new IllegalArgumentException("A calendar needs at least one working week day");
+		}
+		this.weekendMask = mask;
+		this.sortedHolidays = holidayEpochDays.clone();
+		Arrays.sort(this.sortedHolidays);
+	}
+
+	/**
+	 * @return the epoch day itself when it is a working day, else the next working one
+	 */
+	int nextWorkingEpochDay(int epochDay) {
+		int pageIndex = (epochDay >> PAGE_SHIFT) + PAGE_OFFSET;
+		if (pageIndex < 0 || pageIndex >= PAGE_COUNT) {
+			return scanForWorkingDay(epochDay);
+		}
+		int[] page = pages.get(pageIndex);
+		if (page == null) {
+			page = buildPage(epochDay & -PAGE_SIZE);
+			// racing threads build identical pages, whichever wins is fine
+			pages.lazySet(pageIndex, page);
+		}
+		return page[epochDay & (PAGE_SIZE - 1)];
+	}
+
+	boolean isWorkingDay(int epochDay) {
+		// epoch day 0 is a Thursday, index 3 counting from Monday
+		int dayIndex = Math.floorMod(epochDay + 3, 7);
+		return (weekendMask & (1 << dayIndex)) == 0 && Arrays.binarySearch(sortedHolidays, epochDay) < 0;
+	}
+
+	private int[] buildPage(int firstEpochDay) {
+		int[] page = new int[PAGE_SIZE];
+		int next = scanForWorkingDay(firstEpochDay + PAGE_SIZE);
+		for (int offset = PAGE_SIZE - 1; offset >= 0; offset--) {
+			if (isWorkingDay(firstEpochDay + offset)) {
+				next = firstEpochDay + offset;
+			}
+			page[offset] = next;
+		}
+		return page;
+	}
+
+	private int scanForWorkingDay(int epochDay) {
+		for (int day = epochDay; day < epochDay + MAX_NON_WORKING_RUN; day++) {
+			if (isWorkingDay(day)) {
+				return day;
+			}
+		}
+		throw new IllegalStateException("No working day within " + MAX_NON_WORKING_RUN + " days of epoch day " + epochDay);
+	}
+}
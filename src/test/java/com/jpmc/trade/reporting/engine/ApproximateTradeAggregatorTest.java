@@ -0,0 +1,194 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for ApproximateTradeAggregator and its sketches.
+ */
+public class ApproximateTradeAggregatorTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+	private static final LocalDate TUESDAY = LocalDate.of(2017, 12, 5);
+
+	@Test
+	public void countMinNeverUndercountsAndStaysWithinBound() {
+		CountMinSketch sketch = new CountMinSketch(0.01, 0.01);
+		double[] exact = new double[5000];
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			int entity = random.nextInt(exact.length);
+			exact[entity] += 2;
+			sketch.add("stock" + entity, 2);
+		}
+
+		assertThat(sketch.getWidth(), is(272));
+		assertThat(sketch.getDepth(), is(5));
+		int outOfBound = 0;
+		for (int entity = 0; entity < exact.length; entity++) {
+			double estimate = sketch.estimate("stock" + entity);
+			assertThat(estimate, greaterThanOrEqualTo(exact[entity]));
+			if (estimate > exact[entity] + 0.01 * sketch.getTotalAmount()) {
+				outOfBound++;
+			}
+		}
+		assertThat(outOfBound, lessThanOrEqualTo(exact.length / 100));
+	}
+
+	@Test
+	public void hyperLogLogEstimatesWithinErrorAndMerges() {
+		HyperLogLog all = new HyperLogLog(0.02);
+		HyperLogLog even = new HyperLogLog(0.02);
+		HyperLogLog odd = new HyperLogLog(0.02);
+		for (int i = 0; i < 100000; i++) {
+			all.add("stock" + i);
+			(i % 2 == 0 ? even : odd).add("stock" + i);
+			// duplicates do not count
+			all.add("stock" + i);
+		}
+
+		assertThat(all.getPrecision(), is(12));
+		assertThat((double) all.estimate(), closeTo(100000, 3 * all.getRelativeError() * 100000));
+		assertThat(even.merge(odd).estimate(), is(all.estimate()));
+		assertThat(new HyperLogLog(0.02).add("JPMC").add("JPMC").add("ANZ").estimate(), is(2L));
+	}
+
+	@Test
+	public void heavyHittersFindTheLargestAmongManySmallEntities() {
+		HeavyHitters heavyHitters = new HeavyHitters(3, 0.005, 0.01);
+		Random random = new Random(7);
+		for (int i = 0; i < 200000; i++) {
+			heavyHitters.add("small" + random.nextInt(50000), 1);
+			if (i % 10 == 0) {
+				heavyHitters.add("JPMC", 3);
+			}
+			if (i % 20 == 0) {
+				heavyHitters.add("ANZ", 2);
+			}
+			if (i % 40 == 0) {
+				heavyHitters.add("HSBC", 1);
+			}
+		}
+
+		List<RankedEntity> top = heavyHitters.top(3);
+		assertThat(top.get(0).getStockName(), is("JPMC"));
+		assertThat(top.get(1).getStockName(), is("ANZ"));
+		assertThat(top.get(2).getStockName(), is("HSBC"));
+		assertThat(top.get(0).getTotalAmount().doubleValue(), closeTo(60000, 0.005 * heavyHitters.getTotalAmount()));
+	}
+
+	@Test
+	public void matchesExactRankingOnFewEntities() {
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("JPMC", "B", MONDAY, 10, "2.5"),
+				trade("ANZ", "b", MONDAY, 30, "1"),
+				trade("JPMC", "B", MONDAY, 1, "3"),
+				trade("HSBC", "B", TUESDAY, 1, "1"),
+				trade("ANZ", "S", TUESDAY, 4, "0.5"));
+
+		ApproximateTradeReport report = DailyTradeReporter.approximateReport(trades, SketchAccuracy.standard());
+
+		assertThat(DailyTradeReporter.findApproximateRankingGroupByDate(trades, "B", SketchAccuracy.standard()),
+				is(DailyTradeReporter.findRankingGroupByDate(trades, "B")));
+		assertThat(report.getTotalAmountByDate("B"), is(DailyTradeReporter.dailyTotalAmountGroupByDate(trades, "B")));
+		ApproximateSummary monday = report.getSummaries("B").get(MONDAY);
+		assertThat(monday.getTradeCount(), is(3L));
+		assertThat(monday.getDistinctEntities(), is(2L));
+		assertThat(monday.getTopEntities(2).get(0).getTotalAmount().doubleValue(), is(30.0));
+		assertThat(monday.getTopEntities(2).get(1).getTotalAmount().doubleValue(), is(28.0));
+		assertThat(report.getTopStockByDate("S").get(TUESDAY), is("ANZ"));
+	}
+
+	@Test
+	public void leavesNegativeAmountsOutOfTheRanking() {
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("JPMC", "B", MONDAY, 10, "2"),
+				trade("ANZ", "B", MONDAY, 30, "-1"),
+				trade("HSBC", "B", MONDAY, 1, "1"),
+				trade("ANZ", "B", TUESDAY, 2, "-3"));
+
+		ApproximateTradeReport report = DailyTradeReporter.approximateReport(trades, SketchAccuracy.standard());
+
+		ApproximateSummary monday = report.getSummaries("B").get(MONDAY);
+		assertThat(monday.getTotalAmount(), is(new BigDecimal("-9")));
+		assertThat(monday.getTradeCount(), is(3L));
+		assertThat(monday.getUnrankedTradeCount(), is(1L));
+		assertThat(monday.getDistinctEntities(), is(3L));
+		assertThat(monday.getTopStockName(), is("JPMC"));
+		assertThat(report.getTopStockByDate("B").get(TUESDAY), is((String) null));
+		assertThat(report.getSummary("B", MONDAY, TUESDAY).getUnrankedTradeCount(), is(2L));
+	}
+
+	@Test
+	public void mergesPartitionsAndDays() {
+		List<TradeEvent> trades = new ArrayList<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 20000; i++) {
+			int entity = random.nextInt(1000);
+			trades.add(trade("stock" + entity, "B", i % 2 == 0 ? MONDAY : TUESDAY, entity % 10 == 0 ? 50 : 1, "1.5"));
+		}
+		SketchAccuracy accuracy = SketchAccuracy.of(5, 0.005, 0.01, 0.02);
+
+		ApproximateTradeReport whole = ApproximateTradeAggregator.aggregate(trades, accuracy);
+		ApproximateTradeAggregator first = new ApproximateTradeAggregator(accuracy);
+		trades.subList(0, 12345).forEach(first::accept);
+		ApproximateTradeAggregator second = new ApproximateTradeAggregator(accuracy);
+		second.accept(TradeBatch.of(trades.subList(12345, trades.size())));
+		ApproximateTradeReport merged = first.merge(second).toReport();
+
+		for (LocalDate date : ImmutableList.of(MONDAY, TUESDAY)) {
+			ApproximateSummary expected = whole.getSummaries("B").get(date);
+			ApproximateSummary actual = merged.getSummaries("B").get(date);
+			assertThat(actual.getTotalAmount(), is(expected.getTotalAmount()));
+			assertThat(actual.getTradeCount(), is(expected.getTradeCount()));
+			assertThat(actual.getDistinctEntities(), is(expected.getDistinctEntities()));
+			assertThat(actual.getTopStockName(), is(expected.getTopStockName()));
+		}
+		ApproximateSummary days = whole.getSummary("b", MONDAY, TUESDAY);
+		assertThat(days.getFirstSettlementDate(), is(MONDAY));
+		assertThat(days.getLastSettlementDate(), is(TUESDAY));
+		assertThat(days.getTradeCount(), is(20000L));
+		assertThat((double) days.getDistinctEntities(), closeTo(1000, 60));
+		for (RankedEntity entity : days.getTopEntities(5)) {
+			assertThat(entity.getStockName().endsWith("0"), is(true));
+		}
+		assertThat(whole.getSummary("B", TUESDAY.plusDays(1), TUESDAY.plusDays(9)), is((ApproximateSummary) null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTopBeyondCapacity() {
+		SketchAccuracy accuracy = SketchAccuracy.of(2, 0.01, 0.01, 0.05);
+		ApproximateTradeAggregator.aggregate(ImmutableList.of(trade("JPMC", "B", MONDAY, 1, "1")), accuracy)
+				.getSummaries("B").get(MONDAY).getTopEntities(3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnreachableDistinctError() {
+		SketchAccuracy.of(10, 0.01, 0.01, 0.0001);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMergeOfDifferentAccuracies() {
+		new ApproximateTradeAggregator(SketchAccuracy.standard())
+				.merge(new ApproximateTradeAggregator(SketchAccuracy.of(10, 0.01, 0.01, 0.02)));
+	}
+
+	private static TradeEvent trade(String stockName, String action, LocalDate settlementDate, int units,
+			String pricePerUnit) {
+		return TestTrades.trade(stockName, action, null, settlementDate, units, new BigDecimal(pricePerUnit),
+				BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,121 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for BinaryTradeFileWriter and MappedTradeFileReader.
+ */
+public class BinaryTradeFileTest {
+
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void aggregatesFromMappedFile() throws IOException {
+		List<TradeEvent> tradeEvents = trades(10000);
+		Path file = folder.newFile("trades.bin").toPath();
+		BinaryTradeFileWriter.write(file, tradeEvents);
+
+		DailyTradeReport expected = DailyTradeReporter.dailyReport(tradeEvents);
+		DailyTradeReport actual = MappedTradeFileReader.aggregate(file);
+
+		assertThat(actual.getSummaries("B"), is(expected.getSummaries("B")));
+		assertThat(actual.getSummaries("S"), is(expected.getSummaries("S")));
+	}
+
+	@Test
+	public void readsAcrossMappedWindows() throws IOException {
+		List<TradeEvent> tradeEvents = trades(1000);
+		tradeEvents.add(TradeEvent.tradeEvent().setBuySellIndicator(Optional.of("B")).build());
+		Path file = folder.newFile("windows.bin").toPath();
+		BinaryTradeFileWriter.write(file, tradeEvents);
+
+		try (MappedTradeFileReader reader = new MappedTradeFileReader(file, 7 * BinaryTradeFormat.RECORD_SIZE)) {
+			List<TradeEvent> readBack = reader.readTradeEvents();
+
+			assertThat(reader.getRecordCount(), is((long) tradeEvents.size()));
+			for (int i = 0; i < tradeEvents.size(); i++) {
+				TradeEvent expected = tradeEvents.get(i);
+				TradeEvent actual = readBack.get(i);
+				assertThat(actual.getStockName(), is(expected.getStockName()));
+				assertThat(actual.getBuySellIndicator(), is(expected.getBuySellIndicator()));
+				assertThat(actual.getCurrency(), is(expected.getCurrency()));
+				assertThat(actual.getSettlementDate(), is(expected.getSettlementDate()));
+				assertThat(actual.getInstructionDate(), is(expected.getInstructionDate()));
+				assertThat(actual.getUnits(), is(expected.getUnits()));
+				assertThat(actual.getAgreedFx(), is(expected.getAgreedFx()));
+				assertThat(actual.getPricePerUnit(), is(expected.getPricePerUnit()));
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsForeignFile() throws IOException {
+		Path file = folder.newFile("foreign.bin").toPath();
+		Files.write(file, "not a trade file, just some text".getBytes(StandardCharsets.UTF_8));
+
+		new MappedTradeFileReader(file).close();
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedFile() throws IOException {
+		Path file = folder.newFile("truncated.bin").toPath();
+		BinaryTradeFileWriter.write(file, trades(100));
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, BinaryTradeFormat.HEADER_SIZE + 10 * BinaryTradeFormat.RECORD_SIZE));
+
+		new MappedTradeFileReader(file).close();
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsRecordCountNotMatchingTheDictionaryOffset() throws IOException {
+		Path file = folder.newFile("corrupt.bin").toPath();
+		BinaryTradeFileWriter.write(file, trades(100));
+		byte[] bytes = Files.readAllBytes(file);
+		ByteBuffer.wrap(bytes).order(BinaryTradeFormat.BYTE_ORDER).putLong(BinaryTradeFormat.HEADER_RECORD_COUNT, 99);
+		Files.write(file, bytes);
+
+		new MappedTradeFileReader(file).close();
+	}
+
+	private static List<TradeEvent> trades(int count) {
+		String[] entities = { "JPMC", "MS", "Apple", "IBM" };
+		String[] currencies = { "USD", "AED", "SAR", "GBP" };
+		List<TradeEvent> tradeEvents = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			tradeEvents.add(new TradeEventBuilder()
+					.setStockName(Optional.of(entities[i % entities.length]))
+					.setBuySellIndicator(Optional.of(i % 3 == 0 ? "S" : "B"))
+					.setCurrency(Optional.of(Currency.getInstance(currencies[(i / 2) % currencies.length])))
+					.setInstructionDate(Optional.of(FRIDAY.minusDays(1)))
+					.setSettlementDate(Optional.of(FRIDAY.plusDays(i % 9)))
+					.setUnits(i % 17 == 0 ? Optional.empty() : Optional.of(i % 250))
+					.setPricePerUnit(Optional.of(BigDecimal.valueOf(i * 7L, i % 3)))
+					.setAgreedFx(Optional.of(new BigDecimal("0.25")))
+					.build());
+		}
+		return tradeEvents;
+	}
+}
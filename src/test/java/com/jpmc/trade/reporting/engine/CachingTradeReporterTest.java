@@ -0,0 +1,106 @@
+package com.jpmc.trade.reporting.engine;
+
+import static com.jpmc.trade.reporting.engine.TestTrades.trade;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for CachingTradeReporter.
+ */
+public class CachingTradeReporterTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+	private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+	private static final List<TradeEvent> TRADES = ImmutableList.of(
+			trade("JPMC", "B", MONDAY, 5),
+			trade("MS", "B", MONDAY, 10),
+			trade("IBM", "B", TUESDAY, 1),
+			trade("Apple", "S", MONDAY, 15));
+
+	@Test
+	public void servesRepeatedReportsFromCache() {
+		CachingTradeReporter reporter = CachingTradeReporter.builder().build().acceptAll(TRADES);
+
+		assertThat(reporter.dailyTotalAmountGroupByDate("B"),
+				is(DailyTradeReporter.dailyTotalAmountGroupByDate(TRADES, "B")));
+		assertThat(reporter.findRankingGroupByDate("b"), is(DailyTradeReporter.findRankingGroupByDate(TRADES, "B")));
+
+		CacheStats stats = reporter.getStats();
+		assertThat(stats.getMissCount(), is(2L));
+		assertThat(stats.getHitCount(), is(2L));
+		assertThat(reporter.getSummary("S", TUESDAY), is(nullValue()));
+	}
+
+	@Test
+	public void invalidatesOnlyTheAffectedDate() {
+		CachingTradeReporter reporter = CachingTradeReporter.builder().build().acceptAll(TRADES);
+		reporter.getSummaries("B");
+
+		reporter.accept(trade("MS", "B", TUESDAY, 3));
+		assertThat(reporter.getStats().getInvalidationCount(), is(1L));
+		assertThat(reporter.getSummary("B", TUESDAY).getTopStockName(), is("MS"));
+		assertThat(reporter.getSummary("B", MONDAY).getTradeCount(), is(2L));
+		assertThat(reporter.getStats().getMissCount(), is(3L));
+		assertThat(reporter.getStats().getHitCount(), is(1L));
+
+		assertThat(reporter.amend(trade("JPMC", "B", MONDAY, 5), trade("JPMC", "B", MONDAY, 50)), is(true));
+		assertThat(reporter.getSummary("B", MONDAY).getTopStockName(), is("JPMC"));
+		assertThat(reporter.getStats().getInvalidationCount(), is(2L));
+		assertThat(reporter.amend(trade("JPMC", "B", MONDAY, 5), trade("JPMC", "B", MONDAY, 6)), is(false));
+	}
+
+	@Test
+	public void retractsOneOfEqualTrades() {
+		CachingTradeReporter reporter = CachingTradeReporter.builder().build()
+				.acceptAll(TRADES)
+				.accept(trade("JPMC", "B", MONDAY, 5));
+
+		assertThat(reporter.getSummary("B", MONDAY).getTradeCount(), is(3L));
+		assertThat(reporter.retract(trade("JPMC", "B", MONDAY, 5)), is(true));
+		assertThat(reporter.getSummary("B", MONDAY).getTradeCount(), is(2L));
+		assertThat(reporter.getSummary("B", MONDAY).getTotalAmount(), is(BigDecimal.valueOf(1500)));
+		assertThat(reporter.retract(trade("JPMC", "B", MONDAY, 5)), is(true));
+		assertThat(reporter.retract(trade("JPMC", "B", MONDAY, 5)), is(false));
+		assertThat(reporter.getSummary("B", MONDAY).getTopStockName(), is("MS"));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedAndExpired() {
+		AtomicLong nanos = new AtomicLong();
+		CachingTradeReporter reporter = CachingTradeReporter.builder()
+				.maximumSize(2)
+				.expireAfter(Duration.ofMinutes(1))
+				.ticker(nanos::get)
+				.build()
+				.acceptAll(TRADES);
+
+		reporter.getSummary("B", MONDAY);
+		reporter.getSummary("B", TUESDAY);
+		reporter.getSummary("B", MONDAY);
+		reporter.getSummary("S", MONDAY);
+		assertThat(reporter.size(), is(2));
+		assertThat(reporter.getStats().getEvictionCount(), is(1L));
+
+		// TUESDAY was least recently used
+		reporter.getSummary("B", MONDAY);
+		assertThat(reporter.getStats().getHitCount(), is(2L));
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+		reporter.getSummary("B", MONDAY);
+		assertThat(reporter.getStats().getEvictionCount(), is(2L));
+		assertThat(reporter.getStats().getMissCount(), is(4L));
+	}
+}
@@ -0,0 +1,181 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for CurrencyAggregator and FxRateTable.
+ */
+public class CurrencyAggregatorTest {
+
+	private static final Currency USD = Currency.getInstance("USD");
+	private static final Currency GBP = Currency.getInstance("GBP");
+	private static final Currency SAR = Currency.getInstance("SAR");
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+	private static final LocalDate SUNDAY = LocalDate.of(2017, 12, 3);
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void loadsRatesAndCarriesThemOverWeekends() throws IOException {
+		FxRateTable rates = rates();
+
+		assertThat(rates.getReportingCurrency(), is(USD));
+		assertThat(rates.getCurrencies(), is(ImmutableList.of(USD, GBP, SAR)));
+		assertThat(rates.getRate(GBP, FRIDAY), is(new BigDecimal("1.30")));
+		assertThat(rates.getRate(GBP, SUNDAY), is(new BigDecimal("1.30")));
+		assertThat(rates.getRate(GBP, MONDAY), is(new BigDecimal("1.35")));
+		assertThat(rates.getRate(USD, MONDAY.plusYears(1)), is(BigDecimal.ONE));
+		assertThat(rates.convert(new BigDecimal("10"), SAR, SUNDAY), is(new BigDecimal("2.670")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsDateBeforeFirstRate() throws IOException {
+		rates().getRate(GBP, FRIDAY.minusDays(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMalformedRateFile() throws IOException {
+		Path rateFile = folder.newFile("bad.csv").toPath();
+		Files.write(rateFile, ImmutableList.of("GBP,2017-12-01"), StandardCharsets.UTF_8);
+		FxRateTable.builder(USD).loadRates(rateFile);
+	}
+
+	@Test
+	public void reportsTotalsPerTradeCurrencyAndConverted() throws IOException {
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("B", GBP, SUNDAY, 10, "2.00"),
+				trade("b", GBP, MONDAY, 1, "1.50"),
+				trade("B", USD, MONDAY, 3, "1.25"),
+				trade("B", SAR, SUNDAY, 100, "0.10"),
+				trade("S", SAR, FRIDAY, 4, "1"));
+
+		CurrencyReport report = DailyTradeReporter.currencyReport(trades, rates());
+
+		assertThat(report.getReportingCurrency(), is(USD));
+		// GBP moves from Sunday to Monday, SAR settles on Sunday
+		assertThat(report.getLocalTotalsByDate("B"), is(ImmutableMap.of(
+				SUNDAY, ImmutableMap.of(SAR, new BigDecimal("10.00")),
+				MONDAY, ImmutableMap.of(USD, new BigDecimal("3.75"), GBP, new BigDecimal("21.50")))));
+		assertThat(report.getConvertedTotalsByDate("B").get(MONDAY),
+				is(ImmutableMap.of(USD, new BigDecimal("3.75"), GBP, new BigDecimal("29.0250"))));
+		assertThat(report.getTotalAmountByDate("B"),
+				is(ImmutableMap.of(SUNDAY, new BigDecimal("2.67000"), MONDAY, new BigDecimal("32.7750"))));
+		// SAR Friday is a weekend day, moved to Sunday
+		CurrencySummary sell = report.getSummaries("S").get(SUNDAY);
+		assertThat(sell.getTotalAmount(), is(new BigDecimal("1.068")));
+		assertThat(sell.getTradeCount(), is(1L));
+	}
+
+	@Test
+	public void batchMatchesEvents() throws IOException {
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("B", GBP, SUNDAY, 10, "2.00"),
+				trade("B", GBP, MONDAY, 7, "2.125"),
+				trade("S", SAR, MONDAY, 100, "0.10"),
+				new TradeEventBuilder().setBuySellIndicator(Optional.of("B")).setSettlementDate(Optional.of(MONDAY))
+						.build());
+		FxRateTable rates = rates();
+
+		CurrencyReport events = CurrencyAggregator.aggregate(trades, SettlementCalendar.standard(), rates);
+		CurrencyReport batch = new CurrencyAggregator(rates).accept(TradeBatch.of(trades)).toReport();
+
+		for (String action : ImmutableList.of("B", "S")) {
+			Map<LocalDate, CurrencySummary> expected = events.getSummaries(action);
+			assertThat(batch.getSummaries(action), is(expected));
+		}
+		assertThat(events.getSummaries("B").get(MONDAY).getLocalTotals().get(GBP), is(new BigDecimal("34.875")));
+	}
+
+	@Test
+	public void countsUnconvertibleTradesInsteadOfAborting() throws IOException {
+		Currency eur = Currency.getInstance("EUR");
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("B", GBP, MONDAY, 2, "1.00"),
+				trade("B", eur, MONDAY, 1, "1"),
+				new TradeEventBuilder().setBuySellIndicator(Optional.of("B")).setSettlementDate(Optional.of(MONDAY))
+						.build(),
+				// before the first GBP rate
+				trade("S", GBP, FRIDAY.minusDays(4), 1, "1"));
+		FxRateTable rates = rates();
+
+		CurrencyReport report = CurrencyAggregator.aggregate(trades, SettlementCalendar.standard(), rates);
+
+		CurrencySummary buy = report.getSummaries("B").get(MONDAY);
+		assertThat(buy.getTotalAmount(), is(new BigDecimal("2.7000")));
+		assertThat(buy.getTradeCount(), is(3L));
+		assertThat(buy.getUnconvertedTradeCount(), is(2L));
+		CurrencySummary sell = report.getSummaries("S").get(FRIDAY.minusDays(4));
+		assertThat(sell.getLocalTotals(), is(ImmutableMap.of(GBP, BigDecimal.ONE)));
+		assertThat(sell.getConvertedTotals().isEmpty(), is(true));
+		assertThat(sell.getUnconvertedTradeCount(), is(1L));
+		assertThat(report.getUnconvertedTradeCount(), is(3L));
+		assertThat(new CurrencyAggregator(rates).accept(TradeBatch.of(trades)).toReport().getSummaries("B")
+				.get(MONDAY), is(buy));
+	}
+
+	@Test
+	public void sumsPricesBeyondALongAsDecimals() throws IOException {
+		TradeEvent widePrice = trade("B", GBP, MONDAY, 2, "123456789012345678901234.5");
+		// the agreed fx is not used, its size does not matter
+		TradeEvent wideFx = TestTrades.trade("JPMC", "B", GBP, MONDAY, 1, new BigDecimal("1.50"),
+				new BigDecimal("1E-300"));
+
+		CurrencySummary buy = DailyTradeReporter.currencyReport(ImmutableList.of(widePrice, wideFx), rates())
+				.getSummaries("B").get(MONDAY);
+
+		assertThat(buy.getLocalTotals().get(GBP), is(new BigDecimal("246913578024691357802470.50")));
+		assertThat(buy.getTotalAmount(), is(new BigDecimal("333333330333333333033335.1750")));
+		assertThat(buy.getTradeCount(), is(2L));
+		assertThat(buy.getUnconvertedTradeCount(), is(0L));
+	}
+
+	@Test
+	public void carriesTheLastRateForwardPastTheTable() throws IOException {
+		FxRateTable rates = rates();
+
+		assertThat(rates.getRate(GBP, MONDAY.plusYears(1)), is(new BigDecimal("1.35")));
+		assertThat(rates.getRate(SAR, MONDAY.plusDays(1)), is(new BigDecimal("0.267")));
+		assertThat(DailyTradeReporter.currencyReport(ImmutableList.of(trade("B", GBP, MONDAY.plusDays(7), 2, "1")),
+				rates).getTotalAmountByDate("B").get(MONDAY.plusDays(7)), is(new BigDecimal("2.70")));
+	}
+
+	private FxRateTable rates() throws IOException {
+		Path rateFile = folder.newFile().toPath();
+		Files.write(rateFile, ImmutableList.of(
+				"# currency,date,value in USD",
+				"GBP,2017-12-01,1.30",
+				"SAR,2017-12-01,0.267",
+				"",
+				"GBP,2017-12-04,1.35",
+				"USD,2017-12-04,1"), StandardCharsets.UTF_8);
+		return FxRateTable.builder(USD).loadRates(rateFile).build();
+	}
+
+	private static TradeEvent trade(String action, Currency currency, LocalDate settlementDate, int units,
+			String pricePerUnit) {
+		return TestTrades.trade("JPMC", action, currency, settlementDate, units, new BigDecimal(pricePerUnit),
+				BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,72 @@
+package com.jpmc.trade.reporting.engine;
+
+import static com.jpmc.trade.reporting.engine.TestTrades.trade;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for DailyTradeAggregator.
+ */
+public class DailyTradeAggregatorTest {
+
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+
+	@Test
+	public void aggregatesBothActionsInOnePass() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(
+				trade("JPMC", "B", Currency.getInstance("AED"), FRIDAY, 5),
+				trade("MS", "b", Currency.getInstance("SAR"), FRIDAY, 15),
+				trade("Apple", "S", FRIDAY, 10),
+				trade("MS", "S", Currency.getInstance("GBP"), FRIDAY.plusDays(1), 20));
+
+		DailyTradeReport report = DailyTradeAggregator.aggregate(tradeEvents);
+
+		DailySummary buy = report.getSummaries("B").get(FRIDAY.plusDays(2));
+		assertThat(buy.getTotalAmount(), is(BigDecimal.valueOf(2000)));
+		assertThat(buy.getTopStockName(), is("MS"));
+		assertThat(buy.getTradeCount(), is(2L));
+
+		assertThat(report.getTotalAmountByDate("S").get(FRIDAY), is(BigDecimal.valueOf(1000)));
+		assertThat(report.getTotalAmountByDate("S").get(FRIDAY.plusDays(3)), is(BigDecimal.valueOf(2000)));
+		assertThat(report.getTopStockByDate("s").get(FRIDAY.plusDays(3)), is("MS"));
+		assertThat(report.getSummaries("X").isEmpty(), is(true));
+	}
+
+	@Test
+	public void doesNotModifyInputTrades() {
+		TradeEvent weekendTrade = trade("JPMC", "B", FRIDAY.plusDays(1), 5);
+
+		DailyTradeAggregator.aggregate(ImmutableList.of(weekendTrade));
+
+		assertThat(weekendTrade.getSettlementDate().get(), is(FRIDAY.plusDays(1)));
+	}
+
+	@Test
+	public void mergedPartialsMatchSequentialPass() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(
+				trade("JPMC", "B", FRIDAY, 5),
+				trade("MS", "B", FRIDAY, 10),
+				trade("Apple", "B", FRIDAY, 10),
+				trade("IBM", "S", FRIDAY, 1));
+
+		DailyTradeAggregator left = new DailyTradeAggregator().accept(tradeEvents.get(0)).accept(tradeEvents.get(1));
+		DailyTradeAggregator right = new DailyTradeAggregator().accept(tradeEvents.get(2)).accept(tradeEvents.get(3));
+
+		DailyTradeReport merged = left.merge(right).toReport();
+		DailyTradeReport sequential = DailyTradeAggregator.aggregate(tradeEvents);
+
+		assertThat(merged.getSummaries("B"), is(sequential.getSummaries("B")));
+		assertThat(merged.getSummaries("S"), is(sequential.getSummaries("S")));
+		// equal amounts are ordered by stock name
+		assertThat(merged.getTopStockByDate("B").get(FRIDAY), is("Apple"));
+	}
+}
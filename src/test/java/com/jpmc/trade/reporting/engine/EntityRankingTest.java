@@ -0,0 +1,81 @@
+package com.jpmc.trade.reporting.engine;
+
+import static com.jpmc.trade.reporting.engine.TestTrades.trade;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for the top-N entity ranking.
+ */
+public class EntityRankingTest {
+
+	private static final LocalDate WEDNESDAY = LocalDate.of(2017, 12, 6);
+
+	@Test
+	public void ranksEntitiesOnSummedAmount() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(
+				trade("JPMC", "B", WEDNESDAY, 30),
+				trade("MS", "B", WEDNESDAY, 20),
+				trade("MS", "B", WEDNESDAY, 20),
+				trade("Apple", "B", WEDNESDAY, 10),
+				trade("IBM", "B", WEDNESDAY, 40));
+
+		List<RankedEntity> top = DailyTradeReporter.findTopEntitiesGroupByDate(tradeEvents, "B", 3).get(WEDNESDAY);
+
+		assertThat(top, is(Arrays.asList(
+				new RankedEntity(1, "IBM", BigDecimal.valueOf(4000)),
+				new RankedEntity(2, "MS", BigDecimal.valueOf(4000)),
+				new RankedEntity(3, "JPMC", BigDecimal.valueOf(3000)))));
+		assertThat(DailyTradeReporter.findRankingGroupByDate(tradeEvents, "B").get(WEDNESDAY), is("IBM"));
+	}
+
+	@Test
+	public void tiesAreOrderedByStockName() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(trade("MS", "B", WEDNESDAY, 10), trade("Apple", "B", WEDNESDAY, 10),
+				trade("JPMC", "B", WEDNESDAY, 10));
+
+		List<RankedEntity> top = DailyTradeReporter.findTopEntitiesGroupByDate(tradeEvents, "B", 10).get(WEDNESDAY);
+
+		assertThat(top.size(), is(3));
+		assertThat(top.get(0).getStockName(), is("Apple"));
+		assertThat(top.get(1).getStockName(), is("JPMC"));
+		assertThat(top.get(2).getStockName(), is("MS"));
+	}
+
+	@Test
+	public void boundedHeapMatchesFullSort() {
+		Random random = new Random(11);
+		Map<String, BigDecimal> entityTotals = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			entityTotals.put("E" + i, BigDecimal.valueOf(random.nextInt(1000), random.nextInt(2)));
+		}
+		List<Map.Entry<String, BigDecimal>> sorted = new ArrayList<>(entityTotals.entrySet());
+		sorted.sort(EntityRanking.BEST_FIRST);
+
+		List<RankedEntity> top = EntityRanking.top(entityTotals, 10);
+
+		assertThat(top.size(), is(10));
+		for (int i = 0; i < top.size(); i++) {
+			assertThat(top.get(i).getRank(), is(i + 1));
+			assertThat(top.get(i).getStockName(), is(sorted.get(i).getKey()));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveN() {
+		EntityRanking.top(new HashMap<String, BigDecimal>(), 0);
+	}
+}
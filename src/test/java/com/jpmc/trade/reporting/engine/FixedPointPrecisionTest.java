@@ -0,0 +1,109 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for the fixed point mode of DailyTradeAggregator.
+ */
+public class FixedPointPrecisionTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	private static final FixedPointPrecision PRECISION = FixedPointPrecision.of(4, 2);
+
+	private static final List<TradeEvent> TRADES = ImmutableList.of(
+			trade("JPMC", "B", new BigDecimal("0.50"), 200, new BigDecimal("100.25")),
+			trade("MS", "b", new BigDecimal("0.2215"), 10, BigDecimal.TEN),
+			trade("JPMC", "B", BigDecimal.ONE, 3, new BigDecimal("7.1")),
+			trade("IBM", "S", null, 3, BigDecimal.ONE),
+			trade("MS", "S", new BigDecimal("1.25"), 4, new BigDecimal("0.5")));
+
+	@Test
+	public void totalsMatchBigDecimalAtAmountScale() {
+		DailyTradeReport decimal = DailyTradeAggregator.aggregate(TRADES);
+		DailyTradeReport fixedPoint = DailyTradeAggregator.aggregate(TradeBatch.of(TRADES), PRECISION);
+
+		for (String action : ImmutableList.of("B", "S")) {
+			DailySummary expected = decimal.getSummaries(action).get(MONDAY);
+			DailySummary actual = fixedPoint.getSummaries(action).get(MONDAY);
+			assertThat(actual.getTotalAmount(), is(expected.getTotalAmount().setScale(6)));
+			assertThat(actual.getTradeCount(), is(expected.getTradeCount()));
+			assertThat(actual.getTopStockName(), is(expected.getTopStockName()));
+			expected.getEntityTotals().forEach((stockName, amount) ->
+					assertThat(actual.getEntityTotals().get(stockName), is(amount.setScale(6))));
+		}
+	}
+
+	@Test
+	public void allPathsAgree() {
+		DailyTradeAggregator records = new DailyTradeAggregator(SettlementCalendar.standard(), PRECISION);
+		DailyTradeAggregator events = new DailyTradeAggregator(SettlementCalendar.standard(), PRECISION);
+		TradeRecord record = new TradeRecord();
+		for (TradeEvent tradeEvent : TRADES) {
+			records.accept(record.set(tradeEvent));
+			events.accept(tradeEvent);
+		}
+		DailyTradeReport batch = DailyTradeReporter.dailyReport(TradeBatch.of(TRADES), PRECISION);
+		DailyTradeReport parallel = new ParallelTradeAggregator(new ForkJoinPool(2), 2, SettlementCalendar.standard(),
+				PRECISION).aggregate(TRADES);
+
+		assertThat(records.toReport().getSummaries("B"), is(batch.getSummaries("B")));
+		assertThat(events.toReport().getSummaries("B"), is(batch.getSummaries("B")));
+		assertThat(parallel.getSummaries("S"), is(batch.getSummaries("S")));
+	}
+
+	@Test
+	public void overflowFallsBackToBigDecimal() {
+		BigDecimal largePrice = new BigDecimal("90000000000.00");
+		List<TradeEvent> trades = ImmutableList.of(
+				trade("JPMC", "B", new BigDecimal("100"), Integer.MAX_VALUE, largePrice),
+				trade("JPMC", "B", BigDecimal.ONE, 1, BigDecimal.ONE));
+
+		DailySummary summary = DailyTradeAggregator.aggregate(TradeBatch.of(trades), PRECISION)
+				.getSummaries("B").get(MONDAY);
+
+		BigDecimal expected = new BigDecimal("100").multiply(BigDecimal.valueOf(Integer.MAX_VALUE))
+				.multiply(largePrice).add(BigDecimal.ONE).setScale(6);
+		assertThat(summary.getTotalAmount(), is(expected));
+		assertThat(summary.getTopAmount(), is(expected));
+	}
+
+	@Test
+	public void sumOverflowFallsBackToBigDecimal() {
+		AmountAccumulator accumulator = AmountAccumulator.of(PRECISION);
+		accumulator.add(Long.MAX_VALUE);
+		accumulator.add(Long.MAX_VALUE);
+		accumulator.add(2L);
+
+		assertThat(accumulator.toBigDecimal(),
+				is(BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).add(BigDecimal.valueOf(2))
+						.movePointLeft(6)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMoreDecimalsThanDeclared() {
+		DailyTradeAggregator.aggregate(
+				TradeBatch.of(ImmutableList.of(trade("JPMC", "B", new BigDecimal("0.12345"), 1, BigDecimal.ONE))),
+				PRECISION);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMergingDifferentPrecisions() {
+		new DailyTradeAggregator().merge(new DailyTradeAggregator(SettlementCalendar.standard(), PRECISION));
+	}
+
+	private static TradeEvent trade(String entity, String buySell, BigDecimal agreedFx, int units,
+			BigDecimal pricePerUnit) {
+		return TestTrades.trade(entity, buySell, TestTrades.USD, MONDAY, units, pricePerUnit, agreedFx);
+	}
+}
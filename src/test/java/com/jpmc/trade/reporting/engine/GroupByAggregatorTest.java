@@ -0,0 +1,157 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for GroupByAggregator.
+ */
+public class GroupByAggregatorTest {
+
+	private static final Currency USD = Currency.getInstance("USD");
+	private static final Currency AED = Currency.getInstance("AED");
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+	private static final LocalDate SUNDAY = LocalDate.of(2017, 12, 3);
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	private static final List<TradeEvent> TRADES = ImmutableList.of(
+			trade("JPMC", "B", USD, MONDAY, 100),
+			trade("MS", "b", USD, MONDAY, 50),
+			trade("MS", "S", AED, SUNDAY, 30),
+			trade("JPMC", "B", AED, SUNDAY, 20),
+			trade("GS", "B", USD, MONDAY, 70));
+
+	@Test
+	public void computesSeveralGroupBysInOneScan() {
+		GroupByAggregator aggregator = new GroupByAggregator(
+				EnumSet.of(GroupDimension.CURRENCY),
+				EnumSet.of(GroupDimension.BUY_SELL_INDICATOR, GroupDimension.STOCK_NAME),
+				EnumSet.noneOf(GroupDimension.class));
+		TRADES.forEach(aggregator::accept);
+
+		GroupByResult byCurrency = aggregator.getResult(GroupDimension.CURRENCY);
+		assertThat(byCurrency.getTotalAmount(GroupKey.empty().withCurrency(USD)), is(new BigDecimal("220")));
+		assertThat(byCurrency.getTotalAmount(GroupKey.empty().withCurrency(AED)), is(new BigDecimal("50")));
+
+		GroupByResult bySideAndStock = aggregator.getResult(GroupDimension.STOCK_NAME,
+				GroupDimension.BUY_SELL_INDICATOR);
+		GroupSummary msBuys = bySideAndStock
+				.getSummary(GroupKey.empty().withBuySellIndicator("B").withStockName("MS"));
+		assertThat(msBuys.getTotalAmount(), is(new BigDecimal("50")));
+		assertThat(msBuys.getTradeCount(), is(1L));
+		assertThat(bySideAndStock.getSummaries().size(), is(4));
+		assertThat(bySideAndStock.getRanking(1).get(0).getKey(),
+				is(GroupKey.empty().withBuySellIndicator("B").withStockName("JPMC")));
+
+		GroupSummary total = aggregator.getResult().getSummary(GroupKey.empty());
+		assertThat(total.getTotalAmount(), is(new BigDecimal("270")));
+		assertThat(total.getTradeCount(), is(5L));
+	}
+
+	@Test
+	public void groupsByWorkingSettlementDateAndRanksWithinDates() {
+		GroupByResult result = DailyTradeReporter.groupBy(TRADES, GroupDimension.BUY_SELL_INDICATOR,
+				GroupDimension.SETTLEMENT_DATE, GroupDimension.STOCK_NAME);
+
+		Map<GroupKey, GroupSummary> top = result.getTopWithin(GroupDimension.BUY_SELL_INDICATOR,
+				GroupDimension.SETTLEMENT_DATE);
+		// Sunday is a working day for AED trades
+		assertThat(top.get(GroupKey.empty().withBuySellIndicator("B").withSettlementDate(SUNDAY)).getKey()
+				.getStockName(), is(Optional.of("JPMC")));
+		assertThat(top.get(GroupKey.empty().withBuySellIndicator("B").withSettlementDate(MONDAY)).getTotalAmount(),
+				is(new BigDecimal("100")));
+		assertThat(top.size(), is(3));
+	}
+
+	@Test
+	public void missingFieldsFormTheirOwnGroup() {
+		TradeEvent withoutCurrency = trade("JPMC", "B", null, MONDAY, 1);
+		TradeEvent withoutSettlementDate = trade("JPMC", "B", USD, MONDAY, 5).withSettlementDate(Optional.empty());
+
+		GroupByResult result = DailyTradeReporter.groupBy(ImmutableList.of(withoutCurrency, withoutSettlementDate,
+				TRADES.get(0)), GroupDimension.CURRENCY);
+
+		assertThat(result.getTotalAmount(GroupKey.empty()), is(BigDecimal.ONE));
+		assertThat(result.getTotalAmount(GroupKey.empty().withCurrency(USD)), is(new BigDecimal("100")));
+		assertThat(result.getSummary(GroupKey.empty().withCurrency(AED)), is(nullValue()));
+	}
+
+	@Test
+	public void foldsDecimalsBeyondALongInBigDecimalMode() {
+		BigDecimal widePrice = new BigDecimal("123456789012345678901234.5");
+		TradeEvent wide = TestTrades.trade("JPMC", "B", USD, MONDAY, 2, widePrice, BigDecimal.ONE);
+
+		GroupByResult result = DailyTradeReporter.groupBy(ImmutableList.of(wide, TRADES.get(0)),
+				GroupDimension.STOCK_NAME);
+
+		assertThat(result.getTotalAmount(GroupKey.empty().withStockName("JPMC")),
+				is(new BigDecimal("246913578024691357802569.0")));
+		assertThat(result.getSummary(GroupKey.empty().withStockName("JPMC")).getTradeCount(), is(2L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsGroupByNotRequested() {
+		new GroupByAggregator(EnumSet.of(GroupDimension.CURRENCY)).getResult(GroupDimension.STOCK_NAME);
+	}
+
+	@Test
+	public void batchAndFixedPointMatchDailyReport() {
+		Random random = new Random(11);
+		List<TradeEvent> trades = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			trades.add(new TradeEventBuilder()
+					.setStockName(Optional.of("E" + random.nextInt(40)))
+					.setBuySellIndicator(Optional.of(random.nextBoolean() ? "B" : "S"))
+					.setInstructionDate(Optional.of(FRIDAY.minusDays(random.nextInt(5))))
+					.setSettlementDate(Optional.of(FRIDAY.plusDays(random.nextInt(10))))
+					.setCurrency(Optional.of(random.nextBoolean() ? USD : AED))
+					.setUnits(Optional.of(1 + random.nextInt(1000)))
+					.setPricePerUnit(Optional.of(BigDecimal.valueOf(random.nextInt(100000), 2)))
+					.setAgreedFx(Optional.of(BigDecimal.valueOf(random.nextInt(1000), 3)))
+					.build());
+		}
+		Set<GroupDimension> byDateAndSide = EnumSet.of(GroupDimension.SETTLEMENT_DATE,
+				GroupDimension.BUY_SELL_INDICATOR);
+		GroupByAggregator aggregator = new GroupByAggregator(SettlementCalendar.standard(),
+				FixedPointPrecision.of(3, 2), ImmutableList.of(byDateAndSide,
+						EnumSet.of(GroupDimension.INSTRUCTION_DATE, GroupDimension.CURRENCY)));
+		aggregator.accept(TradeBatch.of(trades));
+		GroupByResult result = aggregator.getResult(GroupDimension.SETTLEMENT_DATE,
+				GroupDimension.BUY_SELL_INDICATOR);
+		DailyTradeReport report = DailyTradeAggregator.aggregate(trades);
+
+		for (String action : report.getBuySellIndicators()) {
+			report.getSummaries(action).forEach((date, summary) -> {
+				GroupSummary group = result
+						.getSummary(GroupKey.empty().withBuySellIndicator(action).withSettlementDate(date));
+				assertThat(group.getTotalAmount().compareTo(summary.getTotalAmount()), is(0));
+				assertThat(group.getTradeCount(), is(summary.getTradeCount()));
+			});
+		}
+		long instructionGroupTrades = aggregator.getResult(GroupDimension.CURRENCY, GroupDimension.INSTRUCTION_DATE)
+				.getSummaries().values().stream().mapToLong(GroupSummary::getTradeCount).sum();
+		assertThat(instructionGroupTrades, is(5000L));
+	}
+
+	private static TradeEvent trade(String entity, String action, Currency currency, LocalDate settlementDate,
+			int units) {
+		return TestTrades.trade(entity, action, currency, settlementDate, units, BigDecimal.ONE, BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,79 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for ParallelTradeAggregator.
+ */
+public class ParallelTradeAggregatorTest {
+
+	private static final String[] ENTITIES = { "JPMC", "MS", "Apple", "IBM", "GS" };
+	private static final String[] CURRENCIES = { "USD", "GBP", "AED", "SAR", "INR" };
+	private static final String[] ACTIONS = { "B", "S", "b" };
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	@AfterClass
+	public static void shutdownPool() {
+		POOL.shutdown();
+	}
+
+	@Test
+	public void matchesSequentialPass() {
+		List<TradeEvent> tradeEvents = randomTrades(20000, 42);
+		ParallelTradeAggregator aggregator = new ParallelTradeAggregator(POOL, 97);
+
+		DailyTradeReport sequential = DailyTradeAggregator.aggregate(tradeEvents);
+		DailyTradeReport parallel = aggregator.aggregate(tradeEvents);
+
+		assertThat(parallel.getBuySellIndicators(), is(sequential.getBuySellIndicators()));
+		for (String action : sequential.getBuySellIndicators()) {
+			assertThat(parallel.getSummaries(action), is(sequential.getSummaries(action)));
+		}
+	}
+
+	@Test
+	public void matchesSequentialPassOnBatch() {
+		TradeBatch tradeBatch = TradeBatch.of(randomTrades(20000, 7));
+
+		DailyTradeReport sequential = DailyTradeReporter.dailyReport(tradeBatch, ExecutionMode.SEQUENTIAL);
+		DailyTradeReport parallel = new ParallelTradeAggregator(POOL, 101).aggregate(tradeBatch);
+
+		for (String action : sequential.getBuySellIndicators()) {
+			assertThat(parallel.getSummaries(action), is(sequential.getSummaries(action)));
+		}
+	}
+
+	private static List<TradeEvent> randomTrades(int count, long seed) {
+		Random random = new Random(seed);
+		LocalDate firstDate = LocalDate.of(2017, 12, 1);
+		List<TradeEvent> tradeEvents = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			tradeEvents.add(new TradeEventBuilder()
+					.setStockName(Optional.of(ENTITIES[random.nextInt(ENTITIES.length)]))
+					.setBuySellIndicator(Optional.of(ACTIONS[random.nextInt(ACTIONS.length)]))
+					.setCurrency(Optional.of(Currency.getInstance(CURRENCIES[random.nextInt(CURRENCIES.length)])))
+					.setSettlementDate(Optional.of(firstDate.plusDays(random.nextInt(14))))
+					.setUnits(random.nextInt(20) == 0 ? Optional.empty() : Optional.of(random.nextInt(100)))
+					.setPricePerUnit(Optional.of(BigDecimal.valueOf(random.nextInt(10000), random.nextInt(3))))
+					.setAgreedFx(Optional.of(BigDecimal.valueOf(random.nextInt(200), random.nextInt(3))))
+					.build());
+		}
+		return tradeEvents;
+	}
+}
@@ -0,0 +1,180 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for ReportExporter and the report writers.
+ */
+public class ReportExporterTest {
+
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void exportsDailyReportAsCsv() throws IOException {
+		Path file = folder.newFile("daily.csv").toPath();
+
+		long rows = ReportExporter.exportDailyReport(dailyReport(), 2, ReportFormat.CSV, file);
+
+		assertThat(rows, is(4L));
+		assertThat(Files.readAllLines(file, StandardCharsets.UTF_8), is(ImmutableList.of(
+				"buySellIndicator,settlementDate,totalAmount,tradeCount,rank,stockName,stockAmount",
+				"B,2017-12-01,60.00,3,1,\"Foo, Inc\",50.00",
+				"B,2017-12-01,60.00,3,2,Bar,10.00",
+				"B,2017-12-04,0.50,1,1,Bar,0.50",
+				"S,2017-12-04,7.25,1,1,Bar,7.25")));
+	}
+
+	@Test
+	public void exportsDailyReportAsJson() throws IOException {
+		Path file = folder.newFile("daily.json").toPath();
+
+		ReportExporter.exportDailyReport(dailyReport(), 1, ReportFormat.JSON, file);
+
+		assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), is("[\n"
+				+ "{\"buySellIndicator\":\"B\",\"settlementDate\":\"2017-12-01\",\"totalAmount\":60.00,"
+				+ "\"tradeCount\":3,\"rank\":1,\"stockName\":\"Foo, Inc\",\"stockAmount\":50.00},\n"
+				+ "{\"buySellIndicator\":\"B\",\"settlementDate\":\"2017-12-04\",\"totalAmount\":0.50,"
+				+ "\"tradeCount\":1,\"rank\":1,\"stockName\":\"Bar\",\"stockAmount\":0.50},\n"
+				+ "{\"buySellIndicator\":\"S\",\"settlementDate\":\"2017-12-04\",\"totalAmount\":7.25,"
+				+ "\"tradeCount\":1,\"rank\":1,\"stockName\":\"Bar\",\"stockAmount\":7.25}\n"
+				+ "]\n"));
+	}
+
+	@Test
+	public void binaryExportReadsBackTheSameRows() throws IOException {
+		Path file = folder.newFile("daily.bin").toPath();
+
+		ReportExporter.exportDailyReport(dailyReport(), 2, ReportFormat.BINARY, file);
+		ReportTable table = ColumnarReportReader.read(file);
+
+		assertThat(table.getColumnNames(), is(ImmutableList.of("buySellIndicator", "settlementDate", "totalAmount",
+				"tradeCount", "rank", "stockName", "stockAmount")));
+		assertThat(table.getRowCount(), is(4));
+		assertThat(table.getColumn("stockName"), is(ImmutableList.<Object>of("Foo, Inc", "Bar", "Bar", "Bar")));
+		assertThat(table.getValue(1, "settlementDate"), is(FRIDAY));
+		assertThat(table.getValue(1, "totalAmount"), is(new BigDecimal("60.00")));
+		assertThat(table.getValue(1, "tradeCount"), is(3L));
+		assertThat(table.getValue(3, "buySellIndicator"), is("S"));
+		assertThat(table.getValue(3, "stockAmount"), is(new BigDecimal("7.25")));
+	}
+
+	@Test
+	public void exportsGroupByOverSeveralBlocks() throws IOException {
+		List<TradeEvent> trades = new ArrayList<>();
+		int stocks = ColumnarReportFormat.BLOCK_ROWS + 100;
+		for (int i = 0; i < stocks; i++) {
+			trades.add(trade("stock" + i, "B", MONDAY, i + 1, "0.01"));
+		}
+		trades.add(new TradeEventBuilder().setBuySellIndicator(Optional.of("S")).setSettlementDate(Optional.of(MONDAY))
+				.build());
+		GroupByResult result = DailyTradeReporter.groupBy(trades, GroupDimension.CURRENCY, GroupDimension.STOCK_NAME);
+		Path binary = folder.newFile("groups.bin").toPath();
+		Path csv = folder.newFile("groups.csv").toPath();
+
+		assertThat(ReportExporter.exportGroupBy(result, ReportFormat.BINARY, binary), is(stocks + 1L));
+		ReportExporter.exportGroupBy(result, ReportFormat.CSV, csv);
+		ReportTable table = ColumnarReportReader.read(binary);
+
+		assertThat(table.getColumnNames(), is(ImmutableList.of("currency", "stockName", "totalAmount", "tradeCount")));
+		assertThat(table.getRowCount(), is(stocks + 1));
+		List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+		assertThat(lines.size(), is(stocks + 2));
+		// absent values sort first
+		assertThat(table.getValue(0, "currency"), is((Object) null));
+		assertThat(table.getValue(0, "stockName"), is((Object) null));
+		assertThat(lines.get(1), is(",,0,1"));
+		int row = 0;
+		for (GroupSummary summary : result.getSummaries().values()) {
+			assertThat(table.getValue(row, "stockName"), is((Object) summary.getKey().getStockName().orElse(null)));
+			assertThat(table.getValue(row, "totalAmount"), is((Object) summary.getTotalAmount()));
+			assertThat(lines.get(row + 1).endsWith("," + summary.getTotalAmount().toPlainString() + ",1"), is(true));
+			row++;
+		}
+	}
+
+	@Test
+	public void formatsValuesLikeTheirPlainStrings() throws IOException {
+		List<BigDecimal> decimals = ImmutableList.of(new BigDecimal("0.05"), new BigDecimal("-1.50"),
+				new BigDecimal("0E-3"), new BigDecimal("123"), new BigDecimal("-0.000000000000000000001"),
+				new BigDecimal("9223372036854775807"), new BigDecimal("-922337203685477580.7"),
+				new BigDecimal("123456789012345678901234.5"), new BigDecimal("1E+3"),
+				new BigDecimal(BigInteger.valueOf(Long.MIN_VALUE), 2), new BigDecimal(Long.MIN_VALUE));
+		List<LocalDate> dates = ImmutableList.of(LocalDate.of(1970, 1, 1), LocalDate.of(1969, 12, 31),
+				LocalDate.of(2000, 2, 29), LocalDate.of(2100, 3, 1), LocalDate.of(9999, 12, 31),
+				LocalDate.of(-1, 6, 15), LocalDate.of(10000, 1, 1));
+		List<ReportColumn> columns = ImmutableList.of(ReportColumn.decimal("decimal"), ReportColumn.date("date"),
+				ReportColumn.integer("integer"));
+		Path csv = folder.newFile("values.csv").toPath();
+		Path binary = folder.newFile("values.bin").toPath();
+		long[] integers = { 0, -1, Long.MIN_VALUE, Long.MAX_VALUE };
+
+		for (Path file : ImmutableList.of(csv, binary)) {
+			try (ReportWriter writer = ReportWriter.open(file, file == csv ? ReportFormat.CSV : ReportFormat.BINARY,
+					columns)) {
+				for (int row = 0; row < decimals.size(); row++) {
+					writer.decimal(decimals.get(row))
+							.date(row < dates.size() ? dates.get(row) : null)
+							.integer(integers[row % integers.length])
+							.endRow();
+				}
+			}
+		}
+
+		List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+		ReportTable table = ColumnarReportReader.read(binary);
+		for (int row = 0; row < decimals.size(); row++) {
+			String date = row < dates.size() ? dates.get(row).toString() : "";
+			assertThat(lines.get(row + 1), is(decimals.get(row).toPlainString() + "," + date + ","
+					+ integers[row % integers.length]));
+			assertThat(table.getValue(row, "decimal"), is((Object) decimals.get(row)));
+			assertThat(table.getValue(row, "date"), is((Object) (row < dates.size() ? dates.get(row) : null)));
+			assertThat(table.getValue(row, "integer"), is((Object) integers[row % integers.length]));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsCellOfWrongType() throws IOException {
+		try (ReportWriter writer = ReportWriter.open(folder.newFile().toPath(), ReportFormat.CSV,
+				ImmutableList.of(ReportColumn.string("name")))) {
+			writer.integer(1);
+		}
+	}
+
+	private static DailyTradeReport dailyReport() {
+		return DailyTradeReporter.dailyReport(ImmutableList.of(
+				trade("Foo, Inc", "B", FRIDAY, 20, "2.50"),
+				trade("Bar", "b", FRIDAY, 4, "2.50"),
+				trade("Foo, Inc", "B", FRIDAY, 0, "2.50"),
+				trade("Bar", "B", MONDAY, 1, "0.50"),
+				trade("Bar", "S", MONDAY, 29, "0.25")));
+	}
+
+	private static TradeEvent trade(String stockName, String action, LocalDate settlementDate, int units,
+			String pricePerUnit) {
+		return TestTrades.trade(stockName, action, TestTrades.USD, settlementDate, units, new BigDecimal(pricePerUnit),
+				BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,149 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for ReportMetrics and LatencyHistogram.
+ */
+public class ReportMetricsTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	private static final List<TradeEvent> TRADES = ImmutableList.of(
+			trade(Optional.of("B"), Optional.of(MONDAY), Optional.of(BigDecimal.ONE)),
+			trade(Optional.of("S"), Optional.of(MONDAY), Optional.empty()),
+			trade(Optional.empty(), Optional.of(MONDAY), Optional.of(BigDecimal.ONE)),
+			trade(Optional.of("B"), Optional.empty(), Optional.empty()));
+
+	@Test
+	public void histogramKnowsPercentilesWithinBucketWidth() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long nanos = 1; nanos <= 10000; nanos++) {
+			histogram.record(nanos);
+		}
+
+		assertThat(histogram.getCount(), is(10000L));
+		assertThat(histogram.getMaxNanos(), is(10000L));
+		assertThat(histogram.getMeanNanos(), is(5000.5));
+		assertThat(histogram.getValueAtPercentile(50), greaterThanOrEqualTo(5000L));
+		assertThat(histogram.getValueAtPercentile(50), lessThanOrEqualTo(5000L + 5000L / 32));
+		assertThat(histogram.getValueAtPercentile(99), greaterThanOrEqualTo(9900L));
+		assertThat(histogram.getValueAtPercentile(100), is(10000L));
+
+		histogram.reset();
+		assertThat(histogram.getCount(), is(0L));
+		assertThat(histogram.getValueAtPercentile(99), is(0L));
+	}
+
+	@Test
+	public void bucketsCoverEveryValue() {
+		for (long value : new long[] { 0, 1, 63, 64, 65, 1000, 1L << 40, Long.MAX_VALUE }) {
+			int index = LatencyHistogram.bucketIndex(value);
+			assertThat(LatencyHistogram.highestValue(index), greaterThanOrEqualTo(value));
+			if (index > 0) {
+				assertThat(LatencyHistogram.highestValue(index - 1), is(lessThanOrEqualTo(value - 1)));
+			}
+		}
+	}
+
+	@Test
+	public void countsTradesAndMissingFields() {
+		ReportMetrics metrics = new ReportMetrics(1);
+		DailyTradeReport report = new DailyTradeAggregator(SettlementCalendar.standard()).instrument(metrics)
+				.acceptAll(TRADES).toReport();
+
+		assertThat(report.getTotalAmountByDate("S").get(MONDAY), is(BigDecimal.ZERO));
+		assertThat(metrics.getTradesProcessed(), is(4L));
+		assertThat(metrics.getTradesSkipped(), is(2L));
+		assertThat(metrics.getMissingCount(MissingField.BUY_SELL_INDICATOR), is(1L));
+		assertThat(metrics.getMissingCount(MissingField.SETTLEMENT_DATE), is(1L));
+		assertThat(metrics.getMissingCount(MissingField.AGREED_FX), is(2L));
+		assertThat(metrics.getMissingCount(MissingField.UNITS), is(0L));
+		assertThat(metrics.getLatency(ReportStage.SETTLEMENT_ADJUSTMENT).getCount(), is(2L));
+		assertThat(metrics.getLatency(ReportStage.AMOUNT).getCount(), is(2L));
+		assertThat(metrics.getLatency(ReportStage.AGGREGATION).getCount(), is(1L));
+		assertThat(metrics.getLatency(ReportStage.RANKING).getCount(), is(1L));
+	}
+
+	@Test
+	public void samplesStagesOfBatches() {
+		List<TradeEvent> trades = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			trades.add(TRADES.get(0));
+		}
+		ReportMetrics metrics = new ReportMetrics(10);
+		new DailyTradeAggregator(SettlementCalendar.standard()).instrument(metrics).accept(TradeBatch.of(trades));
+
+		assertThat(metrics.getTradesProcessed(), is(100L));
+		assertThat(metrics.getLatency(ReportStage.GROUPING).getCount(), is(10L));
+		assertThat(metrics.getLatency(ReportStage.AGGREGATION).getCount(), is(1L));
+	}
+
+	@Test
+	public void disabledMetricsRecordNothing() {
+		ReportMetrics global = ReportMetrics.global();
+		DailyTradeAggregator.aggregate(TRADES, SettlementCalendar.standard());
+		assertThat(global.getTradesProcessed(), is(0L));
+
+		ReportMetrics disabled = new ReportMetrics();
+		disabled.setEnabled(false);
+		new DailyTradeAggregator(SettlementCalendar.standard()).instrument(disabled).acceptAll(TRADES).toReport();
+		assertThat(disabled.getTradesProcessed(), is(0L));
+		assertThat(disabled.getLatency(ReportStage.RANKING).getCount(), is(0L));
+	}
+
+	@Test
+	public void publishesToSinkAndJmx() throws Exception {
+		ReportMetrics metrics = new ReportMetrics(1);
+		new DailyTradeAggregator(SettlementCalendar.standard()).instrument(metrics).acceptAll(TRADES).toReport();
+		List<String> names = new ArrayList<>();
+		metrics.publishTo(new MetricsSink() {
+			@Override
+			public void counter(String name, long value) {
+				names.add(name);
+			}
+
+			@Override
+			public void latency(String name, LatencyHistogram histogram) {
+				names.add(name);
+			}
+		});
+		assertThat(names, hasItems("trades.processed", "trades.skipped", "trades.missing.agreed.fx",
+				"stage.settlement.adjustment", "stage.ranking"));
+
+		metrics.registerMBean();
+		ObjectName name = new ObjectName(ReportMetrics.OBJECT_NAME);
+		try {
+			assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TradesSkipped"), is(2L));
+			ReportMetricsMXBean proxy = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(), name,
+					ReportMetricsMXBean.class);
+			assertThat(proxy.getStageCounts().get("AGGREGATION"), is(1L));
+		} finally {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+	}
+
+	private static TradeEvent trade(Optional<String> buySellIndicator, Optional<LocalDate> settlementDate,
+			Optional<BigDecimal> agreedFx) {
+		return TestTrades.trade("JPMC", buySellIndicator.orElse(null), TestTrades.USD, settlementDate.orElse(null), 5,
+				BigDecimal.TEN, agreedFx.orElse(null));
+	}
+}
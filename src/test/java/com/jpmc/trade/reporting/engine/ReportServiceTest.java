@@ -0,0 +1,132 @@
+package com.jpmc.trade.reporting.engine;
+
+import static com.jpmc.trade.reporting.engine.TestTrades.trade;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for ReportService through its local client.
+ */
+public class ReportServiceTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	private static final List<TradeEvent> TRADES = ImmutableList.of(
+			trade("JPMC", "B", MONDAY, 5),
+			trade("MS", "B", MONDAY, 10),
+			trade("IBM", "B", MONDAY.plusDays(1), 1),
+			trade("Apple", "B", MONDAY.plusDays(2), 1),
+			trade("Apple", "S", MONDAY, 15));
+
+	@Test
+	public void servesConcurrentRequestsFromSnapshot() throws Exception {
+		try (ReportService service = new ReportService(DailyTradeAggregator.aggregate(TRADES), 4, 1000)) {
+			ReportClient client = service;
+			List<CompletableFuture<ReportResult>> results = new ArrayList<>();
+			for (int i = 0; i < 500; i++) {
+				results.add(client.submit(new ReportRequest(i % 2 == 0 ? ReportType.TOTAL_AMOUNT : ReportType.RANKING,
+						"b", MONDAY, MONDAY.plusDays(1))));
+			}
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+
+			ReportResult totals = results.get(0).get();
+			assertThat(new ArrayList<>(totals.getTotalAmountByDate().keySet()),
+					is(ImmutableList.of(MONDAY, MONDAY.plusDays(1))));
+			assertThat(totals.getTotalAmountByDate().get(MONDAY), is(BigDecimal.valueOf(1500)));
+			assertThat(results.get(1).get().getTopStockByDate().get(MONDAY), is("MS"));
+			assertThat(service.getPendingCount(), is(0));
+		}
+	}
+
+	@Test
+	public void runningRequestsKeepTheirSnapshot() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		try (ReportService service = gatedService(1, 10, gate)) {
+			CompletableFuture<ReportResult> before = service
+					.submit(new ReportRequest(ReportType.RANKING, "B", MONDAY, MONDAY));
+			service.publish(ImmutableList.of(trade("IBM", "B", MONDAY, 100)));
+			gate.countDown();
+
+			assertThat(before.get().getTopStockByDate().get(MONDAY), is("MS"));
+			assertThat(service.submit(new ReportRequest(ReportType.RANKING, "B", MONDAY, MONDAY)).get()
+					.getTopStockByDate().get(MONDAY), is("IBM"));
+		}
+	}
+
+	@Test
+	public void rejectsBeyondMaxPending() throws Exception {
+		CountDownLatch gate = new CountDownLatch(1);
+		try (ReportService service = gatedService(1, 2, gate)) {
+			ReportRequest request = new ReportRequest(ReportType.TOTAL_AMOUNT, "S", MONDAY, MONDAY);
+			CompletableFuture<ReportResult> first = service.submit(request);
+			CompletableFuture<ReportResult> second = service.submit(request);
+			CompletableFuture<ReportResult> rejected = service.submit(request);
+
+			assertThat(rejected.isCompletedExceptionally(), is(true));
+			try {
+				rejected.get();
+				fail("expected a rejection");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+			}
+
+			gate.countDown();
+			assertThat(first.get().getTotalAmountByDate().get(MONDAY), is(BigDecimal.valueOf(1500)));
+			second.get();
+			assertThat(service.submit(request).get().getTotalAmountByDate().size(), is(1));
+		}
+	}
+
+	@Test
+	public void answersOnlyTheRequestedReportType() throws Exception {
+		try (ReportService service = new ReportService(DailyTradeAggregator.aggregate(TRADES), 1, 10)) {
+			ReportResult ranking = service.submit(new ReportRequest(ReportType.RANKING, "B", MONDAY, MONDAY)).get();
+
+			assertThat(ranking.getTopStockByDate().get(MONDAY), is("MS"));
+			try {
+				ranking.getTotalAmountByDate();
+				fail("expected only the ranking rows");
+			} catch (IllegalStateException expected) {
+				// a ranking carries no totals
+			}
+		}
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void rejectsRequestWithoutRange() {
+		new ReportRequest(ReportType.RANKING, "B", null, MONDAY);
+	}
+
+	/**
+	 * @return a service whose requests wait for the gate to open before they run
+	 */
+	private static ReportService gatedService(int maxConcurrency, int maxPending, CountDownLatch gate) {
+		ThreadFactory gated = task -> Thread.ofVirtual().unstarted(() -> {
+			try {
+				gate.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			task.run();
+		});
+		return new ReportService(DailyTradeAggregator.aggregate(TRADES), maxConcurrency, maxPending,
+				Executors.newThreadPerTaskExecutor(gated));
+	}
+}
@@ -0,0 +1,123 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+
+/**
+ * Unit test for SettlementCalendar.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class SettlementCalendarTest {
+
+	private static final Currency AED = Currency.getInstance("AED");
+	private static final Currency USD = Currency.getInstance("USD");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	@Parameters({
+		//Arab currencies skip Friday and Saturday
+		"AED, 2017-12-01, 2017-12-03",
+		"SAR, 2017-12-02, 2017-12-03",
+		"AED, 2017-12-03, 2017-12-03",
+		//Other currencies skip Saturday and Sunday
+		"USD, 2017-12-02, 2017-12-04",
+		"GBP, 2017-12-03, 2017-12-04",
+		"INR, 2017-12-01, 2017-12-01",
+		//Year end
+		"USD, 2016-12-31, 2017-01-02" })
+	public void standardWeekends(String currencyCode, String settlementDate, String expectedWorkingDay) {
+		LocalDate workingDay = SettlementCalendar.standard()
+				.nextWorkingDay(Currency.getInstance(currencyCode), LocalDate.parse(settlementDate));
+		assertThat(workingDay, is(LocalDate.parse(expectedWorkingDay)));
+	}
+
+	@Test
+	public void standardMatchesWeekendRuleOnEveryDay() {
+		SettlementCalendar calendar = SettlementCalendar.standard();
+		for (LocalDate date = LocalDate.of(1969, 6, 1); date.isBefore(LocalDate.of(2031, 1, 1)); date = date.plusDays(1)) {
+			assertThat(calendar.nextWorkingDay(AED, date), is(nextWorkingDay(date, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)));
+			assertThat(calendar.nextWorkingDay(USD, date), is(nextWorkingDay(date, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)));
+			assertThat(calendar.nextWorkingDay(null, date), is(nextWorkingDay(date, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)));
+		}
+	}
+
+	@Test
+	public void holidaysFromFile() throws IOException {
+		Path holidayFile = folder.newFile("holidays.csv").toPath();
+		Files.write(holidayFile, Arrays.asList(
+				"# currency,date",
+				"USD,2017-12-25",
+				"",
+				"*,2018-01-01",
+				"aed,2017-12-03"), StandardCharsets.UTF_8);
+
+		SettlementCalendar calendar = SettlementCalendar.builder()
+				.weekend("AED", DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)
+				.loadHolidays(holidayFile)
+				.build();
+
+		assertThat(calendar.nextWorkingDay(USD, LocalDate.of(2017, 12, 23)), is(LocalDate.of(2017, 12, 26)));
+		assertThat(calendar.nextWorkingDay(USD, LocalDate.of(2017, 12, 30)), is(LocalDate.of(2018, 1, 2)));
+		assertThat(calendar.nextWorkingDay(AED, LocalDate.of(2017, 12, 1)), is(LocalDate.of(2017, 12, 4)));
+		assertThat(calendar.nextWorkingDay(AED, LocalDate.of(2017, 12, 25)), is(LocalDate.of(2017, 12, 25)));
+		assertThat(calendar.isWorkingDay(AED, LocalDate.of(2018, 1, 1)), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMalformedHolidayFile() throws IOException {
+		Path holidayFile = folder.newFile("broken.csv").toPath();
+		Files.write(holidayFile, Arrays.asList("USD;2017-12-25"), StandardCharsets.UTF_8);
+
+		SettlementCalendar.builder().loadHolidays(holidayFile);
+	}
+
+	@Test
+	public void reportUsesCalendar() {
+		TradeEvent christmasTrade = new TradeEventBuilder()
+				.setStockName(Optional.of("JPMC"))
+				.setBuySellIndicator(Optional.of("B"))
+				.setCurrency(Optional.of(USD))
+				.setSettlementDate(Optional.of(LocalDate.of(2017, 12, 25)))
+				.setUnits(Optional.of(1))
+				.setPricePerUnit(Optional.of(BigDecimal.ONE))
+				.setAgreedFx(Optional.of(BigDecimal.ONE))
+				.build();
+		SettlementCalendar calendar = SettlementCalendar.builder().holiday("USD", LocalDate.of(2017, 12, 25)).build();
+
+		DailyTradeReport report = DailyTradeReporter.dailyReport(ImmutableList.of(christmasTrade), calendar);
+
+		assertThat(report.getTopStockByDate("B").get(LocalDate.of(2017, 12, 26)), is("JPMC"));
+		assertThat(christmasTrade.getSettlementDate().get(), is(LocalDate.of(2017, 12, 25)));
+	}
+
+	private static LocalDate nextWorkingDay(LocalDate date, DayOfWeek firstWeekendDay, DayOfWeek secondWeekendDay) {
+		while (date.getDayOfWeek() == firstWeekendDay || date.getDayOfWeek() == secondWeekendDay) {
+			date = date.plusDays(1);
+		}
+		return date;
+	}
+}
@@ -0,0 +1,163 @@
+package com.jpmc.trade.reporting.engine;
+
+import static com.jpmc.trade.reporting.engine.TestTrades.trade;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for StreamingTradeReporter.
+ */
+public class StreamingTradeReporterTest {
+
+	private static final LocalDate WEDNESDAY = LocalDate.of(2017, 12, 6);
+
+	@Test
+	public void snapshotsMatchBatchReport() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(
+				trade("JPMC", "B", WEDNESDAY, 5),
+				trade("MS", "B", WEDNESDAY, 10),
+				trade("Apple", "S", WEDNESDAY, 15),
+				trade("IBM", "B", WEDNESDAY.plusDays(1), 1));
+
+		StreamingTradeReporter reporter = new StreamingTradeReporter();
+		reporter.accept(tradeEvents.get(0)).acceptAll(tradeEvents.subList(1, tradeEvents.size()));
+
+		DailyTradeReport batch = DailyTradeReporter.dailyReport(tradeEvents);
+		assertThat(reporter.snapshot().getSummaries("B"), is(batch.getSummaries("B")));
+		assertThat(reporter.snapshot().getSummaries("S"), is(batch.getSummaries("S")));
+	}
+
+	@Test
+	public void retractsAndAmendsTrades() {
+		TradeEvent jpmc = trade("JPMC", "B", WEDNESDAY, 5);
+		TradeEvent ms = trade("MS", "B", WEDNESDAY, 10);
+		StreamingTradeReporter reporter = new StreamingTradeReporter().accept(jpmc).accept(ms);
+
+		DailyTradeReport beforeRetraction = reporter.snapshot();
+		assertThat(reporter.retract(ms), is(true));
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY), is(BigDecimal.valueOf(500)));
+		assertThat(reporter.findRankingGroupByDate("B").get(WEDNESDAY), is("JPMC"));
+		assertThat(beforeRetraction.getTopStockByDate("B").get(WEDNESDAY), is("MS"));
+
+		assertThat(reporter.amend(jpmc, trade("JPMC", "B", WEDNESDAY.plusDays(1), 20)), is(true));
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY), nullValue());
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY.plusDays(1)), is(BigDecimal.valueOf(2000)));
+	}
+
+	@Test
+	public void ignoresUnknownRetraction() {
+		StreamingTradeReporter reporter = new StreamingTradeReporter().accept(trade("JPMC", "B", WEDNESDAY, 5));
+
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 6)), is(false));
+		assertThat(reporter.retract(trade("JPMC", "S", WEDNESDAY, 5)), is(false));
+		assertThat(reporter.amend(trade("MS", "B", WEDNESDAY, 5), trade("MS", "B", WEDNESDAY, 7)), is(false));
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY), is(BigDecimal.valueOf(500)));
+	}
+
+	@Test
+	public void retractsOnlyTradesIngested() {
+		StreamingTradeReporter reporter = new StreamingTradeReporter().accept(trade("JPMC", "B", WEDNESDAY, 5));
+		// another currency and agreed fx, the same action, working date, entity and amount
+		TradeEvent sameAmount = trade("JPMC", "b", Currency.getInstance("GBP"), WEDNESDAY, 50, BigDecimal.TEN,
+				BigDecimal.ONE);
+		// the same trade but for the scale of the price
+		TradeEvent otherScale = trade("JPMC", "B", TestTrades.USD, WEDNESDAY, 5, new BigDecimal("10.0"),
+				BigDecimal.TEN);
+
+		assertThat(reporter.retract(sameAmount), is(false));
+		assertThat(reporter.retract(otherScale), is(false));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 5)), is(true));
+		assertThat(reporter.snapshot().getSummaries("B").isEmpty(), is(true));
+	}
+
+	@Test
+	public void retractsTradesAcceptedInColumns() {
+		List<TradeEvent> tradeEvents = TradeGenerator.standard().generate(500);
+		StreamingTradeReporter reporter = new StreamingTradeReporter().acceptAll(TradeBatch.of(tradeEvents));
+
+		for (TradeEvent tradeEvent : tradeEvents) {
+			assertThat(reporter.retract(tradeEvent), is(tradeEvent.getBuySellIndicator().isPresent()
+					&& tradeEvent.getSettlementDate().isPresent()));
+		}
+		assertThat(reporter.snapshot().getBuySellIndicators().isEmpty(), is(true));
+	}
+
+	@Test
+	public void keepsTradesBeyondTheLimitOfAnEntityButCannotRetractThem() {
+		StreamingTradeReporter reporter = new StreamingTradeReporter(SettlementCalendar.standard(), false, 10, 2)
+				.accept(trade("JPMC", "B", WEDNESDAY, 1))
+				.accept(trade("JPMC", "B", WEDNESDAY, 1))
+				.accept(trade("JPMC", "B", WEDNESDAY, 2))
+				.accept(trade("JPMC", "B", WEDNESDAY, 3))
+				.accept(trade("MS", "B", WEDNESDAY, 3));
+
+		assertThat(reporter.getUnretractableTradeCount(), is(1L));
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY), is(BigDecimal.valueOf(1000)));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 3)), is(false));
+		assertThat(reporter.retract(trade("MS", "B", WEDNESDAY, 3)), is(true));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 1)), is(true));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 1)), is(true));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 1)), is(false));
+		assertThat(reporter.snapshot().getTradeCountByDate("B").get(WEDNESDAY), is(2L));
+	}
+
+	@Test
+	public void leaderboardFollowsTradesAndRetractions() {
+		StreamingTradeReporter reporter = new StreamingTradeReporter(SettlementCalendar.standard(), false, 3, 100);
+		List<TradeEvent> live = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			TradeEvent tradeEvent = trade("stock" + i * 7 % 11, "B", WEDNESDAY.plusDays(i % 2), i % 13 + 1);
+			reporter.accept(tradeEvent);
+			live.add(tradeEvent);
+			if (i % 3 == 2) {
+				// retract from the leader so it may drop behind entities outside the leaderboard
+				String leader = reporter.getTopEntities("B", tradeEvent.getSettlementDate().get()).get(0)
+						.getStockName();
+				TradeEvent retracted = live.stream()
+						.filter(trade -> trade.getStockName().get().equals(leader)
+								&& trade.getSettlementDate().equals(tradeEvent.getSettlementDate()))
+						.max(Comparator.comparing(trade -> trade.getUnits().get())).get();
+				live.remove(retracted);
+				assertThat(reporter.retract(retracted), is(true));
+			}
+			if (i % 10 == 0) {
+				DailyTradeReport expected = DailyTradeReporter.dailyReport(live);
+				assertThat(reporter.findRankingGroupByDate("B"), is(expected.getTopStockByDate("B")));
+				assertThat(reporter.dailyTotalAmountGroupByDate("B"), is(expected.getTotalAmountByDate("B")));
+				assertThat(reporter.getTopEntities("B", WEDNESDAY),
+						is(expected.getTopEntitiesByDate("B", 3).get(WEDNESDAY)));
+			}
+		}
+		assertThat(reporter.getTopEntities("S", WEDNESDAY).isEmpty(), is(true));
+	}
+
+	@Test
+	public void dropsReplayedTrades() {
+		StreamingTradeReporter reporter = new StreamingTradeReporter(SettlementCalendar.standard(), true)
+				.accept(trade("JPMC", "B", WEDNESDAY, 5))
+				.acceptAll(ImmutableList.of(trade("JPMC", "B", WEDNESDAY, 5), trade("MS", "B", WEDNESDAY, 5)))
+				.acceptAll(TradeBatch.of(ImmutableList.of(trade("MS", "B", WEDNESDAY, 5))));
+
+		assertThat(reporter.getDuplicateCount(), is(2L));
+		assertThat(reporter.snapshot().getTradeCountByDate("B").get(WEDNESDAY), is(2L));
+
+		// a retracted trade is accepted again, a trade never ingested leaves the duplicates untouched
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 5)), is(true));
+		assertThat(reporter.retract(trade("JPMC", "B", WEDNESDAY, 5)), is(false));
+		reporter.accept(trade("JPMC", "B", WEDNESDAY, 5)).accept(trade("MS", "B", WEDNESDAY, 5));
+		assertThat(reporter.getDuplicateCount(), is(3L));
+		assertThat(reporter.dailyTotalAmountGroupByDate("B").get(WEDNESDAY), is(BigDecimal.valueOf(1000)));
+	}
+}
@@ -0,0 +1,43 @@
+package com.jpmc.trade.reporting.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.Optional;
+
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Trades for the unit tests, settled in USD at a price and agreed fx of 10 unless given.
+ */
+final class TestTrades {
+
+	static final Currency USD = Currency.getInstance("USD");
+
+	private TestTrades() {
+	}
+
+	static TradeEvent trade(String stockName, String action, LocalDate settlementDate, int units) {
+		return trade(stockName, action, USD, settlementDate, units);
+	}
+
+	static TradeEvent trade(String stockName, String action, Currency currency, LocalDate settlementDate, int units) {
+		return trade(stockName, action, currency, settlementDate, units, BigDecimal.TEN, BigDecimal.TEN);
+	}
+
+	/**
+	 * Null action, currency, settlement date, price or agreed fx are left absent.
+	 */
+	static TradeEvent trade(String stockName, String action, Currency currency, LocalDate settlementDate, int units,
+			BigDecimal pricePerUnit, BigDecimal agreedFx) {
+		return new TradeEventBuilder()
+				.setStockName(Optional.of(stockName))
+				.setBuySellIndicator(Optional.ofNullable(action))
+				.setCurrency(Optional.ofNullable(currency))
+				.setSettlementDate(Optional.ofNullable(settlementDate))
+				.setUnits(Optional.of(units))
+				.setPricePerUnit(Optional.ofNullable(pricePerUnit))
+				.setAgreedFx(Optional.ofNullable(agreedFx))
+				.build();
+	}
+}
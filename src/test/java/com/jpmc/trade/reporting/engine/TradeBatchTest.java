@@ -0,0 +1,79 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for TradeBatch.
+ */
+public class TradeBatchTest {
+
+	private static final LocalDate SATURDAY = LocalDate.of(2017, 12, 2);
+
+	@Test
+	public void roundTripsTradeEvents() {
+		TradeEvent complete = tradeBuilder("JPMC", "B", "AED", new BigDecimal("0.50"), 200, new BigDecimal("100.25"))
+				.setInstructionDate(Optional.of(SATURDAY.minusDays(1)))
+				.build();
+		TradeEvent sparse = TradeEvent.tradeEvent().setBuySellIndicator(Optional.of("S")).build();
+
+		TradeBatch batch = TradeBatch.of(ImmutableList.of(complete, sparse));
+		List<TradeEvent> roundTrip = batch.toTradeEvents();
+
+		assertThat(batch.size(), is(2));
+		assertThat(roundTrip.get(0).getAgreedFx(), is(complete.getAgreedFx()));
+		assertThat(roundTrip.get(0).getPricePerUnit(), is(complete.getPricePerUnit()));
+		assertThat(roundTrip.get(0).getInstructionDate(), is(complete.getInstructionDate()));
+		assertThat(roundTrip.get(0).getCurrency(), is(complete.getCurrency()));
+		assertThat(roundTrip.get(1).getStockName(), is(Optional.<String>empty()));
+		assertThat(roundTrip.get(1).getUnits(), is(Optional.<Integer>empty()));
+		assertThat(roundTrip.get(1).getBuySellIndicator(), is(Optional.of("S")));
+	}
+
+	@Test
+	public void aggregatesLikeTheTradeEventList() {
+		List<TradeEvent> tradeEvents = ImmutableList.of(
+				tradeBuilder("JPMC", "B", "AED", new BigDecimal("0.50"), 200, new BigDecimal("100.25")).build(),
+				tradeBuilder("MS", "B", "USD", new BigDecimal("0.2"), 10, BigDecimal.TEN).build(),
+				tradeBuilder("MS", "s", "SAR", BigDecimal.ONE, 15, BigDecimal.ONE).build(),
+				tradeBuilder("IBM", "S", "GBP", null, 3, BigDecimal.ONE).build());
+
+		TradeBatch.Builder builder = TradeBatch.builder();
+		tradeEvents.forEach(builder::add);
+		builder.add(tradeBuilder("Apple", "B", "USD", BigDecimal.ONE, 1, BigDecimal.ONE));
+		TradeBatch batch = builder.build();
+
+		DailyTradeReport expected = DailyTradeAggregator.aggregate(
+				ImmutableList.<TradeEvent>builder().addAll(tradeEvents)
+						.add(tradeBuilder("Apple", "B", "USD", BigDecimal.ONE, 1, BigDecimal.ONE).build()).build());
+		DailyTradeReport actual = DailyTradeReporter.dailyReport(batch);
+
+		assertThat(actual.getSummaries("B"), is(expected.getSummaries("B")));
+		assertThat(actual.getSummaries("S"), is(expected.getSummaries("S")));
+		assertThat(actual.getTotalAmountByDate("B").get(SATURDAY.plusDays(1)), is(new BigDecimal("10025.0000")));
+		assertThat(actual.getTotalAmountByDate("B").get(SATURDAY.plusDays(2)), is(new BigDecimal("21.0")));
+	}
+
+	private static TradeEventBuilder tradeBuilder(String entity, String buySell, String currency, BigDecimal agreedFx,
+			int units, BigDecimal pricePerUnit) {
+		return new TradeEventBuilder()
+				.setStockName(Optional.of(entity))
+				.setBuySellIndicator(Optional.of(buySell))
+				.setCurrency(Optional.of(Currency.getInstance(currency)))
+				.setSettlementDate(Optional.of(SATURDAY))
+				.setAgreedFx(Optional.ofNullable(agreedFx))
+				.setUnits(Optional.of(units))
+				.setPricePerUnit(Optional.of(pricePerUnit));
+	}
+}
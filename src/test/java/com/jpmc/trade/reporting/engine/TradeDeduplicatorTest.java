@@ -0,0 +1,87 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for TradeDeduplicator and the identity of TradeEvent.
+ */
+public class TradeDeduplicatorTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	@Test
+	public void equalTradesShareFingerprint() {
+		TradeEvent trade = trade("JPMC", 5, new BigDecimal("0.50"));
+		TradeEvent copy = trade("JPMC", 5, new BigDecimal("0.50"));
+
+		assertThat(copy, is(trade));
+		assertThat(copy.fingerprint(), is(trade.fingerprint()));
+		assertThat(copy.hashCode(), is(trade.hashCode()));
+		assertThat(trade("JPMC", 5, new BigDecimal("0.5")), is(not(trade)));
+		assertThat(trade("JPMC", 6, new BigDecimal("0.50")).fingerprint(), is(not(trade.fingerprint())));
+		assertThat(trade.withSettlementDate(Optional.of(MONDAY.plusDays(1))), is(not(trade)));
+		assertThat(trade.withSettlementDate(Optional.of(MONDAY)), is(trade));
+	}
+
+	@Test
+	public void formatsFieldsWithoutOptionalWrappers() {
+		TradeEvent trade = TradeEvent.tradeEvent().setStockName(Optional.of("JPMC")).setUnits(Optional.of(5)).build();
+
+		assertThat(trade.toString(), is("TradeEvent[stockName=JPMC,buySellIndicator=<empty>,instructionDate=<empty>,"
+				+ "settlementDate=<empty>,currency=<empty>,agreedFx=<empty>,units=5,pricePerUnit=<empty>]"));
+	}
+
+	@Test
+	public void filtersReplays() {
+		List<TradeEvent> feed = ImmutableList.of(
+				trade("JPMC", 5, BigDecimal.ONE),
+				trade("MS", 5, BigDecimal.ONE),
+				trade("JPMC", 5, BigDecimal.ONE),
+				trade("JPMC", 6, BigDecimal.ONE));
+		TradeDeduplicator deduplicator = new TradeDeduplicator();
+
+		List<TradeEvent> distinct = feed.stream().filter(deduplicator).collect(Collectors.toList());
+
+		assertThat(distinct, is(ImmutableList.of(feed.get(0), feed.get(1), feed.get(3))));
+		assertThat(deduplicator.getDuplicateCount(), is(1L));
+		assertThat(deduplicator.size(), is(3));
+	}
+
+	@Test
+	public void matchesHashSetAcrossGrowthAndRemovals() {
+		Random random = new Random(42);
+		TradeDeduplicator deduplicator = new TradeDeduplicator();
+		Set<TradeEvent> expected = new HashSet<>();
+		for (int i = 0; i < 20000; i++) {
+			TradeEvent trade = trade("E" + random.nextInt(50), random.nextInt(100), BigDecimal.ONE);
+			if (random.nextInt(3) == 0) {
+				assertThat(deduplicator.remove(trade), is(expected.remove(trade)));
+			} else {
+				assertThat(deduplicator.test(trade), is(expected.add(trade)));
+			}
+		}
+		assertThat(deduplicator.size(), is(expected.size()));
+		for (TradeEvent trade : expected) {
+			assertThat(deduplicator.contains(trade), is(true));
+		}
+	}
+
+	private static TradeEvent trade(String entity, int units, BigDecimal agreedFx) {
+		return TestTrades.trade(entity, "B", TestTrades.USD, MONDAY, units, BigDecimal.TEN, agreedFx);
+	}
+}
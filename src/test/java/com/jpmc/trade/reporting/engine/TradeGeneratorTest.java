@@ -0,0 +1,142 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for TradeGenerator.
+ */
+public class TradeGeneratorTest {
+
+	private static final Currency AED = Currency.getInstance("AED");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sameSeedGeneratesSameTrades() {
+		TradeGenerator generator = TradeGenerator.builder().setSeed(7).build();
+
+		List<TradeEvent> trades = generator.generate(1000);
+
+		assertThat(TradeGenerator.builder().setSeed(7).build().generate(1000), is(trades));
+		assertThat(TradeGenerator.builder().setSeed(8).build().generate(1000), is(not(trades)));
+		// any trade can be generated on its own
+		assertThat(generator.tradeEvent(123), is(trades.get(123)));
+		assertThat(generator.generateBatch(1000).toTradeEvents(), is(trades));
+	}
+
+	@Test
+	public void consecutiveTradesAreIndependent() {
+		TradeGenerator generator = TradeGenerator.standard();
+		Currency usd = Currency.getInstance("USD");
+		int[] usdTrades = new int[2];
+		int[] total = new int[2];
+		TradeRecord previous = new TradeRecord();
+		TradeRecord current = new TradeRecord();
+
+		for (int index = 1; index < 200000; index++) {
+			generator.generate(index - 1, previous);
+			generator.generate(index, current);
+			int cheap = previous.getPricePerUnitUnscaled() <= 40000 ? 0 : 1;
+			total[cheap]++;
+			if (current.getCurrency().equals(usd)) {
+				usdTrades[cheap]++;
+			}
+		}
+
+		// USD is 40% of the default mix whatever the price of the trade before
+		assertThat((double) usdTrades[0] / total[0], closeTo(0.4, 0.01));
+		assertThat((double) usdTrades[1] / total[1], closeTo(0.4, 0.01));
+	}
+
+	@Test
+	public void entitiesFollowZipf() {
+		TradeGenerator generator = TradeGenerator.builder().setEntities(1000).setZipfExponent(1).build();
+		int[] counts = new int[generator.getEntities()];
+		int trades = 200000;
+
+		generator.forEach(0, trades, record -> counts[Integer.parseInt(record.getStockName().substring(1))]++);
+
+		for (int rank : new int[] { 0, 1, 9 }) {
+			double share = generator.getEntityShare(rank);
+			assertThat((double) counts[rank] / trades, closeTo(share, 4 * Math.sqrt(share / trades)));
+		}
+		assertThat(generator.getEntityShare(0) / generator.getEntityShare(9), closeTo(10, 1e-9));
+	}
+
+	@Test
+	public void settlesTheWeekendShareOnNonWorkingDaysOfTheCurrency() {
+		TradeGenerator generator = TradeGenerator.builder()
+				.addCurrency("AED", 1)
+				.addCurrency("USD", 1)
+				.setWeekendShare(0.5)
+				.build();
+		SettlementCalendar calendar = SettlementCalendar.standard();
+		int[] weekend = new int[2];
+		int[] total = new int[2];
+		int[] aedFridays = new int[1];
+
+		generator.forEach(0, 100000, record -> {
+			LocalDate settlementDate = LocalDate.ofEpochDay(record.getSettlementEpochDay());
+			int currency = record.getCurrency().equals(AED) ? 0 : 1;
+			total[currency]++;
+			if (!calendar.isWorkingDay(record.getCurrency(), settlementDate)) {
+				weekend[currency]++;
+			}
+			if (currency == 0 && settlementDate.getDayOfWeek() == DayOfWeek.FRIDAY) {
+				aedFridays[0]++;
+			}
+			assertThat(record.getInstructionEpochDay() <= record.getSettlementEpochDay(), is(true));
+		});
+
+		assertThat((double) total[0] / 100000, closeTo(0.5, 0.01));
+		assertThat((double) weekend[0] / total[0], closeTo(0.5, 0.01));
+		assertThat((double) weekend[1] / total[1], closeTo(0.5, 0.01));
+		assertThat((double) aedFridays[0] / total[0], closeTo(0.25, 0.01));
+	}
+
+	@Test
+	public void textAndBinaryFormsHoldTheSameTrades() throws IOException {
+		TradeGenerator generator = TradeGenerator.builder().setEntities(50).build();
+		Path text = folder.newFile("trades.csv").toPath();
+		Path binary = folder.newFile("trades.bin").toPath();
+		int trades = 20000;
+
+		assertThat(generator.writeText(text, trades), is((long) trades));
+		assertThat(generator.writeBinary(binary, trades), is((long) trades));
+
+		DailyTradeReport expected = DailyTradeReporter.dailyReport(generator.generate(trades));
+		DailyTradeReport fromText = TradeTextParser.aggregate(text, (lineNumber, line, reason) -> {
+			throw new AssertionError("Rejected line " + lineNumber + " " + line + ": " + reason);
+		});
+		DailyTradeReport fromBinary = MappedTradeFileReader.aggregate(binary);
+		for (String action : ImmutableList.of("B", "S")) {
+			assertThat(fromText.getSummaries(action), is(expected.getSummaries(action)));
+			assertThat(fromBinary.getSummaries(action), is(expected.getSummaries(action)));
+		}
+		try (MappedTradeFileReader reader = new MappedTradeFileReader(binary)) {
+			assertThat(reader.readTradeEvents(), is(generator.generate(trades)));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsWeekendShareAboveOne() {
+		TradeGenerator.builder().setWeekendShare(1.5);
+	}
+}
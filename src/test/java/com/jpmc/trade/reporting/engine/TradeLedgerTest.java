@@ -0,0 +1,181 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit test for TradeLedger and its snapshots.
+ */
+public class TradeLedgerTest {
+
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+	private static final LocalDate SATURDAY = LocalDate.of(2017, 12, 2);
+	private static final LocalDate MONDAY = LocalDate.of(2017, 12, 4);
+
+	@Test
+	public void olderSnapshotsNeverChange() {
+		TradeLedger ledger = new TradeLedger(SettlementCalendar.standard(), 3);
+		TradeSnapshot empty = ledger.snapshot();
+		TradeSnapshot first = ledger.append(ImmutableList.of(trade("JPMC", "B", FRIDAY, 1), trade("ANZ", "B", FRIDAY, 2)));
+		BigDecimal firstTotal = first.dailyTotalAmountGroupByDate("B").get(FRIDAY);
+
+		TradeSnapshot second = ledger.append(ImmutableList.of(trade("ANZ", "B", FRIDAY, 5), trade("HSBC", "B", FRIDAY, 1)));
+
+		assertThat(ledger.snapshot(), is(second));
+		assertThat(empty.size(), is(0));
+		assertThat(empty.dailyReport().getBuySellIndicators().isEmpty(), is(true));
+		assertThat(first.size(), is(2));
+		assertThat(first.getVersion(), is(1L));
+		assertThat(first.getTradeEvents(), is(ImmutableList.of(trade("JPMC", "B", FRIDAY, 1),
+				trade("ANZ", "B", FRIDAY, 2))));
+		assertThat(first.dailyTotalAmountGroupByDate("B").get(FRIDAY), is(firstTotal));
+		assertThat(first.findRankingGroupByDate("B").get(FRIDAY), is("ANZ"));
+		assertThat(second.size(), is(4));
+		assertThat(second.getVersion(), is(2L));
+		assertThat(second.get(3), is(trade("HSBC", "B", FRIDAY, 1)));
+		assertThat(second.findRankingGroupByDate("B").get(FRIDAY), is("ANZ"));
+		assertThat(second.dailyTotalAmountGroupByDate("B").get(FRIDAY), is(new BigDecimal("13.50")));
+		assertThat(ledger.append(ImmutableList.of()), is(second));
+	}
+
+	@Test
+	public void reportsLikeTheReporterAcrossChunks() {
+		TradeLedger ledger = new TradeLedger(SettlementCalendar.standard(), 16);
+		List<TradeEvent> trades = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			List<TradeEvent> appended = new ArrayList<>();
+			for (int j = 0; j <= i % 37; j++) {
+				appended.add(trade("stock" + (i * 31 + j) % 97, j % 3 == 0 ? "S" : "b",
+						i % 2 == 0 ? SATURDAY : MONDAY, j + 1));
+			}
+			trades.addAll(appended);
+			TradeSnapshot snapshot = ledger.append(appended);
+			if (i % 100 == 0) {
+				snapshot.dailyReport();
+			}
+		}
+
+		TradeSnapshot snapshot = ledger.snapshot();
+		DailyTradeReport expected = DailyTradeReporter.dailyReport(trades);
+		assertThat(snapshot.getTradeEvents(), is(trades));
+		for (String action : ImmutableList.of("B", "S")) {
+			assertThat(snapshot.dailyReport().getSummaries(action), is(expected.getSummaries(action)));
+			assertThat(snapshot.findRankingGroupByDate(action), is(DailyTradeReporter.findRankingGroupByDate(trades,
+					action)));
+		}
+		assertThat(snapshot.dailyReport(), is(snapshot.dailyReport()));
+	}
+
+	@Test
+	public void reportsOnlyAggregateTheTradesAppendedSinceTheLastReport() {
+		TradeLedger ledger = new TradeLedger(SettlementCalendar.standard(), 4);
+		List<TradeEvent> trades = new ArrayList<>();
+		long aggregated = 0;
+		for (int i = 0; i < 50; i++) {
+			List<TradeEvent> appended = ImmutableList.of(trade("stock" + i % 7, "B", MONDAY, i + 1),
+					trade("stock" + i % 5, "S", MONDAY, 1), trade("stock" + i % 3, "B", FRIDAY, 2));
+			trades.addAll(appended);
+			TradeSnapshot snapshot = ledger.append(appended);
+
+			assertThat(snapshot.dailyReport().getSummaries("B"),
+					is(DailyTradeReporter.dailyReport(trades).getSummaries("B")));
+			// at most the chunk of 4 this append filled and the partial chunk of 3 left
+			assertThat(snapshot.getAggregatedTrades() - aggregated <= 4 + 3, is(true));
+			aggregated = snapshot.getAggregatedTrades();
+		}
+	}
+
+	@Test
+	public void reportsOlderSnapshotsAndBranchesFromTheirOwnTrades() {
+		TradeSnapshot base = TradeSnapshot.empty(SettlementCalendar.standard(), 2)
+				.append(ImmutableList.of(trade("JPMC", "B", MONDAY, 1), trade("ANZ", "B", MONDAY, 2),
+						trade("HSBC", "B", MONDAY, 3)));
+		TradeSnapshot left = base.append(ImmutableList.of(trade("JPMC", "B", MONDAY, 10), trade("JPMC", "B", MONDAY, 1)));
+		TradeSnapshot right = base.append(ImmutableList.of(trade("ANZ", "B", MONDAY, 20), trade("ANZ", "B", MONDAY, 1)));
+
+		assertThat(left.findRankingGroupByDate("B").get(MONDAY), is("JPMC"));
+		assertThat(right.findRankingGroupByDate("B").get(MONDAY), is("ANZ"));
+		assertThat(left.dailyTotalAmountGroupByDate("B").get(MONDAY), is(new BigDecimal("25.50")));
+		assertThat(right.dailyTotalAmountGroupByDate("B").get(MONDAY), is(new BigDecimal("40.50")));
+		assertThat(base.dailyTotalAmountGroupByDate("B").get(MONDAY), is(new BigDecimal("9.00")));
+	}
+
+	@Test
+	public void readersSeeWholeAppendsWhileWritersAppend() throws Exception {
+		TradeLedger ledger = new TradeLedger(SettlementCalendar.standard(), 64);
+		int writers = 2;
+		int appends = 500;
+		int tradesPerAppend = 10;
+		ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+		AtomicBoolean done = new AtomicBoolean();
+		try {
+			List<Future<?>> writing = new ArrayList<>();
+			for (int writer = 0; writer < writers; writer++) {
+				writing.add(executor.submit(() -> {
+					for (int append = 0; append < appends; append++) {
+						List<TradeEvent> trades = new ArrayList<>();
+						for (int i = 0; i < tradesPerAppend; i++) {
+							trades.add(trade("stock" + i, "B", MONDAY, 1));
+						}
+						ledger.append(trades);
+					}
+				}));
+			}
+			List<Future<Integer>> reading = new ArrayList<>();
+			for (int reader = 0; reader < 2; reader++) {
+				reading.add(executor.submit(() -> {
+					int reports = 0;
+					while (!done.get()) {
+						TradeSnapshot snapshot = ledger.snapshot();
+						assertThat(snapshot.size(), is((int) snapshot.getVersion() * tradesPerAppend));
+						long count = snapshot.size() == 0 ? 0
+								: snapshot.dailyReport().getTradeCountByDate("B").get(MONDAY);
+						assertThat(count, is((long) snapshot.size()));
+						reports++;
+					}
+					return reports;
+				}));
+			}
+			for (Future<?> future : writing) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+			done.set(true);
+			for (Future<Integer> future : reading) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(ledger.snapshot().size(), is(writers * appends * tradesPerAppend));
+		assertThat(ledger.snapshot().getVersion(), is((long) writers * appends));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void snapshotTradesAreUnmodifiable() {
+		new TradeLedger().append(ImmutableList.of(trade("JPMC", "B", FRIDAY, 1))).getTradeEvents().remove(0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void rejectsIndexBeyondSnapshot() {
+		new TradeLedger().append(ImmutableList.of(trade("JPMC", "B", FRIDAY, 1))).get(1);
+	}
+
+	private static TradeEvent trade(String stockName, String action, LocalDate settlementDate, int units) {
+		return TestTrades.trade(stockName, action, null, settlementDate, units, new BigDecimal("1.50"), BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,161 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for TradeStore.
+ */
+public class TradeStoreTest {
+
+	private static final LocalDate FRIDAY = LocalDate.of(2017, 12, 1);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void rangeReportsMatchInMemoryReport() throws IOException {
+		List<TradeEvent> tradeEvents = trades(2000);
+		TradeStore store = new TradeStore(folder.getRoot().toPath());
+		assertThat(store.append(tradeEvents.subList(0, 1000)), is(1000));
+		assertThat(store.append(tradeEvents.subList(1000, 2000)), is(1000));
+
+		LocalDate from = FRIDAY.plusDays(3);
+		LocalDate to = FRIDAY.plusDays(9);
+		DailyTradeReport expected = DailyTradeReporter.dailyReport(tradeEvents.stream()
+				.filter(trade -> {
+					LocalDate date = DailyTradeAggregator.workingSettlementDate(trade, SettlementCalendar.standard());
+					return !date.isBefore(from) && !date.isAfter(to);
+				})
+				.collect(Collectors.toList()));
+
+		DailyTradeReport actual = store.report(from, to);
+
+		assertThat(actual.getSummaries("B"), is(expected.getSummaries("B")));
+		assertThat(actual.getSummaries("S"), is(expected.getSummaries("S")));
+		assertThat(store.dailyTotalAmountGroupByDate(from, to, "B"), is(expected.getTotalAmountByDate("B")));
+		assertThat(store.findRankingGroupByDate(from, to, "S"), is(expected.getTopStockByDate("S")));
+	}
+
+	@Test
+	public void reusesPartitionAggregatesUntilAppended() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		TradeStore store = new TradeStore(directory);
+		store.append(trades(100));
+		LocalDate monday = FRIDAY.plusDays(3);
+
+		store.report(monday, monday);
+		long reads = store.getSegmentReads();
+		store.report(monday, monday);
+		assertThat(store.getSegmentReads(), is(reads));
+
+		store.append(trades(10));
+		DailyTradeReport afterAppend = store.report(monday, monday);
+		assertThat(store.getSegmentReads(), is(reads + 1));
+
+		// a new store over the same directory sees the same data
+		assertThat(new TradeStore(directory).report(monday, monday).getSummaries("B"),
+				is(afterAppend.getSummaries("B")));
+	}
+
+	@Test
+	public void partitionsByWorkingSettlementDate() throws IOException {
+		TradeStore store = new TradeStore(folder.getRoot().toPath());
+		List<TradeEvent> tradeEvents = new ArrayList<>();
+		tradeEvents.add(trade("JPMC", "B", "USD", FRIDAY.plusDays(1), 1));
+		tradeEvents.add(trade("MS", "B", "AED", FRIDAY, 1));
+		tradeEvents.add(TradeEvent.tradeEvent().setBuySellIndicator(Optional.of("B")).build());
+
+		assertThat(store.append(tradeEvents), is(2));
+		assertThat(store.getPartitions(), is(ImmutableSortedSet.of(FRIDAY.plusDays(2), FRIDAY.plusDays(3))));
+		assertThat(store.report(FRIDAY, FRIDAY.plusDays(2)).getTopStockByDate("B").get(FRIDAY.plusDays(2)),
+				is("MS"));
+	}
+
+	@Test
+	public void failedAppendLeavesStoreUnchanged() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		TradeStore store = new TradeStore(directory);
+		store.append(trades(100));
+		LocalDate monday = FRIDAY.plusDays(3);
+		DailyTradeReport before = store.report(FRIDAY, FRIDAY.plusDays(30));
+		List<TradeEvent> tradeEvents = new ArrayList<>();
+		tradeEvents.add(trade("JPMC", "B", "USD", monday, 1));
+		// a later partition the binary format cannot hold
+		tradeEvents.add(new TradeEventBuilder()
+				.setBuySellIndicator(Optional.of("B"))
+				.setSettlementDate(Optional.of(monday.plusDays(14)))
+				.setPricePerUnit(Optional.of(new BigDecimal("123456789012345678901234.5")))
+				.build());
+
+		try {
+			store.append(tradeEvents);
+			fail("Expected the unencodable trade to be rejected");
+		} catch (IllegalArgumentException expected) {
+			// the whole append is rejected
+		}
+
+		assertThat(store.getPartitions().contains(monday.plusDays(14)), is(false));
+		assertThat(store.report(FRIDAY, FRIDAY.plusDays(30)).getSummaries("B"), is(before.getSummaries("B")));
+		try (Stream<Path> files = Files.walk(directory)) {
+			assertThat(files.anyMatch(file -> file.getFileName().toString().endsWith(".tmp")), is(false));
+		}
+	}
+
+	@Test
+	public void neverReusesTheNumberOfARemovedSegment() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		TradeStore store = new TradeStore(directory);
+		LocalDate monday = FRIDAY.plusDays(3);
+		store.append(ImmutableList.of(trade("JPMC", "B", "USD", monday, 1)));
+		store.append(ImmutableList.of(trade("MS", "B", "USD", monday, 2)));
+		Path partition = directory.resolve(monday.toString());
+		Files.delete(partition.resolve("segment-0000000001.trades"));
+
+		store.append(ImmutableList.of(trade("ANZ", "B", "USD", monday, 3)));
+
+		try (Stream<Path> segments = Files.list(partition)) {
+			assertThat(segments.map(segment -> segment.getFileName().toString()).sorted().collect(Collectors.toList()),
+					is(ImmutableList.of("segment-0000000002.trades", "segment-0000000003.trades")));
+		}
+		assertThat(store.report(monday, monday).getTradeCountByDate("B").get(monday), is(2L));
+		assertThat(store.findRankingGroupByDate(monday, monday, "B").get(monday), is("ANZ"));
+	}
+
+	private static List<TradeEvent> trades(int count) {
+		String[] currencies = { "USD", "GBP", "AED", "SAR" };
+		List<TradeEvent> tradeEvents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			tradeEvents.add(trade("E" + (i % 17), i % 3 == 0 ? "S" : "B", currencies[i % currencies.length],
+					FRIDAY.plusDays(i % 14), 1 + i % 50));
+		}
+		return tradeEvents;
+	}
+
+	private static TradeEvent trade(String entity, String buySell, String currency, LocalDate settlementDate,
+			int units) {
+		return TestTrades.trade(entity, buySell, Currency.getInstance(currency), settlementDate, units,
+				new BigDecimal("10.25"), new BigDecimal("0.50"));
+	}
+}
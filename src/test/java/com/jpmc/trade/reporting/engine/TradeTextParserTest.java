@@ -0,0 +1,141 @@
+package com.jpmc.trade.reporting.engine;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.jpmc.trade.reporting.engine.TradeEvent.TradeEventBuilder;
+
+/**
+ * Unit test for TradeTextParser.
+ */
+public class TradeTextParserTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void parsesRowsAndRejectsMalformedOnes() throws IOException {
+		Path file = write("trades.csv",
+				"entity,buySell,agreedFx,currency,instructionDate,settlementDate,units,price",
+				"foo,B,0.50,SGD,01 Jan 2016,02 Jan 2016,200,100.25",
+				"bar,S,0.22,AED,05 Jan 2016,2016-01-07,450,150.5\r",
+				"baz,B,1,USD,2016-01-01,,10,1",
+				"",
+				"broken,B,0.5,SGD,01 Jan 2016,02 Jan 2016,200",
+				"badDate,B,0.5,SGD,01 Jan 2016,2016-02-30,200,1",
+				"badFx,B,0.5.1,SGD,01 Jan 2016,02 Jan 2016,200,1",
+				"badCurrency,B,0.5,XX1,01 Jan 2016,02 Jan 2016,200,1",
+				"qux,b, 1.5 ,gbp,,Jan 04 2016,1,1");
+		List<String> rejects = new ArrayList<>();
+		List<TradeEvent> parsed = new ArrayList<>();
+
+		long accepted = new TradeTextParser(',', true).parse(file, record -> parsed.add(record.toTradeEvent()),
+				(lineNumber, line, reason) -> rejects.add(lineNumber + ":" + reason));
+
+		assertThat(accepted, is(3L));
+		assertThat(rejects, is(Arrays.asList("6:expected 8 fields", "7:invalid settlement date", "8:invalid agreedFx",
+				"9:invalid currency", "10:invalid settlement date")));
+
+		TradeEvent foo = parsed.get(0);
+		assertThat(foo.getStockName(), is(Optional.of("foo")));
+		assertThat(foo.getAgreedFx(), is(Optional.of(new BigDecimal("0.50"))));
+		assertThat(foo.getCurrency(), is(Optional.of(Currency.getInstance("SGD"))));
+		assertThat(foo.getInstructionDate(), is(Optional.of(LocalDate.of(2016, 1, 1))));
+		assertThat(foo.getSettlementDate(), is(Optional.of(LocalDate.of(2016, 1, 2))));
+		assertThat(foo.getUnits(), is(Optional.of(200)));
+		assertThat(foo.getPricePerUnit(), is(Optional.of(new BigDecimal("100.25"))));
+		assertThat(parsed.get(1).getPricePerUnit(), is(Optional.of(new BigDecimal("150.5"))));
+		assertThat(parsed.get(2).getSettlementDate(), is(Optional.<LocalDate>empty()));
+	}
+
+	@Test
+	public void aggregatesLikeTradeEventsAcrossSmallChunks() throws IOException {
+		List<String> lines = new ArrayList<>();
+		ImmutableList.Builder<TradeEvent> tradeEvents = ImmutableList.builder();
+		LocalDate friday = LocalDate.of(2017, 12, 1);
+		for (int i = 0; i < 500; i++) {
+			LocalDate settlementDate = friday.plusDays(i % 5);
+			String entity = "E" + (i % 13);
+			String currency = i % 2 == 0 ? "AED" : "USD";
+			String side = i % 3 == 0 ? "S" : "B";
+			BigDecimal price = BigDecimal.valueOf(i, 2);
+			lines.add(entity + "," + side + ",0.5," + currency + ",2017-11-30," + settlementDate + "," + i + "," + price);
+			tradeEvents.add(new TradeEventBuilder()
+					.setStockName(Optional.of(entity))
+					.setBuySellIndicator(Optional.of(side))
+					.setAgreedFx(Optional.of(new BigDecimal("0.5")))
+					.setCurrency(Optional.of(Currency.getInstance(currency)))
+					.setSettlementDate(Optional.of(settlementDate))
+					.setUnits(Optional.of(i))
+					.setPricePerUnit(Optional.of(price))
+					.build());
+		}
+		Path file = write("many.csv", lines.toArray(new String[0]));
+
+		DailyTradeAggregator aggregator = new DailyTradeAggregator();
+		new TradeTextParser(',', false, 64).parse(file, aggregator::accept, TradeRejectSink.IGNORE);
+		DailyTradeReport expected = DailyTradeReporter.dailyReport(tradeEvents.build());
+
+		assertThat(aggregator.toReport().getSummaries("B"), is(expected.getSummaries("B")));
+		assertThat(aggregator.toReport().getSummaries("S"), is(expected.getSummaries("S")));
+	}
+
+	@Test
+	public void parsesLowerCaseCurrencyWhateverTheDefaultLocale() throws IOException {
+		Path file = write("inr.csv", "foo,B,1,inr,,2017-12-01,1,1");
+		List<Currency> currencies = new ArrayList<>();
+		Locale defaultLocale = Locale.getDefault();
+		// Turkish upper cases i to a dotted capital I
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			new TradeTextParser().parse(file, record -> currencies.add(record.getCurrency()),
+					(lineNumber, line, reason) -> {
+						throw new AssertionError("Rejected " + line + ": " + reason);
+					});
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+
+		assertThat(currencies, is(Arrays.asList(Currency.getInstance("INR"))));
+	}
+
+	@Test
+	public void rejectsOverlongLineAndContinues() throws IOException {
+		char[] padding = new char[200];
+		Arrays.fill(padding, 'x');
+		Path file = write("long.csv", new String(padding) + ",B,1,USD,,2017-12-01,1,1", "ok,B,1,USD,,2017-12-01,1,1");
+		List<Long> rejectedLines = new ArrayList<>();
+
+		DailyTradeAggregator aggregator = new DailyTradeAggregator();
+		long accepted = new TradeTextParser(',', false, 64).parse(file, aggregator::accept,
+				(lineNumber, line, reason) -> rejectedLines.add(lineNumber));
+
+		assertThat(accepted, is(1L));
+		assertThat(rejectedLines, is(Arrays.asList(1L)));
+		assertThat(aggregator.toReport().getTopStockByDate("B").get(LocalDate.of(2017, 12, 1)), is("ok"));
+	}
+
+	private Path write(String name, String... lines) throws IOException {
+		Path file = folder.newFile(name).toPath();
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+		return file;
+	}
+}